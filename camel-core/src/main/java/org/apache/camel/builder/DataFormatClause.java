@@ -49,6 +49,7 @@ import org.apache.camel.model.dataformat.XMLSecurityDataFormat;
 import org.apache.camel.model.dataformat.XStreamDataFormat;
 import org.apache.camel.model.dataformat.XmlJsonDataFormat;
 import org.apache.camel.model.dataformat.ZipDataFormat;
+import org.apache.camel.model.dataformat.ZipFileDataFormat;
 import org.apache.camel.util.jsse.KeyStoreParameters;
 
 
@@ -171,6 +172,15 @@ public class DataFormatClause<T extends ProcessorDefinition<?>> {
         return dataFormat(gzdf);
     }
 
+    /**
+     * Uses the GZIP deflater data format, compressing the data in blocks using multiple threads
+     */
+    public T gzip(boolean parallel) {
+        GzipDataFormat gzdf = new GzipDataFormat();
+        gzdf.setParallel(parallel);
+        return dataFormat(gzdf);
+    }
+
     /**
      * Uses the HL7 data format
      */
@@ -628,6 +638,14 @@ public class DataFormatClause<T extends ProcessorDefinition<?>> {
         return dataFormat(zdf);
     }
 
+    /**
+     * Uses the ZIP archive data format
+     */
+    public T zipFile() {
+        ZipFileDataFormat zfdf = new ZipFileDataFormat();
+        return dataFormat(zfdf);
+    }
+
     @SuppressWarnings("unchecked")
     private T dataFormat(DataFormatDefinition dataFormatType) {
         switch (operation) {
@@ -17,7 +17,10 @@
 package org.apache.camel.component.file;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.camel.Processor;
 import org.apache.camel.util.FileUtil;
@@ -28,13 +31,35 @@ import org.apache.camel.util.ObjectHelper;
  */
 public class FileConsumer extends GenericFileConsumer<File> {
 
+    // the granularity of the last modified timestamp of directories on some file systems
+    private static final long MODIFIED_GRANULARITY = 1000;
+
     private String endpointPath;
+    private final Map<String, WatchState> watchStates = new HashMap<String, WatchState>();
+    private long lastFullScan;
+    private boolean fullScan;
 
     public FileConsumer(GenericFileEndpoint<File> endpoint, Processor processor, GenericFileOperations<File> operations) {
         super(endpoint, processor, operations);
         this.endpointPath = endpoint.getConfiguration().getDirectory();
     }
 
+    @Override
+    protected boolean prePollCheck() throws Exception {
+        if (getEndpoint().isWatch()) {
+            long now = System.currentTimeMillis();
+            long interval = getEndpoint().getWatchFullScanInterval();
+            fullScan = lastFullScan == 0 || (interval > 0 && now - lastFullScan >= interval);
+            if (fullScan) {
+                log.trace("Doing full scan of directories in watch mode");
+                // forget directories which may have been deleted in the meantime
+                watchStates.clear();
+                lastFullScan = now;
+            }
+        }
+        return super.prePollCheck();
+    }
+
     @Override
     protected boolean pollDirectory(String fileName, List<GenericFile<File>> fileList, int depth) {
         log.trace("pollDirectory from fileName: {}", fileName);
@@ -51,7 +76,27 @@ public class FileConsumer extends GenericFileConsumer<File> {
         }
 
         log.trace("Polling directory: {}", directory.getPath());
-        File[] files = directory.listFiles();
+        File[] files;
+        WatchState state = null;
+        boolean unchanged = false;
+        if (getEndpoint().isWatch()) {
+            long lastModified = directory.lastModified();
+            WatchState previous = watchStates.get(fileName);
+            if (!fullScan && previous != null && previous.isUnchanged(lastModified)) {
+                // the directory has not changed so only the files we did not pick up last time, and the sub directories
+                // need to be checked again
+                log.trace("Directory not changed since last poll: {}", directory.getPath());
+                files = previous.getFiles();
+                state = new WatchState(previous.lastModified, previous.scanTime);
+                unchanged = true;
+            } else {
+                state = new WatchState(lastModified, System.currentTimeMillis());
+                files = directory.listFiles();
+            }
+            watchStates.put(fileName, state);
+        } else {
+            files = directory.listFiles();
+        }
         if (files == null || files.length == 0) {
             // no files in this directory to poll
             if (log.isTraceEnabled()) {
@@ -68,9 +113,18 @@ public class FileConsumer extends GenericFileConsumer<File> {
         for (File file : files) {
             // check if we can continue polling in files
             if (!canPollMoreFiles(fileList)) {
+                if (state != null) {
+                    // we did not see all the files so list the directory again next time
+                    state.complete = false;
+                }
                 return false;
             }
 
+            if (unchanged && !file.exists()) {
+                // the file has been removed since it was listed
+                continue;
+            }
+
             // trace log as Windows/Unix can have different views what the file is?
             if (log.isTraceEnabled()) {
                 log.trace("Found file: {} [isAbsolute: {}, isDirectory: {}, isFile: {}, isHidden: {}]",
@@ -84,14 +138,24 @@ public class FileConsumer extends GenericFileConsumer<File> {
                 if (endpoint.isRecursive() && isValidFile(gf, true) && depth < endpoint.getMaxDepth()) {
                     // recursive scan and add the sub files and folders
                     String subDirectory = fileName + File.separator + file.getName();
+                    if (state != null) {
+                        state.directories.add(file);
+                    }
                     boolean canPollMore = pollDirectory(subDirectory, fileList, depth);
                     if (!canPollMore) {
+                        if (state != null) {
+                            state.complete = false;
+                        }
                         return false;
                     }
                 }
             } else {
                 // Windows can report false to a file on a share so regard it always as a file (if its not a directory)
                 if (isValidFile(gf, false) && depth >= endpoint.minDepth) {
+                    if (state != null) {
+                        // remember the file so we check it again even if the directory does not change
+                        state.files.add(file);
+                    }
                     if (isInProgress(gf)) {
                         if (log.isTraceEnabled()) {
                             log.trace("Skipping as file is already in progress: {}", gf.getFileName());
@@ -164,4 +228,43 @@ public class FileConsumer extends GenericFileConsumer<File> {
     public FileEndpoint getEndpoint() {
         return (FileEndpoint) super.getEndpoint();
     }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        watchStates.clear();
+        lastFullScan = 0;
+    }
+
+    /**
+     * The state of a directory from the last poll when using watch mode.
+     */
+    private static final class WatchState {
+        private final long lastModified;
+        private final long scanTime;
+        private final List<File> files = new ArrayList<File>();
+        private final List<File> directories = new ArrayList<File>();
+        private boolean complete = true;
+
+        private WatchState(long lastModified, long scanTime) {
+            this.lastModified = lastModified;
+            this.scanTime = scanTime;
+        }
+
+        /**
+         * Whether the directory is unchanged since it was listed. A directory modified shortly before it was listed
+         * may be modified again without changing its timestamp, so its listed again to be safe.
+         */
+        private boolean isUnchanged(long lastModified) {
+            return complete && lastModified != 0 && lastModified == this.lastModified
+                    && lastModified < scanTime - MODIFIED_GRANULARITY;
+        }
+
+        private File[] getFiles() {
+            List<File> answer = new ArrayList<File>(files.size() + directories.size());
+            answer.addAll(files);
+            answer.addAll(directories);
+            return answer.toArray(new File[answer.size()]);
+        }
+    }
 }
@@ -34,6 +34,8 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
     private FileOperations operations = new FileOperations(this);
     private File file;
     private boolean copyAndDeleteOnRenameFail = true;
+    private boolean watch;
+    private long watchFullScanInterval = 60000;
 
     public FileEndpoint() {
         // use marker file as default exclusive read locks
@@ -165,4 +167,29 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
     public void setCopyAndDeleteOnRenameFail(boolean copyAndDeleteOnRenameFail) {
         this.copyAndDeleteOnRenameFail = copyAndDeleteOnRenameFail;
     }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * Sets whether the consumer should only list directories which have changed since the last poll.
+     * Files which are modified in place are picked up by the full scan which is done every
+     * {@link #setWatchFullScanInterval(long) watchFullScanInterval} millis.
+     */
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+
+    public long getWatchFullScanInterval() {
+        return watchFullScanInterval;
+    }
+
+    /**
+     * Sets the interval in millis between full scans of all the directories when using watch mode.
+     * Use 0 to never do a full scan.
+     */
+    public void setWatchFullScanInterval(long watchFullScanInterval) {
+        this.watchFullScanInterval = watchFullScanInterval;
+    }
 }
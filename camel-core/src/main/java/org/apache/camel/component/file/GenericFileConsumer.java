@@ -99,7 +99,15 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         }
 
         // gather list of files to process
-        List<GenericFile<T>> files = new ArrayList<GenericFile<T>>();
+        List<GenericFile<T>> files;
+        GenericFileSortedBoundedList<T> bounded = null;
+        if (!eagerLimitMaxMessagesPerPoll && maxMessagesPerPoll > 0) {
+            // we are not eager limiting so all files are scanned, but only keep the files we are going to process
+            bounded = new GenericFileSortedBoundedList<T>(endpoint, maxMessagesPerPoll);
+            files = bounded;
+        } else {
+            files = new ArrayList<GenericFile<T>>();
+        }
         String name = endpoint.getConfiguration().getDirectory();
 
         // time how long time it takes to poll
@@ -115,37 +123,37 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             log.debug("Limiting maximum messages to poll at {} files as there was more messages in this poll.", maxMessagesPerPoll);
         }
 
-        // sort files using file comparator if provided
-        if (endpoint.getSorter() != null) {
-            Collections.sort(files, endpoint.getSorter());
-        }
+        LinkedList<Exchange> exchanges;
+        if (bounded != null) {
+            // the files is already sorted and limited
+            if (bounded.getDropped() > 0) {
+                log.debug("Limiting maximum messages to poll at {} files as there was more messages in this poll.", maxMessagesPerPoll);
+            }
+            exchanges = bounded.createExchanges();
+        } else {
+            // sort files using file comparator if provided
+            if (endpoint.getSorter() != null) {
+                Collections.sort(files, endpoint.getSorter());
+            }
 
-        // sort using build in sorters so we can use expressions
-        // use a linked list so we can deque the exchanges
-        LinkedList<Exchange> exchanges = new LinkedList<Exchange>();
-        for (GenericFile<T> file : files) {
-            Exchange exchange = endpoint.createExchange(file);
-            endpoint.configureExchange(exchange);
-            endpoint.configureMessage(file, exchange.getIn());
-            exchanges.add(exchange);
-        }
-        // sort files using exchange comparator if provided
-        if (endpoint.getSortBy() != null) {
-            Collections.sort(exchanges, endpoint.getSortBy());
+            // sort using build in sorters so we can use expressions
+            // use a linked list so we can deque the exchanges
+            exchanges = new LinkedList<Exchange>();
+            for (GenericFile<T> file : files) {
+                Exchange exchange = endpoint.createExchange(file);
+                endpoint.configureExchange(exchange);
+                endpoint.configureMessage(file, exchange.getIn());
+                exchanges.add(exchange);
+            }
+            // sort files using exchange comparator if provided
+            if (endpoint.getSortBy() != null) {
+                Collections.sort(exchanges, endpoint.getSortBy());
+            }
         }
 
         // use a queue for the exchanges
         Deque<Exchange> q = exchanges;
 
-        // we are not eager limiting, but we have configured a limit, so cut the list of files
-        if (!eagerLimitMaxMessagesPerPoll && maxMessagesPerPoll > 0) {
-            if (files.size() > maxMessagesPerPoll) {
-                log.debug("Limiting maximum messages to poll at {} files as there was more messages in this poll.", maxMessagesPerPoll);
-                // must first remove excessive files from the in progress repository
-                removeExcessiveInProgressFiles(q, maxMessagesPerPoll);
-            }
-        }
-
         // consume files one by one
         int total = exchanges.size();
         if (total > 0) {
@@ -279,6 +287,77 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         // and then the file name would be changed
         String absoluteFileName = file.getAbsoluteFilePath();
 
+        // begin and retrieve the file
+        final GenericFile<T> target = beginAndRetrieveFile(exchange);
+        if (target == null) {
+            return;
+        }
+
+        try {
+            // register on completion callback that does the completion strategies
+            // (for instance to move the file after we have processed it)
+            exchange.addOnCompletion(new GenericFileOnCompletion<T>(endpoint, operations, target, absoluteFileName));
+
+            log.debug("About to process file: {} using exchange: {}", target, exchange);
+
+            // process the exchange using the async consumer to support async routing engine
+            // which can be supported by this file consumer as all the done work is
+            // provided in the GenericFileOnCompletion
+            getAsyncProcessor().process(exchange, new AsyncCallback() {
+                public void done(boolean doneSync) {
+                    // noop
+                    if (log.isTraceEnabled()) {
+                        log.trace("Done processing file: {} {}", target, doneSync ? "synchronously" : "asynchronously");
+                    }
+                }
+            });
+
+        } catch (Exception e) {
+            // remove file from the in progress list due to failure
+            // (cannot be in finally block due to GenericFileOnCompletion will remove it
+            // from in progress when it takes over and processes the file, which may happen
+            // by another thread at a later time. So its only safe to remove it if there was an exception)
+            endpoint.getInProgressRepository().remove(absoluteFileName);
+
+            String msg = "Error processing file " + file + " due to " + e.getMessage();
+            handleException(msg, e);
+        }
+    }
+
+    /**
+     * Begins processing the file and retrieves its content, using the operations of this consumer.
+     * <p/>
+     * Override if the file is retrieved in another way, for example in advance by another thread.
+     *
+     * @param exchange the exchange
+     * @return the file to process, or <tt>null</tt> if the file could not be begun or retrieved, which has already been handled
+     */
+    protected GenericFile<T> beginAndRetrieveFile(Exchange exchange) {
+        GenericFile<T> file = getExchangeFileProperty(exchange);
+        try {
+            return beginAndRetrieveFile(exchange, operations);
+        } catch (Exception e) {
+            String msg = "Error processing file " + file + " due to " + e.getMessage();
+            handleException(msg, e);
+            return null;
+        }
+    }
+
+    /**
+     * Begins processing the file and retrieves its content using the given operations.
+     *
+     * @param exchange   the exchange
+     * @param operations the operations to use
+     * @return the file to process, or <tt>null</tt> if the file cannot be begun, for example when it is locked by someone else
+     * @throws Exception is thrown if the file could not be begun or retrieved due to an error, the file is then no longer in progress
+     */
+    protected GenericFile<T> beginAndRetrieveFile(Exchange exchange, GenericFileOperations<T> operations) throws Exception {
+        GenericFile<T> file = getExchangeFileProperty(exchange);
+
+        // must extract the absolute name before the begin strategy as the file could potentially be pre moved
+        // and then the file name would be changed
+        String absoluteFileName = file.getAbsoluteFilePath();
+
         // check if we can begin processing the file
         try {
             final GenericFileProcessStrategy<T> processStrategy = endpoint.getGenericFileProcessStrategy();
@@ -293,15 +372,12 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
                     // begin returned false, so remove file from the in progress list as its no longer in progress
                     endpoint.getInProgressRepository().remove(absoluteFileName);
                 }
-                return;
+                return null;
             }
         } catch (Exception e) {
             // remove file from the in progress list due to failure
             endpoint.getInProgressRepository().remove(absoluteFileName);
-
-            String msg = endpoint + " cannot begin processing file: " + file + " due to: " + e.getMessage();
-            handleException(msg, e);
-            return;
+            throw e;
         }
 
         // must use file from exchange as it can be updated due the
@@ -323,34 +399,11 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             }
 
             log.trace("Retrieved file: {} from: {}", name, endpoint);
-
-            // register on completion callback that does the completion strategies
-            // (for instance to move the file after we have processed it)
-            exchange.addOnCompletion(new GenericFileOnCompletion<T>(endpoint, operations, target, absoluteFileName));
-
-            log.debug("About to process file: {} using exchange: {}", target, exchange);
-
-            // process the exchange using the async consumer to support async routing engine
-            // which can be supported by this file consumer as all the done work is
-            // provided in the GenericFileOnCompletion
-            getAsyncProcessor().process(exchange, new AsyncCallback() {
-                public void done(boolean doneSync) {
-                    // noop
-                    if (log.isTraceEnabled()) {
-                        log.trace("Done processing file: {} {}", target, doneSync ? "synchronously" : "asynchronously");
-                    }
-                }
-            });
-
+            return target;
         } catch (Exception e) {
             // remove file from the in progress list due to failure
-            // (cannot be in finally block due to GenericFileOnCompletion will remove it
-            // from in progress when it takes over and processes the file, which may happen
-            // by another thread at a later time. So its only safe to remove it if there was an exception)
             endpoint.getInProgressRepository().remove(absoluteFileName);
-
-            String msg = "Error processing file " + file + " due to " + e.getMessage();
-            handleException(msg, e);
+            throw e;
         }
     }
 
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * A list of the files gathered during a poll which only keeps the first files, in the order given by the
+ * <tt>sortBy</tt> and <tt>sorter</tt> options of the endpoint, up to the given limit.
+ * <p/>
+ * This allows to scan all the files when not eager limiting max messages per poll, while only keeping
+ * the files which are going to be processed in memory. Files which are pushed out of the list are removed
+ * from the in progress repository so they can be picked up by a later poll.
+ *
+ * @version
+ */
+final class GenericFileSortedBoundedList<T> extends AbstractList<GenericFile<T>> {
+
+    private final GenericFileEndpoint<T> endpoint;
+    private final int limit;
+    private final Comparator<Entry<T>> comparator;
+    // the head is the last file in the sort order, which is the first to be pushed out
+    private final PriorityQueue<Entry<T>> queue;
+    private List<Entry<T>> sorted;
+    private long sequence;
+    private int dropped;
+
+    GenericFileSortedBoundedList(GenericFileEndpoint<T> endpoint, int limit) {
+        ObjectHelper.notNull(endpoint, "endpoint");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, was: " + limit);
+        }
+        this.endpoint = endpoint;
+        this.limit = limit;
+        this.comparator = new EntryComparator<T>(endpoint.getSortBy(), endpoint.getSorter());
+        this.queue = new PriorityQueue<Entry<T>>(Math.min(limit, 1024) + 1, Collections.reverseOrder(comparator));
+    }
+
+    @Override
+    public boolean add(GenericFile<T> file) {
+        // the exchange is needed up front when sorting using expressions
+        Exchange exchange = endpoint.getSortBy() != null ? createExchange(file) : null;
+        Entry<T> entry = new Entry<T>(file, exchange, sequence++);
+        sorted = null;
+
+        if (queue.size() < limit) {
+            queue.add(entry);
+        } else if (comparator.compare(entry, queue.peek()) < 0) {
+            drop(queue.poll());
+            queue.add(entry);
+        } else {
+            drop(entry);
+        }
+        return true;
+    }
+
+    @Override
+    public GenericFile<T> get(int index) {
+        return sortedEntries().get(index).file;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Number of files which was pushed out of the list as there was more files than the limit.
+     */
+    int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Creates the exchanges for the files in the list, in sort order.
+     */
+    LinkedList<Exchange> createExchanges() {
+        LinkedList<Exchange> answer = new LinkedList<Exchange>();
+        for (Entry<T> entry : sortedEntries()) {
+            answer.add(entry.exchange != null ? entry.exchange : createExchange(entry.file));
+        }
+        return answer;
+    }
+
+    private List<Entry<T>> sortedEntries() {
+        if (sorted == null) {
+            sorted = new ArrayList<Entry<T>>(queue);
+            Collections.sort(sorted, comparator);
+        }
+        return sorted;
+    }
+
+    private Exchange createExchange(GenericFile<T> file) {
+        Exchange exchange = endpoint.createExchange(file);
+        endpoint.configureExchange(exchange);
+        endpoint.configureMessage(file, exchange.getIn());
+        return exchange;
+    }
+
+    private void drop(Entry<T> entry) {
+        dropped++;
+        endpoint.getInProgressRepository().remove(entry.file.getAbsoluteFilePath());
+    }
+
+    private static final class Entry<T> {
+        private final GenericFile<T> file;
+        private final Exchange exchange;
+        private final long sequence;
+
+        private Entry(GenericFile<T> file, Exchange exchange, long sequence) {
+            this.file = file;
+            this.exchange = exchange;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Orders by the <tt>sortBy</tt> option first, then by the <tt>sorter</tt> option and lastly in the order
+     * the files was found, which is the same order as sorting the full list of files would give.
+     */
+    private static final class EntryComparator<T> implements Comparator<Entry<T>> {
+        private final Comparator<Exchange> sortBy;
+        private final Comparator<GenericFile<T>> sorter;
+
+        private EntryComparator(Comparator<Exchange> sortBy, Comparator<GenericFile<T>> sorter) {
+            this.sortBy = sortBy;
+            this.sorter = sorter;
+        }
+
+        public int compare(Entry<T> o1, Entry<T> o2) {
+            int answer = 0;
+            if (sortBy != null) {
+                answer = sortBy.compare(o1.exchange, o2.exchange);
+            }
+            if (answer == 0 && sorter != null) {
+                answer = sorter.compare(o1.file, o2.file);
+            }
+            if (answer == 0) {
+                answer = o1.sequence < o2.sequence ? -1 : (o1.sequence == o2.sequence ? 0 : 1);
+            }
+            return answer;
+        }
+    }
+}
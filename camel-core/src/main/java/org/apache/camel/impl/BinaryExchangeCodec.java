@@ -0,0 +1,409 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.converter.stream.InputStreamCache;
+import org.apache.camel.spi.ExchangeCodec;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact binary {@link ExchangeCodec}.
+ * <p/>
+ * The data starts with a magic header and a format version, followed by the marshalled exchange.
+ * Each value is written with a type tag, where <tt>null</tt>, strings, primitive wrappers, dates,
+ * byte arrays and {@link StreamCache} are written in binary form. Any other value is converted
+ * to {@link Serializable} and written using Java serialization. Values which cannot be converted
+ * to {@link Serializable} are excluded, as with {@link DefaultExchangeHolder}, while a
+ * {@link Serializable} value which fails to serialize fails the marshalling.
+ *
+ * @version 
+ */
+public class BinaryExchangeCodec implements ExchangeCodec {
+
+    /**
+     * The current version of the format.
+     */
+    public static final int VERSION = 1;
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(BinaryExchangeCodec.class);
+    private static final byte MAGIC_1 = (byte) 0xCA;
+    private static final byte MAGIC_2 = (byte) 0x3E;
+    private static final String UTF8 = "UTF-8";
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_BYTE = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_INTEGER = 5;
+    private static final byte TYPE_LONG = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_DOUBLE = 8;
+    private static final byte TYPE_CHARACTER = 9;
+    private static final byte TYPE_DATE = 10;
+    private static final byte TYPE_BYTES = 11;
+    private static final byte TYPE_STREAM_CACHE = 12;
+    private static final byte TYPE_SERIALIZED = 13;
+
+    /**
+     * Whether the data is marshalled by this codec, which allows to tell apart data
+     * stored using other formats such as Java serialization.
+     *
+     * @param data the data
+     * @return <tt>true</tt> if the data starts with the header of this codec
+     */
+    public static boolean isBinaryExchange(byte[] data) {
+        return data != null && data.length > 2 && data[0] == MAGIC_1 && data[1] == MAGIC_2;
+    }
+
+    public byte[] marshal(Exchange exchange, Map<String, Object> properties) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MAGIC_1);
+        out.writeByte(MAGIC_2);
+        out.writeByte(VERSION);
+
+        writeString(out, exchange.getExchangeId());
+        writeValue(out, prepareValue(exchange, "in body", null, exchange.getIn().getBody()));
+        writeMap(out, exchange, "in headers", exchange.getIn().hasHeaders() ? exchange.getIn().getHeaders() : null);
+        out.writeBoolean(exchange.hasOut());
+        if (exchange.hasOut()) {
+            writeValue(out, prepareValue(exchange, "out body", null, exchange.getOut().getBody()));
+            writeMap(out, exchange, "out headers", exchange.getOut().hasHeaders() ? exchange.getOut().getHeaders() : null);
+            out.writeBoolean(exchange.getOut().isFault());
+        }
+        writeMap(out, exchange, "properties", properties);
+
+        Object exception = null;
+        if (exchange.getException() != null) {
+            try {
+                exception = serialize(exchange.getException());
+            } catch (IOException e) {
+                LOG.warn("Exchange exception: " + exchange.getException() + " cannot be serialized, it will be excluded.", e);
+            }
+        }
+        writeValue(out, exception);
+
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    public Exchange unmarshal(CamelContext camelContext, byte[] data) throws IOException {
+        if (!isBinaryExchange(data)) {
+            throw new IOException("Data is not a binary marshalled exchange");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 2, data.length - 2));
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary exchange version: " + version + ", expected: " + VERSION);
+        }
+
+        Exchange answer = new DefaultExchange(camelContext);
+        answer.setExchangeId(readString(in));
+        answer.getIn().setBody(readValue(camelContext, in));
+        Map<String, Object> headers = readMap(camelContext, in);
+        if (headers != null) {
+            answer.getIn().setHeaders(headers);
+        }
+        if (in.readBoolean()) {
+            answer.getOut().setBody(readValue(camelContext, in));
+            headers = readMap(camelContext, in);
+            if (headers != null) {
+                answer.getOut().setHeaders(headers);
+            }
+            answer.getOut().setFault(in.readBoolean());
+        }
+        Map<String, Object> properties = readMap(camelContext, in);
+        if (properties != null) {
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                answer.setProperty(entry.getKey(), entry.getValue());
+            }
+        }
+        answer.setException((Exception) readValue(camelContext, in));
+        return answer;
+    }
+
+    /**
+     * Prepares the value to be written, by serializing the value if it has no binary form.
+     *
+     * @return the value to write, or <tt>null</tt> if the value cannot be converted to {@link Serializable}
+     * @throws IOException is thrown if a {@link Serializable} value fails to serialize
+     */
+    private Object prepareValue(Exchange exchange, String type, String key, Object value) throws IOException {
+        if (value == null || isBinaryType(value)) {
+            return value;
+        }
+
+        Serializable converted = exchange.getContext().getTypeConverter().convertTo(Serializable.class, exchange, value);
+        if (converted != null && isBinaryType(converted)) {
+            return converted;
+        }
+        if (converted != null) {
+            try {
+                return serialize(converted);
+            } catch (IOException e) {
+                throw IOHelper.createIOException("Exchange " + type + " containing key: " + key + " with object: " + value
+                        + " of type: " + ObjectHelper.classCanonicalName(value) + " cannot be serialized", e);
+            }
+        }
+
+        if (key != null && key.startsWith("Camel")) {
+            LOG.debug("Exchange {} containing key: {} with object: {} of type: {} cannot be serialized, it will be excluded.",
+                    new Object[]{type, key, value, ObjectHelper.classCanonicalName(value)});
+        } else {
+            LOG.warn("Exchange {} containing key: {} with object: {} of type: {} cannot be serialized, it will be excluded.",
+                    new Object[]{type, key, value, ObjectHelper.classCanonicalName(value)});
+        }
+        return null;
+    }
+
+    private static boolean isBinaryType(Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Byte || value instanceof Short
+                || value instanceof Integer || value instanceof Long || value instanceof Float || value instanceof Double
+                || value instanceof Character || value instanceof Date || value instanceof byte[] || value instanceof StreamCache;
+    }
+
+    private void writeMap(DataOutputStream out, Exchange exchange, String type, Map<String, Object> map) throws IOException {
+        if (map == null || map.isEmpty()) {
+            out.writeInt(0);
+            return;
+        }
+
+        // prepare the entries first as null values and values which cannot be serialized are excluded
+        List<String> keys = new ArrayList<String>(map.size());
+        List<Object> values = new ArrayList<Object>(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                Object value = prepareValue(exchange, type, entry.getKey(), entry.getValue());
+                if (value != null) {
+                    keys.add(entry.getKey());
+                    values.add(value);
+                }
+            }
+        }
+
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            writeString(out, keys.get(i));
+            writeValue(out, values.get(i));
+        }
+    }
+
+    private Map<String, Object> readMap(CamelContext camelContext, DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size == 0) {
+            return null;
+        }
+        Map<String, Object> answer = new LinkedHashMap<String, Object>(size);
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            answer.put(key, readValue(camelContext, in));
+        }
+        return answer;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TYPE_CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(TYPE_BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof StreamCache) {
+            StreamCache cache = (StreamCache) value;
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            cache.writeTo(bos);
+            // reset the cache so the message can still be read
+            cache.reset();
+            out.writeByte(TYPE_STREAM_CACHE);
+            writeBytes(out, bos.toByteArray());
+        } else if (value instanceof SerializedValue) {
+            out.writeByte(TYPE_SERIALIZED);
+            writeBytes(out, ((SerializedValue) value).data);
+        } else {
+            throw new IllegalArgumentException("Cannot write value of type: " + ObjectHelper.classCanonicalName(value));
+        }
+    }
+
+    private Object readValue(CamelContext camelContext, DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+        case TYPE_NULL:
+            return null;
+        case TYPE_STRING:
+            return readString(in);
+        case TYPE_BOOLEAN:
+            return in.readBoolean();
+        case TYPE_BYTE:
+            return in.readByte();
+        case TYPE_SHORT:
+            return in.readShort();
+        case TYPE_INTEGER:
+            return in.readInt();
+        case TYPE_LONG:
+            return in.readLong();
+        case TYPE_FLOAT:
+            return in.readFloat();
+        case TYPE_DOUBLE:
+            return in.readDouble();
+        case TYPE_CHARACTER:
+            return in.readChar();
+        case TYPE_DATE:
+            return new Date(in.readLong());
+        case TYPE_BYTES:
+            return readBytes(in);
+        case TYPE_STREAM_CACHE:
+            return new InputStreamCache(readBytes(in));
+        case TYPE_SERIALIZED:
+            return deserialize(camelContext, readBytes(in));
+        default:
+            throw new IOException("Unknown value type: " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // do not use writeUTF as it is limited to 64kb
+        writeBytes(out, value != null ? value.getBytes(UTF8) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] data = readBytes(in);
+        return data != null ? new String(data, UTF8) : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        if (data == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+
+    private static SerializedValue serialize(Object value) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(value);
+        oos.close();
+        return new SerializedValue(bos.toByteArray());
+    }
+
+    private static Object deserialize(CamelContext camelContext, byte[] data) throws IOException {
+        ObjectInputStream ois = new ClassResolverObjectInputStream(camelContext, new ByteArrayInputStream(data));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw IOHelper.createIOException("Cannot deserialize value", e);
+        } finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * A value which has been written using Java serialization.
+     */
+    private static final class SerializedValue {
+        private final byte[] data;
+
+        private SerializedValue(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Resolves the classes using the {@link org.apache.camel.spi.ClassResolver} from the {@link CamelContext}.
+     */
+    private static final class ClassResolverObjectInputStream extends ObjectInputStream {
+        private final CamelContext camelContext;
+
+        private ClassResolverObjectInputStream(CamelContext camelContext, InputStream in) throws IOException {
+            super(in);
+            this.camelContext = camelContext;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            ClassLoader loader = camelContext.getApplicationContextClassLoader();
+            if (loader == null) {
+                loader = Thread.currentThread().getContextClassLoader();
+            }
+            Class<?> answer = camelContext.getClassResolver().resolveClass(desc.getName(), loader);
+            return answer != null ? answer : super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.spi.ExchangeCodec;
+
+/**
+ * Helper methods for aggregation repositories which marshal the exchanges using an {@link ExchangeCodec}.
+ *
+ * @version 
+ */
+public final class ExchangeCodecHelper {
+
+    /**
+     * The property used to persist the uri of the from endpoint of the exchange.
+     */
+    public static final String AGGREGATED_FROM_ENDPOINT = "CamelAggregatedFromEndpoint";
+
+    private ExchangeCodecHelper() {
+        // Utility Class
+    }
+
+    /**
+     * Gets the exchange properties an aggregation repository retains when it marshals the exchange.
+     *
+     * @param exchange the exchange
+     * @return the properties to retain
+     */
+    public static Map<String, Object> retainedProperties(Exchange exchange) {
+        Map<String, Object> answer = new LinkedHashMap<String, Object>();
+        // add the aggregated size and timeout property as the only properties we want to retain
+        addProperty(answer, Exchange.AGGREGATED_SIZE, exchange.getProperty(Exchange.AGGREGATED_SIZE, Integer.class));
+        addProperty(answer, Exchange.AGGREGATED_TIMEOUT, exchange.getProperty(Exchange.AGGREGATED_TIMEOUT, Long.class));
+        // add the aggregated completed by property to retain
+        addProperty(answer, Exchange.AGGREGATED_COMPLETED_BY, exchange.getProperty(Exchange.AGGREGATED_COMPLETED_BY, String.class));
+        // add the aggregated correlation key property to retain
+        addProperty(answer, Exchange.AGGREGATED_CORRELATION_KEY, exchange.getProperty(Exchange.AGGREGATED_CORRELATION_KEY, String.class));
+        // persist the from endpoint as well
+        if (exchange.getFromEndpoint() != null) {
+            addProperty(answer, AGGREGATED_FROM_ENDPOINT, exchange.getFromEndpoint().getEndpointUri());
+        }
+        return answer;
+    }
+
+    /**
+     * Restores the from endpoint of an unmarshalled exchange, which was persisted as a retained property.
+     *
+     * @param camelContext the camel context
+     * @param exchange     the unmarshalled exchange
+     */
+    public static void restoreFromEndpoint(CamelContext camelContext, Exchange exchange) {
+        String fromEndpointUri = (String) exchange.removeProperty(AGGREGATED_FROM_ENDPOINT);
+        if (fromEndpointUri != null) {
+            Endpoint fromEndpoint = camelContext.hasEndpoint(fromEndpointUri);
+            if (fromEndpoint != null) {
+                exchange.setFromEndpoint(fromEndpoint);
+            }
+        }
+    }
+
+    /**
+     * Whether the data starts with the magic header of a Java serialization stream, which allows
+     * to tell apart exchanges stored using Java serialization by previous releases.
+     *
+     * @param data   the data
+     * @param offset the offset where the marshalled exchange starts
+     * @param length the length of the marshalled exchange
+     * @return <tt>true</tt> if the data is Java serialized
+     */
+    public static boolean isJavaSerialized(byte[] data, int offset, int length) {
+        return data != null && length > 2 && data[offset] == (byte) 0xAC && data[offset + 1] == (byte) 0xED;
+    }
+
+    private static void addProperty(Map<String, Object> properties, String key, Object value) {
+        if (value != null) {
+            properties.put(key, value);
+        }
+    }
+
+}
@@ -19,19 +19,45 @@ package org.apache.camel.impl;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.spi.DataFormat;
+import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ParallelGzipOutputStream;
 
-public class GzipDataFormat implements DataFormat {
+/**
+ * GZIP {@link DataFormat}.
+ * <p/>
+ * When parallel is enabled the data is compressed in blocks by a thread pool,
+ * see {@link ParallelGzipOutputStream}.
+ *
+ * @version 
+ */
+public class GzipDataFormat extends ServiceSupport implements DataFormat {
+
+    private boolean parallel;
+    private int blockSize = ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executorService;
+    private volatile ExecutorService parallelExecutorService;
+    private CamelContext camelContext;
 
     public void marshal(Exchange exchange, Object graph, OutputStream stream) throws Exception {
         InputStream is = exchange.getContext().getTypeConverter().mandatoryConvertTo(InputStream.class, graph);
 
-        GZIPOutputStream zipOutput = new GZIPOutputStream(stream);
+        OutputStream zipOutput;
+        if (parallel) {
+            zipOutput = new ParallelGzipOutputStream(stream, getParallelExecutorService(exchange.getContext()),
+                    blockSize, poolSize * 2, Deflater.DEFAULT_COMPRESSION);
+        } else {
+            zipOutput = new GZIPOutputStream(stream);
+        }
         try {
             IOHelper.copy(is, zipOutput);
         } finally {
@@ -53,4 +79,77 @@ public class GzipDataFormat implements DataFormat {
         }
     }
 
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Whether to compress the data in blocks using multiple threads.
+     * The output is a concatenation of GZIP members which any GZIP decompressor can read.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * The number of bytes compressed by each thread when parallel is enabled.
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * The number of threads to use when parallel is enabled. Defaults to the number of processors.
+     */
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * To use a custom thread pool when parallel is enabled, instead of creating a new thread pool.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    private ExecutorService getParallelExecutorService(CamelContext context) {
+        if (executorService != null) {
+            return executorService;
+        }
+        if (parallelExecutorService == null) {
+            synchronized (this) {
+                if (parallelExecutorService == null) {
+                    camelContext = context;
+                    parallelExecutorService = context.getExecutorServiceManager().newFixedThreadPool(this, "GzipDataFormat", poolSize);
+                }
+            }
+        }
+        return parallelExecutorService;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        // noop
+    }
+
+    @Override
+    protected synchronized void doStop() throws Exception {
+        if (parallelExecutorService != null) {
+            camelContext.getExecutorServiceManager().shutdownNow(parallelExecutorService);
+            parallelExecutorService = null;
+        }
+    }
+
 }
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.WrappedFile;
+import org.apache.camel.spi.DataFormat;
+import org.apache.camel.util.ExchangeHelper;
+import org.apache.camel.util.FileUtil;
+import org.apache.camel.util.IOHelper;
+
+/**
+ * ZIP archive {@link DataFormat}.
+ * <p/>
+ * Marshal writes the message body as a single entry in a ZIP archive, named by the
+ * {@link Exchange#FILE_NAME} header. Unmarshal returns a {@link ZipIterator} which reads the
+ * entries one at a time, without reading the whole archive into memory, so the iterator should be
+ * used with the streaming mode of the splitter.
+ *
+ * @version 
+ */
+public class ZipFileDataFormat implements DataFormat {
+
+    public void marshal(Exchange exchange, Object graph, OutputStream stream) throws Exception {
+        InputStream is = exchange.getContext().getTypeConverter().mandatoryConvertTo(InputStream.class, graph);
+
+        String name = exchange.getIn().getHeader(Exchange.FILE_NAME, String.class);
+        if (name == null) {
+            name = exchange.getExchangeId();
+        }
+
+        ZipOutputStream zipOutput = new ZipOutputStream(stream);
+        try {
+            zipOutput.putNextEntry(new ZipEntry(FileUtil.stripPath(name)));
+            IOHelper.copy(is, zipOutput);
+            zipOutput.closeEntry();
+        } finally {
+            IOHelper.close(is, zipOutput);
+        }
+    }
+
+    public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
+        ZipIterator answer;
+        File file = getFile(exchange.getIn().getBody());
+        if (file != null) {
+            // read the entries directly from the file
+            IOHelper.close(stream);
+            answer = new ZipIterator(exchange, file);
+        } else {
+            answer = new ZipIterator(exchange, stream);
+        }
+        // make sure the archive is closed when the exchange is done, even if not all entries have been read
+        ExchangeHelper.closeOnCompletion(exchange, answer);
+        return answer;
+    }
+
+    private static File getFile(Object body) {
+        if (body instanceof WrappedFile) {
+            body = ((WrappedFile<?>) body).getFile();
+        }
+        if (body instanceof File && ((File) body).isFile()) {
+            return (File) body;
+        }
+        return null;
+    }
+
+}
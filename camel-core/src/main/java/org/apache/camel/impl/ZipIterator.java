@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.converter.stream.CachedOutputStream;
+import org.apache.camel.support.LazyCloseableIterator;
+import org.apache.camel.util.ExchangeHelper;
+import org.apache.camel.util.IOHelper;
+
+/**
+ * An {@link Iterator} which reads the entries of a ZIP archive one at a time.
+ * <p/>
+ * Each entry is returned as a {@link Message} with the headers of the original message, the
+ * {@link Exchange#FILE_NAME} header set to the name of the entry, and an {@link InputStream} body
+ * which reads the entry. Directory entries are skipped.
+ * <p/>
+ * When the archive is a file the entries are read directly from the file, so the file is only closed
+ * when the exchange is done, as the entries may still be read after the iterator is closed, for example
+ * when the splitter processes them in parallel. Otherwise the entries are read from the stream in order,
+ * so when moving to the next entry, the remainder of the current entry is spooled using a
+ * {@link CachedOutputStream}, to keep its body readable. Likewise the remainder of the last entry is
+ * spooled when there are no more entries, as the stream is then closed.
+ *
+ * @version 
+ */
+public class ZipIterator extends LazyCloseableIterator<Message> {
+
+    private final Exchange exchange;
+    private final Message inputMessage;
+    private final ZipInputStream zipInput;
+    private final ZipFile zipFile;
+    private final Enumeration<? extends ZipEntry> zipFileEntries;
+    private ZipEntryInputStream current;
+
+    public ZipIterator(Exchange exchange, InputStream inputStream) {
+        this.exchange = exchange;
+        this.inputMessage = exchange.getIn();
+        this.zipInput = inputStream instanceof ZipInputStream ? (ZipInputStream) inputStream : new ZipInputStream(inputStream);
+        this.zipFile = null;
+        this.zipFileEntries = null;
+    }
+
+    public ZipIterator(Exchange exchange, File file) throws IOException {
+        this.exchange = exchange;
+        this.inputMessage = exchange.getIn();
+        this.zipInput = null;
+        this.zipFile = new ZipFile(file);
+        this.zipFileEntries = zipFile.entries();
+        // the entries are read from the file until the exchange is done, so only close the file then
+        ExchangeHelper.closeOnCompletion(exchange, new Closeable() {
+            public void close() throws IOException {
+                zipFile.close();
+            }
+        });
+    }
+
+    @Override
+    protected Message readNext() throws IOException {
+        ZipEntry entry;
+        if (zipFile != null) {
+            entry = null;
+            while (zipFileEntries.hasMoreElements() && entry == null) {
+                ZipEntry candidate = zipFileEntries.nextElement();
+                entry = candidate.isDirectory() ? null : candidate;
+            }
+            if (entry == null) {
+                return null;
+            }
+            current = new ZipEntryInputStream(zipFile.getInputStream(entry));
+        } else {
+            // keep the current entry readable as the stream moves on, also when there are no more entries
+            if (current != null) {
+                current.spool();
+                current = null;
+            }
+            entry = zipInput.getNextEntry();
+            while (entry != null && entry.isDirectory()) {
+                entry = zipInput.getNextEntry();
+            }
+            if (entry == null) {
+                return null;
+            }
+            current = new ZipEntryInputStream(zipInput);
+        }
+
+        Message answer = new DefaultMessage();
+        answer.getHeaders().putAll(inputMessage.getHeaders());
+        answer.setHeader(Exchange.FILE_NAME, entry.getName());
+        answer.setBody(current);
+        return answer;
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        // the file is closed when the exchange is done
+        if (zipInput != null) {
+            zipInput.close();
+        }
+    }
+
+    /**
+     * Reads an entry, or the spooled remainder of the entry when the archive has moved on.
+     * Closes the entry instead of the archive when closed.
+     * <p/>
+     * The entry may be spooled while it is being read by another thread, so the access is synchronized.
+     */
+    private final class ZipEntryInputStream extends InputStream {
+
+        private final InputStream entry;
+        private InputStream spooled;
+        private boolean done;
+
+        private ZipEntryInputStream(InputStream entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            if (spooled != null) {
+                return spooled.read();
+            }
+            return done ? -1 : entry.read();
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (spooled != null) {
+                return spooled.read(b, off, len);
+            }
+            return done ? -1 : entry.read(b, off, len);
+        }
+
+        @Override
+        public synchronized int available() throws IOException {
+            if (spooled != null) {
+                return spooled.available();
+            }
+            return done ? 0 : entry.available();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (spooled != null) {
+                spooled.close();
+            } else if (!done) {
+                if (entry == zipInput) {
+                    zipInput.closeEntry();
+                } else {
+                    entry.close();
+                }
+            }
+            done = true;
+        }
+
+        private synchronized void spool() throws IOException {
+            if (done) {
+                return;
+            }
+            CachedOutputStream cos = new CachedOutputStream(exchange);
+            IOHelper.copy(entry, cos);
+            // the cache is removed when the spooled stream is closed, or when the exchange is done
+            spooled = cos.getWrappedInputStream();
+        }
+    }
+}
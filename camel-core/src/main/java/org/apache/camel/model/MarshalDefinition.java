@@ -49,6 +49,7 @@ import org.apache.camel.model.dataformat.XMLBeansDataFormat;
 import org.apache.camel.model.dataformat.XMLSecurityDataFormat;
 import org.apache.camel.model.dataformat.XStreamDataFormat;
 import org.apache.camel.model.dataformat.ZipDataFormat;
+import org.apache.camel.model.dataformat.ZipFileDataFormat;
 import org.apache.camel.processor.MarshalProcessor;
 import org.apache.camel.spi.DataFormat;
 import org.apache.camel.spi.RouteContext;
@@ -93,7 +94,8 @@ public class MarshalDefinition extends NoOutputDefinition<MarshalDefinition> {
     @XmlElement(required = false, name = "xmlBeans", type = XMLBeansDataFormat.class),
     @XmlElement(required = false, name = "xstream", type = XStreamDataFormat.class),
     @XmlElement(required = false, name = "pgp", type = PGPDataFormat.class),
-    @XmlElement(required = false, name = "zip", type = ZipDataFormat.class)}
+    @XmlElement(required = false, name = "zip", type = ZipDataFormat.class),
+    @XmlElement(required = false, name = "zipFile", type = ZipFileDataFormat.class)}
     )
     private DataFormatDefinition dataFormatType;
 
@@ -49,6 +49,7 @@ import org.apache.camel.model.dataformat.XMLBeansDataFormat;
 import org.apache.camel.model.dataformat.XMLSecurityDataFormat;
 import org.apache.camel.model.dataformat.XStreamDataFormat;
 import org.apache.camel.model.dataformat.ZipDataFormat;
+import org.apache.camel.model.dataformat.ZipFileDataFormat;
 import org.apache.camel.processor.UnmarshalProcessor;
 import org.apache.camel.spi.DataFormat;
 import org.apache.camel.spi.RouteContext;
@@ -93,7 +94,8 @@ public class UnmarshalDefinition extends NoOutputDefinition<UnmarshalDefinition>
     @XmlElement(required = false, name = "xmlBeans", type = XMLBeansDataFormat.class),
     @XmlElement(required = false, name = "xstream", type = XStreamDataFormat.class),
     @XmlElement(required = false, name = "pgp", type = PGPDataFormat.class),
-    @XmlElement(required = false, name = "zip", type = ZipDataFormat.class)}
+    @XmlElement(required = false, name = "zip", type = ZipDataFormat.class),
+    @XmlElement(required = false, name = "zipFile", type = ZipFileDataFormat.class)}
     )
     private DataFormatDefinition dataFormatType;
 
@@ -45,6 +45,10 @@ public class CsvDataFormat extends DataFormatDefinition {
     private String strategyRef;
     @XmlAttribute
     private Boolean skipFirstLine;
+    @XmlAttribute
+    private Boolean lazyLoad;
+    @XmlAttribute
+    private Boolean useMaps;
 
     public CsvDataFormat() {
         super("csv");
@@ -95,6 +99,22 @@ public class CsvDataFormat extends DataFormatDefinition {
         this.skipFirstLine = skipFirstLine;
     }
 
+    public Boolean isLazyLoad() {
+        return lazyLoad;
+    }
+
+    public void setLazyLoad(Boolean lazyLoad) {
+        this.lazyLoad = lazyLoad;
+    }
+
+    public Boolean isUseMaps() {
+        return useMaps;
+    }
+
+    public void setUseMaps(Boolean useMaps) {
+        this.useMaps = useMaps;
+    }
+
     @Override
     protected DataFormat createDataFormat(RouteContext routeContext) {
         DataFormat csvFormat = super.createDataFormat(routeContext);
@@ -130,5 +150,13 @@ public class CsvDataFormat extends DataFormatDefinition {
         if (skipFirstLine != null) {
             setProperty(dataFormat, "skipFirstLine", skipFirstLine);
         }
+
+        if (lazyLoad != null) {
+            setProperty(dataFormat, "lazyLoad", lazyLoad);
+        }
+
+        if (useMaps != null) {
+            setProperty(dataFormat, "useMaps", useMaps);
+        }
     }
 }
\ No newline at end of file
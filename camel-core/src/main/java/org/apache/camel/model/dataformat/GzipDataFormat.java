@@ -16,6 +16,9 @@
  */
 package org.apache.camel.model.dataformat;
 
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.apache.camel.model.DataFormatDefinition;
@@ -28,10 +31,51 @@ import org.apache.camel.spi.RouteContext;
  * @version 
  */
 @XmlRootElement(name = "gzip")
+@XmlAccessorType(XmlAccessType.FIELD)
 public class GzipDataFormat extends DataFormatDefinition {
+    @XmlAttribute
+    private Boolean parallel;
+    @XmlAttribute
+    private Integer blockSize;
+    @XmlAttribute
+    private Integer poolSize;
 
     @Override
     protected DataFormat createDataFormat(RouteContext routeContext) {
-        return new org.apache.camel.impl.GzipDataFormat();
+        org.apache.camel.impl.GzipDataFormat answer = new org.apache.camel.impl.GzipDataFormat();
+        if (parallel != null) {
+            answer.setParallel(parallel);
+        }
+        if (blockSize != null) {
+            answer.setBlockSize(blockSize);
+        }
+        if (poolSize != null) {
+            answer.setPoolSize(poolSize);
+        }
+        return answer;
+    }
+
+    public Boolean getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(Boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public Integer getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(Integer blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize;
     }
 }
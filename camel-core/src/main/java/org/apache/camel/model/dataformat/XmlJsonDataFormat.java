@@ -50,6 +50,7 @@ public class XmlJsonDataFormat extends DataFormatDefinition {
     public static final String NAMESPACE_LENIENT = "namespaceLenient";
     public static final String FORCE_TOP_LEVEL_OBJECT = "forceTopLevelObject";
     public static final String ENCODING = "encoding";
+    public static final String STREAMING = "streaming";
     
     @XmlAttribute
     private String encoding;
@@ -75,6 +76,8 @@ public class XmlJsonDataFormat extends DataFormatDefinition {
     private List<String> expandableProperties;
     @XmlAttribute
     private String typeHints;
+    @XmlAttribute
+    private Boolean streaming;
 
     public XmlJsonDataFormat() {
         super("xmljson");
@@ -118,6 +121,9 @@ public class XmlJsonDataFormat extends DataFormatDefinition {
         if (options.containsKey(TYPE_HINTS)) {
             typeHints = options.get(TYPE_HINTS);
         }
+        if (options.containsKey(STREAMING)) {
+            streaming = Boolean.parseBoolean(options.get(STREAMING));
+        }
     }
 
     @Override
@@ -171,6 +177,10 @@ public class XmlJsonDataFormat extends DataFormatDefinition {
             setProperty(typeHints, TYPE_HINTS, typeHints);
         }
 
+        if (streaming != null) {
+            setProperty(dataFormat, STREAMING, streaming);
+        }
+
         //TODO: xmljson: element-namespace mapping is not implemented in the XML DSL
         // depending on adoption rate of this data format, we'll make this data format NamespaceAware so that it gets
         // the prefix-namespaceURI mappings from the context, and with a new attribute called "namespacedElements",
@@ -273,4 +283,12 @@ public class XmlJsonDataFormat extends DataFormatDefinition {
         this.typeHints = typeHints;
     }
 
+    public Boolean getStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(Boolean streaming) {
+        this.streaming = streaming;
+    }
+
 }
\ No newline at end of file
@@ -16,7 +16,9 @@
  */
 package org.apache.camel.processor;
 
+import java.io.Closeable;
 import java.io.InputStream;
+import java.util.Iterator;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.CamelContextAware;
@@ -49,12 +51,13 @@ public class UnmarshalProcessor extends ServiceSupport implements Processor, Tra
         ObjectHelper.notNull(dataFormat, "dataFormat");
 
         InputStream stream = exchange.getIn().getMandatoryBody(InputStream.class);
+        Object result = null;
         try {
             // lets setup the out message before we invoke the dataFormat so that it can mutate it if necessary
             Message out = exchange.getOut();
             out.copyFrom(exchange.getIn());
 
-            Object result = dataFormat.unmarshal(exchange, stream);
+            result = dataFormat.unmarshal(exchange, stream);
             if (result instanceof Exchange) {
                 if (result != exchange) {
                     // it's not allowed to return another exchange other than the one provided to dataFormat
@@ -71,7 +74,11 @@ public class UnmarshalProcessor extends ServiceSupport implements Processor, Tra
             exchange.setOut(null);
             throw e;
         } finally {
-            IOHelper.close(stream, "input stream");
+            // a streaming data format returns a closeable iterator which reads lazily from the stream
+            // and closes the stream itself when it is done
+            if (!(result instanceof Iterator && result instanceof Closeable)) {
+                IOHelper.close(stream, "input stream");
+            }
         }
     }
 
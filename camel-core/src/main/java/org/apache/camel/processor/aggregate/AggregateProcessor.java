@@ -32,6 +32,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
 import org.apache.camel.CamelExchangeException;
 import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
@@ -846,6 +847,13 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
             }
         }
 
+        // the repository may need the services of the context such as thread pools
+        if (aggregationRepository instanceof CamelContextAware) {
+            CamelContextAware aware = (CamelContextAware) aggregationRepository;
+            if (aware.getCamelContext() == null) {
+                aware.setCamelContext(camelContext);
+            }
+        }
         ServiceHelper.startServices(processor, aggregationRepository);
 
         // should we use recover checker
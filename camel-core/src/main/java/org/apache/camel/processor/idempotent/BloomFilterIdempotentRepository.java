@@ -0,0 +1,505 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.spi.ScannableIdempotentRepository;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.ServiceHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link org.apache.camel.spi.IdempotentRepository} which decorates another repository with an in-memory
+ * Bloom filter, to avoid looking up keys which are definitely not in the repository.
+ * <p/>
+ * This is useful with remote repositories such as a database, where looking up a key costs a round trip,
+ * while most keys are usually new. The filter is populated with the keys of the repository when starting,
+ * which is why the repository must be a {@link ScannableIdempotentRepository}. The filter can be rebuilt
+ * periodically to forget the keys which have been removed from the repository.
+ * <p/>
+ * The filter only knows the keys which were in the repository when it was built, and the keys added through
+ * this repository since. If other consumers, such as other nodes in a cluster, add keys to the same repository,
+ * a key which is not in the filter may still be in the repository. The repository is therefore regarded as
+ * {@link #setShared(boolean) shared} by default, where the repository is always asked about the keys which are
+ * not in the filter, so the lookups are only saved when the repository is not shared.
+ * <p/>
+ * When not shared, new keys are written to the repository in batches by a background task. Use a batch size
+ * of 0 to write the keys to the repository when they are added.
+ * <p/>
+ * With a batch size greater than 0 the repository is at-least-once: the keys which have not been written
+ * yet are lost if the JVM crashes, so their messages can be processed again. When stopping, the remaining
+ * keys are written with a few retries, and if they still cannot be written the stop fails, keeping the
+ * keys to write them when the repository is started again.
+ * <p/>
+ * This repository must be associated with a {@link CamelContext}, which is done automatic when the
+ * repository is used by the idempotent consumer EIP.
+ *
+ * @version
+ */
+@ManagedResource(description = "Bloom filter idempotent repository")
+public class BloomFilterIdempotentRepository extends ServiceSupport implements IdempotentRepository<String>, CamelContextAware {
+    private static final transient Logger LOG = LoggerFactory.getLogger(BloomFilterIdempotentRepository.class);
+    private static final int STOP_WRITE_ATTEMPTS = 3;
+    private static final long STOP_WRITE_RETRY_DELAY = 500L;
+
+    private final ScannableIdempotentRepository<String> repository;
+    // the keys which may not have been written to the repository yet
+    private final Map<String, PendingKey> pending = new ConcurrentHashMap<String, PendingKey>();
+    private final Queue<String> writes = new ConcurrentLinkedQueue<String>();
+    private final AtomicInteger writesSize = new AtomicInteger();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    // guards writing pending keys against removing them
+    private final Object writeLock = new Object();
+    private final AtomicLong savedLookups = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private CamelContext camelContext;
+    private ScheduledExecutorService executorService;
+    private volatile ScalableBloomFilter filter;
+    private volatile ScalableBloomFilter rebuildFilter;
+    private int expectedInsertions = 100000;
+    private double falsePositiveProbability = 0.01;
+    private int batchSize = 100;
+    private long batchInterval = 1000L;
+    private long rebuildInterval;
+    private boolean shared = true;
+
+    public BloomFilterIdempotentRepository(ScannableIdempotentRepository<String> repository) {
+        ObjectHelper.notNull(repository, "repository");
+        this.repository = repository;
+    }
+
+    /**
+     * Creates a new Bloom filter repository decorating the given repository.
+     *
+     * @param repository  the repository to decorate
+     */
+    public static IdempotentRepository<String> bloomFilterIdempotentRepository(ScannableIdempotentRepository<String> repository) {
+        return new BloomFilterIdempotentRepository(repository);
+    }
+
+    @ManagedOperation(description = "Adds the key to the store")
+    public boolean add(String key) {
+        // reserve the key so concurrent adds of the same key do not both succeed
+        PendingKey reserved = new PendingKey();
+        if (pending.putIfAbsent(key, reserved) != null) {
+            return false;
+        }
+
+        try {
+            boolean mightContain = filter.mightContain(key);
+            if (!mightContain && !shared) {
+                // the key is new so no need to lookup the key in the repository
+                putInFilter(key);
+                if (batchSize > 0) {
+                    savedLookups.incrementAndGet();
+                    reserved.queued = true;
+                    writes.add(key);
+                    if (writesSize.incrementAndGet() >= batchSize) {
+                        scheduleWrite();
+                    }
+                    return true;
+                }
+                return repository.add(key);
+            }
+
+            // the repository has the final answer as the key may have been added by someone else
+            lookups.incrementAndGet();
+            boolean answer = repository.add(key);
+            if (!mightContain) {
+                putInFilter(key);
+            } else if (answer) {
+                falsePositives.incrementAndGet();
+            }
+            return answer;
+        } finally {
+            if (!reserved.queued) {
+                pending.remove(key);
+            }
+        }
+    }
+
+    @ManagedOperation(description = "Does the store contain the given key")
+    public boolean contains(String key) {
+        boolean mightContain = filter.mightContain(key);
+        if (!mightContain && !shared) {
+            savedLookups.incrementAndGet();
+            return false;
+        }
+        if (pending.containsKey(key)) {
+            return true;
+        }
+
+        lookups.incrementAndGet();
+        boolean answer = repository.contains(key);
+        if (!answer && mightContain) {
+            falsePositives.incrementAndGet();
+        }
+        return answer;
+    }
+
+    @ManagedOperation(description = "Remove the key from the store")
+    public boolean remove(String key) {
+        synchronized (writeLock) {
+            PendingKey removed = pending.get(key);
+            if (removed != null && removed.queued) {
+                // the key has not been written yet
+                pending.remove(key);
+                return true;
+            }
+        }
+        return repository.remove(key);
+    }
+
+    public boolean confirm(String key) {
+        synchronized (writeLock) {
+            PendingKey confirmed = pending.get(key);
+            if (confirmed != null && confirmed.queued) {
+                // confirm the key when it is written
+                confirmed.confirmed = true;
+                return true;
+            }
+        }
+        return repository.confirm(key);
+    }
+
+    public ScannableIdempotentRepository<String> getRepository() {
+        return repository;
+    }
+
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
+    @ManagedAttribute(description = "Whether other consumers may add keys to the repository")
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Sets whether other consumers, such as other nodes in a cluster, may add keys to the repository.
+     * <p/>
+     * The default is true, where the repository is asked about the keys which are not in the filter, as the
+     * keys added by other consumers since the filter was built are not in the filter. Set this to false when
+     * this repository is the only one adding keys to the repository, so the keys which are not in the filter
+     * are new without asking the repository, and new keys can be written in batches.
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    @ManagedAttribute(description = "The expected number of keys the filter is initially sized for")
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * Sets the expected number of keys the filter is initially sized for. The filter grows when more keys
+     * are added.
+     * <p/>
+     * The default is 100000.
+     */
+    public void setExpectedInsertions(int expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    @ManagedAttribute(description = "The false positive probability the filter is sized for")
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    /**
+     * Sets the false positive probability the filter is sized for. As the filter grows the overall
+     * probability is kept below twice this probability.
+     * <p/>
+     * The default is 0.01.
+     */
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    @ManagedAttribute(description = "The number of new keys to write to the repository in a batch")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of new keys which triggers writing the new keys to the repository.
+     * <p/>
+     * The default is 100. Use 0 to write the new keys to the repository when they are added.
+     * Notice the new keys which are not written yet are lost if the JVM crashes. The new keys are
+     * only written in batches when the repository is not {@link #setShared(boolean) shared}.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @ManagedAttribute(description = "The interval in millis to write the new keys to the repository")
+    public long getBatchInterval() {
+        return batchInterval;
+    }
+
+    /**
+     * Sets the interval in millis to write the new keys to the repository, when the batch size is not reached.
+     * <p/>
+     * The default is 1000 millis.
+     */
+    public void setBatchInterval(long batchInterval) {
+        this.batchInterval = batchInterval;
+    }
+
+    @ManagedAttribute(description = "The interval in millis to rebuild the filter")
+    public long getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    /**
+     * Sets the interval in millis to rebuild the filter from the keys in the repository, which forgets
+     * the keys removed from the repository.
+     * <p/>
+     * The default is 0 which never rebuilds the filter.
+     */
+    public void setRebuildInterval(long rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    @ManagedAttribute(description = "The number of lookups which was not needed as the key was not in the filter")
+    public long getSavedLookups() {
+        return savedLookups.get();
+    }
+
+    @ManagedAttribute(description = "The number of lookups in the repository")
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    @ManagedAttribute(description = "The number of lookups in the repository for keys which was not in the repository")
+    public long getFalsePositives() {
+        return falsePositives.get();
+    }
+
+    @ManagedAttribute(description = "The rate of lookups in the repository for keys which was not in the repository")
+    public double getFalsePositiveRate() {
+        long total = lookups.get();
+        return total > 0 ? (double) falsePositives.get() / total : 0;
+    }
+
+    @ManagedAttribute(description = "The number of new keys waiting to be written to the repository")
+    public int getPendingWrites() {
+        return writesSize.get();
+    }
+
+    @ManagedAttribute(description = "The approximate number of keys in the filter")
+    public long getFilterSize() {
+        ScalableBloomFilter current = filter;
+        return current != null ? current.size() : 0;
+    }
+
+    @ManagedAttribute(description = "The memory used by the filter in bytes")
+    public long getFilterMemory() {
+        ScalableBloomFilter current = filter;
+        return current != null ? current.bitSize() / 8 : 0;
+    }
+
+    @ManagedOperation(description = "Reset the statistics")
+    public void resetStatistics() {
+        savedLookups.set(0);
+        lookups.set(0);
+        falsePositives.set(0);
+    }
+
+    /**
+     * Rebuilds the filter from the keys in the repository.
+     */
+    @ManagedOperation(description = "Rebuilds the filter from the keys in the repository")
+    public synchronized void rebuild() {
+        final ScalableBloomFilter rebuilt = new ScalableBloomFilter(expectedInsertions, falsePositiveProbability);
+        // keys added from now on are put in both filters, so they are not lost
+        rebuildFilter = rebuilt;
+        try {
+            // must add the pending keys before scanning, as the keys are only removed when they have been written
+            for (String key : pending.keySet()) {
+                rebuilt.put(key);
+            }
+            final AtomicLong count = new AtomicLong();
+            repository.scan(new ScannableIdempotentRepository.ScanCallback<String>() {
+                public void onKey(String key) {
+                    rebuilt.put(key);
+                    count.incrementAndGet();
+                }
+            });
+            filter = rebuilt;
+            LOG.debug("Rebuilt filter with {} keys from repository: {}", count.get(), repository);
+        } finally {
+            rebuildFilter = null;
+        }
+    }
+
+    private void putInFilter(String key) {
+        filter.put(key);
+        ScalableBloomFilter rebuilt = rebuildFilter;
+        if (rebuilt != null) {
+            rebuilt.put(key);
+        }
+    }
+
+    private void scheduleWrite() {
+        ScheduledExecutorService executor = executorService;
+        if (executor != null && writeScheduled.compareAndSet(false, true)) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    writeScheduled.set(false);
+                    writePending();
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the new keys to the repository.
+     */
+    protected void writePending() {
+        List<String> keys = new ArrayList<String>();
+        String key;
+        while ((key = writes.poll()) != null) {
+            writesSize.decrementAndGet();
+            keys.add(key);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        LOG.trace("Writing {} new keys to repository: {}", keys.size(), repository);
+        for (int i = 0; i < keys.size(); i++) {
+            key = keys.get(i);
+            synchronized (writeLock) {
+                PendingKey write = pending.get(key);
+                if (write == null || !write.queued) {
+                    // removed in the meantime
+                    continue;
+                }
+                try {
+                    if (!repository.add(key)) {
+                        LOG.debug("Key {} has been added to the repository by someone else", key);
+                    }
+                    if (write.confirmed) {
+                        repository.confirm(key);
+                    }
+                } catch (RuntimeException e) {
+                    // try again later with the keys not written
+                    LOG.warn("Error writing " + (keys.size() - i) + " new keys to repository: " + repository
+                            + ". Will try again later.", e);
+                    for (String retry : keys.subList(i, keys.size())) {
+                        writes.add(retry);
+                        writesSize.incrementAndGet();
+                    }
+                    return;
+                }
+                pending.remove(key);
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ObjectHelper.notNull(camelContext, "camelContext", this);
+        if (repository instanceof CamelContextAware) {
+            ((CamelContextAware) repository).setCamelContext(camelContext);
+        }
+        ServiceHelper.startService(repository);
+
+        filter = new ScalableBloomFilter(expectedInsertions, falsePositiveProbability);
+        rebuild();
+
+        executorService = camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "BloomFilterIdempotentRepository");
+        if (batchSize > 0 && batchInterval > 0) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    writePending();
+                }
+            }, batchInterval, batchInterval, TimeUnit.MILLISECONDS);
+        }
+        if (rebuildInterval > 0) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    try {
+                        rebuild();
+                    } catch (RuntimeException e) {
+                        LOG.warn("Error rebuilding filter from repository: " + repository + ". This exception will be ignored.", e);
+                    }
+                }
+            }, rebuildInterval, rebuildInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executorService != null) {
+            camelContext.getExecutorServiceManager().shutdownGraceful(executorService);
+            executorService = null;
+        }
+        try {
+            // write the remaining new keys before stopping, as the keys are lost otherwise
+            writePending();
+            for (int attempt = 1; attempt < STOP_WRITE_ATTEMPTS && !writes.isEmpty(); attempt++) {
+                Thread.sleep(STOP_WRITE_RETRY_DELAY);
+                writePending();
+            }
+            if (!writes.isEmpty()) {
+                // keep the keys so they are written when started again
+                throw new IllegalStateException("Cannot write " + writesSize.get() + " new keys to repository: " + repository
+                        + " after " + STOP_WRITE_ATTEMPTS + " attempts");
+            }
+            pending.clear();
+        } finally {
+            ServiceHelper.stopService(repository);
+        }
+    }
+
+    /**
+     * A key which may not have been written to the repository yet.
+     */
+    private static final class PendingKey {
+        // whether the key is waiting to be written, otherwise the key is being added to the repository
+        private volatile boolean queued;
+        private volatile boolean confirmed;
+    }
+
+}
@@ -27,6 +27,7 @@ import org.apache.camel.api.management.ManagedAttribute;
 import org.apache.camel.api.management.ManagedOperation;
 import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.spi.ScannableIdempotentRepository;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.LRUCache;
@@ -43,7 +44,7 @@ import org.slf4j.LoggerFactory;
  * @version 
  */
 @ManagedResource(description = "File based idempotent repository")
-public class FileIdempotentRepository extends ServiceSupport implements IdempotentRepository<String> {
+public class FileIdempotentRepository extends ServiceSupport implements ScannableIdempotentRepository<String> {
     private static final transient Logger LOG = LoggerFactory.getLogger(FileIdempotentRepository.class);
     private static final String STORE_DELIMITER = "\n";
     private Map<String, Object> cache;
@@ -153,6 +154,19 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
         return true;
     }
 
+    /**
+     * Scans the keys in the 1st level cache, which are the keys this repository checks when adding keys.
+     * Notice the file store may contain more keys than the LRU cache holds, in which case the keys
+     * evicted from the cache are not scanned, just as they are not checked when adding keys.
+     */
+    public void scan(ScanCallback<String> callback) {
+        synchronized (cache) {
+            for (String key : cache.keySet()) {
+                callback.onKey(key);
+            }
+        }
+    }
+
     public File getFileStore() {
         return fileStore;
     }
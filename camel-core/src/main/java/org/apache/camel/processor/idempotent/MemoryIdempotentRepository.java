@@ -22,6 +22,7 @@ import org.apache.camel.api.management.ManagedAttribute;
 import org.apache.camel.api.management.ManagedOperation;
 import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.spi.ScannableIdempotentRepository;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.LRUCache;
 
@@ -34,7 +35,7 @@ import org.apache.camel.util.LRUCache;
  * @version 
  */
 @ManagedResource(description = "Memory based idempotent repository")
-public class MemoryIdempotentRepository extends ServiceSupport implements IdempotentRepository<String> {
+public class MemoryIdempotentRepository extends ServiceSupport implements ScannableIdempotentRepository<String> {
     private Map<String, Object> cache;
     private int cacheSize;
 
@@ -107,6 +108,14 @@ public class MemoryIdempotentRepository extends ServiceSupport implements Idempo
         return true;
     }
 
+    public void scan(ScanCallback<String> callback) {
+        synchronized (cache) {
+            for (String key : cache.keySet()) {
+                callback.onKey(key);
+            }
+        }
+    }
+
     public Map<String, Object> getCache() {
         return cache;
     }
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe scalable Bloom filter for string keys.
+ * <p/>
+ * When a filter is full a new filter with twice the capacity and half the false positive probability
+ * is added, which keeps the overall false positive probability below twice the given probability
+ * regardless of the number of keys.
+ *
+ * @version
+ */
+final class ScalableBloomFilter {
+
+    private final List<Slice> slices = new CopyOnWriteArrayList<Slice>();
+
+    ScalableBloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("ExpectedInsertions must be positive, was: " + expectedInsertions);
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("FalsePositiveProbability must be between 0 and 1, was: " + falsePositiveProbability);
+        }
+        slices.add(new Slice(expectedInsertions, falsePositiveProbability));
+    }
+
+    /**
+     * Whether the key might have been added to the filter.
+     *
+     * @return <tt>false</tt> if the key has definitely not been added
+     */
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(String key) {
+        long hash = hash(key);
+        Slice slice = slices.get(slices.size() - 1);
+        if (slice.count.get() >= slice.capacity) {
+            synchronized (slices) {
+                slice = slices.get(slices.size() - 1);
+                if (slice.count.get() >= slice.capacity) {
+                    slice = new Slice(slice.capacity * 2, slice.falsePositiveProbability / 2);
+                    slices.add(slice);
+                }
+            }
+        }
+        slice.put(hash);
+    }
+
+    /**
+     * The approximate number of keys added to the filter.
+     */
+    long size() {
+        long answer = 0;
+        for (Slice slice : slices) {
+            answer += slice.count.get();
+        }
+        return answer;
+    }
+
+    /**
+     * The number of bits used by the filter.
+     */
+    long bitSize() {
+        long answer = 0;
+        for (Slice slice : slices) {
+            answer += slice.bits;
+        }
+        return answer;
+    }
+
+    private static long hash(String key) {
+        // 64 bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Slice {
+        private final int capacity;
+        private final double falsePositiveProbability;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLongArray words;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Slice(int capacity, double falsePositiveProbability) {
+            this.capacity = capacity;
+            this.falsePositiveProbability = falsePositiveProbability;
+            long size = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (size + 63) / 64));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            boolean changed = false;
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = words.get(word);
+                while ((value & mask) == 0) {
+                    if (words.compareAndSet(word, value, value | mask)) {
+                        changed = true;
+                        break;
+                    }
+                    value = words.get(word);
+                }
+            }
+            if (changed) {
+                count.incrementAndGet();
+            }
+        }
+
+        private long index(int combined) {
+            // flip the bits of negative hashes
+            return (combined < 0 ? ~combined : combined) % bits;
+        }
+    }
+
+}
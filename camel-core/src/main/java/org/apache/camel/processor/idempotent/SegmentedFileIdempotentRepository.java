@@ -0,0 +1,603 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.spi.ScannableIdempotentRepository;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file based implementation of {@link org.apache.camel.spi.IdempotentRepository} which stores the keys
+ * in append only segment files in a directory.
+ * <p/>
+ * Unlike the {@link FileIdempotentRepository} every key ever added is kept (within the optional retention),
+ * and the files are never rewritten while adding or removing keys. All the keys are held in an in-memory
+ * index which allows to lookup keys without locking. When the active segment exceeds the maximum segment
+ * size a new segment is started, and the full segments are compacted in the background into a single
+ * segment holding only the keys which are still in use.
+ * <p/>
+ * Writes are synced to disk in batches at the given sync interval, which means the keys added within the
+ * last interval may be lost if the JVM crashes. Use a sync interval of 0 to sync on every write.
+ * <p/>
+ * This repository must be associated with a {@link CamelContext}, which is done automatic when the
+ * repository is used by the idempotent consumer EIP.
+ *
+ * @version
+ */
+@ManagedResource(description = "Segmented file based idempotent repository")
+public class SegmentedFileIdempotentRepository extends ServiceSupport implements ScannableIdempotentRepository<String>, CamelContextAware {
+    private static final transient Logger LOG = LoggerFactory.getLogger(SegmentedFileIdempotentRepository.class);
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("segment-(\\d+)\\.log");
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<String, Entry>();
+    // guards the segment files
+    private final Object lock = new Object();
+    private final TreeMap<Long, File> sealedSegments = new TreeMap<Long, File>();
+    private CamelContext camelContext;
+    private ScheduledExecutorService executorService;
+    private File directory;
+    private long maxSegmentSize = 1024 * 1000L;
+    private long retention;
+    private long syncInterval = 1000L;
+    private long compactionInterval = 60000L;
+    private long sequence;
+    private long nextSegmentId;
+    private long activeSegmentId;
+    private File activeSegment;
+    private FileOutputStream activeFos;
+    private DataOutputStream activeOut;
+    private long activeSize;
+    private boolean dirty;
+    private volatile boolean compacting;
+
+    public SegmentedFileIdempotentRepository() {
+    }
+
+    public SegmentedFileIdempotentRepository(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a new segmented file based repository storing the segments in the given directory.
+     *
+     * @param directory  the directory for the segment files
+     */
+    public static IdempotentRepository<String> segmentedFileIdempotentRepository(File directory) {
+        return new SegmentedFileIdempotentRepository(directory);
+    }
+
+    /**
+     * Creates a new segmented file based repository storing the segments in the given directory.
+     *
+     * @param directory  the directory for the segment files
+     * @param retention  the time in millis to keep the keys, use 0 to keep the keys forever
+     */
+    public static IdempotentRepository<String> segmentedFileIdempotentRepository(File directory, long retention) {
+        SegmentedFileIdempotentRepository repository = new SegmentedFileIdempotentRepository(directory);
+        repository.setRetention(retention);
+        return repository;
+    }
+
+    @ManagedOperation(description = "Adds the key to the store")
+    public boolean add(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            Entry entry = index.get(key);
+            if (entry != null && !isExpired(entry, now)) {
+                return false;
+            }
+
+            entry = new Entry(++sequence, now, activeSegmentId);
+            appendToSegment(ADD, entry, key);
+            index.put(key, entry);
+            return true;
+        }
+    }
+
+    @ManagedOperation(description = "Does the store contain the given key")
+    public boolean contains(String key) {
+        Entry entry = index.get(key);
+        return entry != null && !isExpired(entry, System.currentTimeMillis());
+    }
+
+    @ManagedOperation(description = "Remove the key from the store")
+    public boolean remove(String key) {
+        synchronized (lock) {
+            Entry entry = index.remove(key);
+            if (entry == null) {
+                return false;
+            }
+
+            appendToSegment(REMOVE, new Entry(++sequence, System.currentTimeMillis(), activeSegmentId), key);
+            return !isExpired(entry, System.currentTimeMillis());
+        }
+    }
+
+    public boolean confirm(String key) {
+        // noop
+        return true;
+    }
+
+    public void scan(ScanCallback<String> callback) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Entry> row : index.entrySet()) {
+            if (!isExpired(row.getValue(), now)) {
+                callback.onKey(row.getKey());
+            }
+        }
+    }
+
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    @ManagedAttribute(description = "The directory path for the segment files")
+    public String getDirectoryPath() {
+        return directory.getPath();
+    }
+
+    @ManagedAttribute(description = "The maximum size for a segment file in bytes")
+    public long getMaxSegmentSize() {
+        return maxSegmentSize;
+    }
+
+    /**
+     * Sets the maximum size for a segment file in bytes, before a new segment is started.
+     * <p/>
+     * The default is 1mb.
+     */
+    @ManagedAttribute(description = "The maximum size for a segment file in bytes")
+    public void setMaxSegmentSize(long maxSegmentSize) {
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    @ManagedAttribute(description = "The time in millis to keep the keys")
+    public long getRetention() {
+        return retention;
+    }
+
+    /**
+     * Sets the time in millis to keep the keys in the store.
+     * <p/>
+     * The default is 0 which keeps the keys forever.
+     */
+    @ManagedAttribute(description = "The time in millis to keep the keys")
+    public void setRetention(long retention) {
+        this.retention = retention;
+    }
+
+    public long getSyncInterval() {
+        return syncInterval;
+    }
+
+    /**
+     * Sets the interval in millis to sync the written keys to disk.
+     * <p/>
+     * The default is 1000 millis. Use 0 to sync on every write.
+     */
+    public void setSyncInterval(long syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public long getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    /**
+     * Sets the interval in millis to check whether the full segments should be compacted.
+     * <p/>
+     * The default is 60000 millis.
+     */
+    public void setCompactionInterval(long compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+
+    @ManagedAttribute(description = "The current number of keys in the store")
+    public int getSize() {
+        return index.size();
+    }
+
+    @ManagedAttribute(description = "The current number of segment files")
+    public int getSegmentCount() {
+        synchronized (lock) {
+            return sealedSegments.size() + (activeSegment != null ? 1 : 0);
+        }
+    }
+
+    /**
+     * Compacts the full segments into a single segment holding only the keys which are still in use.
+     */
+    @ManagedOperation(description = "Compacts the full segments")
+    public void compact() {
+        doCompact(true);
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return retention > 0 && now - entry.timestamp > retention;
+    }
+
+    /**
+     * Appends the given record to the active segment, and starts a new segment if the active segment is full.
+     * <p/>
+     * Must be called while holding the lock.
+     */
+    private void appendToSegment(byte op, Entry entry, String key) {
+        if (activeOut == null) {
+            throw new IllegalStateException("SegmentedFileIdempotentRepository is not started: " + this);
+        }
+        LOG.trace("Appending {} to idempotent segment: {}", key, activeSegment);
+        try {
+            activeSize += writeRecord(activeOut, op, entry, key);
+            if (syncInterval <= 0) {
+                activeOut.flush();
+                activeFos.getFD().sync();
+            } else {
+                dirty = true;
+            }
+
+            if (activeSize >= maxSegmentSize) {
+                closeActiveSegment();
+                openActiveSegment();
+            }
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+    }
+
+    private static int writeRecord(DataOutputStream out, byte op, Entry entry, String key) throws IOException {
+        byte[] data = key.getBytes("UTF-8");
+        out.writeByte(op);
+        out.writeLong(entry.sequence);
+        out.writeLong(entry.timestamp);
+        out.writeInt(data.length);
+        out.write(data);
+        return 1 + 8 + 8 + 4 + data.length;
+    }
+
+    /**
+     * Syncs the keys written since the last sync to disk.
+     */
+    protected void sync() {
+        FileOutputStream fos;
+        synchronized (lock) {
+            if (!dirty || activeOut == null) {
+                return;
+            }
+            try {
+                activeOut.flush();
+            } catch (IOException e) {
+                LOG.warn("Error flushing idempotent segment: " + activeSegment + ". This exception will be ignored.", e);
+                return;
+            }
+            fos = activeFos;
+            dirty = false;
+        }
+
+        // sync outside the lock to not block writers
+        try {
+            fos.getFD().sync();
+        } catch (IOException e) {
+            synchronized (lock) {
+                if (fos == activeFos) {
+                    dirty = true;
+                    LOG.warn("Error syncing idempotent segment: " + activeSegment + ". This exception will be ignored.", e);
+                }
+                // otherwise the segment was closed in the meantime, which syncs the segment
+            }
+        }
+    }
+
+    private void openActiveSegment() throws IOException {
+        activeSegmentId = nextSegmentId++;
+        activeSegment = segmentFile(activeSegmentId);
+        activeFos = new FileOutputStream(activeSegment, true);
+        activeOut = new DataOutputStream(new BufferedOutputStream(activeFos));
+        activeSize = activeSegment.length();
+        LOG.debug("Started idempotent segment: {}", activeSegment);
+    }
+
+    private void closeActiveSegment() throws IOException {
+        try {
+            activeOut.flush();
+            activeFos.getFD().sync();
+            dirty = false;
+        } finally {
+            IOHelper.close(activeOut, "Closing idempotent segment", LOG);
+        }
+        sealedSegments.put(activeSegmentId, activeSegment);
+        activeOut = null;
+        activeFos = null;
+        activeSegment = null;
+    }
+
+    private File segmentFile(long id) {
+        return new File(directory, String.format("segment-%019d.log", id));
+    }
+
+    /**
+     * Compacts the full segments into a new segment holding only the keys which are still in use.
+     * <p/>
+     * The compacted segment is written without holding the lock, as the records carry a sequence number
+     * so any record written to the active segment in the meantime takes precedence when loading the store.
+     *
+     * @param force whether to compact even if there is only a single full segment
+     */
+    protected void doCompact(boolean force) {
+        Set<Long> segments;
+        long targetId;
+        synchronized (lock) {
+            if (compacting || sealedSegments.isEmpty() || (!force && sealedSegments.size() < 2)) {
+                return;
+            }
+            compacting = true;
+            segments = new HashSet<Long>(sealedSegments.keySet());
+            targetId = nextSegmentId++;
+        }
+
+        File target = segmentFile(targetId);
+        File temp = new File(target.getPath() + TEMP_SUFFIX);
+        try {
+            LOG.debug("Compacting {} idempotent segments into: {}", segments.size(), target);
+            long now = System.currentTimeMillis();
+            List<Map.Entry<String, Entry>> compacted = new ArrayList<Map.Entry<String, Entry>>();
+            FileOutputStream fos = new FileOutputStream(temp);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            try {
+                for (Map.Entry<String, Entry> row : index.entrySet()) {
+                    Entry entry = row.getValue();
+                    if (segments.contains(entry.segment) && !isExpired(entry, now)) {
+                        writeRecord(out, ADD, entry, row.getKey());
+                        compacted.add(row);
+                    }
+                }
+                out.flush();
+                fos.getFD().sync();
+            } finally {
+                IOHelper.close(out, "Compacting idempotent segments", LOG);
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("Cannot rename " + temp + " to " + target);
+            }
+
+            synchronized (lock) {
+                for (Map.Entry<String, Entry> row : compacted) {
+                    row.getValue().segment = targetId;
+                }
+                // forget the expired keys which has not been compacted
+                for (Map.Entry<String, Entry> row : index.entrySet()) {
+                    Entry entry = row.getValue();
+                    if (segments.contains(entry.segment) && isExpired(entry, now)) {
+                        index.remove(row.getKey());
+                    }
+                }
+                if (!sealedSegments.keySet().containsAll(segments)) {
+                    // we were stopped in the meantime, the compacted segment is used on next start
+                    return;
+                }
+                for (Long id : segments) {
+                    File file = sealedSegments.remove(id);
+                    if (!file.delete()) {
+                        LOG.warn("Cannot delete compacted idempotent segment: {}", file);
+                    }
+                }
+                sealedSegments.put(targetId, target);
+            }
+            LOG.debug("Compacted {} keys into idempotent segment: {}", compacted.size(), target);
+        } catch (IOException e) {
+            LOG.warn("Error compacting idempotent segments into: " + target + ". This exception will be ignored.", e);
+            temp.delete();
+        } finally {
+            compacting = false;
+        }
+    }
+
+    /**
+     * Loads the segment files into the index.
+     */
+    protected void loadStore() throws IOException {
+        LOG.trace("Loading idempotent segments from directory: {}", directory);
+
+        TreeMap<Long, File> segments = new TreeMap<Long, File>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT_PATTERN.matcher(file.getName());
+                if (matcher.matches()) {
+                    segments.put(Long.valueOf(matcher.group(1)), file);
+                } else if (file.getName().endsWith(TEMP_SUFFIX)) {
+                    // an unfinished compaction
+                    file.delete();
+                }
+            }
+        }
+
+        // the record with the highest sequence is the current state of a key
+        Map<String, Entry> keys = new HashMap<String, Entry>();
+        Set<String> removed = new HashSet<String>();
+        for (Map.Entry<Long, File> segment : segments.entrySet()) {
+            loadSegment(segment.getKey(), segment.getValue(), keys, removed);
+            nextSegmentId = segment.getKey() + 1;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Entry> row : keys.entrySet()) {
+            if (!removed.contains(row.getKey()) && !isExpired(row.getValue(), now)) {
+                index.put(row.getKey(), row.getValue());
+            }
+        }
+        sealedSegments.putAll(segments);
+
+        LOG.debug("Loaded {} keys from {} idempotent segments in directory: {}", new Object[]{index.size(), segments.size(), directory});
+    }
+
+    private void loadSegment(long id, File file, Map<String, Entry> keys, Set<String> removed) throws IOException {
+        long position = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                long seq = in.readLong();
+                long timestamp = in.readLong();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                String key = new String(data, "UTF-8");
+                position += 1 + 8 + 8 + 4 + data.length;
+
+                sequence = Math.max(sequence, seq);
+                Entry current = keys.get(key);
+                if (current == null || current.sequence < seq) {
+                    keys.put(key, new Entry(seq, timestamp, id));
+                    if (op == REMOVE) {
+                        removed.add(key);
+                    } else {
+                        removed.remove(key);
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            // the last record was not completely written, so discard it
+            LOG.warn("Discarding incomplete record at position {} in idempotent segment: {}", position, file);
+            IOHelper.close(in, "Loading idempotent segment", LOG);
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(position);
+            } finally {
+                IOHelper.close(raf, "Truncating idempotent segment", LOG);
+            }
+        } finally {
+            IOHelper.close(in, "Loading idempotent segment", LOG);
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ObjectHelper.notNull(camelContext, "camelContext", this);
+        ObjectHelper.notNull(directory, "directory", this);
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory);
+        }
+
+        synchronized (lock) {
+            loadStore();
+            // always start a new segment so the existing segments are left untouched
+            openActiveSegment();
+        }
+
+        executorService = camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "SegmentedFileIdempotentRepository");
+        if (syncInterval > 0) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    sync();
+                }
+            }, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        }
+        if (compactionInterval > 0) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    doCompact(false);
+                }
+            }, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executorService != null) {
+            camelContext.getExecutorServiceManager().shutdownNow(executorService);
+            executorService = null;
+        }
+
+        synchronized (lock) {
+            if (activeOut != null) {
+                closeActiveSegment();
+            }
+            sealedSegments.clear();
+            index.clear();
+            sequence = 0;
+            nextSegmentId = 0;
+        }
+    }
+
+    /**
+     * The state of a key in the index.
+     */
+    private static final class Entry {
+        private final long sequence;
+        private final long timestamp;
+        // the segment can be changed by compaction
+        private volatile long segment;
+
+        Entry(long sequence, long timestamp, long segment) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.segment = segment;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.spi;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+
+/**
+ * A plugin used to marshal an {@link Exchange} to and from bytes, such as when
+ * persisting exchanges in a {@link AggregationRepository}.
+ * <p/>
+ * Only the exchange id, the message bodies and headers, the fault flag, the caused exception
+ * and the given properties are marshalled.
+ *
+ * @version 
+ */
+public interface ExchangeCodec {
+
+    /**
+     * Marshals the exchange to bytes.
+     *
+     * @param exchange   the exchange
+     * @param properties the exchange properties to retain, may be <tt>null</tt>
+     * @return the marshalled exchange
+     * @throws IOException is thrown if error marshalling the exchange
+     */
+    byte[] marshal(Exchange exchange, Map<String, Object> properties) throws IOException;
+
+    /**
+     * Unmarshals the bytes to a new exchange.
+     *
+     * @param camelContext the camel context
+     * @param data         the marshalled exchange
+     * @return the exchange
+     * @throws IOException is thrown if error unmarshalling the exchange
+     */
+    Exchange unmarshal(CamelContext camelContext, byte[] data) throws IOException;
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.spi;
+
+/**
+ * A specialized {@link org.apache.camel.spi.IdempotentRepository} which also supports
+ * scanning for all the keys in the repository.
+ *
+ * @version 
+ */
+public interface ScannableIdempotentRepository<E> extends IdempotentRepository<E> {
+
+    /**
+     * Scans the repository for all the keys it currently contains.
+     * <p/>
+     * The keys are passed to the callback one at a time, so a large repository does not have to
+     * hold all its keys in memory at once.
+     *
+     * @param callback  the callback which receives the keys
+     */
+    void scan(ScanCallback<E> callback);
+
+    /**
+     * Callback which receives the keys of a {@link ScannableIdempotentRepository#scan(ScanCallback) scan}.
+     */
+    interface ScanCallback<E> {
+
+        /**
+         * Receives a key in the repository.
+         *
+         * @param key  the key
+         */
+        void onKey(E key);
+    }
+
+}
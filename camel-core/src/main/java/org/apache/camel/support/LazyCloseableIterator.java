@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * Base class for an {@link Iterator} which reads its elements lazily, one at a time, for example
+ * from a stream by a streaming data format.
+ * <p/>
+ * The iterator is closed when there are no more elements, when reading an element fails, or when
+ * the iterator is closed explicitly. Use {@link org.apache.camel.util.ExchangeHelper#closeOnCompletion}
+ * to ensure the iterator is closed when the exchange is done, even if not all elements have been read.
+ *
+ * @version 
+ */
+public abstract class LazyCloseableIterator<T> implements Iterator<T>, Closeable {
+
+    private T next;
+    private boolean closed;
+
+    public boolean hasNext() {
+        if (next == null && !closed) {
+            try {
+                next = readNext();
+            } catch (RuntimeException e) {
+                IOHelper.close(this);
+                throw e;
+            } catch (Exception e) {
+                IOHelper.close(this);
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+            if (next == null) {
+                // no more elements
+                IOHelper.close(this);
+            }
+        }
+        return next != null;
+    }
+
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T answer = next;
+        next = null;
+        return answer;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("Remove is not supported");
+    }
+
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            doClose();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Reads the next element.
+     *
+     * @return the next element, or <tt>null</tt> if there are no more elements
+     * @throws Exception is thrown if the element could not be read, which also closes the iterator
+     */
+    protected abstract T readNext() throws Exception;
+
+    /**
+     * Closes the underlying resources, which is only invoked once.
+     */
+    protected abstract void doClose() throws IOException;
+
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.camel.util;
 
+import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +41,7 @@ import org.apache.camel.NoTypeConversionAvailableException;
 import org.apache.camel.TypeConversionException;
 import org.apache.camel.TypeConverter;
 import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.support.SynchronizationAdapter;
 import org.apache.camel.spi.UnitOfWork;
 
 /**
@@ -812,6 +814,24 @@ public final class ExchangeHelper {
         return answer;
     }
 
+    /**
+     * Closes the given resource when the exchange is done.
+     * <p/>
+     * This is used by streaming data formats which return an iterator which reads lazily from the stream,
+     * to make sure the stream is closed even if not all the data has been read.
+     *
+     * @param exchange  the exchange
+     * @param closeable the resource to close
+     */
+    public static void closeOnCompletion(Exchange exchange, final Closeable closeable) {
+        exchange.addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange exchange) {
+                IOHelper.close(closeable);
+            }
+        });
+    }
+
     private static Map<String, Object> safeCopy(Map<String, Object> properties) {
         if (properties == null) {
             return null;
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An {@link OutputStream} which compresses the data in GZIP format using multiple threads.
+ * <p/>
+ * The data is split into blocks which are compressed in parallel by the given {@link ExecutorService},
+ * each block as a separate GZIP member. The members are written in order, so the output is a
+ * concatenation of GZIP members as described in RFC 1952, which can be read by any GZIP decompressor,
+ * such as {@link java.util.zip.GZIPInputStream}.
+ * <p/>
+ * This stream is not thread safe.
+ *
+ * @version 
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final ExecutorService executorService;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final int compressionLevel;
+    private final LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+    private final byte[] single = new byte[1];
+    private byte[] block;
+    private int count;
+    private boolean written;
+    private boolean closed;
+
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executorService) {
+        this(out, executorService, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors() * 2, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates the stream.
+     *
+     * @param out              the stream to write the compressed data to
+     * @param executorService  the thread pool to compress the blocks
+     * @param blockSize        the number of bytes in each block
+     * @param maxPendingBlocks the maximum number of blocks being compressed before the writer waits,
+     *                         which limits the memory used
+     * @param compressionLevel the compression level
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executorService, int blockSize,
+                                    int maxPendingBlocks, int compressionLevel) {
+        ObjectHelper.notNull(out, "out");
+        ObjectHelper.notNull(executorService, "executorService");
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("BlockSize must be positive, was: " + blockSize);
+        }
+        this.out = out;
+        this.executorService = executorService;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        this.compressionLevel = compressionLevel;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses the buffered data and writes all the pending blocks, without closing the underlying stream.
+     */
+    public void finish() throws IOException {
+        if (closed) {
+            return;
+        }
+        // an empty input must still be a valid GZIP stream
+        if (count > 0 || !written) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writePendingBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // only the completed blocks can be flushed, as a GZIP member cannot be split
+        while (!pending.isEmpty() && pending.getFirst().isDone()) {
+            writePendingBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            finish();
+        } finally {
+            closed = true;
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] data = block;
+        final int length = count;
+        pending.add(executorService.submit(new Callable<byte[]>() {
+            public byte[] call() throws Exception {
+                return compress(data, length);
+            }
+        }));
+        written = true;
+        // the block is owned by the task, so use a new block
+        block = new byte[blockSize];
+        count = 0;
+
+        if (pending.size() >= maxPendingBlocks) {
+            writePendingBlock();
+        }
+    }
+
+    private void writePendingBlock() throws IOException {
+        Future<byte[]> future = pending.removeFirst();
+        try {
+            out.write(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw IOHelper.createIOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw IOHelper.createIOException("Error compressing block", e.getCause());
+        }
+    }
+
+    private byte[] compress(byte[] data, int length) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2 + 64);
+        bos.write(HEADER, 0, HEADER.length);
+
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[Math.min(64 * 1024, length + 64)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                bos.write(buffer, 0, n);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        writeInt(bos, (int) crc.getValue());
+        writeInt(bos, length);
+        return bos.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream bos, int value) {
+        // little endian as per the GZIP format
+        bos.write(value & 0xff);
+        bos.write((value >> 8) & 0xff);
+        bos.write((value >> 16) & 0xff);
+        bos.write((value >> 24) & 0xff);
+    }
+}
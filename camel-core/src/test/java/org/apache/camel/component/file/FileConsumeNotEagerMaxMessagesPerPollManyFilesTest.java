@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+/**
+ * Unit test for max messages per poll when not eager and there is many more files than the limit
+ */
+public class FileConsumeNotEagerMaxMessagesPerPollManyFilesTest extends ContextTestSupport {
+
+    private String fileUrl = "file://target/pollmany/?initialDelay=2000&delay=1000&"
+            + "maxMessagesPerPoll=3&eagerMaxMessagesPerPoll=false&sortBy=reverse:file:name";
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/pollmany");
+        super.setUp();
+        for (int i = 10; i < 30; i++) {
+            template.sendBodyAndHeader(fileUrl, "Hello " + i, Exchange.FILE_NAME, "file" + i + ".txt");
+        }
+    }
+
+    public void testMaxMessagesPerPoll() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceived("Hello 29", "Hello 28", "Hello 27");
+        mock.expectedPropertyReceived(Exchange.BATCH_SIZE, 3);
+
+        assertMockEndpointsSatisfied();
+
+        // the files pushed out must not be in progress, so they are picked up by the next poll
+        mock.reset();
+        mock.expectedBodiesReceived("Hello 26", "Hello 25", "Hello 24");
+        mock.expectedPropertyReceived(Exchange.BATCH_SIZE, 3);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from(fileUrl).convertBodyTo(String.class).to("mock:result");
+            }
+        };
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+
+/**
+ * Unit test for the watch option
+ */
+public class FileConsumerWatchTest extends ContextTestSupport {
+
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("myFilter", new GenericFileFilter<Object>() {
+            public boolean accept(GenericFile<Object> file) {
+                if (file.getFileNameOnly().equals("skipme.txt")) {
+                    skipped.incrementAndGet();
+                    return false;
+                }
+                return true;
+            }
+        });
+        return jndi;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/filewatch");
+        deleteDirectory("target/filewatch-tmp");
+        createDirectory("target/filewatch/sub");
+        new File("target/filewatch/skipme.txt").createNewFile();
+        new File("target/filewatch/sub/skipme.txt").createNewFile();
+        // pretend the directories were modified a while ago
+        long past = System.currentTimeMillis() - 10000;
+        new File("target/filewatch/sub").setLastModified(past);
+        new File("target/filewatch").setLastModified(past);
+        super.setUp();
+    }
+
+    public void testUnchangedDirectoriesNotListed() throws Exception {
+        // wait for the first poll which lists all the directories
+        for (int i = 0; i < 50 && skipped.get() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, skipped.get());
+
+        // the directories are not listed again as they have not changed
+        Thread.sleep(500);
+        assertEquals(2, skipped.get());
+    }
+
+    public void testNewFilesPickedUp() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceivedInAnyOrder("Hello World", "Bye World");
+
+        // write the files elsewhere and move them so they appear atomically
+        template.sendBodyAndHeader("file:target/filewatch-tmp", "Hello World", Exchange.FILE_NAME, "hello.txt");
+        template.sendBodyAndHeader("file:target/filewatch-tmp", "Bye World", Exchange.FILE_NAME, "bye.txt");
+        assertTrue(new File("target/filewatch-tmp/hello.txt").renameTo(new File("target/filewatch/hello.txt")));
+        assertTrue(new File("target/filewatch-tmp/bye.txt").renameTo(new File("target/filewatch/sub/bye.txt")));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from("file://target/filewatch?watch=true&watchFullScanInterval=0&recursive=true&filter=#myFilter&initialDelay=0&delay=10")
+                    .convertBodyTo(String.class).to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.converter.stream.InputStreamCache;
+
+/**
+ * @version 
+ */
+public class BinaryExchangeCodecTest extends ContextTestSupport {
+
+    private BinaryExchangeCodec codec = new BinaryExchangeCodec();
+
+    public void testMarshalUnmarshal() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello World");
+        exchange.getIn().setHeader("string", "foo");
+        exchange.getIn().setHeader("boolean", true);
+        exchange.getIn().setHeader("byte", (byte) 1);
+        exchange.getIn().setHeader("short", (short) 2);
+        exchange.getIn().setHeader("int", 3);
+        exchange.getIn().setHeader("long", 4L);
+        exchange.getIn().setHeader("float", 5.5f);
+        exchange.getIn().setHeader("double", 6.5d);
+        exchange.getIn().setHeader("char", 'c');
+        exchange.getIn().setHeader("date", new Date(1000));
+        exchange.getIn().setHeader("bytes", new byte[]{1, 2, 3});
+        List<String> list = new ArrayList<String>();
+        list.add("A");
+        exchange.getIn().setHeader("list", list);
+        exchange.getOut().setBody("Bye World");
+        exchange.getOut().setHeader("bar", 123);
+        exchange.getOut().setFault(true);
+        exchange.setException(new IllegalArgumentException("Damn"));
+        exchange.setProperty("skipped", "not retained");
+
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(Exchange.AGGREGATED_SIZE, 2);
+
+        Exchange answer = codec.unmarshal(context, codec.marshal(exchange, properties));
+
+        assertEquals(exchange.getExchangeId(), answer.getExchangeId());
+        assertEquals("Hello World", answer.getIn().getBody());
+        assertEquals("foo", answer.getIn().getHeader("string"));
+        assertEquals(Boolean.TRUE, answer.getIn().getHeader("boolean"));
+        assertEquals((byte) 1, answer.getIn().getHeader("byte"));
+        assertEquals((short) 2, answer.getIn().getHeader("short"));
+        assertEquals(3, answer.getIn().getHeader("int"));
+        assertEquals(4L, answer.getIn().getHeader("long"));
+        assertEquals(5.5f, answer.getIn().getHeader("float"));
+        assertEquals(6.5d, answer.getIn().getHeader("double"));
+        assertEquals('c', answer.getIn().getHeader("char"));
+        assertEquals(new Date(1000), answer.getIn().getHeader("date"));
+        byte[] bytes = answer.getIn().getHeader("bytes", byte[].class);
+        assertEquals(3, bytes.length);
+        assertEquals(3, bytes[2]);
+        assertEquals(list, answer.getIn().getHeader("list"));
+        assertEquals("Bye World", answer.getOut().getBody());
+        assertEquals(123, answer.getOut().getHeader("bar"));
+        assertTrue(answer.getOut().isFault());
+        assertIsInstanceOf(IllegalArgumentException.class, answer.getException());
+        assertEquals("Damn", answer.getException().getMessage());
+        assertEquals(2, answer.getProperty(Exchange.AGGREGATED_SIZE));
+        assertNull(answer.getProperty("skipped"));
+    }
+
+    public void testStreamCache() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        InputStreamCache cache = new InputStreamCache("Hello World".getBytes());
+        exchange.getIn().setBody(cache);
+
+        Exchange answer = codec.unmarshal(context, codec.marshal(exchange, null));
+
+        assertIsInstanceOf(StreamCache.class, answer.getIn().getBody());
+        assertEquals("Hello World", answer.getIn().getBody(String.class));
+        // the original stream cache can still be read
+        assertEquals("Hello World", exchange.getIn().getBody(String.class));
+    }
+
+    public void testSkipNonSerializableData() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello World");
+        exchange.getIn().setHeader("Foo", new MyFoo("Tiger"));
+        exchange.getIn().setHeader("Bar", 123);
+
+        Exchange answer = codec.unmarshal(context, codec.marshal(exchange, null));
+
+        assertEquals("Hello World", answer.getIn().getBody());
+        assertEquals(123, answer.getIn().getHeader("Bar"));
+        assertNull(answer.getIn().getHeader("Foo"));
+        assertFalse(answer.hasOut());
+    }
+
+    public void testFailOnSerializableDataWhichCannotBeSerialized() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello World");
+        // the list is serializable but its element is not
+        List<Object> list = new ArrayList<Object>();
+        list.add(new MyFoo("Tiger"));
+
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(Exchange.AGGREGATED_CORRELATION_KEY, list);
+
+        try {
+            codec.marshal(exchange, properties);
+            fail("Should have thrown an exception");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Exchange properties containing key: " + Exchange.AGGREGATED_CORRELATION_KEY));
+            assertIsInstanceOf(NotSerializableException.class, e.getCause());
+        }
+    }
+
+    public void testRetainedProperties() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.setProperty(Exchange.AGGREGATED_SIZE, 3);
+        exchange.setProperty(Exchange.AGGREGATED_CORRELATION_KEY, "foo");
+        exchange.setProperty("skipped", "not retained");
+        exchange.setFromEndpoint(context.getEndpoint("direct:start"));
+
+        Map<String, Object> properties = ExchangeCodecHelper.retainedProperties(exchange);
+        assertEquals(3, properties.size());
+
+        Exchange answer = codec.unmarshal(context, codec.marshal(exchange, properties));
+        ExchangeCodecHelper.restoreFromEndpoint(context, answer);
+
+        assertEquals(3, answer.getProperty(Exchange.AGGREGATED_SIZE));
+        assertEquals("foo", answer.getProperty(Exchange.AGGREGATED_CORRELATION_KEY));
+        assertNull(answer.getProperty(ExchangeCodecHelper.AGGREGATED_FROM_ENDPOINT));
+        assertSame(context.getEndpoint("direct:start"), answer.getFromEndpoint());
+    }
+
+    public void testSmallerThanSerialization() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello World");
+        exchange.getIn().setHeader("foo", 123);
+        exchange.getIn().setHeader("bar", "Bye World");
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(DefaultExchangeHolder.marshal(exchange, false));
+        oos.close();
+
+        byte[] data = codec.marshal(exchange, null);
+        assertTrue(BinaryExchangeCodec.isBinaryExchange(data));
+        assertFalse(BinaryExchangeCodec.isBinaryExchange(bos.toByteArray()));
+        assertTrue("Should be smaller than Java serialization", data.length < bos.size());
+    }
+
+    public void testUnsupportedVersion() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        byte[] data = codec.marshal(exchange, null);
+        data[2] = 99;
+        try {
+            codec.unmarshal(context, data);
+            fail("Should have thrown an exception");
+        } catch (IOException e) {
+            assertEquals("Unsupported binary exchange version: 99, expected: 1", e.getMessage());
+        }
+    }
+
+    private static final class MyFoo {
+        private String foo;
+
+        private MyFoo(String foo) {
+            this.foo = foo;
+        }
+
+        public String getFoo() {
+            return foo;
+        }
+    }
+}
@@ -72,4 +72,39 @@ public class GzipDataFormatTest extends ContextTestSupport {
         sendText();
         result.assertIsSatisfied();
     }
+
+    public void testParallelMarshalTextToGZip() throws Exception {
+        final GzipDataFormat gzip = new GzipDataFormat();
+        gzip.setParallel(true);
+        gzip.setPoolSize(4);
+        // small blocks so the text is compressed as several members
+        gzip.setBlockSize(32);
+
+        context.addRoutes(new RouteBuilder() {
+            public void configure() {
+                from("direct:start").marshal(gzip);
+            }
+        });
+        context.start();
+
+        byte[] output = sendText();
+
+        GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream(output));
+        String result = IOConverter.toString(stream, null);
+        assertEquals("Uncompressed something different than compressed", TEXT, result);
+    }
+
+    public void testParallelUnMarshalTextToGzip() throws Exception {
+        context.addRoutes(new RouteBuilder() {
+            public void configure() {
+                from("direct:start").marshal().gzip(true).unmarshal().gzip().to("mock:result");
+            }
+        });
+        context.start();
+
+        MockEndpoint result = context.getEndpoint("mock:result", MockEndpoint.class);
+        result.expectedBodiesReceived(TEXT.getBytes("UTF-8"));
+        sendText();
+        result.assertIsSatisfied();
+    }
 }
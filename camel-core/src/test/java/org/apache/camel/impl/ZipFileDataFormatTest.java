@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.aggregate.GroupedExchangeAggregationStrategy;
+import org.apache.camel.util.IOHelper;
+
+/**
+ * Unit test of the zip file data format.
+ */
+public class ZipFileDataFormatTest extends ContextTestSupport {
+
+    public void testMarshal() throws Exception {
+        byte[] output = (byte[]) template.requestBodyAndHeader("direct:marshal", "Hello World", Exchange.FILE_NAME, "dir/hello.txt");
+
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output));
+        ZipEntry entry = zip.getNextEntry();
+        assertEquals("hello.txt", entry.getName());
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        IOHelper.copy(zip, bos);
+        assertEquals("Hello World", bos.toString("UTF-8"));
+        assertNull(zip.getNextEntry());
+    }
+
+    public void testUnmarshalEntries() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:entry");
+        mock.expectedBodiesReceived("Hello", "World", "Bye");
+        mock.message(0).header(Exchange.FILE_NAME).isEqualTo("a.txt");
+        mock.message(1).header(Exchange.FILE_NAME).isEqualTo("b/b.txt");
+        mock.message(2).header(Exchange.FILE_NAME).isEqualTo("c.txt");
+        mock.allMessages().header("foo").isEqualTo("bar");
+
+        template.sendBodyAndHeader("direct:unmarshal", createZip(), "foo", "bar");
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testUnmarshalLargeEntries() throws Exception {
+        // larger than the stream cache threshold so the entries are spooled to disk
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            sb.append("Line ").append(i).append("\n");
+        }
+        String text = sb.toString();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ZipOutputStream zip = new ZipOutputStream(bos);
+        zip.putNextEntry(new ZipEntry("a.txt"));
+        zip.write(text.getBytes("UTF-8"));
+        zip.putNextEntry(new ZipEntry("b.txt"));
+        zip.write(text.getBytes("UTF-8"));
+        zip.close();
+
+        MockEndpoint mock = getMockEndpoint("mock:entry");
+        mock.expectedBodiesReceived(text, text);
+
+        template.sendBody("direct:unmarshal", bos.toByteArray());
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testUnmarshalFile() throws Exception {
+        deleteDirectory("target/zipfile");
+        createDirectory("target/zipfile");
+        File file = new File("target/zipfile/test.zip");
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write(createZip());
+        fos.close();
+
+        MockEndpoint mock = getMockEndpoint("mock:entry");
+        mock.expectedBodiesReceived("Hello", "World", "Bye");
+        mock.message(2).header(Exchange.FILE_NAME).isEqualTo("c.txt");
+
+        template.sendBody("direct:unmarshal", file);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testUnmarshalFileReadEntriesAfterSplit() throws Exception {
+        deleteDirectory("target/zipfile");
+        createDirectory("target/zipfile");
+        File file = new File("target/zipfile/test.zip");
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write(createZip());
+        fos.close();
+
+        MockEndpoint mock = getMockEndpoint("mock:grouped");
+        mock.expectedBodiesReceived("Hello World Bye");
+
+        template.sendBody("direct:grouped", file);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testUnmarshalReadEntriesAfterSplit() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:grouped");
+        mock.expectedBodiesReceived("Hello World Bye");
+
+        template.sendBody("direct:grouped", createZip());
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testUnmarshalSkipEntryBody() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:name");
+        mock.expectedBodiesReceived("a.txt", "b/b.txt", "c.txt");
+
+        template.sendBody("direct:names", createZip());
+
+        assertMockEndpointsSatisfied();
+    }
+
+    private static byte[] createZip() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ZipOutputStream zip = new ZipOutputStream(bos);
+        zip.putNextEntry(new ZipEntry("a.txt"));
+        zip.write("Hello".getBytes("UTF-8"));
+        zip.putNextEntry(new ZipEntry("b/"));
+        zip.putNextEntry(new ZipEntry("b/b.txt"));
+        zip.write("World".getBytes("UTF-8"));
+        zip.putNextEntry(new ZipEntry("c.txt"));
+        zip.write("Bye".getBytes("UTF-8"));
+        zip.close();
+        return bos.toByteArray();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:marshal").marshal().zipFile();
+
+                from("direct:unmarshal")
+                    .unmarshal().zipFile()
+                    .split(body()).streaming()
+                        .convertBodyTo(String.class)
+                        .to("mock:entry");
+
+                // the entries are read after all the entries have been split
+                from("direct:grouped")
+                    .unmarshal().zipFile()
+                    .split(body(), new GroupedExchangeAggregationStrategy()).streaming()
+                        .to("log:entry")
+                    .end()
+                    .process(new Processor() {
+                        @SuppressWarnings("unchecked")
+                        public void process(Exchange exchange) throws Exception {
+                            List<Exchange> entries = exchange.getProperty(Exchange.GROUPED_EXCHANGE, List.class);
+                            StringBuilder sb = new StringBuilder();
+                            for (Exchange entry : entries) {
+                                if (sb.length() > 0) {
+                                    sb.append(" ");
+                                }
+                                sb.append(entry.getIn().getBody(String.class));
+                            }
+                            exchange.getIn().setBody(sb.toString());
+                        }
+                    })
+                    .to("mock:grouped");
+
+                // the entries are skipped without reading them
+                from("direct:names")
+                    .unmarshal().zipFile()
+                    .split(body()).streaming()
+                        .setBody(header(Exchange.FILE_NAME))
+                        .to("mock:name");
+            }
+        };
+    }
+}
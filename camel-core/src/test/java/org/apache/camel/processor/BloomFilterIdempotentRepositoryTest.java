@@ -0,0 +1,241 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.idempotent.BloomFilterIdempotentRepository;
+import org.apache.camel.processor.idempotent.MemoryIdempotentRepository;
+
+/**
+ * @version
+ */
+public class BloomFilterIdempotentRepositoryTest extends ContextTestSupport {
+    private CountingRepository store;
+    private BloomFilterIdempotentRepository repo;
+
+    @Override
+    protected void setUp() throws Exception {
+        store = new CountingRepository();
+        repo = new BloomFilterIdempotentRepository(store);
+        repo.setShared(false);
+        repo.setBatchSize(10);
+        // we write the batches manually
+        repo.setBatchInterval(0);
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        repo.stop();
+        super.tearDown();
+    }
+
+    public void testIdempotentConsumer() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceived("one", "two", "three");
+
+        template.sendBodyAndHeader("direct:start", "one", "messageId", "1");
+        template.sendBodyAndHeader("direct:start", "two", "messageId", "2");
+        template.sendBodyAndHeader("direct:start", "one", "messageId", "1");
+        template.sendBodyAndHeader("direct:start", "three", "messageId", "3");
+        template.sendBodyAndHeader("direct:start", "two", "messageId", "2");
+
+        assertMockEndpointsSatisfied();
+
+        // the new keys was not looked up in the store
+        assertEquals(0, store.lookups.get());
+        assertEquals(3, repo.getSavedLookups());
+
+        // and is written when stopping
+        context.stop();
+        assertEquals(3, store.getCacheSize());
+    }
+
+    public void testExistingKeys() throws Exception {
+        store.add("A");
+        store.add("B");
+        store.lookups.set(0);
+
+        // restart to load the existing keys
+        repo.stop();
+        repo.start();
+
+        assertTrue(repo.contains("A"));
+        assertTrue(repo.contains("B"));
+        assertFalse(repo.add("A"));
+        assertEquals(3, store.lookups.get());
+
+        assertFalse(repo.contains("C"));
+        assertTrue(repo.add("C"));
+        assertEquals(3, store.lookups.get());
+        assertEquals(2, repo.getSavedLookups());
+        assertEquals(0, repo.getFalsePositives());
+    }
+
+    public void testBatchedWrites() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            assertTrue(repo.add("key" + i));
+        }
+        for (int i = 0; i < 25; i++) {
+            assertFalse(repo.add("key" + i));
+        }
+
+        // the batch size triggers writing the keys in the background
+        for (int i = 0; i < 50 && store.getCacheSize() < 20; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(store.getCacheSize() >= 20);
+
+        repo.stop();
+        assertEquals(25, store.getCacheSize());
+    }
+
+    public void testRemovePendingKey() throws Exception {
+        assertTrue(repo.add("A"));
+        assertTrue(repo.contains("A"));
+        assertTrue(repo.remove("A"));
+        assertFalse(repo.contains("A"));
+
+        repo.stop();
+        assertEquals(0, store.getCacheSize());
+    }
+
+    public void testWriteThrough() throws Exception {
+        repo.stop();
+        repo.setBatchSize(0);
+        repo.start();
+
+        assertTrue(repo.add("A"));
+        assertTrue(store.contains("A"));
+        assertFalse(repo.add("A"));
+    }
+
+    public void testStopRetriesWrite() throws Exception {
+        assertTrue(repo.add("A"));
+        store.failures.set(2);
+
+        repo.stop();
+        assertTrue(store.contains("A"));
+    }
+
+    public void testStopFailsWhenKeysCannotBeWritten() throws Exception {
+        assertTrue(repo.add("A"));
+        store.failures.set(100);
+
+        try {
+            repo.stop();
+            fail("Should have thrown an exception");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Cannot write 1 new keys to repository"));
+        }
+        assertFalse(store.contains("A"));
+
+        // the key is kept and written when started and stopped again
+        store.failures.set(0);
+        repo.start();
+        assertTrue(repo.contains("A"));
+        repo.stop();
+        assertTrue(store.contains("A"));
+    }
+
+    public void testShared() throws Exception {
+        repo.stop();
+        repo.setShared(true);
+        repo.start();
+
+        // keys added by someone else after the filter was built are not in the filter
+        store.add("A");
+        store.lookups.set(0);
+
+        assertTrue(repo.contains("A"));
+        assertFalse(repo.add("A"));
+        assertFalse(repo.contains("B"));
+
+        // new keys are written when they are added
+        assertTrue(repo.add("B"));
+        assertTrue(store.contains("B"));
+        assertFalse(repo.add("B"));
+
+        assertEquals(0, repo.getSavedLookups());
+        assertEquals(0, repo.getFalsePositives());
+    }
+
+    public void testRebuild() throws Exception {
+        assertTrue(repo.add("A"));
+        repo.stop();
+        repo.start();
+
+        // remove the key behind the back of the filter so it becomes a false positive
+        store.remove("A");
+        store.lookups.set(0);
+        assertFalse(repo.contains("A"));
+        assertEquals(1, store.lookups.get());
+        assertEquals(1, repo.getFalsePositives());
+        assertEquals(1.0, repo.getFalsePositiveRate());
+
+        // after rebuilding the filter the key is definitely not in the store
+        repo.rebuild();
+        assertFalse(repo.contains("A"));
+        assertEquals(1, store.lookups.get());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .idempotentConsumer(header("messageId"), repo)
+                    .to("mock:result");
+            }
+        };
+    }
+
+    private static final class CountingRepository extends MemoryIdempotentRepository {
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        CountingRepository() {
+            super(new ConcurrentHashMap<String, Object>());
+        }
+
+        @Override
+        public boolean add(String key) {
+            lookups.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated error writing key: " + key);
+            }
+            return super.add(key);
+        }
+
+        @Override
+        public boolean contains(String key) {
+            lookups.incrementAndGet();
+            return super.contains(key);
+        }
+
+        @Override
+        protected void doStop() throws Exception {
+            // keep the keys
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.idempotent.SegmentedFileIdempotentRepository;
+
+/**
+ * @version
+ */
+public class SegmentedFileIdempotentRepositoryTest extends ContextTestSupport {
+    private File directory = new File("target/idempotent-segments");
+    private SegmentedFileIdempotentRepository repo;
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory(directory);
+
+        repo = new SegmentedFileIdempotentRepository(directory);
+        // use a small segment size to roll segments
+        repo.setMaxSegmentSize(100);
+        repo.setSyncInterval(0);
+        // we compact manually
+        repo.setCompactionInterval(0);
+
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        repo.stop();
+        super.tearDown();
+    }
+
+    public void testIdempotentConsumer() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceived("one", "two", "three");
+
+        template.sendBodyAndHeader("direct:start", "one", "messageId", "1");
+        template.sendBodyAndHeader("direct:start", "two", "messageId", "2");
+        template.sendBodyAndHeader("direct:start", "one", "messageId", "1");
+        template.sendBodyAndHeader("direct:start", "three", "messageId", "3");
+        template.sendBodyAndHeader("direct:start", "two", "messageId", "2");
+
+        assertMockEndpointsSatisfied();
+        assertEquals(3, repo.getSize());
+    }
+
+    public void testReloadStore() throws Exception {
+        repo.setCamelContext(context);
+        repo.start();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(repo.add("key" + i));
+        }
+        assertFalse(repo.add("key10"));
+        assertTrue(repo.remove("key10"));
+        assertTrue(repo.getSegmentCount() > 1);
+
+        repo.stop();
+        assertFalse(repo.contains("key1"));
+        repo.start();
+
+        assertEquals(49, repo.getSize());
+        assertTrue(repo.contains("key0"));
+        assertTrue(repo.contains("key49"));
+        assertFalse(repo.contains("key10"));
+    }
+
+    public void testCompaction() throws Exception {
+        repo.setCamelContext(context);
+        repo.start();
+
+        for (int i = 0; i < 50; i++) {
+            repo.add("key" + i);
+        }
+        for (int i = 0; i < 40; i++) {
+            repo.remove("key" + i);
+        }
+        assertTrue(repo.getSegmentCount() > 2);
+
+        repo.compact();
+
+        // the compacted segment and the active segment
+        assertEquals(2, repo.getSegmentCount());
+        assertEquals(10, repo.getSize());
+
+        // the keys removed after compacting must remain removed
+        repo.remove("key49");
+        assertTrue(repo.add("key0"));
+
+        repo.stop();
+        repo.start();
+
+        assertEquals(10, repo.getSize());
+        assertTrue(repo.contains("key0"));
+        assertFalse(repo.contains("key1"));
+        assertTrue(repo.contains("key40"));
+        assertFalse(repo.contains("key49"));
+    }
+
+    public void testRetention() throws Exception {
+        repo.setCamelContext(context);
+        repo.setRetention(200);
+        repo.start();
+
+        assertTrue(repo.add("A"));
+        assertFalse(repo.add("A"));
+        assertTrue(repo.contains("A"));
+
+        Thread.sleep(400);
+
+        assertFalse(repo.contains("A"));
+        assertTrue(repo.add("A"));
+        assertTrue(repo.contains("A"));
+    }
+
+    public void testIncompleteRecord() throws Exception {
+        repo.setCamelContext(context);
+        repo.setMaxSegmentSize(1024);
+        repo.start();
+
+        repo.add("A");
+        repo.add("B");
+        repo.stop();
+
+        // simulate a crash while writing a record
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        long length = files[0].length();
+        FileOutputStream fos = new FileOutputStream(files[0], true);
+        fos.write(new byte[]{1, 0, 0, 0});
+        fos.close();
+
+        repo.start();
+
+        assertEquals(2, repo.getSize());
+        assertTrue(repo.contains("A"));
+        assertTrue(repo.contains("B"));
+        assertEquals(length, files[0].length());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .idempotentConsumer(header("messageId"), repo)
+                    .to("mock:result");
+            }
+        };
+    }
+}
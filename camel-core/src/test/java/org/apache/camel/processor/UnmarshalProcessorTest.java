@@ -16,8 +16,13 @@
  */
 package org.apache.camel.processor;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
@@ -74,6 +79,55 @@ public class UnmarshalProcessorTest extends TestSupport {
         assertSame("UnmarshalProcessor did not make use of the returned object being returned while unmarshalling", unmarshalled, exchange.getOut().getBody());
     }
 
+    public void testDataFormatReturnsIterator() throws Exception {
+        MyInputStream stream = new MyInputStream();
+        Exchange exchange = createExchangeWithBody(new DefaultCamelContext(), stream);
+        Processor processor = new UnmarshalProcessor(new MyDataFormat(Arrays.asList("A", "B").iterator()));
+
+        processor.process(exchange);
+        assertTrue("UnmarshalProcessor should close the stream when the iterator is not closeable", stream.closed);
+    }
+
+    public void testDataFormatReturnsCloseableIterator() throws Exception {
+        MyInputStream stream = new MyInputStream();
+        Exchange exchange = createExchangeWithBody(new DefaultCamelContext(), stream);
+        Processor processor = new UnmarshalProcessor(new MyDataFormat(new MyCloseableIterator()));
+
+        processor.process(exchange);
+        assertFalse("UnmarshalProcessor should leave the stream to the closeable iterator", stream.closed);
+    }
+
+    private static class MyInputStream extends ByteArrayInputStream {
+        private boolean closed;
+
+        MyInputStream() {
+            super("A\nB".getBytes());
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private static class MyCloseableIterator implements Iterator<Object>, Closeable {
+
+        public boolean hasNext() {
+            return false;
+        }
+
+        public Object next() {
+            return null;
+        }
+
+        public void remove() {
+        }
+
+        public void close() throws IOException {
+        }
+    }
+
     private static class MyDataFormat implements DataFormat {
 
         private final Object object;
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent;
+
+import junit.framework.TestCase;
+
+/**
+ * @version
+ */
+public class ScalableBloomFilterTest extends TestCase {
+
+    public void testNoFalseNegatives() throws Exception {
+        // a small filter so it has to grow
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("key" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue("Should contain key" + i, filter.mightContain("key" + i));
+        }
+    }
+
+    public void testFalsePositiveProbability() throws Exception {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("key" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        // should be below twice the probability, allow some margin
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 300);
+    }
+
+    public void testInvalidProbability() throws Exception {
+        try {
+            new ScalableBloomFilter(100, 1);
+            fail("Should have thrown an exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("FalsePositiveProbability must be between 0 and 1, was: 1.0", e.getMessage());
+        }
+    }
+}
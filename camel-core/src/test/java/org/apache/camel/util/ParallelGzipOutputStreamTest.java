@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ParallelGzipOutputStreamTest {
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void compressManyBlocks() throws Exception {
+        byte[] data = new byte[100000];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            // compressible data
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(bos, executorService, 1000, 3, 6);
+        // write in odd sized chunks so the blocks do not line up with the writes
+        for (int i = 0; i < data.length; i += 777) {
+            gzip.write(data, i, Math.min(777, data.length - i));
+        }
+        gzip.close();
+
+        assertArrayEquals(data, uncompress(bos.toByteArray()));
+    }
+
+    @Test
+    public void compressSingleBytes() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(bos, executorService, 2, 2, 6);
+        gzip.write('a');
+        gzip.write('b');
+        gzip.write('c');
+        gzip.close();
+
+        assertArrayEquals("abc".getBytes(), uncompress(bos.toByteArray()));
+    }
+
+    @Test
+    public void compressEmpty() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(bos, executorService);
+        gzip.close();
+
+        assertArrayEquals(new byte[0], uncompress(bos.toByteArray()));
+    }
+
+    private static byte[] uncompress(byte[] data) throws Exception {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        IOHelper.copyAndCloseInput(in, bos);
+        return bos.toByteArray();
+    }
+}
@@ -19,15 +19,20 @@ package org.apache.camel.dataformat.avro;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericContainer;
-import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DatumWriter;
-import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.specific.SpecificDatumReader;
 import org.apache.avro.specific.SpecificDatumWriter;
@@ -36,12 +41,23 @@ import org.apache.camel.CamelContext;
 import org.apache.camel.CamelException;
 import org.apache.camel.Exchange;
 import org.apache.camel.spi.DataFormat;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.ObjectHelper;
 
 public class AvroDataFormat implements DataFormat {
 
     private Schema schema;
     private String instanceClassName;
+    private boolean containerFile;
+    private String codec = "deflate";
+
+    // the schemas loaded from the classes, and the readers and writers which are thread safe and can be reused per schema
+    private final ConcurrentMap<String, Schema> loadedSchemas = new ConcurrentHashMap<String, Schema>();
+    private final ConcurrentMap<Schema, DatumReader<Object>> readers = new ConcurrentHashMap<Schema, DatumReader<Object>>();
+    private final ConcurrentMap<Schema, DatumWriter<Object>> writers = new ConcurrentHashMap<Schema, DatumWriter<Object>>();
+    // the encoders and decoders hold a buffer and are not thread safe, so they are reused per thread
+    private final ThreadLocal<BinaryEncoder> encoders = new ThreadLocal<BinaryEncoder>();
+    private final ThreadLocal<BinaryDecoder> decoders = new ThreadLocal<BinaryDecoder>();
 
     public AvroDataFormat() {
     }
@@ -50,13 +66,13 @@ public class AvroDataFormat implements DataFormat {
         this.schema = schema;
     }
 
-    public synchronized Schema getSchema(Exchange exchange, Object graph) throws Exception {
+    public Schema getSchema(Exchange exchange, Object graph) throws Exception {
         if (schema == null) {
             if (instanceClassName != null) {
-                return loadDefaultSchema(instanceClassName, exchange.getContext());
+                return getLoadedSchema(instanceClassName, exchange.getContext());
             }
             if (graph != null && graph instanceof GenericContainer) {
-                return loadDefaultSchema(graph.getClass().getName(), exchange.getContext());
+                return getLoadedSchema(graph.getClass().getName(), exchange.getContext());
             } else {
                 throw new CamelException("There is not schema for avro marshaling / unmarshaling");
             }
@@ -77,6 +93,42 @@ public class AvroDataFormat implements DataFormat {
         instanceClassName = className;
     }
 
+    public boolean isContainerFile() {
+        return containerFile;
+    }
+
+    /**
+     * Whether to use the avro object container file format.
+     * <p/>
+     * When enabled, marshal writes the record, or each of the records if the body is a collection of records,
+     * into a single container file with the schema in its header. Unmarshal returns an {@link Iterator} which reads
+     * the records one at a time from a container file, for example to be used with the streaming mode of the splitter.
+     */
+    public void setContainerFile(boolean containerFile) {
+        this.containerFile = containerFile;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * The codec used to compress the blocks of container files written by marshal, such as <tt>null</tt>,
+     * <tt>deflate</tt> or <tt>snappy</tt>. Is default <tt>deflate</tt>.
+     */
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    protected Schema getLoadedSchema(String className, CamelContext context) throws CamelException, ClassNotFoundException {
+        Schema answer = loadedSchemas.get(className);
+        if (answer == null) {
+            answer = loadDefaultSchema(className, context);
+            loadedSchemas.putIfAbsent(className, answer);
+        }
+        return answer;
+    }
+
     protected Schema loadDefaultSchema(String className, CamelContext context) throws CamelException, ClassNotFoundException {
         Class<?> instanceClass = context.getClassResolver().resolveMandatoryClass(className);
         if (GenericContainer.class.isAssignableFrom(instanceClass)) {
@@ -93,18 +145,90 @@ public class AvroDataFormat implements DataFormat {
         }
     }
 
+    protected DatumReader<Object> getReader(Schema schema) {
+        DatumReader<Object> answer = readers.get(schema);
+        if (answer == null) {
+            answer = new SpecificDatumReader<Object>(schema);
+            DatumReader<Object> existing = readers.putIfAbsent(schema, answer);
+            if (existing != null) {
+                answer = existing;
+            }
+        }
+        return answer;
+    }
+
+    protected DatumWriter<Object> getWriter(Schema schema) {
+        DatumWriter<Object> answer = writers.get(schema);
+        if (answer == null) {
+            answer = new SpecificDatumWriter<Object>(schema);
+            DatumWriter<Object> existing = writers.putIfAbsent(schema, answer);
+            if (existing != null) {
+                answer = existing;
+            }
+        }
+        return answer;
+    }
+
     public void marshal(Exchange exchange, Object graph, OutputStream outputStream) throws Exception {
-        DatumWriter<Object> datum = new SpecificDatumWriter<Object>(getSchema(exchange, graph));
-        Encoder encoder = EncoderFactory.get().binaryEncoder(outputStream, null);
+        if (containerFile) {
+            marshalContainerFile(exchange, graph, outputStream);
+            return;
+        }
+
+        DatumWriter<Object> datum = getWriter(getSchema(exchange, graph));
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(outputStream, encoders.get());
+        encoders.set(encoder);
         datum.write(graph, encoder);
         encoder.flush();
     }
 
+    protected void marshalContainerFile(Exchange exchange, Object graph, OutputStream outputStream) throws Exception {
+        Iterator<Object> it = ObjectHelper.createIterator(graph);
+        if (!it.hasNext()) {
+            // nothing to write as the schema is not known
+            return;
+        }
+        Object record = it.next();
+        Schema recordSchema = getSchema(exchange, record);
+
+        // the writer must not be shared as it is bound to the schema of the file
+        DataFileWriter<Object> writer = new DataFileWriter<Object>(new SpecificDatumWriter<Object>(recordSchema));
+        writer.setCodec(CodecFactory.fromString(codec));
+        writer.create(recordSchema, outputStream);
+        writer.append(record);
+        while (it.hasNext()) {
+            writer.append(it.next());
+        }
+        // writes the last block, closing the writer would close the output stream
+        writer.flush();
+    }
+
     public Object unmarshal(Exchange exchange, InputStream inputStream) throws Exception {
-        DatumReader<GenericRecord> reader = new SpecificDatumReader<GenericRecord>(getSchema(exchange, null));
-        Decoder decoder = DecoderFactory.get().binaryDecoder(inputStream, null);
+        if (containerFile) {
+            return unmarshalContainerFile(exchange, inputStream);
+        }
+
+        DatumReader<Object> reader = getReader(getSchema(exchange, null));
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(inputStream, decoders.get());
+        decoders.set(decoder);
         Object result = reader.read(null, decoder);
         return result;
     }
 
+    protected Object unmarshalContainerFile(Exchange exchange, InputStream inputStream) throws Exception {
+        // the file contains the schema it was written with, so the expected schema is optional
+        SpecificDatumReader<Object> reader;
+        if (schema != null || instanceClassName != null) {
+            reader = new SpecificDatumReader<Object>(getSchema(exchange, null));
+        } else {
+            reader = new SpecificDatumReader<Object>();
+        }
+
+        // the stream reads the records lazy, one block at a time
+        DataFileStream<Object> answer = new DataFileStream<Object>(inputStream, reader);
+        // make sure the stream is closed when the exchange is done, even if not all records have been read
+        ExchangeHelper.closeOnCompletion(exchange, answer);
+        return answer;
+    }
+
 }
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.avro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.camel.avro.generated.Value;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.test.junit4.CamelTestSupport;
+
+import org.junit.Test;
+
+public class AvroContainerFileTest extends CamelTestSupport {
+
+    @Test
+    public void testMarshalAndUnmarshalContainerFile() throws Exception {
+        List<Value> values = new ArrayList<Value>();
+        for (int i = 0; i < 100; i++) {
+            values.add(Value.newBuilder().setValue("value" + i).build());
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:value");
+        mock.expectedMessageCount(100);
+        mock.allMessages().body().isInstanceOf(Value.class);
+
+        byte[] marshalled = template.requestBody("direct:marshal", values, byte[].class);
+        template.sendBody("direct:unmarshal", marshalled);
+
+        assertMockEndpointsSatisfied();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(values.get(i), mock.getReceivedExchanges().get(i).getIn().getBody());
+        }
+    }
+
+    @Test
+    public void testMarshalSingleRecordToContainerFile() throws Exception {
+        Value input = Value.newBuilder().setValue("test body").build();
+
+        MockEndpoint mock = getMockEndpoint("mock:value");
+        mock.expectedBodiesReceived(input);
+
+        byte[] marshalled = template.requestBody("direct:marshal", input, byte[].class);
+        template.sendBody("direct:unmarshal", marshalled);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testReuseDecoder() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:reverse");
+        mock.expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++) {
+            Value input = Value.newBuilder().setValue("value" + i).build();
+            Object marshalled = template.requestBody("direct:in", input);
+            template.sendBody("direct:back", marshalled);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        for (int i = 0; i < 10; i++) {
+            Value output = mock.getReceivedExchanges().get(i).getIn().getBody(Value.class);
+            assertEquals("value" + i, output.getValue().toString());
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                AvroDataFormat container = new AvroDataFormat();
+                container.setContainerFile(true);
+
+                from("direct:marshal").marshal(container);
+                from("direct:unmarshal").unmarshal(container)
+                    .split(body()).streaming()
+                        .to("mock:value");
+
+                AvroDataFormat format = new AvroDataFormat();
+                format.setInstanceClass(Value.class.getName());
+
+                from("direct:in").marshal(format);
+                from("direct:back").unmarshal(format).to("mock:reverse");
+            }
+        };
+    }
+
+}
@@ -32,6 +32,7 @@ import org.apache.camel.CamelContextAware;
 import org.apache.camel.Exchange;
 import org.apache.camel.spi.DataFormat;
 import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.ResourceHelper;
@@ -61,6 +62,7 @@ public class BeanIODataFormat extends ServiceSupport implements DataFormat, Came
     private boolean ignoreUnidentifiedRecords;
     private boolean ignoreUnexpectedRecords;
     private boolean ignoreInvalidRecords;
+    private boolean streaming;
     private Charset encoding = Charset.defaultCharset();
 
     public BeanIODataFormat() {
@@ -101,12 +103,22 @@ public class BeanIODataFormat extends ServiceSupport implements DataFormat, Came
         this.camelContext = camelContext;
     }
 
+    @SuppressWarnings("unchecked")
     public void marshal(Exchange exchange, Object body, OutputStream stream) throws Exception {
-        List<Object> models = getModels(exchange, body);
+        Iterator<Object> models;
+        if (body instanceof Iterator) {
+            // write the models as they are iterated, such as from a streaming unmarshal
+            models = (Iterator<Object>) body;
+        } else {
+            models = getModels(exchange, body).iterator();
+        }
         writeModels(stream, models);
     }
 
     public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
+        if (streaming) {
+            return createIterator(exchange, stream);
+        }
         return readModels(exchange, stream);
     }
 
@@ -123,12 +135,12 @@ public class BeanIODataFormat extends ServiceSupport implements DataFormat, Came
         return models;
     }
 
-    private void writeModels(OutputStream stream, List<Object> models) {
+    private void writeModels(OutputStream stream, Iterator<Object> models) {
         BufferedWriter streamWriter = IOHelper.buffered(new OutputStreamWriter(stream, encoding));
         BeanWriter out = factory.createWriter(streamName, streamWriter);
 
-        for (Object obj : models) {
-            out.write(obj);
+        while (models.hasNext()) {
+            out.write(models.next());
         }
 
         out.flush();
@@ -158,6 +170,18 @@ public class BeanIODataFormat extends ServiceSupport implements DataFormat, Came
         return results;
     }
 
+    private Iterator<Object> createIterator(Exchange exchange, InputStream stream) {
+        BufferedReader streamReader = IOHelper.buffered(new InputStreamReader(stream, encoding));
+
+        BeanReader in = factory.createReader(streamName, streamReader);
+        registerErrorHandler(in);
+
+        BeanIOIterator answer = new BeanIOIterator(in);
+        // make sure the reader is closed when the exchange is done, even if not all beans have been read
+        ExchangeHelper.closeOnCompletion(exchange, answer);
+        return answer;
+    }
+
     private void registerErrorHandler(BeanReader in) {
         in.setErrorHandler(new BeanReaderErrorHandlerSupport() {
 
@@ -202,6 +226,19 @@ public class BeanIODataFormat extends ServiceSupport implements DataFormat, Came
         this.encoding = Charset.forName(encoding);
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether unmarshal should return an {@link Iterator} which reads the beans one at a time, instead of
+     * reading all the beans into a {@link List}. When streaming, {@link BeanIOHeader} beans are returned
+     * by the iterator but their headers are not added to the message.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public boolean isIgnoreInvalidRecords() {
         return ignoreInvalidRecords;
     }
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.beanio;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.camel.support.LazyCloseableIterator;
+import org.beanio.BeanReader;
+
+/**
+ * An {@link Iterator} which reads the beans one at a time from a {@link BeanReader}.
+ * <p/>
+ * The reader is closed when there are no more beans, or when the iterator is closed.
+ */
+public class BeanIOIterator extends LazyCloseableIterator<Object> {
+
+    private final BeanReader reader;
+
+    public BeanIOIterator(BeanReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    protected Object readNext() {
+        // null if there are no more beans
+        return reader.read();
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        // closes the underlying reader as well
+        reader.close();
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.beanio;
+
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class BeanIODataFormatStreamingTest extends CamelTestSupport {
+
+    private static final String FIXED_DATA =
+            "Joe,Smith,Developer,75000,10012009" + LS
+            + "Jane,Doe,Architect,80000,01152008" + LS
+            + "Jon,Anderson,Manager,85000,03182007" + LS;
+
+    @Test
+    public void testUnmarshalStreaming() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:beanio-unmarshal");
+        mock.expectedMessageCount(3);
+
+        template.sendBody("direct:unmarshal", FIXED_DATA);
+
+        mock.assertIsSatisfied();
+
+        Employee jane = mock.getReceivedExchanges().get(1).getIn().getBody(Employee.class);
+        assertEquals("Jane", jane.getFirstName());
+        assertEquals("Architect", jane.getTitle());
+        assertEquals(80000, jane.getSalary());
+        assertEquals(new SimpleDateFormat("MMddyyyy").parse("01152008"), jane.getHireDate());
+    }
+
+    @Test
+    public void testUnmarshalStreamingIterator() throws Exception {
+        Object body = template.requestBody("direct:unmarshal-iterator", FIXED_DATA);
+        assertIsInstanceOf(Iterator.class, body);
+    }
+
+    @Test
+    public void testStreamingRoundTrip() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:beanio-roundtrip");
+        mock.expectedBodiesReceived(FIXED_DATA);
+
+        template.sendBody("direct:roundtrip", FIXED_DATA);
+
+        mock.assertIsSatisfied();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                BeanIODataFormat format = new BeanIODataFormat(
+                        "org/apache/camel/dataformat/beanio/mappings.xml",
+                        "employeeFile");
+                format.setStreaming(true);
+
+                // the employees are read one at a time while splitting
+                from("direct:unmarshal")
+                    .unmarshal(format)
+                    .split(body()).streaming()
+                        .to("mock:beanio-unmarshal");
+
+                from("direct:unmarshal-iterator")
+                    .unmarshal(format);
+
+                // the iterator is written as it is read
+                from("direct:roundtrip")
+                    .unmarshal(format)
+                    .marshal(format)
+                    .convertBodyTo(String.class)
+                    .to("mock:beanio-roundtrip");
+            }
+        };
+    }
+}
@@ -28,6 +28,7 @@ public abstract class BindyAbstractDataFormat implements DataFormat {
     private String locale;
     private BindyAbstractFactory modelFactory;
     private Class<?> classType;
+    private boolean streaming;
 
     public BindyAbstractDataFormat() {
     }
@@ -64,6 +65,21 @@ public abstract class BindyAbstractDataFormat implements DataFormat {
         this.locale = locale;
     }
     
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether to unmarshal the records lazily one at a time.
+     * <p/>
+     * When enabled the unmarshalled body is an {@link java.util.Iterator} over the records, which can be
+     * used with the streaming mode of the splitter, so large inputs do not have to fit in memory.
+     * This option is supported by the CSV and fixed length formats.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public BindyAbstractFactory getFactory(PackageScanClassResolver resolver) throws Exception {
         if (modelFactory == null) {
             modelFactory = createModelFactory(resolver);
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 import org.apache.camel.dataformat.bindy.annotation.CsvRecord;
 import org.apache.camel.dataformat.bindy.annotation.DataField;
@@ -54,12 +55,15 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
     private Map<Integer, DataField> dataFields = new LinkedHashMap<Integer, DataField>();
     private Map<Integer, Field> annotatedFields = new LinkedHashMap<Integer, Field>();
     private Map<String, Integer> sections = new HashMap<String, Integer>();
+    // the bindings of the data fields indexed by their position
+    private DataFieldBinding[] bindings = new DataFieldBinding[0];
 
     private int numberOptionalFields;
     private int numberMandatoryFields;
     private int totalFields;
 
     private String separator;
+    private Pattern separatorPattern;
     private boolean skipFirstLine;
     private boolean generateHeaderColumnNames;
     private boolean messageOrdered;
@@ -148,6 +152,37 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
                 LOG.debug("Total: {}", totalFields);
             }
         }
+
+        initBindings();
+    }
+
+    private void initBindings() {
+        int max = 0;
+        for (Integer pos : dataFields.keySet()) {
+            max = Math.max(max, pos);
+        }
+        bindings = new DataFieldBinding[max + 1];
+        for (Entry<Integer, DataField> entry : dataFields.entrySet()) {
+            int pos = entry.getKey();
+            if (pos > 0) {
+                bindings[pos] = new DataFieldBinding(entry.getValue(), annotatedFields.get(pos));
+            }
+        }
+    }
+
+    private DataFieldBinding getBinding(int pos) {
+        return pos < bindings.length ? bindings[pos] : null;
+    }
+
+    @Override
+    public void setLocale(String locale) {
+        super.setLocale(locale);
+        // the formats depend on the locale
+        for (DataFieldBinding binding : bindings) {
+            if (binding != null) {
+                binding.resetFormat();
+            }
+        }
     }
 
     public void bind(List<String> tokens, Map<String, Object> model, int line) throws Exception {
@@ -157,9 +192,12 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
 
         for (String data : tokens) {
 
-            // Get DataField from model
-            DataField dataField = dataFields.get(pos);
-            ObjectHelper.notNull(dataField, "No position " + pos + " defined for the field: " + data + ", line: " + line);
+            // Get the binding of the DataField from model
+            DataFieldBinding binding = getBinding(pos);
+            if (binding == null) {
+                throw new IllegalArgumentException("No position " + pos + " defined for the field: " + data + ", line: " + line + " must be specified");
+            }
+            DataField dataField = binding.getDataField();
 
             if (dataField.trim()) {
                 data = data.trim();
@@ -176,24 +214,12 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
                 }
             }
 
-            // Get Field to be setted
-            Field field = annotatedFields.get(pos);
-            field.setAccessible(true);
-
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Pos: {}, Data: {}, Field type: {}", new Object[]{pos, data, field.getType()});
+                LOG.debug("Pos: {}, Data: {}, Field type: {}", new Object[]{pos, data, binding.getField().getType()});
             }
 
-            Format<?> format;
-
-            // Get pattern defined for the field
-            String pattern = dataField.pattern();
-
-            // Create format object to format the field
-            format = FormatFactory.getFormat(field.getType(), pattern, getLocale(), dataField.precision());
-
-            // field object to be set
-            Object modelField = model.get(field.getDeclaringClass().getName());
+            // Get the format of the field
+            Format<?> format = binding.getFormat(getLocale());
 
             // format the data received
             Object value = null;
@@ -210,11 +236,11 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
                 if (!dataField.defaultValue().isEmpty()) {
                     value = format.parse(dataField.defaultValue());
                 } else {
-                    value = getDefaultValueForPrimitive(field.getType());
+                    value = getDefaultValueForPrimitive(binding.getField().getType());
                 }
             }
 
-            field.set(modelField, value);
+            binding.setValue(model, value);
 
             ++pos;
 
@@ -543,6 +569,7 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
                     // Get Separator parameter
                     ObjectHelper.notNull(record.separator(), "No separator has been defined in the @Record annotation");
                     separator = record.separator();
+                    separatorPattern = Pattern.compile(separator);
                     LOG.debug("Separator defined for the CSV: {}", separator);
 
                     // Get carriage return parameter
@@ -579,16 +606,14 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
         Exception {
         // Set the default values, if defined
         for (int i = 1; i <= dataFields.size(); i++) {
-            Field field = annotatedFields.get(i);
-            field.setAccessible(true);
-            DataField dataField = dataFields.get(i);
-            Object modelField = model.get(field.getDeclaringClass().getName());
-            if (field.get(modelField) == null && !dataField.defaultValue().isEmpty()) {
-                String pattern = dataField.pattern();
-                Format<?> format = FormatFactory.getFormat(field.getType(), pattern, getLocale(),
-                                                                 dataField.precision());
-                Object value = format.parse(dataField.defaultValue());
-                field.set(modelField, value);
+            DataFieldBinding binding = getBinding(i);
+            if (binding == null) {
+                continue;
+            }
+            DataField dataField = binding.getDataField();
+            if (binding.getValue(model) == null && !dataField.defaultValue().isEmpty()) {
+                Object value = binding.getFormat(getLocale()).parse(dataField.defaultValue());
+                binding.setValue(model, value);
             }
         }
     }
@@ -600,6 +625,13 @@ public class BindyCsvFactory extends BindyAbstractFactory implements BindyFactor
         return separator;
     }
 
+    /**
+     * The compiled separator used to split the CSV records into tokens
+     */
+    public Pattern getSeparatorPattern() {
+        return separatorPattern;
+    }
+
     /**
      * Flag indicating if the first line of the CSV must be skipped
      */
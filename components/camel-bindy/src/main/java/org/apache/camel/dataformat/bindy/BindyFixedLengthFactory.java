@@ -18,9 +18,7 @@ package org.apache.camel.dataformat.bindy;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -33,7 +31,6 @@ import org.apache.camel.dataformat.bindy.annotation.FixedLengthRecord;
 import org.apache.camel.dataformat.bindy.annotation.Link;
 import org.apache.camel.dataformat.bindy.format.FormatException;
 import org.apache.camel.spi.PackageScanClassResolver;
-import org.apache.camel.util.ObjectHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +48,8 @@ public class BindyFixedLengthFactory extends BindyAbstractFactory implements Bin
 
     private Map<Integer, DataField> dataFields = new LinkedHashMap<Integer, DataField>();
     private Map<Integer, Field> annotatedFields = new LinkedHashMap<Integer, Field>();
+    // the bindings of the data fields in the order they are bound
+    private DataFieldBinding[] bindings = new DataFieldBinding[0];
 
     private int numberOptionalFields;
     private int numberMandatoryFields;
@@ -141,6 +140,25 @@ public class BindyFixedLengthFactory extends BindyAbstractFactory implements Bin
             }
 
         }
+
+        initBindings();
+    }
+
+    private void initBindings() {
+        List<DataFieldBinding> answer = new ArrayList<DataFieldBinding>(dataFields.size());
+        for (Entry<Integer, DataField> entry : dataFields.entrySet()) {
+            answer.add(new DataFieldBinding(entry.getValue(), annotatedFields.get(entry.getKey())));
+        }
+        bindings = answer.toArray(new DataFieldBinding[answer.size()]);
+    }
+
+    @Override
+    public void setLocale(String locale) {
+        super.setLocale(locale);
+        // the formats depend on the locale
+        for (DataFieldBinding binding : bindings) {
+            binding.resetFormat();
+        }
     }
     
     // Will not be used in the case of a Fixed Length record
@@ -160,22 +178,15 @@ public class BindyFixedLengthFactory extends BindyAbstractFactory implements Bin
         int offset;
         int length;
         Field field;
-        String pattern;
 
         // Iterate through the list of positions
         // defined in the @DataField
         // and grab the data from the line
-        Collection<DataField> c = dataFields.values();
-        Iterator<DataField> itr = c.iterator();
-
-        while (itr.hasNext()) {
-            dataField = itr.next();
+        for (DataFieldBinding binding : bindings) {
+            dataField = binding.getDataField();
             offset = dataField.pos();
             length = dataField.length();
 
-            ObjectHelper.notNull(offset, "Position/offset is not defined for the field: " + dataField.toString());
-            ObjectHelper.notNull(offset, "Length is not defined for the field: " + dataField.toString());
-
             if (offset - 1 <= -1) {
                 throw new IllegalArgumentException("Offset/Position of the field " + dataField.toString()
                                                    + " cannot be negative");
@@ -202,23 +213,14 @@ public class BindyFixedLengthFactory extends BindyAbstractFactory implements Bin
             }
             
             // Get Field to be setted
-            field = annotatedFields.get(offset);
-            field.setAccessible(true);
+            field = binding.getField();
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Pos/Offset: {}, Data: {}, Field type: {}", new Object[]{offset, token, field.getType()});
             }
             
-            Format<?> format;
-
-            // Get pattern defined for the field
-            pattern = dataField.pattern();
-
-            // Create format object to format the field
-            format = FormatFactory.getFormat(field.getType(), pattern, getLocale(), dataField.precision());
-
-            // field object to be set
-            Object modelField = model.get(field.getDeclaringClass().getName());
+            // Get the format of the field
+            Format<?> format = binding.getFormat(getLocale());
 
             // format the data received
             Object value = null;
@@ -235,7 +237,7 @@ public class BindyFixedLengthFactory extends BindyAbstractFactory implements Bin
                 value = getDefaultValueForPrimitive(field.getType());
             }
 
-            field.set(modelField, value);
+            binding.setValue(model, value);
 
             ++pos;
         
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.bindy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Scanner;
+
+import org.apache.camel.support.LazyCloseableIterator;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link Iterator} which reads and binds the records one line at a time, so a large input
+ * can be unmarshalled without keeping all the records in memory.
+ * <p/>
+ * The iterator returns the model object of the given class type for each record, or the
+ * map with all the objects of the model if no class type is given. The reader is closed
+ * when there are no more records, or when the iterator is closed.
+ */
+public abstract class BindyRecordIterator extends LazyCloseableIterator<Object> {
+    private static final transient Logger LOG = LoggerFactory.getLogger(BindyRecordIterator.class);
+
+    private final Reader reader;
+    private final Scanner scanner;
+    private final Class<?> classType;
+    private int count;
+
+    protected BindyRecordIterator(Reader reader, Class<?> classType) {
+        this.reader = reader;
+        this.scanner = new Scanner(reader);
+        this.classType = classType;
+    }
+
+    /**
+     * Skips the next line of the input, for example a header line.
+     */
+    public void skipLine() {
+        if (scanner.hasNextLine()) {
+            scanner.nextLine();
+        }
+    }
+
+    /**
+     * Binds the record into a new model
+     *
+     * @param line the record
+     * @param count the number of the record
+     * @return the model
+     */
+    protected abstract Map<String, Object> bindRecord(String line, int count) throws Exception;
+
+    @Override
+    protected Object readNext() throws Exception {
+        return nextRecord();
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        scanner.close();
+        IOHelper.close(reader, "reader", LOG);
+    }
+
+    /**
+     * Reads and binds the next record.
+     *
+     * @return the next record, or <tt>null</tt> if there are no more records
+     * @throws Exception is thrown if the record could not be bound, which also closes the iterator
+     */
+    public Object nextRecord() throws Exception {
+        if (isClosed()) {
+            return null;
+        }
+        try {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (ObjectHelper.isEmpty(line)) {
+                    // skip if line is empty
+                    continue;
+                }
+
+                Map<String, Object> model = bindRecord(line, ++count);
+                LOG.debug("Graph of objects created: {}", model);
+
+                if (classType == null) {
+                    return model;
+                }
+                // we expect to find this type in the model, and grab only that type
+                Object data = model.get(classType.getName());
+                if (data != null) {
+                    return data;
+                }
+            }
+        } catch (Exception e) {
+            close();
+            throw e;
+        }
+
+        // no more records
+        close();
+        return null;
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.bindy;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import org.apache.camel.dataformat.bindy.annotation.DataField;
+
+/**
+ * The binding of a {@link DataField} to the field of a model class.
+ * <p/>
+ * The binding is prepared once per field, so records can be bound without looking up
+ * the field, making it accessible and creating its {@link Format} again for every record.
+ */
+final class DataFieldBinding {
+
+    private final DataField dataField;
+    private final Field field;
+    private final String modelKey;
+    private volatile Format<?> format;
+
+    DataFieldBinding(DataField dataField, Field field) {
+        this.dataField = dataField;
+        this.field = field;
+        this.modelKey = field.getDeclaringClass().getName();
+        // change protection for private field once
+        field.setAccessible(true);
+    }
+
+    public DataField getDataField() {
+        return dataField;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Gets the format of the field, which is created on first use
+     *
+     * @param locale the locale to use when creating the format
+     */
+    public Format<?> getFormat(String locale) throws Exception {
+        Format<?> answer = format;
+        if (answer == null) {
+            answer = FormatFactory.getFormat(field.getType(), dataField.pattern(), locale, dataField.precision());
+            format = answer;
+        }
+        return answer;
+    }
+
+    /**
+     * Forgets the format so its created again, for example when the locale has changed
+     */
+    public void resetFormat() {
+        format = null;
+    }
+
+    public Object getValue(Map<String, Object> model) throws IllegalAccessException {
+        return field.get(model.get(modelKey));
+    }
+
+    public void setValue(Map<String, Object> model, Object value) throws IllegalAccessException {
+        field.set(model.get(modelKey), value);
+    }
+
+}
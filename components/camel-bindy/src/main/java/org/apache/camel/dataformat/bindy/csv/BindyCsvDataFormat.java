@@ -25,15 +25,17 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.regex.Pattern;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.dataformat.bindy.BindyAbstractDataFormat;
 import org.apache.camel.dataformat.bindy.BindyAbstractFactory;
 import org.apache.camel.dataformat.bindy.BindyCsvFactory;
+import org.apache.camel.dataformat.bindy.BindyRecordIterator;
 import org.apache.camel.dataformat.bindy.util.ConverterUtils;
 import org.apache.camel.spi.DataFormat;
 import org.apache.camel.spi.PackageScanClassResolver;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.slf4j.Logger;
@@ -104,79 +106,70 @@ public class BindyCsvDataFormat extends BindyAbstractDataFormat {
         }
     }
 
+    @SuppressWarnings("unchecked")
     public Object unmarshal(Exchange exchange, InputStream inputStream) throws Exception {
-        BindyCsvFactory factory = (BindyCsvFactory)getFactory(exchange.getContext().getPackageScanClassResolver());
+        final BindyCsvFactory factory = (BindyCsvFactory)getFactory(exchange.getContext().getPackageScanClassResolver());
         ObjectHelper.notNull(factory, "not instantiated");
 
-        // List of Pojos
-        List<Map<String, Object>> models = new ArrayList<Map<String, Object>>();
-
-        // Pojos of the model
-        Map<String, Object> model;
-
         InputStreamReader in = new InputStreamReader(inputStream, IOHelper.getCharsetName(exchange));
 
-        // Scanner is used to read big file
-        Scanner scanner = new Scanner(in);
-
         // Retrieve the separator defined to split the record
-        String separator = factory.getSeparator();
+        final String separator = factory.getSeparator();
         ObjectHelper.notNull(separator, "The separator has not been defined in the annotation @CsvRecord or not instantiated during initModel.");
+        final Pattern separatorPattern = factory.getSeparatorPattern();
 
-        int count = 0;
-        try {
-            // If the first line of the CSV file contains columns name, then we
-            // skip this line
-            if (factory.getSkipFirstLine()) {
-                // Check if scanner is empty
-                if (scanner.hasNextLine()) {
-                    scanner.nextLine();
-                }
-            }
-
-            while (scanner.hasNextLine()) {
-
-                // Read the line
-                String line = scanner.nextLine().trim();
-
-                if (ObjectHelper.isEmpty(line)) {
-                    // skip if line is empty
-                    continue;
-                }
-
-                // Increment counter
-                count++;
-
+        // the records are read one line at a time, so a big file does not have to fit in memory when streaming
+        BindyRecordIterator it = new BindyRecordIterator(in, isStreaming() ? getClassType() : null) {
+            @Override
+            protected Map<String, Object> bindRecord(String line, int count) throws Exception {
                 // Create POJO where CSV data will be stored
-                model = factory.factory();
-                
+                Map<String, Object> model = factory.factory();
+
                 // Split the CSV record according to the separator defined in
                 // annotated class @CSVRecord
-                String[] tokens = line.split(separator, -1);
+                String[] tokens = separatorPattern.split(line.trim(), -1);
                 List<String> result = Arrays.asList(tokens);
                 // must unquote tokens before use
                 result = unquoteTokens(result, separator);
 
-                if (result.size() == 0 || result.isEmpty()) {
+                if (result.isEmpty()) {
                     throw new java.lang.IllegalArgumentException("No records have been defined in the CSV");
                 }
 
-                if (result.size() > 0) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Size of the record splitted : {}", result.size());
-                    }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Size of the record splitted : {}", result.size());
+                }
 
-                    // Bind data from CSV record with model classes
-                    factory.bind(result, model, count);
+                // Bind data from CSV record with model classes
+                factory.bind(result, model, count);
 
-                    // Link objects together
-                    factory.link(model);
+                // Link objects together
+                factory.link(model);
 
-                    // Add objects graph to the list
-                    models.add(model);
+                return model;
+            }
+        };
 
-                    LOG.debug("Graph of objects created: {}", model);
-                }
+        // If the first line of the CSV file contains columns name, then we
+        // skip this line
+        if (factory.getSkipFirstLine()) {
+            it.skipLine();
+        }
+
+        if (isStreaming()) {
+            // make sure the reader is closed when the exchange is done, even if not all records have been read
+            ExchangeHelper.closeOnCompletion(exchange, it);
+            return it;
+        }
+
+        try {
+            // List of Pojos
+            List<Map<String, Object>> models = new ArrayList<Map<String, Object>>();
+
+            Object model;
+            while ((model = it.nextRecord()) != null) {
+                // Add objects graph to the list
+                models.add((Map<String, Object>) model);
             }
 
             // Test if models list is empty or not
@@ -188,8 +181,7 @@ public class BindyCsvDataFormat extends BindyAbstractDataFormat {
             }
 
         } finally {
-            scanner.close();
-            IOHelper.close(in, "in", LOG);
+            IOHelper.close(it);
         }
 
     }
@@ -24,15 +24,16 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.dataformat.bindy.BindyAbstractDataFormat;
 import org.apache.camel.dataformat.bindy.BindyAbstractFactory;
 import org.apache.camel.dataformat.bindy.BindyFixedLengthFactory;
+import org.apache.camel.dataformat.bindy.BindyRecordIterator;
 import org.apache.camel.dataformat.bindy.util.ConverterUtils;
 import org.apache.camel.spi.DataFormat;
 import org.apache.camel.spi.PackageScanClassResolver;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.slf4j.Logger;
@@ -95,42 +96,20 @@ public class BindyFixedLengthDataFormat extends BindyAbstractDataFormat {
         }
     }
 
+    @SuppressWarnings("unchecked")
     public Object unmarshal(Exchange exchange, InputStream inputStream) throws Exception {
-        BindyFixedLengthFactory factory = (BindyFixedLengthFactory) getFactory(exchange.getContext().getPackageScanClassResolver());
+        final BindyFixedLengthFactory factory = (BindyFixedLengthFactory) getFactory(exchange.getContext().getPackageScanClassResolver());
         ObjectHelper.notNull(factory, "not instantiated");
 
-        // List of Pojos
-        List<Map<String, Object>> models = new ArrayList<Map<String, Object>>();
-
-        // Pojos of the model
-        Map<String, Object> model;
-
         InputStreamReader in = new InputStreamReader(inputStream, IOHelper.getCharsetName(exchange));
 
-        // Scanner is used to read big file
-        Scanner scanner = new Scanner(in);
-
-        int count = 0;
+        // TODO Test if we have a Header
+        // TODO Test if we have a Footer (containing by example checksum)
 
-        try {
-
-            // TODO Test if we have a Header
-            // TODO Test if we have a Footer (containing by example checksum)
-
-            while (scanner.hasNextLine()) {
-                String line;
-                
-                // Read the line (should not trim as its fixed length)
-                line = scanner.nextLine();
-
-                if (ObjectHelper.isEmpty(line)) {
-                    // skip if line is empty
-                    continue;
-                }
-
-                // Increment counter
-                count++;
-                
+        // the records are read one line at a time, so a big file does not have to fit in memory when streaming
+        BindyRecordIterator it = new BindyRecordIterator(in, isStreaming() ? getClassType() : null) {
+            @Override
+            protected Map<String, Object> bindRecord(String line, int count) throws Exception {
                 // Check if the record length corresponds to the parameter
                 // provided in the @FixedLengthRecord
                 if ((line.length() < factory.recordLength()) || (line.length() > factory.recordLength())) {
@@ -138,18 +117,32 @@ public class BindyFixedLengthDataFormat extends BindyAbstractDataFormat {
                 }
 
                 // Create POJO where Fixed data will be stored
-                model = factory.factory();
-                
+                Map<String, Object> model = factory.factory();
+
                 // Bind data from Fixed record with model classes
                 factory.bind(line, model, count);
 
                 // Link objects together
                 factory.link(model);
 
-                // Add objects graph to the list
-                models.add(model);
+                return model;
+            }
+        };
 
-                LOG.debug("Graph of objects created: {}", model);
+        if (isStreaming()) {
+            // make sure the reader is closed when the exchange is done, even if not all records have been read
+            ExchangeHelper.closeOnCompletion(exchange, it);
+            return it;
+        }
+
+        try {
+            // List of Pojos
+            List<Map<String, Object>> models = new ArrayList<Map<String, Object>>();
+
+            Object model;
+            while ((model = it.nextRecord()) != null) {
+                // Add objects graph to the list
+                models.add((Map<String, Object>) model);
             }
 
             // Test if models list is empty or not
@@ -161,8 +154,7 @@ public class BindyFixedLengthDataFormat extends BindyAbstractDataFormat {
             }
 
         } finally {
-            scanner.close();
-            IOHelper.close(in, "in", LOG);
+            IOHelper.close(it);
         }
 
     }
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.bindy.csv;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.dataformat.bindy.model.simple.oneclass.Order;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.spi.Synchronization;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class BindyCsvStreamingUnmarshallTest extends CamelTestSupport {
+
+    private static final String RECORDS = "01,A1,Albert,Einstein,ISIN,BE12345678,SELL,Share,1500,EUR,08-01-2009\r\n"
+        + "\r\n"
+        + "02,A2,Jacques,Brel,ISIN,XD12345678,BUY,Share,2500,USD,08-01-2009\r\n"
+        + "03,A3,Eva,Longoria,ISIN,XD12345678,SELL,Share,2500.45,USD,08-01-2009\r\n";
+
+    @Test
+    public void testStreamingSplit() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(3);
+        mock.allMessages().body().isInstanceOf(Order.class);
+
+        template.sendBody("direct:start", RECORDS);
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals("Albert", mock.getReceivedExchanges().get(0).getIn().getBody(Order.class).getFirstName());
+        assertEquals("Jacques", mock.getReceivedExchanges().get(1).getIn().getBody(Order.class).getFirstName());
+        assertEquals("Eva", mock.getReceivedExchanges().get(2).getIn().getBody(Order.class).getFirstName());
+    }
+
+    @Test
+    public void testStreamingModels() throws Exception {
+        BindyCsvDataFormat dataFormat = new BindyCsvDataFormat("org.apache.camel.dataformat.bindy.model.simple.oneclass");
+        dataFormat.setStreaming(true);
+
+        Exchange exchange = new DefaultExchange(context);
+        Object body = dataFormat.unmarshal(exchange, new ByteArrayInputStream(RECORDS.getBytes()));
+        assertIsInstanceOf(Iterator.class, body);
+
+        Iterator<?> it = (Iterator<?>) body;
+        int count = 0;
+        while (it.hasNext()) {
+            Map<?, ?> model = assertIsInstanceOf(Map.class, it.next());
+            assertIsInstanceOf(Order.class, model.get(Order.class.getName()));
+            count++;
+        }
+        assertEquals(3, count);
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testStreamingBadRecord() throws Exception {
+        BindyCsvDataFormat dataFormat = new BindyCsvDataFormat(Order.class);
+        dataFormat.setStreaming(true);
+
+        String records = "01,A1,Albert,Einstein,ISIN,BE12345678,SELL,Share,1500,EUR,08-01-2009\r\n"
+            + "XX,A2,Jacques,Brel,ISIN,XD12345678,BUY,Share,2500,USD,08-01-2009\r\n";
+
+        Exchange exchange = new DefaultExchange(context);
+        Iterator<?> it = (Iterator<?>) dataFormat.unmarshal(exchange, new ByteArrayInputStream(records.getBytes()));
+        assertIsInstanceOf(Order.class, it.next());
+        try {
+            it.next();
+            fail("Should have thrown an exception");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line: 2"));
+        }
+        // the iterator is closed after a failure
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testStreamingClosedWhenExchangeDone() throws Exception {
+        BindyCsvDataFormat dataFormat = new BindyCsvDataFormat(Order.class);
+        dataFormat.setStreaming(true);
+
+        final boolean[] closed = new boolean[1];
+        ByteArrayInputStream stream = new ByteArrayInputStream(RECORDS.getBytes()) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+
+        Exchange exchange = new DefaultExchange(context);
+        Iterator<?> it = (Iterator<?>) dataFormat.unmarshal(exchange, stream);
+        assertIsInstanceOf(Order.class, it.next());
+        assertFalse(closed[0]);
+
+        // the stream is closed when the exchange is done, even if not all records have been read
+        for (Synchronization synchronization : exchange.handoverCompletions()) {
+            synchronization.onComplete(exchange);
+        }
+        assertTrue(closed[0]);
+        assertFalse(it.hasNext());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                BindyCsvDataFormat bindy = new BindyCsvDataFormat(Order.class);
+                bindy.setStreaming(true);
+
+                from("direct:start")
+                    .unmarshal(bindy)
+                    .split(body()).streaming()
+                        .to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.bindy.fixed.unmarshall.simple.streaming;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.dataformat.bindy.annotation.DataField;
+import org.apache.camel.dataformat.bindy.annotation.FixedLengthRecord;
+import org.apache.camel.dataformat.bindy.fixed.BindyFixedLengthDataFormat;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class BindySimpleFixedLengthStreamingUnmarshallTest extends CamelTestSupport {
+
+    @Test
+    public void testStreamingSplit() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(3);
+        mock.allMessages().body().isInstanceOf(Order.class);
+
+        template.sendBody("direct:start", "01Albert    1500\r\n02Jacques   2500\r\n\r\n03Eva       0042\r\n");
+
+        assertMockEndpointsSatisfied();
+
+        Order order = mock.getReceivedExchanges().get(2).getIn().getBody(Order.class);
+        assertEquals(3, order.getOrderNr());
+        assertEquals("Eva", order.getFirstName());
+        assertEquals(42, order.getQuantity());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                BindyFixedLengthDataFormat bindy = new BindyFixedLengthDataFormat(Order.class);
+                bindy.setStreaming(true);
+
+                from("direct:start")
+                    .unmarshal(bindy)
+                    .split(body()).streaming()
+                        .to("mock:result");
+            }
+        };
+    }
+
+    @FixedLengthRecord(length = 16)
+    public static class Order {
+
+        @DataField(pos = 1, length = 2)
+        private int orderNr;
+
+        @DataField(pos = 3, length = 10, trim = true)
+        private String firstName;
+
+        @DataField(pos = 13, length = 4)
+        private int quantity;
+
+        public int getOrderNr() {
+            return orderNr;
+        }
+
+        public void setOrderNr(int orderNr) {
+            this.orderNr = orderNr;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Model : " + Order.class.getName() + " : " + orderNr + ", " + firstName + ", " + quantity;
+        }
+    }
+}
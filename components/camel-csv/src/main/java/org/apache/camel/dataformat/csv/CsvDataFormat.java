@@ -45,6 +45,9 @@ import org.apache.commons.csv.writer.CSVWriter;
  * the end of the line. Thus, field order is the same from message to message.
  * Autogeneration can be disabled. In this case, only the fields defined in
  * csvConfig are written on the output.
+ * <p/>
+ * When unmarshalling, the lines can be parsed on demand using the lazyLoad option, and
+ * the first line can be used as the column names of the lines using the useMaps option.
  *
  * @version 
  */
@@ -54,6 +57,8 @@ public class CsvDataFormat implements DataFormat {
     private boolean autogenColumns = true;
     private String delimiter;
     private boolean skipFirstLine;
+    private boolean lazyLoad;
+    private boolean useMaps;
 
     public void marshal(Exchange exchange, Object object, OutputStream outputStream) throws Exception {
         if (delimiter != null) {
@@ -94,29 +99,51 @@ public class CsvDataFormat implements DataFormat {
         if (delimiter != null) {
             strategy.setDelimiter(delimiter.charAt(0));
         }
-        
+
+        boolean error = false;
         try {
             CSVParser parser = new CSVParser(in, strategy);
-            List<List<String>> list = new ArrayList<List<String>>();
-            boolean isFirstLine = true;
+            String[] header = null;
+            if (useMaps) {
+                // the first line contains the column names
+                header = parser.getLine();
+                if (header == null) {
+                    header = new String[0];
+                }
+            } else if (skipFirstLine) {
+                // skip considering the first line if we're asked to do so
+                parser.getLine();
+            }
+
+            if (lazyLoad) {
+                CsvIterator answer = new CsvIterator(parser, in, header);
+                // make sure the reader is closed when the exchange is done, even if not all lines have been read
+                ExchangeHelper.closeOnCompletion(exchange, answer);
+                return answer;
+            }
+
+            List<Object> list = new ArrayList<Object>();
             while (true) {
                 String[] strings = parser.getLine();
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    if (skipFirstLine) {
-                        // skip considering the first line if we're asked to do so
-                        continue;
-                    }
-                }
                 if (strings == null) {
                     break;
                 }
-                List<String> line = Arrays.asList(strings);
-                list.add(line);
+                if (header != null) {
+                    list.add(CsvIterator.toMap(header, strings));
+                } else {
+                    List<String> line = Arrays.asList(strings);
+                    list.add(line);
+                }
             }
             return list;
+        } catch (Exception e) {
+            error = true;
+            throw e;
         } finally {
-            in.close();
+            // the iterator closes the reader when lazy loading
+            if (error || !lazyLoad) {
+                in.close();
+            }
         }
     }
     
@@ -168,6 +195,34 @@ public class CsvDataFormat implements DataFormat {
         this.skipFirstLine = skipFirstLine;
     }
 
+    public boolean isLazyLoad() {
+        return lazyLoad;
+    }
+
+    /**
+     * Whether to parse the lines on demand.
+     *
+     * @param lazyLoad set to true to unmarshal to an {@link java.util.Iterator} which parses one line at a time,
+     *                 for example to be used with the streaming mode of the splitter (default false)
+     */
+    public void setLazyLoad(boolean lazyLoad) {
+        this.lazyLoad = lazyLoad;
+    }
+
+    public boolean isUseMaps() {
+        return useMaps;
+    }
+
+    /**
+     * Whether to unmarshal the lines as maps.
+     *
+     * @param useMaps set to true to use the first line as the column names, and unmarshal each of the
+     *                following lines to a map of the values keyed by the column names (default false)
+     */
+    public void setUseMaps(boolean useMaps) {
+        this.useMaps = useMaps;
+    }
+
     private synchronized void updateFieldsInConfig(Set<?> set, Exchange exchange) {
         for (Object value : set) {
             if (value != null) {
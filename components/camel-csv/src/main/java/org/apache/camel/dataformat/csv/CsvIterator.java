@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.camel.support.LazyCloseableIterator;
+import org.apache.camel.util.IOHelper;
+import org.apache.commons.csv.CSVParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link Iterator} which parses the CSV lines on demand.
+ * <p/>
+ * Each line is returned as a {@link java.util.List} of the values, or as a {@link Map} of the values
+ * keyed by the column names if a header is given. The maps share the column name instances of the header.
+ * The reader is closed when there are no more lines, or when the iterator is closed.
+ */
+public class CsvIterator extends LazyCloseableIterator<Object> {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CsvIterator.class);
+
+    private final CSVParser parser;
+    private final Reader reader;
+    private final String[] header;
+
+    public CsvIterator(CSVParser parser, Reader reader) {
+        this(parser, reader, null);
+    }
+
+    public CsvIterator(CSVParser parser, Reader reader, String[] header) {
+        this.parser = parser;
+        this.reader = reader;
+        this.header = header;
+    }
+
+    @Override
+    protected Object readNext() throws IOException {
+        String[] values = parser.getLine();
+        if (values == null) {
+            // no more lines
+            return null;
+        }
+        return header != null ? toMap(header, values) : Arrays.asList(values);
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        IOHelper.close(reader, "reader", LOG);
+    }
+
+    /**
+     * Creates a map of the values keyed by the column names of the header.
+     * <p/>
+     * Values without a column name in the header are not included.
+     */
+    static Map<String, String> toMap(String[] header, String[] values) {
+        int size = Math.min(header.length, values.length);
+        Map<String, String> answer = new LinkedHashMap<String, String>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            answer.put(header[i], values[i]);
+        }
+        return answer;
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.csv;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.EndpointInject;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.apache.commons.csv.CSVStrategy;
+import org.junit.Test;
+
+/**
+ * Integration test for the <code>CsvDataFormat</code> demonstrating the usage of
+ * the <tt>lazyLoad</tt> and <tt>useMaps</tt> options.
+ */
+public class CsvUnmarshalLazyLoadTest extends CamelTestSupport {
+
+    private static final String DATA = "OrderId,Item,Amount\n123,Camel in Action,1\n124,ActiveMQ in Action,2\n125,Camel Test,3";
+
+    @EndpointInject(uri = "mock:result")
+    private MockEndpoint result;
+
+    @EndpointInject(uri = "mock:map")
+    private MockEndpoint map;
+
+    @Test
+    public void testLazyLoad() throws Exception {
+        result.expectedMessageCount(3);
+
+        template.sendBody("direct:start", DATA);
+
+        assertMockEndpointsSatisfied();
+
+        List<?> line = result.getReceivedExchanges().get(0).getIn().getBody(List.class);
+        assertEquals("123", line.get(0));
+        assertEquals("Camel in Action", line.get(1));
+        assertEquals("1", line.get(2));
+        line = result.getReceivedExchanges().get(2).getIn().getBody(List.class);
+        assertEquals("125", line.get(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLazyLoadMaps() throws Exception {
+        map.expectedMessageCount(3);
+
+        template.sendBody("direct:map", DATA);
+
+        assertMockEndpointsSatisfied();
+
+        Map<String, String> first = map.getReceivedExchanges().get(0).getIn().getBody(Map.class);
+        assertEquals("123", first.get("OrderId"));
+        assertEquals("Camel in Action", first.get("Item"));
+        assertEquals("1", first.get("Amount"));
+        Map<String, String> second = map.getReceivedExchanges().get(1).getIn().getBody(Map.class);
+        assertEquals("ActiveMQ in Action", second.get("Item"));
+
+        // the rows share the column names
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEagerMaps() throws Exception {
+        CsvDataFormat csv = createCsvDataFormat();
+        csv.setUseMaps(true);
+
+        List<Map<String, String>> body = (List<Map<String, String>>) csv.unmarshal(createExchangeWithBody(DATA),
+            context.getTypeConverter().convertTo(java.io.InputStream.class, DATA));
+        assertEquals(3, body.size());
+        assertEquals("125", body.get(2).get("OrderId"));
+        assertEquals("3", body.get(2).get("Amount"));
+    }
+
+    private static CsvDataFormat createCsvDataFormat() {
+        CsvDataFormat csv = new CsvDataFormat();
+        // do not use the shared default strategy as other tests change its delimiter
+        csv.setStrategy(new CSVStrategy(',', '"', CSVStrategy.COMMENTS_DISABLED));
+        csv.setDelimiter(",");
+        return csv;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                CsvDataFormat csv = createCsvDataFormat();
+                csv.setSkipFirstLine(true);
+                csv.setLazyLoad(true);
+
+                from("direct:start").unmarshal(csv)
+                    .split(body()).streaming()
+                        .to("mock:result");
+
+                CsvDataFormat maps = createCsvDataFormat();
+                maps.setLazyLoad(true);
+                maps.setUseMaps(true);
+
+                from("direct:map").unmarshal(maps)
+                    .split(body()).streaming()
+                        .to("mock:map");
+            }
+        };
+    }
+}
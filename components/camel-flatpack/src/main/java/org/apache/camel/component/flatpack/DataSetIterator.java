@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.flatpack;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.sf.flatpack.DataSet;
+import org.apache.camel.support.LazyCloseableIterator;
+
+/**
+ * An {@link Iterator} over the rows of a {@link DataSet} which reads the rows one at a time,
+ * such as the data sets of the <tt>BuffReaderParseFactory</tt> parsers.
+ * <p/>
+ * The reader is closed when there are no more rows, or when the iterator is closed.
+ *
+ * @version 
+ */
+public class DataSetIterator extends LazyCloseableIterator<Map<String, Object>> {
+    private final DataSet dataSet;
+    private final Reader reader;
+
+    public DataSetIterator(DataSet dataSet, Reader reader) {
+        this.dataSet = dataSet;
+        this.reader = reader;
+    }
+
+    @Override
+    protected Map<String, Object> readNext() {
+        if (!dataSet.next()) {
+            // no more rows
+            return null;
+        }
+        // create a map for the current row as the data set only holds the current row
+        return FlatpackConverter.toMap(dataSet);
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        reader.close();
+    }
+}
@@ -22,7 +22,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -30,11 +30,13 @@ import net.sf.flatpack.DataSet;
 import net.sf.flatpack.DefaultParserFactory;
 import net.sf.flatpack.Parser;
 import net.sf.flatpack.ParserFactory;
+import net.sf.flatpack.brparse.BuffReaderParseFactory;
 import net.sf.flatpack.writer.DelimiterWriterFactory;
 import net.sf.flatpack.writer.FixedWriterFactory;
 import net.sf.flatpack.writer.Writer;
 import org.apache.camel.Exchange;
 import org.apache.camel.spi.DataFormat;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.ResourceHelper;
@@ -50,6 +52,10 @@ import org.slf4j.LoggerFactory;
  * <li>marshal = from <tt>List&lt;Map&lt;String, Object&gt;&gt;</tt> to <tt>OutputStream</tt> (can be converted to String)</li>
  * <li>unmarshal = from <tt>InputStream</tt> (such as a File) to {@link DataSetList}.
  * </ul>
+ * <p/>
+ * When streaming is enabled, unmarshal returns a {@link DataSetIterator} which reads one row at a time instead,
+ * and marshal also accepts an {@link Iterator} of rows, such as the iterator returned by unmarshal.
+ * <p/>
  * <b>Notice:</b> The Flatpack library does currently not support header and trailers for the marshal operation.
  *
  * @version 
@@ -62,32 +68,28 @@ public class FlatpackDataFormat implements DataFormat {
     private boolean ignoreFirstRecord = true;
     private boolean fixed;
     private String definition;
+    private boolean streaming;
 
     @SuppressWarnings("unchecked")
     public void marshal(Exchange exchange, Object graph, OutputStream stream) throws Exception {
         ObjectHelper.notNull(graph, "The object to marshal must be provided");
 
-        List<Map<String, Object>> data = (List<Map<String, Object>>) graph;
-        if (data.isEmpty()) {
+        // iterate the rows so they are written one at a time through the same writer
+        Iterator<Object> it = ObjectHelper.createIterator(graph);
+        if (!it.hasNext()) {
             LOG.warn("No data to marshal as the list is empty");
             return;
         }
-        Map<String, Object> firstRow = data.get(0);
+        Map<String, Object> firstRow = (Map<String, Object>) it.next();
 
         Writer writer = createWriter(exchange, firstRow, stream);
         try {
-            boolean first = true;
             writer.printHeader();
-            for (Map<String, Object> row : data) {
-                if (ignoreFirstRecord && first) {
-                    // skip first row
-                    first = false;
-                    continue;
-                }
-                for (Entry<String, Object> entry : row.entrySet()) {
-                    writer.addRecordEntry(entry.getKey(), entry.getValue());
-                }
-                writer.nextRecord();
+            if (!ignoreFirstRecord) {
+                writeRow(writer, firstRow);
+            }
+            while (it.hasNext()) {
+                writeRow(writer, (Map<String, Object>) it.next());
             }
             writer.printFooter();
         } finally {
@@ -96,8 +98,30 @@ public class FlatpackDataFormat implements DataFormat {
         }
     }
 
+    private void writeRow(Writer writer, Map<String, Object> row) throws Exception {
+        for (Entry<String, Object> entry : row.entrySet()) {
+            writer.addRecordEntry(entry.getKey(), entry.getValue());
+        }
+        writer.nextRecord();
+    }
+
     public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
         InputStreamReader reader = new InputStreamReader(stream, IOHelper.getCharsetName(exchange));
+        if (streaming) {
+            DataSetIterator answer;
+            try {
+                // the buffered reader parsers read the rows when iterating instead of up front
+                Parser parser = createParser(exchange, reader, BuffReaderParseFactory.getInstance());
+                answer = new DataSetIterator(parser.parse(), reader);
+            } catch (Exception e) {
+                reader.close();
+                throw e;
+            }
+            // make sure the reader is closed when the exchange is done, even if not all rows have been read
+            ExchangeHelper.closeOnCompletion(exchange, answer);
+            return answer;
+        }
+
         try {
             Parser parser = createParser(exchange, reader);
             DataSet dataSet = parser.parse();
@@ -150,6 +174,18 @@ public class FlatpackDataFormat implements DataFormat {
         this.textQualifier = textQualifier;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether unmarshal should read the rows one at a time using a {@link DataSetIterator}, instead of reading
+     * all the rows into a {@link DataSetList}. The configured parser factory is not used when streaming.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public ParserFactory getParserFactory() {
         return parserFactory;
     }
@@ -162,17 +198,21 @@ public class FlatpackDataFormat implements DataFormat {
     //-------------------------------------------------------------------------
 
     protected Parser createParser(Exchange exchange, Reader bodyReader) throws IOException {
+        return createParser(exchange, bodyReader, getParserFactory());
+    }
+
+    protected Parser createParser(Exchange exchange, Reader bodyReader, ParserFactory parserFactory) throws IOException {
         if (isFixed()) {
             InputStream is = ResourceHelper.resolveMandatoryResourceAsInputStream(exchange.getContext().getClassResolver(), getDefinition());
             InputStreamReader reader = new InputStreamReader(is, IOHelper.getCharsetName(exchange));
-            return getParserFactory().newFixedLengthParser(reader, bodyReader);
+            return parserFactory.newFixedLengthParser(reader, bodyReader);
         } else {
             if (ObjectHelper.isEmpty(getDefinition())) {
-                return getParserFactory().newDelimitedParser(bodyReader, delimiter, textQualifier);
+                return parserFactory.newDelimitedParser(bodyReader, delimiter, textQualifier);
             } else {
                 InputStream is = ResourceHelper.resolveMandatoryResourceAsInputStream(exchange.getContext().getClassResolver(), getDefinition());
                 InputStreamReader reader = new InputStreamReader(is, IOHelper.getCharsetName(exchange));
-                return getParserFactory().newDelimitedParser(reader, bodyReader, delimiter, textQualifier, ignoreFirstRecord);
+                return parserFactory.newDelimitedParser(reader, bodyReader, delimiter, textQualifier, ignoreFirstRecord);
             }
         }
     }
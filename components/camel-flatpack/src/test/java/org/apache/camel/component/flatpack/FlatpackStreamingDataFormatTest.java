@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.flatpack;
+
+import java.io.File;
+import java.util.Map;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.converter.IOConverter;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+/**
+ * Unit test for the streaming mode of the DataFormat.
+ */
+public class FlatpackStreamingDataFormatTest extends CamelTestSupport {
+
+    @Test
+    public void testUnmarshalFixedLength() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:row");
+        // we get a message per row
+        mock.expectedMessageCount(4);
+        mock.allMessages().body().isInstanceOf(Map.class);
+
+        String data = IOConverter.toString(new File("src/test/data/fixed/PEOPLE-FixedLength.txt").getAbsoluteFile(), null);
+
+        template.sendBody("direct:unmarshalFixed", data);
+        assertMockEndpointsSatisfied();
+
+        Map<?, ?> row = mock.getExchanges().get(0).getIn().getBody(Map.class);
+        assertEquals("JOHN", row.get("FIRSTNAME"));
+    }
+
+    @Test
+    public void testUnmarshalDelimited() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:row");
+        mock.expectedMessageCount(4);
+
+        String data = IOConverter.toString(new File("src/test/data/delim/INVENTORY-CommaDelimitedWithQualifier.txt").getAbsoluteFile(), null);
+
+        template.sendBody("direct:unmarshalDelimited", data);
+        assertMockEndpointsSatisfied();
+
+        Map<?, ?> row = mock.getExchanges().get(0).getIn().getBody(Map.class);
+        assertEquals("SOME VALVE", row.get("ITEM_DESC"));
+    }
+
+    @Test
+    public void testUnmarshalAndMarshalIterator() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:marshal");
+        mock.expectedMessageCount(1);
+
+        String data = IOConverter.toString(new File("src/test/data/fixed/PEOPLE-FixedLength.txt").getAbsoluteFile(), null);
+
+        template.sendBody("direct:copyFixed", data);
+        assertMockEndpointsSatisfied();
+
+        // the rows are written again with the same fixed lengths
+        String s = mock.getExchanges().get(0).getIn().getBody(String.class);
+        assertTrue(s.startsWith("JOHN                               DOE"));
+        assertEquals(4, s.trim().split("\n").length);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                FlatpackDataFormat fixed = new FlatpackDataFormat();
+                fixed.setDefinition("PEOPLE-FixedLength.pzmap.xml");
+                fixed.setFixed(true);
+                fixed.setIgnoreFirstRecord(false);
+                fixed.setStreaming(true);
+
+                from("direct:unmarshalFixed").unmarshal(fixed)
+                    .split(body()).streaming()
+                        .to("mock:row");
+
+                from("direct:copyFixed").unmarshal(fixed).marshal(fixed).convertBodyTo(String.class).to("mock:marshal");
+
+                FlatpackDataFormat delimited = new FlatpackDataFormat();
+                delimited.setDefinition("INVENTORY-Delimited.pzmap.xml");
+                delimited.setStreaming(true);
+
+                from("direct:unmarshalDelimited").unmarshal(delimited)
+                    .split(body()).streaming()
+                        .to("mock:row");
+            }
+        };
+    }
+}
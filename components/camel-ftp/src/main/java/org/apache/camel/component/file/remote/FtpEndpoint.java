@@ -54,6 +54,10 @@ public class FtpEndpoint<T extends FTPFile> extends RemoteFileEndpoint<FTPFile>
 
     @Override
     protected RemoteFileConsumer<FTPFile> buildConsumer(Processor processor) {
+        if (ftpClient != null && getMaxConcurrentDownloads() > 1) {
+            // each download needs its own client
+            throw new IllegalArgumentException("Cannot use maxConcurrentDownloads with a custom ftpClient configured");
+        }
         try {
             return new FtpConsumer(this, processor, createRemoteFileOperations());
         } catch (Exception e) {
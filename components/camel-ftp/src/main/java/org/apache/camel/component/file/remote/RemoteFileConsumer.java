@@ -17,9 +17,18 @@
 package org.apache.camel.component.file.remote;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.apache.camel.component.file.FileComponent;
 import org.apache.camel.component.file.GenericFile;
 import org.apache.camel.component.file.GenericFileConsumer;
 import org.apache.camel.component.file.GenericFileOperationFailedException;
@@ -30,6 +39,11 @@ import org.apache.camel.util.FileUtil;
  */
 public abstract class RemoteFileConsumer<T> extends GenericFileConsumer<T> {
     protected boolean loggedIn;
+    private RemoteFileOperationsPool<T> downloadPool;
+    private ExecutorService downloadExecutor;
+    private final Map<String, Download<T>> downloads = new HashMap<String, Download<T>>();
+    // the exchanges of the current batch whose files has not begun to be downloaded yet
+    private final Queue<Exchange> prefetch = new LinkedList<Exchange>();
 
     public RemoteFileConsumer(RemoteFileEndpoint<T> endpoint, Processor processor, RemoteFileOperations<T> operations) {
         super(endpoint, processor, operations);
@@ -94,13 +108,154 @@ public abstract class RemoteFileConsumer<T> extends GenericFileConsumer<T> {
         super.processExchange(exchange);
     }
 
+    @Override
+    public int processBatch(Queue<Object> exchanges) {
+        if (downloadPool == null || customProcessor != null) {
+            return super.processBatch(exchanges);
+        }
+
+        // download the files in advance using the pooled connections, the exchanges are still processed one by one
+        int total = exchanges.size();
+        if (maxMessagesPerPoll > 0 && total > maxMessagesPerPoll) {
+            total = maxMessagesPerPoll;
+        }
+        int index = 0;
+        for (Object object : exchanges) {
+            if (index++ >= total) {
+                break;
+            }
+            prefetch.add((Exchange) object);
+        }
+
+        // only download a window of files ahead, as the files may be downloaded into memory,
+        // the next file is downloaded when a file is being processed
+        for (int i = 0; i < getEndpoint().getMaxConcurrentDownloads(); i++) {
+            downloadNext();
+        }
+
+        try {
+            return super.processBatch(exchanges);
+        } finally {
+            prefetch.clear();
+            // abort the downloads of the files which was not processed, for example if we are stopping
+            for (Download<T> download : downloads.values()) {
+                abortDownload(download);
+            }
+            downloads.clear();
+        }
+    }
+
+    @Override
+    protected GenericFile<T> beginAndRetrieveFile(Exchange exchange) {
+        Download<T> download = downloads.remove(exchange.getExchangeId());
+        if (download == null) {
+            return super.beginAndRetrieveFile(exchange);
+        }
+
+        // slide the window of downloads ahead
+        downloadNext();
+        try {
+            return download.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // abort the download when the batch is done
+            downloads.put(exchange.getExchangeId(), download);
+            return null;
+        } catch (ExecutionException e) {
+            GenericFile<?> file = exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE, GenericFile.class);
+            endpoint.getInProgressRepository().remove(file.getAbsoluteFilePath());
+            handleException("Error downloading file " + file + " due to " + e.getCause().getMessage(), e.getCause());
+            return null;
+        }
+    }
+
+    private void downloadNext() {
+        final Exchange exchange = prefetch.poll();
+        if (exchange != null) {
+            Future<GenericFile<T>> future = downloadExecutor.submit(new Callable<GenericFile<T>>() {
+                public GenericFile<T> call() throws Exception {
+                    return download(exchange);
+                }
+            });
+            downloads.put(exchange.getExchangeId(), new Download<T>(exchange, future));
+        }
+    }
+
+    private GenericFile<T> download(Exchange exchange) {
+        RemoteFileOperations<T> operations;
+        try {
+            operations = downloadPool.acquire();
+        } catch (Exception e) {
+            GenericFile<?> file = exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE, GenericFile.class);
+            endpoint.getInProgressRepository().remove(file.getAbsoluteFilePath());
+            handleException("Cannot connect/login to: " + remoteServer() + " to download file " + file, e);
+            return null;
+        }
+
+        GenericFile<T> target;
+        try {
+            // null means the file could not be begun, such as being locked, which leaves the connection usable
+            target = beginAndRetrieveFile(exchange, operations);
+        } catch (Exception e) {
+            // the connection may be in a bad state after a failure
+            downloadPool.invalidate(operations);
+            GenericFile<?> file = exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE, GenericFile.class);
+            handleException("Error processing file " + file + " due to " + e.getMessage(), e);
+            return null;
+        }
+        downloadPool.release(operations);
+        return target;
+    }
+
+    private void abortDownload(Download<T> download) {
+        Exchange exchange = download.exchange;
+        GenericFile<?> file = exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE, GenericFile.class);
+        try {
+            if (!download.future.cancel(false)) {
+                // the download has already begun so wait for it to complete, and then abort it
+                GenericFile<T> target = download.future.get();
+                if (target != null) {
+                    log.debug("Aborting downloaded file: {} as it was not processed", target);
+                    endpoint.getGenericFileProcessStrategy().abort(operations, endpoint, exchange, target);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error aborting download of file: " + file + " due: " + e.getMessage() + ". This exception will be ignored.", e);
+        } finally {
+            endpoint.getInProgressRepository().remove(file.getAbsoluteFilePath());
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        int concurrent = getEndpoint().getMaxConcurrentDownloads();
+        if (concurrent > 1) {
+            downloadPool = new RemoteFileOperationsPool<T>(getEndpoint(), concurrent);
+            downloadExecutor = getEndpoint().getCamelContext().getExecutorServiceManager()
+                    .newFixedThreadPool(this, "RemoteFileDownload", concurrent);
+        }
+    }
+
     @Override
     protected void doStop() throws Exception {
         super.doStop();
+        // wait for the downloads to complete before closing their connections
+        if (downloadExecutor != null) {
+            getEndpoint().getCamelContext().getExecutorServiceManager().shutdownGraceful(downloadExecutor);
+            downloadExecutor = null;
+        }
         disconnect();
+        downloadPool = null;
     }
 
     protected void disconnect() {
+        if (downloadPool != null) {
+            // disconnect the idle download connections as well
+            downloadPool.close();
+        }
+
         // eager indicate we are no longer logged in
         loggedIn = false;
 
@@ -165,4 +320,14 @@ public abstract class RemoteFileConsumer<T> extends GenericFileConsumer<T> {
 
         return super.isMatched(file, doneFileName);
     }
+
+    private static final class Download<T> {
+        private final Exchange exchange;
+        private final Future<GenericFile<T>> future;
+
+        private Download(Exchange exchange, Future<GenericFile<T>> future) {
+            this.exchange = exchange;
+            this.future = future;
+        }
+    }
 }
@@ -37,6 +37,7 @@ public abstract class RemoteFileEndpoint<T> extends GenericFileEndpoint<T> {
     private long reconnectDelay = 1000;
     private boolean disconnect;
     private boolean fastExistsCheck;
+    private int maxConcurrentDownloads = 1;
 
     public RemoteFileEndpoint() {
         // no args constructor for spring bean endpoint configuration
@@ -199,4 +200,19 @@ public abstract class RemoteFileEndpoint<T> extends GenericFileEndpoint<T> {
         this.fastExistsCheck = fastExistsCheck;
     }
 
+    public int getMaxConcurrentDownloads() {
+        return maxConcurrentDownloads;
+    }
+
+    /**
+     * Sets the maximum number of files the consumer downloads at the same time, each using its own connection.
+     * <p/>
+     * The files from a poll are downloaded in advance using a pool of connections, and then routed one by one
+     * in the same order as usual. At most this number of files are downloaded ahead of the file being routed.
+     * The default value is 1 which downloads the files using the connection of the consumer.
+     */
+    public void setMaxConcurrentDownloads(int maxConcurrentDownloads) {
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+    }
+
 }
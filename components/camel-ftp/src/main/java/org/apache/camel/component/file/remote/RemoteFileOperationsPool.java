@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.remote;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.camel.component.file.GenericFileOperationFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of connected {@link RemoteFileOperations} used to download files concurrently.
+ * <p/>
+ * Idle connections are kept connected between polls. A connection which has been idle for a while
+ * is checked using a noop command before being used again, and is replaced with a new connection if it is broken.
+ *
+ * @version
+ */
+class RemoteFileOperationsPool<T> {
+
+    // how long a connection can be idle before we check it is still alive
+    static final long KEEP_ALIVE_CHECK_INTERVAL = 10000;
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(RemoteFileOperationsPool.class);
+
+    private final RemoteFileEndpoint<T> endpoint;
+    private final BlockingQueue<Entry<T>> idle;
+
+    RemoteFileOperationsPool(RemoteFileEndpoint<T> endpoint, int size) {
+        this.endpoint = endpoint;
+        this.idle = new LinkedBlockingQueue<Entry<T>>(size);
+    }
+
+    /**
+     * Acquires a connected operations, which must be given back using {@link #release(RemoteFileOperations)}
+     * or {@link #invalidate(RemoteFileOperations)}.
+     */
+    RemoteFileOperations<T> acquire() throws Exception {
+        Entry<T> entry;
+        while ((entry = idle.poll()) != null) {
+            if (isAlive(entry)) {
+                return entry.operations;
+            }
+            disconnect(entry.operations);
+        }
+
+        LOG.debug("Creating new connection to: {}", endpoint.remoteServerInformation());
+        RemoteFileOperations<T> operations = endpoint.createRemoteFileOperations();
+        boolean connected;
+        try {
+            connected = operations.connect(endpoint.getConfiguration());
+        } catch (RuntimeException e) {
+            disconnect(operations);
+            throw e;
+        }
+        if (!connected) {
+            disconnect(operations);
+            throw new GenericFileOperationFailedException("Cannot connect/login to: " + endpoint.remoteServerInformation());
+        }
+        return operations;
+    }
+
+    /**
+     * Gives back the operations to the pool so it can be reused.
+     */
+    void release(RemoteFileOperations<T> operations) {
+        if (!idle.offer(new Entry<T>(operations))) {
+            disconnect(operations);
+        }
+    }
+
+    /**
+     * Disconnects the operations as it may no longer be usable.
+     */
+    void invalidate(RemoteFileOperations<T> operations) {
+        disconnect(operations);
+    }
+
+    /**
+     * Disconnects all the idle connections.
+     */
+    void close() {
+        Entry<T> entry;
+        while ((entry = idle.poll()) != null) {
+            disconnect(entry.operations);
+        }
+    }
+
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    private boolean isAlive(Entry<T> entry) {
+        try {
+            if (!entry.operations.isConnected()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - entry.released > KEEP_ALIVE_CHECK_INTERVAL) {
+                return entry.operations.sendNoop();
+            }
+            return true;
+        } catch (Exception e) {
+            LOG.debug("Connection to: " + endpoint.remoteServerInformation() + " is broken due: " + e.getMessage()
+                    + ". A new connection will be created.", e);
+            return false;
+        }
+    }
+
+    private void disconnect(RemoteFileOperations<T> operations) {
+        try {
+            if (operations.isConnected()) {
+                operations.disconnect();
+            }
+        } catch (Exception e) {
+            LOG.debug("Error disconnecting from: " + endpoint.remoteServerInformation() + " due: " + e.getMessage()
+                    + ". This exception will be ignored.", e);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final RemoteFileOperations<T> operations;
+        private final long released = System.currentTimeMillis();
+
+        private Entry(RemoteFileOperations<T> operations) {
+            this.operations = operations;
+        }
+    }
+}
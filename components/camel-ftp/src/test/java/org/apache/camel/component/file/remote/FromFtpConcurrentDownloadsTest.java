@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.remote;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.file.GenericFile;
+import org.apache.camel.component.file.GenericFileEndpoint;
+import org.apache.camel.component.file.GenericFileOperations;
+import org.apache.camel.component.file.GenericFileProcessStrategy;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.ftpserver.impl.DefaultFtpServer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for downloading files using concurrent connections.
+ */
+public class FromFtpConcurrentDownloadsTest extends FtpServerTestSupport {
+
+    private final AtomicInteger maxLocalFiles = new AtomicInteger();
+
+    private String getFtpUrl() {
+        return "ftp://admin@localhost:" + getPort() + "/concurrent?password=admin&maxConcurrentDownloads=3"
+                + "&sortBy=file:name&delete=true&delay=5000";
+    }
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        deleteDirectory("target/lwd-concurrent");
+        super.setUp();
+        for (int i = 10; i < 30; i++) {
+            template.sendBodyAndHeader("file:" + FTP_ROOT_DIR + "/concurrent", "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+    }
+
+    @Test
+    public void testConcurrentDownloads() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        // the files are still processed in order
+        expectedBodies(mock);
+
+        context.startRoute("foo");
+
+        assertMockEndpointsSatisfied();
+        assertDeleted();
+    }
+
+    @Test
+    public void testConcurrentDownloadsLocalWorkDirectory() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        expectedBodies(mock);
+
+        context.startRoute("bar");
+
+        assertMockEndpointsSatisfied();
+        assertDeleted();
+
+        // only a window of files is downloaded ahead of the file being routed
+        assertTrue("Should download at most 3 files ahead, was: " + (maxLocalFiles.get() - 1), maxLocalFiles.get() <= 4);
+    }
+
+    @Test
+    public void testConcurrentDownloadsNotBegun() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        Object[] bodies = new Object[10];
+        for (int i = 0; i < 10; i++) {
+            bodies[i] = "Hello " + (i * 2 + 11);
+        }
+        mock.expectedBodiesReceived(bodies);
+
+        context.startRoute("baz");
+
+        assertMockEndpointsSatisfied();
+
+        // the connections are reused when a file cannot be begun, so only the consumer
+        // and the 3 download connections should have logged in
+        int logins = ((DefaultFtpServer) ftpServer).getServerContext().getFtpStatistics().getTotalLoginNumber();
+        assertTrue("Should login at most 4 times, was: " + logins, logins <= 4);
+    }
+
+    private void expectedBodies(MockEndpoint mock) {
+        Object[] bodies = new Object[20];
+        for (int i = 0; i < 20; i++) {
+            bodies[i] = "Hello " + (i + 10);
+        }
+        mock.expectedBodiesReceived(bodies);
+    }
+
+    private void assertDeleted() throws Exception {
+        // the files are deleted when done, which happens after the message has been routed
+        File dir = new File(FTP_ROOT_DIR + "/concurrent");
+        for (int i = 0; i < 50 && dir.list().length > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals("The files should have been deleted", 0, dir.list().length);
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("oddFilesStrategy", new OddFilesProcessStrategy());
+        return jndi;
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from(getFtpUrl()).routeId("foo").noAutoStartup()
+                    .convertBodyTo(String.class).to("mock:result");
+
+                from(getFtpUrl() + "&processStrategy=#oddFilesStrategy").routeId("baz").noAutoStartup()
+                    .convertBodyTo(String.class).to("mock:result");
+
+                from(getFtpUrl() + "&localWorkDirectory=target/lwd-concurrent").routeId("bar").noAutoStartup()
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            // the local work files are deleted when they have been routed
+                            String[] files = new File("target/lwd-concurrent").list();
+                            int count = files != null ? files.length : 0;
+                            if (count > maxLocalFiles.get()) {
+                                maxLocalFiles.set(count);
+                            }
+                            Thread.sleep(50);
+                        }
+                    })
+                    .convertBodyTo(String.class).to("mock:result");
+            }
+        };
+    }
+
+    /**
+     * Only begins the files with an odd number, such as the other files are locked by someone else.
+     */
+    private static class OddFilesProcessStrategy implements GenericFileProcessStrategy<FTPFile> {
+
+        public void prepareOnStartup(GenericFileOperations<FTPFile> operations, GenericFileEndpoint<FTPFile> endpoint) throws Exception {
+        }
+
+        public boolean begin(GenericFileOperations<FTPFile> operations, GenericFileEndpoint<FTPFile> endpoint,
+                             Exchange exchange, GenericFile<FTPFile> file) throws Exception {
+            String name = file.getFileNameOnly();
+            int number = Integer.parseInt(name.substring(5, name.indexOf('.')));
+            return number % 2 == 1;
+        }
+
+        public void abort(GenericFileOperations<FTPFile> operations, GenericFileEndpoint<FTPFile> endpoint,
+                          Exchange exchange, GenericFile<FTPFile> file) throws Exception {
+        }
+
+        public void commit(GenericFileOperations<FTPFile> operations, GenericFileEndpoint<FTPFile> endpoint,
+                           Exchange exchange, GenericFile<FTPFile> file) throws Exception {
+        }
+
+        public void rollback(GenericFileOperations<FTPFile> operations, GenericFileEndpoint<FTPFile> endpoint,
+                             Exchange exchange, GenericFile<FTPFile> file) throws Exception {
+        }
+    }
+}
@@ -26,7 +26,9 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
 import org.apache.camel.Exchange;
+import org.apache.camel.spi.ExchangeCodec;
 import org.apache.camel.spi.RecoverableAggregationRepository;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.ObjectHelper;
@@ -40,10 +42,11 @@ import org.slf4j.LoggerFactory;
 /**
  * An instance of AggregationRepository which is backed by a HawtDB.
  */
-public class HawtDBAggregationRepository extends ServiceSupport implements RecoverableAggregationRepository {
+public class HawtDBAggregationRepository extends ServiceSupport implements RecoverableAggregationRepository, CamelContextAware {
 
     private static final transient Logger LOG = LoggerFactory.getLogger(HawtDBAggregationRepository.class);
     private HawtDBFile hawtDBFile;
+    private CamelContext camelContext;
     private String persistentFileName;
     private String repositoryName;
     private int bufferSize = 8 * 1024 * 1024;
@@ -384,6 +387,14 @@ public class HawtDBAggregationRepository extends ServiceSupport implements Recov
         this.repositoryName = repositoryName;
     }
 
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
     public String getPersistentFileName() {
         return persistentFileName;
     }
@@ -408,6 +419,18 @@ public class HawtDBAggregationRepository extends ServiceSupport implements Recov
         this.bufferSize = bufferSize;
     }
 
+    public ExchangeCodec getExchangeCodec() {
+        return codec.getExchangeCodec();
+    }
+
+    /**
+     * Sets the codec used for marshalling the exchanges, which by default is the compact
+     * {@link org.apache.camel.impl.BinaryExchangeCodec}. Set to <tt>null</tt> to use Java serialization.
+     */
+    public void setExchangeCodec(ExchangeCodec exchangeCodec) {
+        codec.setExchangeCodec(exchangeCodec);
+    }
+
     public boolean isReturnOldExchange() {
         return returnOldExchange;
     }
@@ -478,6 +501,10 @@ public class HawtDBAggregationRepository extends ServiceSupport implements Recov
         ObjectHelper.notNull(hawtDBFile, "Either set a persistentFileName or a hawtDBFile");
         ObjectHelper.notNull(repositoryName, "repositoryName");
 
+        if (camelContext != null && hawtDBFile.getExecutorServiceManager() == null) {
+            // use a thread from camel for the group commits
+            hawtDBFile.setExecutorServiceManager(camelContext.getExecutorServiceManager());
+        }
         ServiceHelper.startService(hawtDBFile);
 
         // log number of existing exchanges
@@ -18,8 +18,18 @@ package org.apache.camel.component.hawtdb;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.Service;
+import org.apache.camel.spi.ExecutorServiceManager;
+import org.apache.camel.util.concurrent.CamelThreadFactory;
 import org.fusesource.hawtbuf.Buffer;
 import org.fusesource.hawtbuf.codec.BufferCodec;
 import org.fusesource.hawtbuf.codec.IntegerCodec;
@@ -38,6 +48,9 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * Will by default not sync writes which allows it to be faster.
  * You can force syncing by setting the sync option to <tt>true</tt>.
+ * <p/>
+ * When syncing, the group commit option allows to flush the work committed by many concurrent threads
+ * using a single flush, instead of a flush per unit of work.
  */
 public class HawtDBFile extends TxPageFileFactory implements Service {
 
@@ -49,6 +62,16 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
     private static final BTreeIndexFactory<Buffer, Buffer> INDEX_FACTORY = new BTreeIndexFactory<Buffer, Buffer>();
 
     private TxPageFile pageFile;
+    private boolean groupCommit;
+    private long groupCommitMaxDelay = 2;
+    private long groupCommitTimeout = 30000;
+    private ExecutorServiceManager executorServiceManager;
+    private final BlockingQueue<PendingFlush> pendingFlushes = new LinkedBlockingQueue<PendingFlush>();
+    private volatile boolean groupCommitRunning;
+    private ExecutorService groupCommitExecutor;
+    private CountDownLatch groupCommitDone;
+    // guards the page file when using group commit
+    private final Object commitLock = new Object();
 
     static {
         ROOT_INDEXES_FACTORY.setKeyCodec(StringCodec.INSTANCE);
@@ -67,6 +90,53 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
         setSync(false);
     }
 
+    public boolean isGroupCommit() {
+        return groupCommit;
+    }
+
+    /**
+     * Whether to flush the work committed by concurrent threads using a single flush.
+     * Each thread is blocked until its work has been flushed.
+     */
+    public void setGroupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    public long getGroupCommitMaxDelay() {
+        return groupCommitMaxDelay;
+    }
+
+    /**
+     * The maximum time in millis to wait for other work to join a group commit. Default is 2 millis.
+     * Use 0 to only group the work which is pending while the previous group is being flushed.
+     */
+    public void setGroupCommitMaxDelay(long groupCommitMaxDelay) {
+        this.groupCommitMaxDelay = groupCommitMaxDelay;
+    }
+
+    public long getGroupCommitTimeout() {
+        return groupCommitTimeout;
+    }
+
+    /**
+     * The maximum time in millis a thread waits for its work to be flushed as part of a group commit.
+     * Default is 30000 millis. If the timeout is hit the work fails, but it has been committed and may still be flushed.
+     */
+    public void setGroupCommitTimeout(long groupCommitTimeout) {
+        this.groupCommitTimeout = groupCommitTimeout;
+    }
+
+    public ExecutorServiceManager getExecutorServiceManager() {
+        return executorServiceManager;
+    }
+
+    /**
+     * The manager to create the thread which flushes the group commits. If not set a daemon thread is created.
+     */
+    public void setExecutorServiceManager(ExecutorServiceManager executorServiceManager) {
+        this.executorServiceManager = executorServiceManager;
+    }
+
     public void start() {
         if (getFile() == null) {
             throw new IllegalArgumentException("A file must be configured");
@@ -79,6 +149,18 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
         open();
         pageFile = getTxPageFile();
 
+        if (groupCommit && groupCommitExecutor == null) {
+            String name = "HawtDBGroupCommit[" + getFile().getName() + "]";
+            if (executorServiceManager != null) {
+                groupCommitExecutor = executorServiceManager.newSingleThreadExecutor(this, name);
+            } else {
+                groupCommitExecutor = Executors.newSingleThreadExecutor(new CamelThreadFactory("#name#", name, true));
+            }
+            groupCommitDone = new CountDownLatch(1);
+            groupCommitRunning = true;
+            groupCommitExecutor.execute(new GroupCommitTask());
+        }
+
         execute(new Work<Boolean>() {
             public Boolean execute(Transaction tx) {
                 if (!tx.allocator().isAllocated(0)) {
@@ -104,6 +186,23 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
         File file = getFile();
 
         LOG.debug("Stopping HawtDB using file: {}", file);
+        if (groupCommitExecutor != null) {
+            // interrupt the group commit thread which flushes the pending work before it terminates
+            groupCommitRunning = false;
+            if (executorServiceManager != null) {
+                executorServiceManager.shutdownNow(groupCommitExecutor);
+            } else {
+                groupCommitExecutor.shutdownNow();
+            }
+            groupCommitExecutor = null;
+            try {
+                if (!groupCommitDone.await(5000, TimeUnit.MILLISECONDS)) {
+                    LOG.warn("Timeout waiting for the pending group commit to be flushed using file: {}", file);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         try {
             close();
         } catch (IOException e) {
@@ -148,7 +247,38 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
         return answer;
     }
 
-    private static <T> T doExecute(Work<T> work, Transaction tx, TxPageFile page) {
+    private <T> T doExecute(Work<T> work, Transaction tx, TxPageFile page) {
+        if (!groupCommitRunning) {
+            T answer = executeAndCommit(work, tx, null);
+            // and flush so we ensure data is spooled to disk
+            page.flush();
+            return answer;
+        }
+
+        // the page file does not allow concurrent writers nor writing while flushing
+        T answer;
+        PendingFlush pending = new PendingFlush();
+        synchronized (commitLock) {
+            answer = executeAndCommit(work, tx, pending);
+        }
+
+        // read only work has nothing to flush
+        if (pending.isEnqueued()) {
+            // wait for the committed work to be flushed as part of a group commit
+            if (!groupCommitRunning && pendingFlushes.remove(pending)) {
+                // we were stopped in the meantime
+                synchronized (commitLock) {
+                    page.flush();
+                }
+            } else if (!pending.await(groupCommitTimeout)) {
+                throw new IllegalStateException("Timeout waiting " + groupCommitTimeout + " millis for group commit using file "
+                        + getFile() + ". The work is committed and may still be flushed.");
+            }
+        }
+        return answer;
+    }
+
+    private <T> T executeAndCommit(Work<T> work, Transaction tx, PendingFlush pending) {
         T answer = null;
 
         boolean done = false;
@@ -165,10 +295,12 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
                 answer = work.execute(tx);
 
                 LOG.trace("TX is read only: {} for executed work: {}", tx.isReadOnly(), work);
+                boolean readOnly = tx.isReadOnly();
                 // commit work
                 tx.commit();
-                // and flush so we ensure data is spooled to disk
-                page.flush();
+                if (pending != null && !readOnly) {
+                    pending.enqueue();
+                }
                 // and we are done
                 done = true;
             } catch (OptimisticUpdateException e) {
@@ -186,4 +318,109 @@ public class HawtDBFile extends TxPageFileFactory implements Service {
         return answer;
     }
 
+    /**
+     * Flushes the page file once for all the pending work.
+     */
+    private void flushGroup(List<PendingFlush> group) {
+        RuntimeException cause = null;
+        try {
+            synchronized (commitLock) {
+                pageFile.flush();
+            }
+            LOG.trace("Group commit of {} units of work", group.size());
+        } catch (Throwable e) {
+            LOG.warn("Error flushing HawtDB file " + getFile(), e);
+            cause = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException("Error flushing HawtDB file " + getFile(), e);
+        }
+
+        // the committers must never be left waiting
+        for (PendingFlush pending : group) {
+            pending.done(cause);
+        }
+    }
+
+    private final class GroupCommitTask implements Runnable {
+
+        public void run() {
+            List<PendingFlush> group = new ArrayList<PendingFlush>();
+            try {
+                runGroupCommits(group);
+            } finally {
+                // reject new group commits and flush the pending work before stopping
+                groupCommitRunning = false;
+                pendingFlushes.drainTo(group);
+                if (!group.isEmpty()) {
+                    flushGroup(group);
+                }
+                groupCommitDone.countDown();
+            }
+        }
+
+        private void runGroupCommits(List<PendingFlush> group) {
+            while (groupCommitRunning) {
+                try {
+                    group.add(pendingFlushes.take());
+
+                    // wait a little for other work to join the group
+                    long deadline = System.currentTimeMillis() + groupCommitMaxDelay;
+                    long remaining = groupCommitMaxDelay;
+                    while (remaining > 0) {
+                        PendingFlush next = pendingFlushes.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        group.add(next);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                    pendingFlushes.drainTo(group);
+
+                    flushGroup(group);
+                    group.clear();
+                } catch (InterruptedException e) {
+                    // we are stopping
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Committed work waiting to be flushed as part of a group commit.
+     */
+    private final class PendingFlush {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile RuntimeException cause;
+        private boolean enqueued;
+
+        void enqueue() {
+            enqueued = true;
+            pendingFlushes.add(this);
+        }
+
+        boolean isEnqueued() {
+            return enqueued;
+        }
+
+        void done(RuntimeException cause) {
+            this.cause = cause;
+            latch.countDown();
+        }
+
+        boolean await(long timeout) {
+            try {
+                if (!latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for group commit", e);
+            }
+            if (cause != null) {
+                throw cause;
+            }
+            return true;
+        }
+    }
+
 }
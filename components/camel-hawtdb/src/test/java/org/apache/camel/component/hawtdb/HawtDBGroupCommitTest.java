@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.hawtdb;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class HawtDBGroupCommitTest extends CamelTestSupport {
+
+    private HawtDBFile hawtDBFile;
+
+    @Override
+    public void setUp() throws Exception {
+        deleteDirectory("target/data");
+        File file = new File("target/data/hawtdb.dat");
+        hawtDBFile = new HawtDBFile();
+        hawtDBFile.setFile(file);
+        hawtDBFile.setSync(true);
+        hawtDBFile.setGroupCommit(true);
+        super.setUp();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        hawtDBFile.stop();
+        super.tearDown();
+    }
+
+    @Test
+    public void testConcurrentGroupCommit() throws Exception {
+        final HawtDBAggregationRepository repo = new HawtDBAggregationRepository("repo1", hawtDBFile);
+        repo.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 0; i < 10; i++) {
+            final int thread = i;
+            futures.add(executor.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (int j = 0; j < 50; j++) {
+                        Exchange exchange = new DefaultExchange(context);
+                        exchange.getIn().setBody("Message " + j);
+                        repo.add(context, thread + "-" + j, exchange);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Object> future : futures) {
+            // will fail if the group commit failed
+            future.get();
+        }
+        executor.shutdownNow();
+
+        assertEquals(500, repo.getKeys().size());
+        assertEquals("Message 49", repo.get(context, "9-49").getIn().getBody());
+
+        // remove and confirm are group committed as well
+        Exchange exchange = repo.get(context, "0-0");
+        repo.remove(context, "0-0", exchange);
+        assertEquals(499, repo.getKeys().size());
+        assertEquals(1, repo.scan(context).size());
+        repo.confirm(context, exchange.getExchangeId());
+        assertEquals(0, repo.scan(context).size());
+
+        repo.stop();
+    }
+
+    @Test
+    public void testGroupCommitUsesCamelThreadPool() throws Exception {
+        HawtDBAggregationRepository repo = new HawtDBAggregationRepository("repo1", hawtDBFile);
+        repo.setCamelContext(context);
+        repo.start();
+        assertSame(context.getExecutorServiceManager(), hawtDBFile.getExecutorServiceManager());
+
+        boolean found = false;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("Camel (") && thread.getName().contains("HawtDBGroupCommit")) {
+                found = true;
+            }
+        }
+        assertTrue("The group commit thread should be created by Camel", found);
+
+        repo.add(context, "foo", new DefaultExchange(context));
+        assertNotNull(repo.get(context, "foo"));
+        repo.stop();
+    }
+}
@@ -51,6 +51,14 @@ public class HdfsConfiguration {
     private int checkIdleInterval = HdfsConstants.DEFAULT_CHECK_IDLE_INTERVAL;
     private List<HdfsProducer.SplitStrategy> splitStrategies;
     private boolean connectOnStartup = true;
+    private boolean writeBehind;
+    private int writeBehindQueueSize = HdfsConstants.DEFAULT_WRITE_BEHIND_QUEUE_SIZE;
+    private long writeBehindStopTimeout = HdfsConstants.DEFAULT_WRITE_BEHIND_STOP_TIMEOUT;
+    private int parallelWriters = 1;
+    private String partitionBy;
+    private int maxOpenPartitions = HdfsConstants.DEFAULT_MAX_OPEN_PARTITIONS;
+    private int flushMessages;
+    private long flushInterval;
 
     public HdfsConfiguration() {
     }
@@ -174,6 +182,21 @@ public class HdfsConfiguration {
             if (getFileType() != HdfsFileType.NORMAL_FILE) {
                 throw new IllegalArgumentException("append=true works only with NORMAL_FILEs");
             }
+            if (getPartitionBy() != null) {
+                throw new IllegalArgumentException("partitionBy incompatible with append=true");
+            }
+        }
+        if (getWriteBehindQueueSize() <= 0) {
+            throw new IllegalArgumentException("writeBehindQueueSize must be positive");
+        }
+        if (getMaxOpenPartitions() <= 0) {
+            throw new IllegalArgumentException("maxOpenPartitions must be positive");
+        }
+        if (getParallelWriters() <= 0) {
+            throw new IllegalArgumentException("parallelWriters must be positive");
+        }
+        if (getParallelWriters() > 1 && (!isWriteBehind() || getPartitionBy() == null)) {
+            throw new IllegalArgumentException("parallelWriters requires writeBehind=true and partitionBy");
         }
     }
 
@@ -208,6 +231,14 @@ public class HdfsConfiguration {
         pattern = getString(hdfsSettings, "pattern", pattern);
         chunkSize = getInteger(hdfsSettings, "chunkSize", chunkSize);
         splitStrategies = getSplitStrategies(hdfsSettings);
+        writeBehind = getBoolean(hdfsSettings, "writeBehind", writeBehind);
+        writeBehindQueueSize = getInteger(hdfsSettings, "writeBehindQueueSize", writeBehindQueueSize);
+        writeBehindStopTimeout = getLong(hdfsSettings, "writeBehindStopTimeout", writeBehindStopTimeout);
+        parallelWriters = getInteger(hdfsSettings, "parallelWriters", parallelWriters);
+        partitionBy = getString(hdfsSettings, "partitionBy", partitionBy);
+        maxOpenPartitions = getInteger(hdfsSettings, "maxOpenPartitions", maxOpenPartitions);
+        flushMessages = getInteger(hdfsSettings, "flushMessages", flushMessages);
+        flushInterval = getLong(hdfsSettings, "flushInterval", flushInterval);
     }
 
     public URI getUri() {
@@ -401,4 +432,68 @@ public class HdfsConfiguration {
     public void setConnectOnStartup(boolean connectOnStartup) {
         this.connectOnStartup = connectOnStartup;
     }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public int getWriteBehindQueueSize() {
+        return writeBehindQueueSize;
+    }
+
+    public void setWriteBehindQueueSize(int writeBehindQueueSize) {
+        this.writeBehindQueueSize = writeBehindQueueSize;
+    }
+
+    public long getWriteBehindStopTimeout() {
+        return writeBehindStopTimeout;
+    }
+
+    public void setWriteBehindStopTimeout(long writeBehindStopTimeout) {
+        this.writeBehindStopTimeout = writeBehindStopTimeout;
+    }
+
+    public int getParallelWriters() {
+        return parallelWriters;
+    }
+
+    public void setParallelWriters(int parallelWriters) {
+        this.parallelWriters = parallelWriters;
+    }
+
+    public String getPartitionBy() {
+        return partitionBy;
+    }
+
+    public void setPartitionBy(String partitionBy) {
+        this.partitionBy = partitionBy;
+    }
+
+    public int getMaxOpenPartitions() {
+        return maxOpenPartitions;
+    }
+
+    public void setMaxOpenPartitions(int maxOpenPartitions) {
+        this.maxOpenPartitions = maxOpenPartitions;
+    }
+
+    public int getFlushMessages() {
+        return flushMessages;
+    }
+
+    public void setFlushMessages(int flushMessages) {
+        this.flushMessages = flushMessages;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
 }
@@ -44,6 +44,12 @@ public final class HdfsConstants {
 
     public static final int DEFAULT_CHECK_IDLE_INTERVAL = 500;
 
+    public static final int DEFAULT_WRITE_BEHIND_QUEUE_SIZE = 1000;
+
+    public static final long DEFAULT_WRITE_BEHIND_STOP_TIMEOUT = 30000L;
+
+    public static final int DEFAULT_MAX_OPEN_PARTITIONS = 100;
+
     private HdfsConstants() {
     }
 }
@@ -24,7 +24,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.camel.RuntimeCamelException;
 import org.apache.camel.TypeConverter;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.Syncable;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
 
 public class HdfsOutputStream implements Closeable {
 
@@ -79,6 +81,22 @@ public class HdfsOutputStream implements Closeable {
         }
     }
 
+    /**
+     * Flushes the written data so its visible to readers.
+     * <p/>
+     * Only normal files and sequence files can be flushed, for the other file types this does nothing.
+     */
+    public void flush() throws IOException {
+        if (!opened) {
+            return;
+        }
+        if (out instanceof Syncable) {
+            ((Syncable) out).sync();
+        } else if (out instanceof SequenceFile.Writer) {
+            ((SequenceFile.Writer) out).syncFs();
+        }
+    }
+
     public void append(Object key, Object value, TypeConverter typeConverter) {
         try {
             busy.set(true);
@@ -103,6 +121,10 @@ public class HdfsOutputStream implements Closeable {
         return lastAccess.longValue();
     }
 
+    public boolean isOpened() {
+        return opened;
+    }
+
     public String getActualPath() {
         return actualPath;
     }
@@ -17,23 +17,56 @@
 package org.apache.camel.component.hdfs;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.camel.CamelExchangeException;
 import org.apache.camel.Exchange;
+import org.apache.camel.Expression;
+import org.apache.camel.TypeConverter;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.impl.DefaultProducer;
 import org.apache.camel.util.IOHelper;
+import org.apache.hadoop.fs.Path;
 
+@ManagedResource(description = "Managed HdfsProducer")
 public class HdfsProducer extends DefaultProducer {
 
     private final HdfsConfiguration config;
     private final StringBuilder hdfsPath;
-    private final AtomicBoolean idle = new AtomicBoolean(false);
+    // access ordered so the least recently used partition is closed when there are too many open partitions
+    private final Map<String, Partition> partitions = new LinkedHashMap<String, Partition>(16, 0.75f, true);
+    // guards the writing flag so no message is added to the write behind queues after stopping has begun
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
     private volatile ScheduledExecutorService scheduler;
-    private volatile HdfsOutputStream ostream;
-    private long splitNum;
+    private volatile ExecutorService writerExecutor;
+    private volatile List<BlockingQueue<PendingWrite>> queues;
+    private volatile CountDownLatch writersDone;
+    private volatile boolean writing;
+    private Expression partitionExpression;
+    private final AtomicLong writtenMessages = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicReference<Exception> writeFailure = new AtomicReference<Exception>();
+    private volatile String lastWriteFailure;
+    private volatile long startTime;
 
     public static final class SplitStrategy {
         private SplitStrategyType type;
@@ -71,7 +104,8 @@ public class HdfsProducer extends DefaultProducer {
         IDLE {
             @Override
             public boolean split(HdfsOutputStream oldOstream, long value, HdfsProducer producer) {
-                return producer.idle.get();
+                // the idle check closes the stream when it has been idle
+                return !oldOstream.isOpened();
             }
         };
 
@@ -92,10 +126,16 @@ public class HdfsProducer extends DefaultProducer {
     @Override
     protected void doStart() throws Exception {
         super.doStart();
-
-        // setup hdfs if configured to do on startup
-        if (getEndpoint().getConfig().isConnectOnStartup()) {
-            ostream = setupHdfs(true);
+        startTime = System.currentTimeMillis();
+
+        if (config.getPartitionBy() != null) {
+            partitionExpression = getEndpoint().getCamelContext().resolveLanguage("simple").createExpression(config.getPartitionBy());
+        } else if (getEndpoint().getConfig().isConnectOnStartup()) {
+            // setup hdfs if configured to do on startup, which we can only do when we know the file name up front
+            Partition partition = getPartition("");
+            synchronized (partition) {
+                partition.ostream = setupHdfs(partition, true);
+            }
         }
 
         SplitStrategy idleStrategy = null;
@@ -105,22 +145,36 @@ public class HdfsProducer extends DefaultProducer {
                 break;
             }
         }
-        if (idleStrategy != null) {
+        if (idleStrategy != null || config.getFlushInterval() > 0) {
             scheduler = getEndpoint().getCamelContext().getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "HdfsIdleCheck");
+        }
+        if (idleStrategy != null) {
             log.debug("Creating IdleCheck task scheduled to run every {} millis", config.getCheckIdleInterval());
             scheduler.scheduleAtFixedRate(new IdleCheck(idleStrategy), config.getCheckIdleInterval(), config.getCheckIdleInterval(), TimeUnit.MILLISECONDS);
         }
-    }
-
-    private synchronized HdfsOutputStream setupHdfs(boolean onStartup) throws Exception {
-        if (ostream != null) {
-            return ostream;
+        if (config.getFlushInterval() > 0) {
+            log.debug("Creating FlushCheck task scheduled to run every {} millis", config.getFlushInterval());
+            scheduler.scheduleWithFixedDelay(new FlushCheck(), config.getFlushInterval(), config.getFlushInterval(), TimeUnit.MILLISECONDS);
         }
 
-        StringBuilder actualPath = new StringBuilder(hdfsPath);
-        if (config.getSplitStrategies().size() > 0) {
-            actualPath = newFileName();
+        if (config.isWriteBehind()) {
+            int writers = config.getParallelWriters();
+            List<BlockingQueue<PendingWrite>> list = new ArrayList<BlockingQueue<PendingWrite>>(writers);
+            for (int i = 0; i < writers; i++) {
+                list.add(new LinkedBlockingQueue<PendingWrite>(config.getWriteBehindQueueSize()));
+            }
+            writersDone = new CountDownLatch(writers);
+            queues = list;
+            writing = true;
+            writerExecutor = getEndpoint().getCamelContext().getExecutorServiceManager().newFixedThreadPool(this, "HdfsWriter", writers);
+            for (BlockingQueue<PendingWrite> queue : list) {
+                writerExecutor.submit(new Writer(queue));
+            }
         }
+    }
+
+    private HdfsOutputStream setupHdfs(Partition partition, boolean onStartup) throws Exception {
+        StringBuilder actualPath = partition.newFileName();
 
         // if we are starting up then log at info level, and if runtime then log at debug level to not flood the log
         if (onStartup) {
@@ -146,15 +200,44 @@ public class HdfsProducer extends DefaultProducer {
 
     @Override
     protected void doStop() throws Exception {
-        super.doStop();
+        if (writerExecutor != null) {
+            // reject new messages, and let the writers complete the pending writes
+            stateLock.writeLock().lock();
+            try {
+                writing = false;
+            } finally {
+                stateLock.writeLock().unlock();
+            }
+            if (!writersDone.await(config.getWriteBehindStopTimeout(), TimeUnit.MILLISECONDS)) {
+                log.warn("Timeout waiting {} millis for the pending writes to complete", config.getWriteBehindStopTimeout());
+            }
+            getEndpoint().getCamelContext().getExecutorServiceManager().shutdownNow(writerExecutor);
+            writerExecutor = null;
+
+            // the messages which could not be written in time are lost
+            int lost = 0;
+            for (BlockingQueue<PendingWrite> queue : queues) {
+                List<PendingWrite> drained = new ArrayList<PendingWrite>();
+                queue.drainTo(drained);
+                lost += drained.size();
+            }
+            queues = null;
+            if (lost > 0) {
+                failedWrites.addAndGet(lost);
+                log.warn("Stopped with {} pending messages which has not been written to hdfs", lost);
+            }
+        }
         if (scheduler != null) {
             getEndpoint().getCamelContext().getExecutorServiceManager().shutdown(scheduler);
             scheduler = null;
         }
-        if (ostream != null) {
-            IOHelper.close(ostream, "output stream", log);
-            ostream = null;
+        for (Partition partition : getPartitions()) {
+            closePartition(partition);
         }
+        synchronized (partitions) {
+            partitions.clear();
+        }
+        super.doStop();
     }
 
     @Override
@@ -162,34 +245,350 @@ public class HdfsProducer extends DefaultProducer {
         Object body = exchange.getIn().getBody();
         Object key = exchange.getIn().getHeader(HdfsHeader.KEY.name());
 
-        // must have ostream
-        if (ostream == null) {
-            ostream = setupHdfs(false);
+        String partitionKey = "";
+        if (partitionExpression != null) {
+            String value = partitionExpression.evaluate(exchange, String.class);
+            if (value != null) {
+                partitionKey = value;
+            }
+        }
+
+        if (!config.isWriteBehind()) {
+            write(partitionKey, key, body, exchange.getContext().getTypeConverter());
+            return;
+        }
+
+        // the messages are written after their exchanges are done, so a failure is reported to the next message
+        Exception failure = writeFailure.getAndSet(null);
+        if (failure != null) {
+            throw new CamelExchangeException("Error writing previous messages to hdfs in write behind mode", exchange, failure);
+        }
+
+        // the body is written after the exchange is done so streams must be read up front
+        if (body instanceof InputStream) {
+            body = exchange.getIn().getMandatoryBody(byte[].class);
+        }
+        PendingWrite pending = new PendingWrite(partitionKey, key, body, exchange.getContext().getTypeConverter());
+        while (true) {
+            // block if the writers cannot keep up, but do not hold up stopping
+            stateLock.readLock().lock();
+            try {
+                if (!writing) {
+                    throw new RejectedExecutionException("Cannot write message to hdfs as the producer is stopping: " + this);
+                }
+                List<BlockingQueue<PendingWrite>> list = queues;
+                BlockingQueue<PendingWrite> queue = list.get(list.size() == 1 ? 0 : (partitionKey.hashCode() & Integer.MAX_VALUE) % list.size());
+                if (queue.offer(pending, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } finally {
+                stateLock.readLock().unlock();
+            }
+        }
+    }
+
+    private void write(String partitionKey, Object key, Object body, TypeConverter typeConverter) throws Exception {
+        while (!write(getPartition(partitionKey), key, body, typeConverter)) {
+            // the partition was closed as there was too many open partitions, so try again with a new partition
+            log.trace("Partition {} was closed, retrying with a new partition", partitionKey);
+        }
+    }
+
+    private boolean write(Partition partition, Object key, Object body, TypeConverter typeConverter) throws Exception {
+        synchronized (partition) {
+            if (partition.closed) {
+                return false;
+            }
+
+            // must have ostream
+            if (partition.ostream == null) {
+                partition.ostream = setupHdfs(partition, false);
+            }
+
+            boolean split = false;
+            List<SplitStrategy> strategies = config.getSplitStrategies();
+            for (SplitStrategy splitStrategy : strategies) {
+                split |= splitStrategy.getType().split(partition.ostream, splitStrategy.value, this);
+            }
+
+            if (split) {
+                IOHelper.close(partition.ostream, "output stream", log);
+                StringBuilder actualPath = partition.newFileName();
+                partition.ostream = HdfsOutputStream.createOutputStream(actualPath.toString(), config);
+            }
+
+            long before = partition.ostream.getNumOfWrittenBytes();
+            partition.ostream.append(key, body, typeConverter);
+            writtenBytes.addAndGet(partition.ostream.getNumOfWrittenBytes() - before);
+            writtenMessages.incrementAndGet();
+
+            partition.unflushed++;
+            if (config.getFlushMessages() > 0 && partition.unflushed >= config.getFlushMessages()) {
+                flush(partition);
+            }
+            return true;
+        }
+    }
+
+    private void flush(Partition partition) throws IOException {
+        // must be called while holding the lock on the partition
+        if (partition.unflushed > 0 && partition.ostream != null) {
+            partition.ostream.flush();
+            flushes.incrementAndGet();
+        }
+        partition.unflushed = 0;
+        partition.lastFlush = System.currentTimeMillis();
+    }
+
+    private Partition getPartition(String partitionKey) {
+        Partition answer;
+        Partition evicted = null;
+        synchronized (partitions) {
+            answer = partitions.get(partitionKey);
+            if (answer == null) {
+                answer = new Partition(partitionKey);
+                partitions.put(partitionKey, answer);
+                if (partitions.size() > config.getMaxOpenPartitions()) {
+                    // close the least recently used partition to not keep too many files open
+                    Iterator<Partition> it = partitions.values().iterator();
+                    evicted = it.next();
+                    it.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            log.debug("Closing partition {} as there are more than {} open partitions", evicted.key, config.getMaxOpenPartitions());
+            closePartition(evicted);
+        }
+        return answer;
+    }
+
+    private List<Partition> getPartitions() {
+        synchronized (partitions) {
+            return new ArrayList<Partition>(partitions.values());
+        }
+    }
+
+    private void closePartition(Partition partition) {
+        synchronized (partition) {
+            partition.closed = true;
+            if (partition.ostream != null) {
+                IOHelper.close(partition.ostream, "output stream", log);
+                partition.ostream = null;
+            }
+        }
+    }
+
+    @ManagedAttribute(description = "Number of messages written")
+    public long getWrittenMessages() {
+        return writtenMessages.get();
+    }
+
+    @ManagedAttribute(description = "Number of bytes written")
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    @ManagedAttribute(description = "Average number of messages written per second since started")
+    public double getThroughput() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        return elapsed > 0 ? writtenMessages.get() * 1000d / elapsed : 0;
+    }
+
+    @ManagedAttribute(description = "Number of messages which failed to be written in write behind mode")
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    @ManagedAttribute(description = "The last error writing a message in write behind mode")
+    public String getLastWriteFailure() {
+        return lastWriteFailure;
+    }
+
+    @ManagedAttribute(description = "Number of flushes")
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    @ManagedAttribute(description = "Number of messages waiting to be written in write behind mode")
+    public int getPendingWrites() {
+        int answer = 0;
+        List<BlockingQueue<PendingWrite>> list = queues;
+        if (list != null) {
+            for (BlockingQueue<PendingWrite> queue : list) {
+                answer += queue.size();
+            }
+        }
+        return answer;
+    }
+
+    @ManagedAttribute(description = "How long time in millis the oldest message has been waiting to be written in write behind mode")
+    public long getWriteLag() {
+        long oldest = 0;
+        List<BlockingQueue<PendingWrite>> list = queues;
+        if (list != null) {
+            for (BlockingQueue<PendingWrite> queue : list) {
+                PendingWrite head = queue.peek();
+                if (head != null && (oldest == 0 || head.timestamp < oldest)) {
+                    oldest = head.timestamp;
+                }
+            }
+        }
+        return oldest == 0 ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    @ManagedAttribute(description = "Number of open files")
+    public int getOpenFiles() {
+        int answer = 0;
+        for (Partition partition : getPartitions()) {
+            HdfsOutputStream ostream = partition.ostream;
+            if (ostream != null && ostream.isOpened()) {
+                answer++;
+            }
         }
+        return answer;
+    }
 
-        boolean split = false;
-        List<SplitStrategy> strategies = config.getSplitStrategies();
-        for (SplitStrategy splitStrategy : strategies) {
-            split |= splitStrategy.getType().split(ostream, splitStrategy.value, this);
+    /**
+     * The files written for a value of the <tt>partitionBy</tt> expression, or for all messages if not partitioning.
+     * <p/>
+     * A partition which is closed because there are more than <tt>maxOpenPartitions</tt> open partitions is
+     * replaced by a new partition the next time a message for its key is written. As the files of a partition are
+     * numbered it never overwrites files written by an earlier partition for the same key.
+     */
+    private final class Partition {
+        private final String key;
+        private volatile HdfsOutputStream ostream;
+        private boolean closed;
+        private long splitNum;
+        private long unflushed;
+        private long lastFlush = System.currentTimeMillis();
+
+        private Partition(String key) {
+            this.key = key;
         }
 
-        if (split) {
-            if (ostream != null) {
-                IOHelper.close(ostream, "output stream", log);
+        private StringBuilder newFileName() throws IOException {
+            StringBuilder actualPath = fileName(splitNum++);
+            if (key.length() > 0) {
+                // skip the files written by an earlier partition for the same key
+                while (new HdfsInfo(actualPath.toString()).getFileSystem().exists(new Path(actualPath.toString()))) {
+                    actualPath = fileName(splitNum++);
+                }
             }
-            StringBuilder actualPath = newFileName();
-            ostream = HdfsOutputStream.createOutputStream(actualPath.toString(), config);
+            return actualPath;
         }
 
-        ostream.append(key, body, exchange.getContext().getTypeConverter());
-        idle.set(false);
+        private StringBuilder fileName(long num) {
+            StringBuilder actualPath = new StringBuilder(hdfsPath);
+            if (key.length() > 0) {
+                actualPath.append('-');
+                // avoid characters which has special meaning in paths
+                for (int i = 0; i < key.length(); i++) {
+                    char ch = key.charAt(i);
+                    actualPath.append(Character.isLetterOrDigit(ch) || ch == '-' || ch == '_' || ch == '.' ? ch : '_');
+                }
+                if (config.getSplitStrategies().size() > 0 || num > 0) {
+                    actualPath.append('-');
+                }
+            }
+            if (config.getSplitStrategies().size() > 0 || num > 0) {
+                actualPath.append(num);
+            }
+            return actualPath;
+        }
     }
 
-    private StringBuilder newFileName() {
-        StringBuilder actualPath = new StringBuilder(hdfsPath);
-        actualPath.append(splitNum);
-        splitNum++;
-        return actualPath;
+    private static final class PendingWrite {
+        private final String partition;
+        private final Object key;
+        private final Object body;
+        private final TypeConverter typeConverter;
+        private final long timestamp = System.currentTimeMillis();
+
+        private PendingWrite(String partition, Object key, Object body, TypeConverter typeConverter) {
+            this.partition = partition;
+            this.key = key;
+            this.body = body;
+            this.typeConverter = typeConverter;
+        }
+    }
+
+    /**
+     * Write behind background task, which writes the messages from its queue until stopped and the queue is empty.
+     */
+    private final class Writer implements Runnable {
+
+        private final BlockingQueue<PendingWrite> queue;
+
+        private Writer(BlockingQueue<PendingWrite> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (writing || !queue.isEmpty()) {
+                    PendingWrite pending;
+                    try {
+                        pending = queue.poll(100, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        if (writing) {
+                            // continue until stopped
+                            continue;
+                        }
+                        // timeout stopping so give up on the pending writes
+                        break;
+                    }
+                    if (pending == null) {
+                        continue;
+                    }
+                    try {
+                        write(pending.partition, pending.key, pending.body, pending.typeConverter);
+                    } catch (Exception e) {
+                        lastWriteFailure = e.toString();
+                        // keep the first failure until it has been reported
+                        writeFailure.compareAndSet(null, e);
+                        failedWrites.incrementAndGet();
+                        HdfsProducer.this.log.warn("Error writing message to hdfs due " + e.getMessage() + ". The next message sent will fail with this exception.", e);
+                    }
+                }
+            } finally {
+                writersDone.countDown();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Writer";
+        }
+    }
+
+    /**
+     * Flush background task, which flushes the files which has not been flushed within the flush interval
+     */
+    private final class FlushCheck implements Runnable {
+
+        @Override
+        public void run() {
+            long now = System.currentTimeMillis();
+            for (Partition partition : getPartitions()) {
+                synchronized (partition) {
+                    if (partition.unflushed > 0 && now - partition.lastFlush >= config.getFlushInterval()) {
+                        try {
+                            flush(partition);
+                        } catch (IOException e) {
+                            HdfsProducer.this.log.warn("Error flushing hdfs file due " + e.getMessage() + ". This exception will be ignored.", e);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "FlushCheck";
+        }
     }
 
     /**
@@ -205,19 +604,23 @@ public class HdfsProducer extends DefaultProducer {
 
         @Override
         public void run() {
-            // only run if ostream has been created
-            if (ostream == null) {
-                return;
-            }
-
             HdfsProducer.this.log.trace("IdleCheck running");
 
-            if (System.currentTimeMillis() - ostream.getLastAccess() > strategy.value && !idle.get() && !ostream.isBusy().get()) {
-                idle.set(true);
-                try {
-                    ostream.close();
-                } catch (IOException e) {
-                    // ignore
+            for (Partition partition : getPartitions()) {
+                synchronized (partition) {
+                    HdfsOutputStream ostream = partition.ostream;
+                    // only run if ostream has been created
+                    if (ostream == null) {
+                        continue;
+                    }
+
+                    if (System.currentTimeMillis() - ostream.getLastAccess() > strategy.value && ostream.isOpened() && !ostream.isBusy().get()) {
+                        try {
+                            ostream.close();
+                        } catch (IOException e) {
+                            // ignore
+                        }
+                    }
                 }
             }
         }
@@ -228,4 +631,3 @@ public class HdfsProducer extends DefaultProducer {
         }
     }
 }
-
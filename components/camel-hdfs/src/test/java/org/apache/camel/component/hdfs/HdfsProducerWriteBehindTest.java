@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.hdfs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.RejectedExecutionException;
+
+import junit.framework.Assert;
+import org.apache.camel.CamelExchangeException;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HdfsProducerWriteBehindTest extends CamelTestSupport {
+    //Hadoop doesn't run on IBM JDK
+    private static final boolean SKIP = System.getProperty("java.vendor").contains("IBM");
+
+    private static final Path BASE_FILE = new Path(new File("target/test/test-camel-write-behind-BASE_FILE").getAbsolutePath());
+
+    @Before
+    public void setUp() throws Exception {
+        if (SKIP) {
+            return;
+        }
+        super.setUp();
+    }
+
+    @Test
+    public void testWriteBehind() throws Exception {
+        if (SKIP) {
+            return;
+        }
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            template.sendBody("direct:start1", "CIAO" + i);
+            expected.append("CIAO").append(i);
+        }
+        // stopping writes the pending messages
+        stopCamelContext();
+
+        Assert.assertEquals(expected.toString(), readFile(BASE_FILE.toUri() + "1"));
+    }
+
+    @Test
+    public void testPartitionedParallelWriters() throws Exception {
+        if (SKIP) {
+            return;
+        }
+
+        StringBuilder expectedEu = new StringBuilder();
+        StringBuilder expectedUs = new StringBuilder();
+        for (int i = 0; i < 20; ++i) {
+            String region = i % 2 == 0 ? "eu" : "us";
+            template.sendBodyAndHeader("direct:start2", "CIAO" + i, "region", region);
+            (i % 2 == 0 ? expectedEu : expectedUs).append("CIAO").append(i);
+        }
+        stopCamelContext();
+
+        Assert.assertEquals(expectedEu.toString(), readFile(BASE_FILE.toUri() + "2-eu"));
+        Assert.assertEquals(expectedUs.toString(), readFile(BASE_FILE.toUri() + "2-us"));
+    }
+
+    @Test
+    public void testFlushMessages() throws Exception {
+        if (SKIP) {
+            return;
+        }
+
+        HdfsEndpoint endpoint = context.getEndpoint("hdfs:///" + BASE_FILE.toUri() + "3?fileSystemType=LOCAL&flushMessages=5", HdfsEndpoint.class);
+        HdfsProducer producer = (HdfsProducer) endpoint.createProducer();
+        producer.start();
+        for (int i = 0; i < 12; ++i) {
+            Exchange exchange = new DefaultExchange(context);
+            exchange.getIn().setBody("CIAO" + i);
+            producer.process(exchange);
+        }
+
+        Assert.assertEquals(12, producer.getWrittenMessages());
+        Assert.assertEquals(2, producer.getFlushes());
+        Assert.assertEquals(1, producer.getOpenFiles());
+        producer.stop();
+    }
+
+    @Test
+    public void testMaxOpenPartitions() throws Exception {
+        if (SKIP) {
+            return;
+        }
+
+        HdfsEndpoint endpoint = context.getEndpoint("hdfs:///" + BASE_FILE.toUri() + "4?fileSystemType=LOCAL&partitionBy=${body}&maxOpenPartitions=1", HdfsEndpoint.class);
+        HdfsProducer producer = (HdfsProducer) endpoint.createProducer();
+        producer.start();
+        for (String body : new String[]{"eu", "us", "eu"}) {
+            Exchange exchange = new DefaultExchange(context);
+            exchange.getIn().setBody(body);
+            producer.process(exchange);
+            Assert.assertEquals(1, producer.getOpenFiles());
+        }
+        producer.stop();
+
+        // the reopened partition must not overwrite the file written before it was closed
+        Assert.assertEquals("eu", readFile(BASE_FILE.toUri() + "4-eu"));
+        Assert.assertEquals("us", readFile(BASE_FILE.toUri() + "4-us"));
+        Assert.assertEquals("eu", readFile(BASE_FILE.toUri() + "4-eu-1"));
+    }
+
+    @Test
+    public void testWriteBehindFailureAndStop() throws Exception {
+        if (SKIP) {
+            return;
+        }
+
+        HdfsEndpoint endpoint = context.getEndpoint("hdfs:///" + BASE_FILE.toUri() + "5?fileSystemType=LOCAL&writeBehind=true", HdfsEndpoint.class);
+        HdfsProducer producer = (HdfsProducer) endpoint.createProducer();
+        producer.start();
+
+        // a body which cannot be written
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody(new Object());
+        producer.process(exchange);
+        for (int i = 0; i < 50 && producer.getFailedWrites() == 0; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(1, producer.getFailedWrites());
+        Assert.assertNotNull(producer.getLastWriteFailure());
+
+        // the next message is told about the failure
+        exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("CIAO");
+        try {
+            producer.process(exchange);
+            Assert.fail("Should have thrown exception");
+        } catch (CamelExchangeException e) {
+            Assert.assertNotNull(e.getCause());
+        }
+
+        // and only that message
+        producer.process(exchange);
+        producer.stop();
+        Assert.assertEquals("CIAO", readFile(BASE_FILE.toUri() + "5"));
+
+        // messages are rejected when stopped
+        try {
+            producer.process(exchange);
+            Assert.fail("Should have thrown exception");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    private String readFile(String path) throws Exception {
+        InputStream in = null;
+        try {
+            in = new URL("file:///" + path).openStream();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            IOUtils.copyBytes(in, bos, 4096, false);
+            return new String(bos.toByteArray());
+        } finally {
+            IOUtils.closeStream(in);
+        }
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        if (SKIP) {
+            return;
+        }
+
+        super.tearDown();
+        Thread.sleep(100);
+        Configuration conf = new Configuration();
+        Path dir = new Path("target/test");
+        FileSystem fs = FileSystem.get(dir.toUri(), conf);
+        fs.delete(dir, true);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start1").to("hdfs:///" + BASE_FILE.toUri() + "1?fileSystemType=LOCAL&writeBehind=true&writeBehindQueueSize=10");
+                from("direct:start2").to("hdfs:///" + BASE_FILE.toUri() + "2?fileSystemType=LOCAL&writeBehind=true"
+                        + "&parallelWriters=2&partitionBy=${header.region}");
+            }
+        };
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.camel.component.jackson;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
@@ -23,17 +25,27 @@ import java.util.Map;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.spi.DataFormat;
+import org.apache.camel.util.ExchangeHelper;
+import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 
 /**
  * A <a href="http://camel.apache.org/data-format.html">data format</a> ({@link DataFormat})
  * using <a href="http://jackson.codehaus.org/">Jackson</a> to marshal to and from JSON.
+ * <p/>
+ * The reader and writer for the unmarshal type and JSON view are created once from the {@link ObjectMapper}
+ * and reused, so the mapper should be configured before the data format is used.
  */
 public class JacksonDataFormat implements DataFormat {
 
     private final ObjectMapper objectMapper;
     private Class<?> unmarshalType;
     private Class<?> jsonView;
+    private boolean streaming;
+    private volatile ObjectReader reader;
+    private volatile ObjectWriter writer;
 
     /**
      * Use the default Jackson {@link ObjectMapper} and {@link Map}
@@ -89,11 +101,61 @@ public class JacksonDataFormat implements DataFormat {
     }
 
     public void marshal(Exchange exchange, Object graph, OutputStream stream) throws Exception {
-        this.objectMapper.writerWithView(jsonView).writeValue(stream, graph);
+        // write straight to the stream, using the writer so the serialization features such as indenting
+        // the output are applied, but leave it to the caller to close the stream
+        getWriter().writeValue(new NonClosingOutputStream(stream), graph);
     }
 
     public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
-        return this.objectMapper.readValue(stream, this.unmarshalType);
+        if (streaming) {
+            JsonParser parser = objectMapper.getJsonFactory().createJsonParser(stream);
+            JacksonIterator answer = new JacksonIterator(parser, getReader());
+            // make sure the stream is closed when the exchange is done, even if not all elements have been read
+            ExchangeHelper.closeOnCompletion(exchange, answer);
+            return answer;
+        }
+        return getReader().readValue(stream);
+    }
+
+    private ObjectReader getReader() {
+        ObjectReader answer = reader;
+        if (answer == null) {
+            // the reader is immutable and thread safe so it can be reused
+            answer = objectMapper.reader(unmarshalType);
+            reader = answer;
+        }
+        return answer;
+    }
+
+    private ObjectWriter getWriter() {
+        ObjectWriter answer = writer;
+        if (answer == null) {
+            // the writer is immutable and thread safe so it can be reused
+            answer = objectMapper.writerWithView(jsonView);
+            writer = answer;
+        }
+        return answer;
+    }
+
+    /**
+     * Flushes instead of closing the underlying stream, as the writer closes the stream when done.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // the default implementation writes one byte at a time
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
     }
 
     // Properties
@@ -105,6 +167,7 @@ public class JacksonDataFormat implements DataFormat {
 
     public void setUnmarshalType(Class<?> unmarshalType) {
         this.unmarshalType = unmarshalType;
+        this.reader = null;
     }
 
     public Class<?> getJsonView() {
@@ -113,6 +176,23 @@ public class JacksonDataFormat implements DataFormat {
 
     public void setJsonView(Class<?> jsonView) {
         this.jsonView = jsonView;
+        this.writer = null;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether to unmarshal a JSON array lazily.
+     * <p/>
+     * When enabled the unmarshalled body is an {@link java.util.Iterator} which parses the elements of the
+     * array one at a time into the unmarshal type, for example to be used with the streaming mode of the
+     * splitter, so large JSON documents do not have to fit in memory. If the JSON document is not an array
+     * then the iterator returns the document as the only element.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
     }
 
     public ObjectMapper getObjectMapper() {
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jackson;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.camel.support.LazyCloseableIterator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectReader;
+
+/**
+ * An {@link Iterator} which uses the streaming parser to read the elements of a JSON array one at a time.
+ * <p/>
+ * If the JSON document is not an array then the document is returned as the only element.
+ * The parser is closed when there are no more elements, or when the iterator is closed.
+ */
+public class JacksonIterator extends LazyCloseableIterator<Object> {
+
+    private final JsonParser parser;
+    private final ObjectReader reader;
+    private boolean started;
+    private boolean array;
+
+    public JacksonIterator(JsonParser parser, ObjectReader reader) {
+        this.parser = parser;
+        this.reader = reader;
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        parser.close();
+    }
+
+    @Override
+    protected Object readNext() throws IOException {
+        if (!started) {
+            started = true;
+            JsonToken token = parser.nextToken();
+            array = token == JsonToken.START_ARRAY;
+            if (!array) {
+                // not an array so the document is the only element
+                return token != null ? reader.readValue(parser) : null;
+            }
+        } else if (!array) {
+            return null;
+        }
+
+        JsonToken token = parser.nextToken();
+        while (token != null && token != JsonToken.END_ARRAY) {
+            Object answer = reader.readValue(parser);
+            // null elements are skipped as the iterator cannot return them
+            if (answer != null) {
+                return answer;
+            }
+            token = parser.nextToken();
+        }
+        return null;
+    }
+
+}
@@ -16,8 +16,12 @@
  */
 package org.apache.camel.component.jackson;
 
+import java.util.HashMap;
+
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.dataformat.JsonLibrary;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
 
 public class JacksonJsonDataFormatTest extends JacksonMarshalTest {
 
@@ -31,6 +35,10 @@ public class JacksonJsonDataFormatTest extends JacksonMarshalTest {
 
                 from("direct:inPojo").marshal().json(JsonLibrary.Jackson);
                 from("direct:backPojo").unmarshal().json(JsonLibrary.Jackson, TestPojo.class).to("mock:reversePojo");
+
+                ObjectMapper prettyMapper = new ObjectMapper();
+                prettyMapper.enable(SerializationConfig.Feature.INDENT_OUTPUT);
+                from("direct:inPretty").marshal(new JacksonDataFormat(prettyMapper, HashMap.class));
             }
         };
     }
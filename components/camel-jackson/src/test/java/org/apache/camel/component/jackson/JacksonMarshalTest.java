@@ -22,6 +22,8 @@ import java.util.Map;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.test.junit4.CamelTestSupport;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
 import org.junit.Test;
 
 public class JacksonMarshalTest extends CamelTestSupport {
@@ -66,6 +68,17 @@ public class JacksonMarshalTest extends CamelTestSupport {
         mock.assertIsSatisfied();
     }
 
+    @Test
+    public void testMarshalIndentOutput() throws Exception {
+        Map<String, Object> in = new HashMap<String, Object>();
+        in.put("name", "Camel");
+
+        Object marshalled = template.requestBody("direct:inPretty", in);
+        String marshalledAsString = context.getTypeConverter().convertTo(String.class, marshalled);
+        String ls = System.getProperty("line.separator");
+        assertEquals("{" + ls + "  \"name\" : \"Camel\"" + ls + "}", marshalledAsString);
+    }
+
     @Override
     protected RouteBuilder createRouteBuilder() throws Exception {
         return new RouteBuilder() {
@@ -75,6 +88,10 @@ public class JacksonMarshalTest extends CamelTestSupport {
 
                 JacksonDataFormat format = new JacksonDataFormat();
 
+                ObjectMapper prettyMapper = new ObjectMapper();
+                prettyMapper.enable(SerializationConfig.Feature.INDENT_OUTPUT);
+                from("direct:inPretty").marshal(new JacksonDataFormat(prettyMapper, HashMap.class));
+
                 from("direct:in").marshal(format);
                 from("direct:back").unmarshal(format).to("mock:reverse");
 
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jackson;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class JacksonStreamingUnmarshalTest extends CamelTestSupport {
+
+    @Test
+    public void testStreamingSplit() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(3);
+        mock.allMessages().body().isInstanceOf(TestPojo.class);
+
+        template.sendBody("direct:start", "[{\"name\":\"Camel\"}, {\"name\":\"Donkey\"}, null, {\"name\":\"Horse\"}]");
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals("Camel", mock.getReceivedExchanges().get(0).getIn().getBody(TestPojo.class).getName());
+        assertEquals("Donkey", mock.getReceivedExchanges().get(1).getIn().getBody(TestPojo.class).getName());
+        assertEquals("Horse", mock.getReceivedExchanges().get(2).getIn().getBody(TestPojo.class).getName());
+    }
+
+    @Test
+    public void testStreamingSingleDocument() throws Exception {
+        JacksonDataFormat format = new JacksonDataFormat(TestPojo.class);
+        format.setStreaming(true);
+
+        Iterator<?> it = (Iterator<?>) format.unmarshal(new DefaultExchange(context),
+            new ByteArrayInputStream("{\"name\":\"Camel\"}".getBytes()));
+        assertTrue(it.hasNext());
+        assertEquals("Camel", ((TestPojo) it.next()).getName());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testStreamingEmptyArray() throws Exception {
+        JacksonDataFormat format = new JacksonDataFormat(TestPojo.class);
+        format.setStreaming(true);
+
+        Iterator<?> it = (Iterator<?>) format.unmarshal(new DefaultExchange(context), new ByteArrayInputStream("[]".getBytes()));
+        assertFalse(it.hasNext());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                JacksonDataFormat format = new JacksonDataFormat(TestPojo.class);
+                format.setStreaming(true);
+
+                from("direct:start").unmarshal(format)
+                    .split(body()).streaming()
+                        .to("mock:result");
+            }
+        };
+    }
+
+}
@@ -24,8 +24,8 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -57,7 +57,9 @@ import org.slf4j.LoggerFactory;
  */
 public class FallbackTypeConverter extends ServiceSupport implements TypeConverter, TypeConverterAware {
     private static final transient Logger LOG = LoggerFactory.getLogger(FallbackTypeConverter.class);
-    private final Map<Class<?>, JAXBContext> contexts = new HashMap<Class<?>, JAXBContext>();
+    private static final String DEFAULT_ENCODING = "UTF-8";
+    private final ConcurrentMap<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+    private final ConcurrentMap<Class<?>, JaxbPool> pools = new ConcurrentHashMap<Class<?>, JaxbPool>();
     private final StaxConverter staxConverter = new StaxConverter();
     private TypeConverter parentTypeConverter;
     private boolean prettyPrint = true;
@@ -138,6 +140,7 @@ public class FallbackTypeConverter extends ServiceSupport implements TypeConvert
     @Override
     protected void doStop() throws Exception {
         contexts.clear();
+        pools.clear();
     }
 
     protected <T> boolean isJaxbType(Class<T> type) {
@@ -155,8 +158,23 @@ public class FallbackTypeConverter extends ServiceSupport implements TypeConvert
             throw new IllegalArgumentException("Cannot convert from null value to JAXBSource");
         }
 
-        Unmarshaller unmarshaller = getUnmarshaller(type);
+        // unmarshaller is not thread safe so borrow one from the pool
+        JaxbPool pool = getPool(type);
+        Unmarshaller unmarshaller = pool.acquireUnmarshaller();
+        boolean done = false;
+        try {
+            T answer = doUnmarshall(type, exchange, value, unmarshaller);
+            done = true;
+            return answer;
+        } finally {
+            // only return the unmarshaller to the pool if it was used successfully
+            if (done) {
+                pool.releaseUnmarshaller(unmarshaller);
+            }
+        }
+    }
 
+    private <T> T doUnmarshall(Class<T> type, Exchange exchange, Object value, Unmarshaller unmarshaller) throws Exception {
         if (parentTypeConverter != null) {
             if (!needFiltering(exchange)) {
                 // we cannot filter the XMLStreamReader if necessary
@@ -202,16 +220,14 @@ public class FallbackTypeConverter extends ServiceSupport implements TypeConvert
         if (parentTypeConverter != null) {
             // lets convert the object to a JAXB source and try convert that to
             // the required source
-            JAXBContext context = createContext(value.getClass());
-            // must create a new instance of marshaller as its not thread safe
-            Marshaller marshaller = context.createMarshaller();
+            // marshaller is not thread safe so borrow one from the pool
+            JaxbPool pool = getPool(value.getClass());
+            Marshaller marshaller = pool.acquireMarshaller();
             Writer buffer = new StringWriter();
-            if (isPrettyPrint()) {
-                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            }
-            if (exchange != null && exchange.getProperty(Exchange.CHARSET_NAME, String.class) != null) {
-                marshaller.setProperty(Marshaller.JAXB_ENCODING, exchange.getProperty(Exchange.CHARSET_NAME, String.class));
-            }
+            // a pooled marshaller may have been configured by a previous conversion so set all the properties
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, isPrettyPrint());
+            String charset = exchange != null ? exchange.getProperty(Exchange.CHARSET_NAME, String.class) : null;
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, charset != null ? charset : DEFAULT_ENCODING);
             if (needFiltering(exchange)) {
                 XMLStreamWriter writer = parentTypeConverter.convertTo(XMLStreamWriter.class, buffer);
                 FilteringXmlStreamWriter filteringWriter = new FilteringXmlStreamWriter(writer);
@@ -219,6 +235,8 @@ public class FallbackTypeConverter extends ServiceSupport implements TypeConvert
             } else {
                 marshaller.marshal(value, buffer);
             }
+            // only return the marshaller to the pool if it was used successfully
+            pool.releaseMarshaller(marshaller);
             answer = parentTypeConverter.convertTo(type, buffer.toString());
         }
 
@@ -263,11 +281,15 @@ public class FallbackTypeConverter extends ServiceSupport implements TypeConvert
         return exchange != null && exchange.getProperty(Exchange.FILTER_NON_XML_CHARS, Boolean.FALSE, Boolean.class);
     }
 
-    protected synchronized <T> JAXBContext createContext(Class<T> type) throws JAXBException {
+    protected <T> JAXBContext createContext(Class<T> type) throws JAXBException {
         JAXBContext context = contexts.get(type);
         if (context == null) {
+            // creating a context is expensive but thread safe, so if two threads race then the first one wins
             context = JAXBContext.newInstance(type);
-            contexts.put(type, context);
+            JAXBContext existing = contexts.putIfAbsent(type, context);
+            if (existing != null) {
+                context = existing;
+            }
         }
         return context;
     }
@@ -277,6 +299,24 @@ public class FallbackTypeConverter extends ServiceSupport implements TypeConvert
         return context.createUnmarshaller();
     }
 
+    private JaxbPool getPool(final Class<?> type) throws JAXBException {
+        JaxbPool pool = pools.get(type);
+        if (pool == null) {
+            pool = new JaxbPool(createContext(type)) {
+                @Override
+                protected Unmarshaller createUnmarshaller() throws JAXBException {
+                    // use the strategy method so it can be customized
+                    return getUnmarshaller(type);
+                }
+            };
+            JaxbPool existing = pools.putIfAbsent(type, pool);
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+        return pool;
+    }
+
     private static <T> boolean isNotStreamCacheType(Class<T> type) {
         return !StreamCache.class.isAssignableFrom(type);
     }
@@ -54,6 +54,7 @@ import org.slf4j.LoggerFactory;
 public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelContextAware {
 
     private static final transient Logger LOG = LoggerFactory.getLogger(JaxbDataFormat.class);
+    private static final String DEFAULT_ENCODING = "UTF-8";
     private CamelContext camelContext;
     private JAXBContext context;
     private String contextPath;
@@ -71,6 +72,7 @@ public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelC
     private JaxbNamespacePrefixMapper namespacePrefixMapper;
 
     private TypeConverter typeConverter;
+    private volatile JaxbPool pool;
 
     public JaxbDataFormat() {
     }
@@ -84,29 +86,27 @@ public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelC
     }
 
     public void marshal(Exchange exchange, Object graph, OutputStream stream) throws IOException {
-        try {            
-            // must create a new instance of marshaller as its not thread safe
-            Marshaller marshaller = getContext().createMarshaller();
-            if (isPrettyPrint()) {
-                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            } 
+        try {
+            // marshaller is not thread safe so borrow one from the pool
+            JaxbPool pool = getPool();
+            Marshaller marshaller = pool.acquireMarshaller();
+            // a pooled marshaller may have been configured by a previous exchange so set all the properties
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, isPrettyPrint());
             // exchange take precedence over encoding option
             String charset = exchange.getProperty(Exchange.CHARSET_NAME, String.class);
             if (charset == null) {
                 charset = encoding;
             }
-            if (charset != null) {
-                marshaller.setProperty(Marshaller.JAXB_ENCODING, charset);
-            }
-            if (isFragment()) {
-                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
-            }
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, charset != null ? charset : DEFAULT_ENCODING);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, isFragment());
             if (namespacePrefixMapper != null) {
                 marshaller.setProperty(namespacePrefixMapper.getRegistrationKey(), namespacePrefixMapper);
             }
 
             marshal(exchange, graph, stream, marshaller);
 
+            // only return the marshaller to the pool if it was used successfully
+            pool.releaseMarshaller(marshaller);
         } catch (JAXBException e) {
             throw new IOException(e);
         } catch (XMLStreamException e) {
@@ -146,12 +146,17 @@ public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelC
             } else {
                 xmlReader = typeConverter.convertTo(XMLStreamReader.class, stream);
             }
+            // unmarshaller is not thread safe so borrow one from the pool
+            JaxbPool pool = getPool();
+            Unmarshaller unmarshaller = pool.acquireUnmarshaller();
             if (partialClass != null) {
                 // partial unmarshalling
-                answer = createUnmarshaller().unmarshal(xmlReader, partialClass);
+                answer = unmarshaller.unmarshal(xmlReader, partialClass);
             } else {
-                answer = createUnmarshaller().unmarshal(xmlReader);
+                answer = unmarshaller.unmarshal(xmlReader);
             }
+            // only return the unmarshaller to the pool if it was used successfully
+            pool.releaseUnmarshaller(unmarshaller);
 
             if (answer instanceof JAXBElement && isIgnoreJAXBElement()) {
                 answer = ((JAXBElement<?>)answer).getValue();
@@ -187,6 +192,8 @@ public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelC
 
     public void setContext(JAXBContext context) {
         this.context = context;
+        // the pooled marshallers belong to the old context
+        this.pool = null;
     }
 
     public String getContextPath() {
@@ -288,10 +295,34 @@ public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelC
             namespacePrefixMapper = NamespacePrefixMapperFactory.newNamespacePrefixMapper(camelContext, namespacePrefix);
         }
         typeConverter = camelContext.getTypeConverter();
+        pool = createPool();
     }
 
     @Override
     protected void doStop() throws Exception {
+        if (pool != null) {
+            pool.clear();
+            pool = null;
+        }
+    }
+
+    private JaxbPool getPool() {
+        JaxbPool answer = pool;
+        if (answer == null) {
+            answer = createPool();
+            pool = answer;
+        }
+        return answer;
+    }
+
+    private JaxbPool createPool() {
+        return new JaxbPool(getContext()) {
+            @Override
+            protected Unmarshaller createUnmarshaller() throws JAXBException {
+                // use the strategy method so it can be customized
+                return JaxbDataFormat.this.createUnmarshaller();
+            }
+        };
     }
 
     /**
@@ -315,6 +346,11 @@ public class JaxbDataFormat extends ServiceSupport implements DataFormat, CamelC
         }
     }
     
+    /**
+     * Strategy to create a new JAXB unmarshaller.
+     * <p/>
+     * The created unmarshallers are pooled and reused by subsequent exchanges.
+     */
     protected Unmarshaller createUnmarshaller() throws JAXBException {
         return getContext().createUnmarshaller();
     }
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter.jaxb;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * A bounded pool of {@link Marshaller} and {@link Unmarshaller} instances for a given {@link JAXBContext}.
+ * <p/>
+ * Marshallers and unmarshallers are not thread safe but can be reused by one thread at a time, which
+ * avoids the cost of creating a new instance for every message. An instance must only be released
+ * back to the pool after it has been used successfully, and users of a pooled {@link Marshaller}
+ * must set all the properties they rely on as they may have been changed by a previous user.
+ *
+ * @version 
+ */
+class JaxbPool {
+
+    static final int DEFAULT_POOL_SIZE = Math.max(Runtime.getRuntime().availableProcessors() * 2, 8);
+
+    private final JAXBContext context;
+    private final BlockingQueue<Marshaller> marshallers;
+    private final BlockingQueue<Unmarshaller> unmarshallers;
+
+    JaxbPool(JAXBContext context) {
+        this(context, DEFAULT_POOL_SIZE);
+    }
+
+    JaxbPool(JAXBContext context, int size) {
+        this.context = context;
+        this.marshallers = new ArrayBlockingQueue<Marshaller>(size);
+        this.unmarshallers = new ArrayBlockingQueue<Unmarshaller>(size);
+    }
+
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    public Marshaller acquireMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = createMarshaller();
+        }
+        return marshaller;
+    }
+
+    public void releaseMarshaller(Marshaller marshaller) {
+        // if the pool is full then the marshaller is discarded
+        marshallers.offer(marshaller);
+    }
+
+    public Unmarshaller acquireUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        if (unmarshaller == null) {
+            unmarshaller = createUnmarshaller();
+        }
+        return unmarshaller;
+    }
+
+    public void releaseUnmarshaller(Unmarshaller unmarshaller) {
+        // if the pool is full then the unmarshaller is discarded
+        unmarshallers.offer(unmarshaller);
+    }
+
+    public int getPooledMarshallers() {
+        return marshallers.size();
+    }
+
+    public int getPooledUnmarshallers() {
+        return unmarshallers.size();
+    }
+
+    public void clear() {
+        marshallers.clear();
+        unmarshallers.clear();
+    }
+
+    protected Marshaller createMarshaller() throws JAXBException {
+        return context.createMarshaller();
+    }
+
+    protected Unmarshaller createUnmarshaller() throws JAXBException {
+        return context.createUnmarshaller();
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter.jaxb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.example.PurchaseOrder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JaxbDataFormatPoolTest {
+
+    private final AtomicInteger unmarshallers = new AtomicInteger();
+    private JaxbDataFormat jaxbDataFormat;
+    private CamelContext camelContext;
+
+    @Before
+    public void setUp() throws Exception {
+        camelContext = new DefaultCamelContext();
+
+        jaxbDataFormat = new JaxbDataFormat(JAXBContext.newInstance(PurchaseOrder.class)) {
+            @Override
+            protected Unmarshaller createUnmarshaller() throws JAXBException {
+                unmarshallers.incrementAndGet();
+                return super.createUnmarshaller();
+            }
+        };
+        jaxbDataFormat.setCamelContext(camelContext);
+        jaxbDataFormat.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        jaxbDataFormat.stop();
+    }
+
+    @Test
+    public void testUnmarshallerIsReused() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            PurchaseOrder order = (PurchaseOrder) jaxbDataFormat.unmarshal(new DefaultExchange(camelContext),
+                new ByteArrayInputStream("<purchaseOrder name=\"Beer\" amount=\"1.0\" price=\"2.0\"/>".getBytes()));
+            assertEquals("Beer", order.getName());
+        }
+        assertEquals(1, unmarshallers.get());
+    }
+
+    @Test
+    public void testPooledMarshallerIsReconfigured() throws Exception {
+        PurchaseOrder order = new PurchaseOrder();
+        order.setName("Beer");
+
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.setProperty(Exchange.CHARSET_NAME, "ISO-8859-1");
+        String xml = marshal(exchange, order);
+        assertTrue(xml, xml.contains("encoding=\"ISO-8859-1\""));
+
+        // the same marshaller is used again but must not keep the encoding of the previous exchange
+        jaxbDataFormat.setFragment(true);
+        xml = marshal(new DefaultExchange(camelContext), order);
+        assertFalse(xml, xml.contains("<?xml"));
+
+        jaxbDataFormat.setFragment(false);
+        xml = marshal(new DefaultExchange(camelContext), order);
+        assertTrue(xml, xml.contains("encoding=\"UTF-8\""));
+    }
+
+    private String marshal(Exchange exchange, Object graph) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        jaxbDataFormat.marshal(exchange, graph, bos);
+        return bos.toString("UTF-8");
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jetty;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.continuation.Continuation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of requests which are processed at the same time by a {@link JettyHttpEndpoint}.
+ * <p/>
+ * Requests which cannot be processed right away are suspended using their {@link Continuation} and
+ * kept in a bounded wait queue, until a request completes and they are admitted. If the wait queue is
+ * full the request is rejected, so the servlet can send back a <tt>503 Service Unavailable</tt> response.
+ *
+ * @version 
+ */
+public class AdmissionController {
+
+    static final String QUEUED_REQUEST_ATTRIBUTE_NAME = "CamelQueuedRequest";
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(AdmissionController.class);
+    private final int maxInflight;
+    private final int maxQueued;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Queue<QueuedRequest> queue = new ConcurrentLinkedQueue<QueuedRequest>();
+
+    public AdmissionController(int maxInflight, int maxQueued) {
+        if (maxInflight <= 0) {
+            throw new IllegalArgumentException("MaxInflight must be positive, was: " + maxInflight);
+        }
+        this.maxInflight = maxInflight;
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    /**
+     * Tries to admit the request to be processed right away.
+     *
+     * @return <tt>true</tt> if admitted, and {@link #release()} must be invoked when the request completes
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= maxInflight) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Suspends the continuation and adds it to the wait queue. The continuation is resumed when it has been admitted.
+     *
+     * @param continuation the continuation of the request
+     * @return <tt>false</tt> if the wait queue is full and the request must be rejected
+     */
+    public boolean enqueue(Continuation continuation) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        QueuedRequest request = new QueuedRequest(continuation);
+        continuation.setAttribute(QUEUED_REQUEST_ATTRIBUTE_NAME, request);
+        continuation.suspend();
+        queue.add(request);
+        // a request may have completed in the meantime
+        admitQueued();
+        return true;
+    }
+
+    /**
+     * Whether the request has been admitted after waiting in the queue.
+     */
+    public boolean isAdmitted(Continuation continuation) {
+        QueuedRequest request = (QueuedRequest) continuation.getAttribute(QUEUED_REQUEST_ATTRIBUTE_NAME);
+        return request != null && request.state.get() == QueuedRequest.ADMITTED;
+    }
+
+    /**
+     * Invoked when a queued request has been admitted and is about to be processed.
+     *
+     * @return <tt>true</tt> if the request was admitted from the queue, and {@link #release()} must be invoked when it completes
+     */
+    public boolean started(Continuation continuation) {
+        boolean admitted = isAdmitted(continuation);
+        continuation.removeAttribute(QUEUED_REQUEST_ATTRIBUTE_NAME);
+        return admitted;
+    }
+
+    /**
+     * Invoked when the continuation of a queued request has expired.
+     *
+     * @return <tt>true</tt> if the continuation was for a queued request
+     */
+    public boolean expired(Continuation continuation) {
+        QueuedRequest request = (QueuedRequest) continuation.getAttribute(QUEUED_REQUEST_ATTRIBUTE_NAME);
+        if (request == null) {
+            return false;
+        }
+        continuation.removeAttribute(QUEUED_REQUEST_ATTRIBUTE_NAME);
+        if (request.state.compareAndSet(QueuedRequest.WAITING, QueuedRequest.EXPIRED)) {
+            if (queue.remove(request)) {
+                queued.decrementAndGet();
+            }
+        } else if (request.state.compareAndSet(QueuedRequest.ADMITTED, QueuedRequest.EXPIRED)) {
+            // the request was admitted but expired before it could be processed
+            release();
+        }
+        rejected.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Invoked when an admitted request completes, which admits the next request waiting in the queue.
+     */
+    public void release() {
+        inflight.decrementAndGet();
+        admitQueued();
+    }
+
+    private void admitQueued() {
+        while (!queue.isEmpty() && tryAcquire()) {
+            QueuedRequest next = queue.poll();
+            if (next == null) {
+                inflight.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            if (next.state.compareAndSet(QueuedRequest.WAITING, QueuedRequest.ADMITTED)) {
+                LOG.trace("Admitting queued request: {}", next.continuation);
+                next.continuation.resume();
+            } else {
+                // the request has expired
+                inflight.decrementAndGet();
+            }
+        }
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private static final class QueuedRequest {
+        private static final int WAITING = 0;
+        private static final int ADMITTED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Continuation continuation;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private QueuedRequest(Continuation continuation) {
+            this.continuation = continuation;
+        }
+    }
+}
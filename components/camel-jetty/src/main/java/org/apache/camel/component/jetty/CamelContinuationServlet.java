@@ -19,6 +19,7 @@ package org.apache.camel.component.jetty;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,6 +44,7 @@ public class CamelContinuationServlet extends CamelServlet {
 
     static final String EXCHANGE_ATTRIBUTE_NAME = "CamelExchange";
     static final String EXCHANGE_ATTRIBUTE_ID = "CamelExchangeId";
+    static final String REQUEST_START_ATTRIBUTE_NAME = "CamelRequestStartTime";
 
     private static final long serialVersionUID = 1L;
     // jetty will by default use 30000 millis as default timeout
@@ -57,7 +59,7 @@ public class CamelContinuationServlet extends CamelServlet {
         log.trace("Service: {}", request);
 
         // is there a consumer registered for the request.
-        HttpConsumer consumer = resolve(request);
+        final HttpConsumer consumer = resolve(request);
         if (consumer == null) {
             response.sendError(HttpServletResponse.SC_NOT_FOUND);
             return;
@@ -74,6 +76,10 @@ public class CamelContinuationServlet extends CamelServlet {
             return;
         }
         
+        // admission control, latency statistics and routing executor are only supported by jetty endpoints
+        final JettyHttpEndpoint jettyEndpoint = consumer.getEndpoint() instanceof JettyHttpEndpoint ? (JettyHttpEndpoint) consumer.getEndpoint() : null;
+        final AdmissionController admission = jettyEndpoint != null ? jettyEndpoint.getAdmissionController() : null;
+
         final Exchange result = (Exchange) request.getAttribute(EXCHANGE_ATTRIBUTE_NAME);
         if (result == null) {
             // no asynchronous result so leverage continuation
@@ -90,6 +96,11 @@ public class CamelContinuationServlet extends CamelServlet {
             }
 
             if (continuation.isExpired()) {
+                if (admission != null && admission.expired(continuation)) {
+                    log.warn("Continuation expired while waiting to be admitted for processing: {}", request);
+                    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    return;
+                }
                 String id = (String) continuation.getAttribute(EXCHANGE_ATTRIBUTE_ID);
                 // remember this id as expired
                 expiredExchanges.put(id, id);
@@ -98,6 +109,25 @@ public class CamelContinuationServlet extends CamelServlet {
                 return;
             }
 
+            if (continuation.isInitial()) {
+                request.setAttribute(REQUEST_START_ATTRIBUTE_NAME, System.currentTimeMillis());
+            }
+
+            if (admission != null) {
+                // a queued request is resumed when it has been admitted
+                boolean admitted = continuation.isInitial() ? admission.tryAcquire() : admission.started(continuation) || admission.tryAcquire();
+                if (!admitted) {
+                    if (continuation.isInitial() && admission.enqueue(continuation)) {
+                        log.trace("Queued request as there are {} in-flight requests: {}", admission.getInflight(), request);
+                        return;
+                    }
+                    log.debug("Rejecting request as there are {} in-flight and {} queued requests: {}",
+                            new Object[]{admission.getInflight(), admission.getQueued(), request});
+                    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    return;
+                }
+            }
+
             // a new request so create an exchange
             final Exchange exchange = new DefaultExchange(consumer.getEndpoint(), ExchangePattern.InOut);
             if (consumer.getEndpoint().isBridgeEndpoint()) {
@@ -115,22 +145,37 @@ public class CamelContinuationServlet extends CamelServlet {
             // must suspend before we process the exchange
             continuation.suspend();
 
-            log.trace("Processing request for exchangeId: {}", exchange.getExchangeId());
-            // use the asynchronous API to process the exchange
-            consumer.getAsyncProcessor().process(exchange, new AsyncCallback() {
-                public void done(boolean doneSync) {
-                    // check if the exchange id is already expired
-                    boolean expired = expiredExchanges.remove(exchange.getExchangeId()) != null;
-                    if (!expired) {
-                        log.trace("Resuming continuation of exchangeId: {}", exchange.getExchangeId());
-                        // resume processing after both, sync and async callbacks
-                        continuation.setAttribute(EXCHANGE_ATTRIBUTE_NAME, exchange);
-                        continuation.resume();
-                    } else {
-                        log.warn("Cannot resume expired continuation of exchangeId: {}", exchange.getExchangeId());
-                    }
+            Runnable task = new Runnable() {
+                public void run() {
+                    log.trace("Processing request for exchangeId: {}", exchange.getExchangeId());
+                    // use the asynchronous API to process the exchange
+                    consumer.getAsyncProcessor().process(exchange, new AsyncCallback() {
+                        public void done(boolean doneSync) {
+                            if (admission != null) {
+                                admission.release();
+                            }
+                            // check if the exchange id is already expired
+                            boolean expired = expiredExchanges.remove(exchange.getExchangeId()) != null;
+                            if (!expired) {
+                                log.trace("Resuming continuation of exchangeId: {}", exchange.getExchangeId());
+                                // resume processing after both, sync and async callbacks
+                                continuation.setAttribute(EXCHANGE_ATTRIBUTE_NAME, exchange);
+                                continuation.resume();
+                            } else {
+                                log.warn("Cannot resume expired continuation of exchangeId: {}", exchange.getExchangeId());
+                            }
+                        }
+                    });
                 }
-            });
+            };
+
+            ExecutorService executor = jettyEndpoint != null ? jettyEndpoint.getRoutingExecutorService() : null;
+            if (executor != null) {
+                // route the exchange on the dedicated executor to not occupy the jetty connector thread
+                executor.execute(task);
+            } else {
+                task.run();
+            }
 
             // return to let Jetty continuation to work as it will resubmit and invoke the service
             // method again when its resumed
@@ -141,6 +186,10 @@ public class CamelContinuationServlet extends CamelServlet {
             log.trace("Resumed continuation and writing response for exchangeId: {}", result.getExchangeId());
             // now lets output to the response
             consumer.getBinding().writeResponse(result, response);
+            Long start = (Long) request.getAttribute(REQUEST_START_ATTRIBUTE_NAME);
+            if (jettyEndpoint != null && start != null) {
+                jettyEndpoint.getRequestLatencyHistogram().record(System.currentTimeMillis() - start);
+            }
         } catch (IOException e) {
             log.error("Error processing request", e);
             throw e;
@@ -19,12 +19,16 @@ package org.apache.camel.component.jetty;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import javax.servlet.Filter;
 
 import org.apache.camel.Consumer;
 import org.apache.camel.Processor;
 import org.apache.camel.Producer;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
+import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.component.http.HttpConsumer;
 import org.apache.camel.component.http.HttpEndpoint;
 import org.apache.camel.impl.SynchronousDelegateProducer;
@@ -35,6 +39,7 @@ import org.eclipse.jetty.server.Handler;
 /**
  * @version 
  */
+@ManagedResource(description = "Managed Jetty HTTP Endpoint")
 public class JettyHttpEndpoint extends HttpEndpoint {
 
     private boolean sessionSupport;
@@ -48,6 +53,13 @@ public class JettyHttpEndpoint extends HttpEndpoint {
     private Long continuationTimeout;
     private Boolean useContinuation;
     private SSLContextParameters sslContextParameters;
+    private int maxInflightRequests;
+    private int maxQueuedRequests;
+    private int routingThreadPoolSize;
+    private ExecutorService routingExecutorService;
+    private boolean shutdownRoutingExecutorService;
+    private AdmissionController admissionController;
+    private final LatencyHistogram requestLatencyHistogram = new LatencyHistogram();
 
     public JettyHttpEndpoint(JettyHttpComponent component, String uri, URI httpURL) throws URISyntaxException {
         super(uri, component, httpURL);
@@ -170,4 +182,137 @@ public class JettyHttpEndpoint extends HttpEndpoint {
     public void setSslContextParameters(SSLContextParameters sslContextParameters) {
         this.sslContextParameters = sslContextParameters;
     }
+
+    @ManagedAttribute(description = "Maximum number of requests being routed concurrently, 0 for unlimited")
+    public int getMaxInflightRequests() {
+        return maxInflightRequests;
+    }
+
+    /**
+     * Sets the maximum number of requests which are routed concurrently by the consumer of this endpoint.
+     * Requests above the limit are queued (see {@link #setMaxQueuedRequests(int)}) or rejected with
+     * HTTP status 503. Is only in use when continuations are enabled. Default is 0 which is unlimited.
+     */
+    public void setMaxInflightRequests(int maxInflightRequests) {
+        this.maxInflightRequests = maxInflightRequests;
+    }
+
+    @ManagedAttribute(description = "Maximum number of requests waiting to be admitted")
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * Sets the maximum number of suspended requests waiting for an in-flight request to complete,
+     * when the {@link #setMaxInflightRequests(int)} limit has been reached. A waiting request which
+     * exceeds the continuation timeout is rejected with HTTP status 503. Default is 0 which rejects
+     * requests above the limit immediately.
+     */
+    public void setMaxQueuedRequests(int maxQueuedRequests) {
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    @ManagedAttribute(description = "Size of the thread pool used for routing requests")
+    public int getRoutingThreadPoolSize() {
+        return routingThreadPoolSize;
+    }
+
+    /**
+     * Sets the size of a dedicated thread pool used for routing the requests, which frees the Jetty
+     * threads to accept and parse new requests. Is only in use when continuations are enabled.
+     * Default is 0 which routes the requests on the Jetty threads.
+     */
+    public void setRoutingThreadPoolSize(int routingThreadPoolSize) {
+        this.routingThreadPoolSize = routingThreadPoolSize;
+    }
+
+    public synchronized ExecutorService getRoutingExecutorService() {
+        if (routingExecutorService == null && routingThreadPoolSize > 0) {
+            routingExecutorService = getCamelContext().getExecutorServiceManager().newThreadPool(this,
+                    "JettyRouting[" + getEndpointKey() + "]", routingThreadPoolSize, routingThreadPoolSize);
+            shutdownRoutingExecutorService = true;
+        }
+        return routingExecutorService;
+    }
+
+    /**
+     * Sets a custom thread pool used for routing the requests.
+     */
+    public synchronized void setRoutingExecutorService(ExecutorService routingExecutorService) {
+        this.routingExecutorService = routingExecutorService;
+        this.shutdownRoutingExecutorService = false;
+    }
+
+    /**
+     * Gets the admission controller which limits the in-flight requests, or <tt>null</tt> if unlimited.
+     */
+    public synchronized AdmissionController getAdmissionController() {
+        if (admissionController == null && maxInflightRequests > 0) {
+            admissionController = new AdmissionController(maxInflightRequests, maxQueuedRequests);
+        }
+        return admissionController;
+    }
+
+    public LatencyHistogram getRequestLatencyHistogram() {
+        return requestLatencyHistogram;
+    }
+
+    @ManagedAttribute(description = "Number of requests currently being routed")
+    public int getInflightRequests() {
+        AdmissionController admission = admissionController;
+        return admission != null ? admission.getInflight() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of requests waiting to be admitted")
+    public int getQueuedRequests() {
+        AdmissionController admission = admissionController;
+        return admission != null ? admission.getQueued() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of requests rejected due overload")
+    public long getRejectedRequests() {
+        AdmissionController admission = admissionController;
+        return admission != null ? admission.getRejected() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of completed requests")
+    public long getCompletedRequests() {
+        return requestLatencyHistogram.getCount();
+    }
+
+    @ManagedAttribute(description = "Mean request latency in millis")
+    public long getMeanRequestLatency() {
+        return requestLatencyHistogram.getMean();
+    }
+
+    @ManagedAttribute(description = "Max request latency in millis")
+    public long getMaxRequestLatency() {
+        return requestLatencyHistogram.getMax();
+    }
+
+    @ManagedAttribute(description = "99th percentile request latency in millis")
+    public long getRequestLatency99thPercentile() {
+        return requestLatencyHistogram.getPercentile(99);
+    }
+
+    @ManagedAttribute(description = "Histogram of the request latencies")
+    public String getRequestLatencyHistogramAsString() {
+        return requestLatencyHistogram.toString();
+    }
+
+    @ManagedOperation(description = "Reset the request latency statistics")
+    public void resetRequestLatencyStatistics() {
+        requestLatencyHistogram.reset();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        synchronized (this) {
+            if (routingExecutorService != null && shutdownRoutingExecutorService) {
+                getCamelContext().getExecutorServiceManager().shutdown(routingExecutorService);
+                routingExecutorService = null;
+            }
+        }
+    }
 }
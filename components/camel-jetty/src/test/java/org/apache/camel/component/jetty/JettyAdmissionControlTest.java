@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jetty;
+
+import java.util.concurrent.Future;
+
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.http.HttpOperationFailedException;
+import org.junit.Test;
+
+/**
+ * @version
+ */
+public class JettyAdmissionControlTest extends BaseJettyTest {
+
+    private int expirePort;
+
+    @Test
+    public void testRejectAboveMaxInflight() throws Exception {
+        Future<Object> first = template.asyncRequestBody("http://localhost:{{port}}/reject", "A");
+        // wait for the first request to be in-flight
+        Thread.sleep(300);
+
+        try {
+            template.requestBody("http://localhost:{{port}}/reject", "B", String.class);
+            fail("Should have thrown an exception");
+        } catch (CamelExecutionException e) {
+            HttpOperationFailedException cause = assertIsInstanceOf(HttpOperationFailedException.class, e.getCause());
+            assertEquals(503, cause.getStatusCode());
+        }
+
+        assertEquals("Bye A", template.extractFutureBody(first, String.class));
+
+        JettyHttpEndpoint endpoint = (JettyHttpEndpoint) context.getRoute("reject").getEndpoint();
+        assertEquals(1, endpoint.getRejectedRequests());
+        assertEquals(0, endpoint.getInflightRequests());
+        assertEquals(1, endpoint.getCompletedRequests());
+
+        // the limit is released so a new request is accepted
+        assertEquals("Bye C", template.requestBody("http://localhost:{{port}}/reject", "C", String.class));
+    }
+
+    @Test
+    public void testQueueAboveMaxInflight() throws Exception {
+        Future<Object> a = template.asyncRequestBody("http://localhost:{{port}}/queue", "A");
+        Future<Object> b = template.asyncRequestBody("http://localhost:{{port}}/queue", "B");
+        Future<Object> c = template.asyncRequestBody("http://localhost:{{port}}/queue", "C");
+
+        assertEquals("Bye A", template.extractFutureBody(a, String.class));
+        assertEquals("Bye B", template.extractFutureBody(b, String.class));
+        assertEquals("Bye C", template.extractFutureBody(c, String.class));
+
+        JettyHttpEndpoint endpoint = (JettyHttpEndpoint) context.getRoute("queue").getEndpoint();
+        assertEquals(0, endpoint.getRejectedRequests());
+        assertEquals(0, endpoint.getQueuedRequests());
+        assertEquals(3, endpoint.getCompletedRequests());
+        assertTrue("Should have waited for the requests ahead", endpoint.getMaxRequestLatency() >= 400);
+    }
+
+    @Test
+    public void testRequestLatencyPercentile() throws Exception {
+        JettyHttpEndpoint endpoint = (JettyHttpEndpoint) context.getRoute("reject").getEndpoint();
+        LatencyHistogram histogram = endpoint.getRequestLatencyHistogram();
+        histogram.reset();
+        assertEquals(0, endpoint.getRequestLatency99thPercentile());
+
+        // 90 fast requests, 9 slower requests and a single very slow request
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1);
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(40);
+        }
+        histogram.record(3000);
+
+        assertEquals(100, endpoint.getCompletedRequests());
+        assertEquals(1, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(95));
+        assertEquals(50, endpoint.getRequestLatency99thPercentile());
+        assertEquals(5000, histogram.getPercentile(100));
+        assertEquals(3000, endpoint.getMaxRequestLatency());
+    }
+
+    @Test
+    public void testExpireWhileQueued() throws Exception {
+        // the first request is slower than the continuation timeout, so the queued request expires before being admitted
+        Future<Object> first = template.asyncRequestBody("http://localhost:" + expirePort + "/expire", "A");
+        Thread.sleep(300);
+
+        try {
+            template.requestBody("http://localhost:" + expirePort + "/expire", "B", String.class);
+            fail("Should have thrown an exception");
+        } catch (CamelExecutionException e) {
+            HttpOperationFailedException cause = assertIsInstanceOf(HttpOperationFailedException.class, e.getCause());
+            assertEquals(503, cause.getStatusCode());
+        }
+
+        // the first request is routed synchronously within the dispatch, so it does not expire
+        assertEquals("Bye A", template.extractFutureBody(first, String.class));
+
+        JettyHttpEndpoint endpoint = (JettyHttpEndpoint) context.getRoute("expire").getEndpoint();
+        assertEquals(1, endpoint.getRejectedRequests());
+        assertEquals(0, endpoint.getQueuedRequests());
+        assertEquals(0, endpoint.getInflightRequests());
+    }
+
+    @Test
+    public void testRoutingThreadPool() throws Exception {
+        String thread = template.requestBody("http://localhost:{{port}}/pool", "A", String.class);
+        assertTrue("Should be routed by the routing thread pool: " + thread, thread.contains("JettyRouting"));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("jetty:http://localhost:{{port}}/reject?maxInflightRequests=1").routeId("reject")
+                    .delay(1000)
+                    .transform(body().prepend("Bye "));
+
+                from("jetty:http://localhost:{{port}}/queue?maxInflightRequests=1&maxQueuedRequests=5").routeId("queue")
+                    .delay(200)
+                    .transform(body().prepend("Bye "));
+
+                // the continuation timeout is configured per port, so use a dedicated port
+                expirePort = getNextPort();
+                from("jetty:http://localhost:" + expirePort + "/expire?maxInflightRequests=1&maxQueuedRequests=5&continuationTimeout=1000").routeId("expire")
+                    .delay(2000)
+                    .transform(body().prepend("Bye "));
+
+                from("jetty:http://localhost:{{port}}/pool?routingThreadPoolSize=2").routeId("pool")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            exchange.getOut().setBody(Thread.currentThread().getName());
+                        }
+                    });
+            }
+        };
+    }
+}
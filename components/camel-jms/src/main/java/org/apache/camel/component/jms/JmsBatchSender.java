@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.component.jms.JmsConfiguration.CamelJmsTemplate;
+import org.apache.camel.support.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.core.MessageCreator;
+import org.springframework.jms.support.JmsUtils;
+
+/**
+ * Sends InOnly messages in micro batches on a single cached transacted {@link Session}.
+ * <p/>
+ * Exchanges are queued by the {@link JmsProducer} and drained by a background thread,
+ * which sends up to <tt>sendBatchSize</tt> messages (or whatever arrived within
+ * <tt>sendBatchTimeout</tt> millis of the first message) and then commits the session once.
+ * The {@link AsyncCallback} of each exchange is only invoked after the commit has completed,
+ * or the batch has been rolled back, so the at-least-once delivery guarantee is kept.
+ *
+ * @version
+ */
+public class JmsBatchSender extends ServiceSupport implements Runnable {
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(JmsBatchSender.class);
+    private final JmsProducer producer;
+    private final CamelJmsTemplate template;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final BlockingQueue<BatchEntry> queue = new LinkedBlockingQueue<BatchEntry>();
+    private final Map<String, Destination> destinations = new HashMap<String, Destination>();
+    private final Map<Destination, MessageProducer> producers = new HashMap<Destination, MessageProducer>();
+    private ExecutorService executorService;
+    private Connection connection;
+    private Session session;
+
+    public JmsBatchSender(JmsProducer producer, CamelJmsTemplate template, int batchSize, long batchTimeout) {
+        this.producer = producer;
+        this.template = template;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+    }
+
+    /**
+     * Adds the exchange to the next batch to be sent.
+     *
+     * @param exchange        the exchange
+     * @param callback        the callback to invoke when the batch has been committed
+     * @param destinationName the destination name
+     * @param destination     the destination (if no name provided)
+     * @param messageCreator  the creator to create the {@link Message} to send
+     */
+    public void send(Exchange exchange, AsyncCallback callback, String destinationName, Destination destination,
+                     MessageCreator messageCreator) {
+        if (destination == null && destinationName == null) {
+            throw new IllegalArgumentException("Neither destination nor destinationName is specified on this endpoint: " + producer.getEndpoint());
+        }
+        // check and add under the lock, so the sender thread cannot terminate in between and leave the exchange behind
+        synchronized (queue) {
+            if (!isRunAllowed()) {
+                throw new RejectedExecutionException("JmsBatchSender is not started so cannot send exchange");
+            }
+            queue.add(new BatchEntry(exchange, callback, destinationName, destination, messageCreator));
+        }
+    }
+
+    /**
+     * Number of exchanges waiting to be sent in the next batch
+     */
+    public int getPendingSize() {
+        return queue.size();
+    }
+
+    public void run() {
+        List<BatchEntry> batch = new ArrayList<BatchEntry>(batchSize);
+        while (isRunAllowed() || !isQueueEmpty()) {
+            try {
+                BatchEntry first = queue.poll(1000, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                LOG.debug("Interrupted while waiting for exchanges to send");
+                if (!isRunAllowed()) {
+                    break;
+                }
+            } catch (Throwable e) {
+                LOG.warn("Error sending batch of " + batch.size() + " JMS messages. This exception will be ignored.", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        closeSession();
+
+        // fail the exchanges which could not be sent before we was interrupted
+        synchronized (queue) {
+            queue.drainTo(batch);
+        }
+        if (!batch.isEmpty()) {
+            LOG.warn("Stopped with {} pending exchanges which has not been sent", batch.size());
+            for (BatchEntry entry : batch) {
+                entry.exchange.setException(new RejectedExecutionException("JmsBatchSender is stopped so cannot send exchange"));
+                entry.callback.done(false);
+            }
+        }
+    }
+
+    private boolean isQueueEmpty() {
+        // send checks whether it is allowed to run while holding the lock
+        synchronized (queue) {
+            return queue.isEmpty();
+        }
+    }
+
+    private void fillBatch(List<BatchEntry> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + batchTimeout;
+        while (batch.size() < batchSize) {
+            // grab whatever is already waiting without blocking
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || !isRunAllowed()) {
+                break;
+            }
+            BatchEntry next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void sendBatch(List<BatchEntry> batch) {
+        LOG.trace("Sending batch of {} JMS messages", batch.size());
+        Throwable cause = null;
+        try {
+            Session session = getSession();
+            for (BatchEntry entry : batch) {
+                Destination destination = entry.destination;
+                if (destination == null) {
+                    destination = resolveDestination(session, entry.destinationName);
+                }
+                MessageProducer messageProducer = getMessageProducer(session, destination);
+                Message message = entry.messageCreator.createMessage(session);
+                template.doSend(messageProducer, message);
+            }
+            session.commit();
+            LOG.debug("Committed batch of {} JMS messages", batch.size());
+        } catch (Throwable e) {
+            cause = e;
+            LOG.debug("Error sending batch of " + batch.size() + " JMS messages. Rolling back the batch.", e);
+            rollback();
+            // the session may be broken, so create a new session for the next batch
+            closeSession();
+        }
+
+        for (BatchEntry entry : batch) {
+            Exchange exchange = entry.exchange;
+            if (cause != null) {
+                exchange.setException(cause);
+            } else {
+                // after sending then set the OUT message id to the JMSMessageID so its identical
+                producer.setMessageId(exchange);
+            }
+            entry.callback.done(false);
+        }
+    }
+
+    private Session getSession() throws JMSException {
+        if (session == null) {
+            connection = template.getConnectionFactory().createConnection();
+            session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        }
+        return session;
+    }
+
+    private Destination resolveDestination(Session session, String destinationName) throws JMSException {
+        Destination answer = destinations.get(destinationName);
+        if (answer == null) {
+            answer = template.getDestinationResolver().resolveDestinationName(session, destinationName, template.isPubSubDomain());
+            destinations.put(destinationName, answer);
+        }
+        return answer;
+    }
+
+    private MessageProducer getMessageProducer(Session session, Destination destination) throws JMSException {
+        MessageProducer answer = producers.get(destination);
+        if (answer == null) {
+            answer = session.createProducer(destination);
+            if (!template.isMessageIdEnabled()) {
+                answer.setDisableMessageID(true);
+            }
+            if (!template.isMessageTimestampEnabled()) {
+                answer.setDisableMessageTimestamp(true);
+            }
+            producers.put(destination, answer);
+        }
+        return answer;
+    }
+
+    private void rollback() {
+        if (session != null) {
+            try {
+                session.rollback();
+            } catch (Throwable e) {
+                LOG.debug("Error rolling back JMS session. This exception will be ignored.", e);
+            }
+        }
+    }
+
+    private void closeSession() {
+        for (MessageProducer messageProducer : producers.values()) {
+            JmsUtils.closeMessageProducer(messageProducer);
+        }
+        producers.clear();
+        destinations.clear();
+        JmsUtils.closeSession(session);
+        JmsUtils.closeConnection(connection);
+        session = null;
+        connection = null;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (executorService == null) {
+            String name = "JmsBatchSender[" + producer.getEndpoint().getEndpointConfiguredDestinationName() + "]";
+            executorService = producer.getEndpoint().getCamelContext().getExecutorServiceManager().newSingleThreadExecutor(this, name);
+        }
+        executorService.execute(this);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // the sender thread will send any pending exchanges before it terminates
+        if (executorService != null) {
+            producer.getEndpoint().getCamelContext().getExecutorServiceManager().shutdownGraceful(executorService);
+            executorService = null;
+        }
+    }
+
+    private static final class BatchEntry {
+        private final Exchange exchange;
+        private final AsyncCallback callback;
+        private final String destinationName;
+        private final Destination destination;
+        private final MessageCreator messageCreator;
+
+        private BatchEntry(Exchange exchange, AsyncCallback callback, String destinationName, Destination destination,
+                           MessageCreator messageCreator) {
+            this.exchange = exchange;
+            this.callback = callback;
+            this.destinationName = destinationName;
+            this.destination = destination;
+            this.messageCreator = messageCreator;
+        }
+    }
+}
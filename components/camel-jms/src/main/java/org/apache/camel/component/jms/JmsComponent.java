@@ -376,6 +376,38 @@ public class JmsComponent extends DefaultComponent implements ApplicationContext
         getConfiguration().setAllowNullBody(allowNullBody);
     }
 
+    public void setSendBatchSize(int sendBatchSize) {
+        getConfiguration().setSendBatchSize(sendBatchSize);
+    }
+
+    public void setSendBatchTimeout(long sendBatchTimeout) {
+        getConfiguration().setSendBatchTimeout(sendBatchTimeout);
+    }
+
+    public void setSessionPoolEnabled(boolean sessionPoolEnabled) {
+        getConfiguration().setSessionPoolEnabled(sessionPoolEnabled);
+    }
+
+    public void setSessionPoolMaxSize(int sessionPoolMaxSize) {
+        getConfiguration().setSessionPoolMaxSize(sessionPoolMaxSize);
+    }
+
+    public void setSessionPoolMaxWait(long sessionPoolMaxWait) {
+        getConfiguration().setSessionPoolMaxWait(sessionPoolMaxWait);
+    }
+
+    public void setSessionPoolIdleTimeout(long sessionPoolIdleTimeout) {
+        getConfiguration().setSessionPoolIdleTimeout(sessionPoolIdleTimeout);
+    }
+
+    public void setSessionPoolMaxProducers(int sessionPoolMaxProducers) {
+        getConfiguration().setSessionPoolMaxProducers(sessionPoolMaxProducers);
+    }
+
+    public void setHighThroughputReplyManager(boolean highThroughputReplyManager) {
+        getConfiguration().setHighThroughputReplyManager(highThroughputReplyManager);
+    }
+
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
     }
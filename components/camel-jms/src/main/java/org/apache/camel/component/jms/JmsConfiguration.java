@@ -135,6 +135,14 @@ public class JmsConfiguration implements Cloneable {
     // the cacheLevelName of reply manager
     private String replyToCacheLevelName;
     private boolean allowNullBody = true;
+    private int sendBatchSize;
+    private long sendBatchTimeout = 10L;
+    private boolean sessionPoolEnabled = true;
+    private int sessionPoolMaxSize = 10;
+    private long sessionPoolMaxWait = 30000L;
+    private long sessionPoolIdleTimeout = 60000L;
+    private int sessionPoolMaxProducers = 100;
+    private boolean highThroughputReplyManager;
 
     public JmsConfiguration() {
     }
@@ -202,6 +210,65 @@ public class JmsConfiguration implements Cloneable {
             }, false);
         }
 
+        /**
+         * Sends the message using a session borrowed from the given {@link JmsSessionPool}
+         * instead of creating a new connection, session and producer for each message.
+         */
+        public void send(final JmsSessionPool sessionPool,
+                         final Destination destination,
+                         final String destinationName,
+                         final MessageCreator messageCreator,
+                         final MessageSentCallback callback) throws JmsException {
+
+            Assert.notNull(messageCreator, "MessageCreator must not be null");
+            JmsSessionPool.PooledSession pooled;
+            try {
+                pooled = sessionPool.borrowSession(isSessionTransacted(), getSessionAcknowledgeMode());
+            } catch (JMSException e) {
+                throw convertJmsAccessException(e);
+            }
+
+            Session session = pooled.getSession();
+            Destination dest = destination;
+            Message message;
+            try {
+                if (dest == null) {
+                    dest = resolveDestinationName(session, destinationName);
+                }
+                message = messageCreator.createMessage(session);
+            } catch (JMSException e) {
+                sessionPool.returnSession(pooled);
+                throw convertJmsAccessException(e);
+            } catch (RuntimeException e) {
+                sessionPool.returnSession(pooled);
+                throw e;
+            }
+
+            try {
+                MessageProducer producer = pooled.getProducer(dest, getDeliveryMode());
+                if (producer == null) {
+                    producer = createProducer(session, dest);
+                    pooled.putProducer(dest, getDeliveryMode(), producer);
+                }
+                doSend(producer, message);
+                if (message != null && callback != null) {
+                    callback.sent(session, message, dest);
+                }
+                // only commit if the session is not part of an outer transaction, as the JmsTemplate does
+                if (session.getTransacted() && isSessionLocallyTransacted(session)) {
+                    JmsUtils.commitIfNecessary(session);
+                }
+            } catch (JMSException e) {
+                // the session may be broken so do not reuse it
+                sessionPool.invalidateSession(pooled);
+                throw convertJmsAccessException(e);
+            } catch (RuntimeException e) {
+                sessionPool.invalidateSession(pooled);
+                throw e;
+            }
+            sessionPool.returnSession(pooled);
+        }
+
         private Object doSendToDestination(final Destination destination,
                                            final MessageCreator messageCreator,
                                            final MessageSentCallback callback,
@@ -1277,4 +1344,122 @@ public class JmsConfiguration implements Cloneable {
     public void setAllowNullBody(boolean allowNullBody) {
         this.allowNullBody = allowNullBody;
     }
+
+    public int getSendBatchSize() {
+        return sendBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of InOnly messages to send in a single batch.
+     * <p/>
+     * When configured with a value greater than <tt>1</tt> the producer queues the messages and
+     * sends them in batches on a single cached transacted session, which is committed once per batch.
+     * Each exchange is first continued after its batch has been committed.
+     * By default this is <tt>0</tt> which means batching is disabled.
+     */
+    public void setSendBatchSize(int sendBatchSize) {
+        this.sendBatchSize = sendBatchSize;
+    }
+
+    public long getSendBatchTimeout() {
+        return sendBatchTimeout;
+    }
+
+    /**
+     * Sets the maximum time in millis to wait for a batch to fill up before it is sent,
+     * when using {@link #setSendBatchSize(int)}.
+     * <p/>
+     * By default this is <tt>10</tt> millis.
+     */
+    public void setSendBatchTimeout(long sendBatchTimeout) {
+        this.sendBatchTimeout = sendBatchTimeout;
+    }
+
+    public boolean isSessionPoolEnabled() {
+        return sessionPoolEnabled;
+    }
+
+    /**
+     * Sets whether the producer should use a pool of sessions and producers when sending messages,
+     * instead of letting the {@link JmsTemplate} create a new connection, session and producer for each message.
+     * <p/>
+     * The pool is not used when the message is sent as part of a Spring managed transaction,
+     * or when a custom {@link JmsOperations} has been configured.
+     * By default this is <tt>true</tt>.
+     */
+    public void setSessionPoolEnabled(boolean sessionPoolEnabled) {
+        this.sessionPoolEnabled = sessionPoolEnabled;
+    }
+
+    public int getSessionPoolMaxSize() {
+        return sessionPoolMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of sessions in the session pool.
+     * <p/>
+     * By default this is <tt>10</tt>.
+     */
+    public void setSessionPoolMaxSize(int sessionPoolMaxSize) {
+        this.sessionPoolMaxSize = sessionPoolMaxSize;
+    }
+
+    public long getSessionPoolMaxWait() {
+        return sessionPoolMaxWait;
+    }
+
+    /**
+     * Sets the maximum time in millis to wait for a session to be available in the session pool, when
+     * all sessions are in use.
+     * <p/>
+     * By default this is <tt>30000</tt> millis.
+     */
+    public void setSessionPoolMaxWait(long sessionPoolMaxWait) {
+        this.sessionPoolMaxWait = sessionPoolMaxWait;
+    }
+
+    public long getSessionPoolIdleTimeout() {
+        return sessionPoolIdleTimeout;
+    }
+
+    /**
+     * Sets the time in millis a session can be idle in the session pool before it is evicted and closed.
+     * <p/>
+     * By default this is <tt>60000</tt> millis. Use <tt>0</tt> or a negative value to never evict idle sessions.
+     */
+    public void setSessionPoolIdleTimeout(long sessionPoolIdleTimeout) {
+        this.sessionPoolIdleTimeout = sessionPoolIdleTimeout;
+    }
+
+    public int getSessionPoolMaxProducers() {
+        return sessionPoolMaxProducers;
+    }
+
+    /**
+     * Sets the maximum number of producers each pooled session caches, one per destination and delivery mode.
+     * When the limit is reached the least recently used producer is closed.
+     * <p/>
+     * By default this is <tt>100</tt>.
+     */
+    public void setSessionPoolMaxProducers(int sessionPoolMaxProducers) {
+        this.sessionPoolMaxProducers = sessionPoolMaxProducers;
+    }
+
+    public boolean isHighThroughputReplyManager() {
+        return highThroughputReplyManager;
+    }
+
+    /**
+     * Sets whether the reply manager used for request/reply should be optimized for many concurrent requests.
+     * <p/>
+     * When enabled the replies are correlated using a lock free map which uses a timing wheel to timeout
+     * the requests, instead of a map with a global lock which is scanned periodically for timed out requests.
+     * Persistent reply queues defaults to {@link ReplyToType#Exclusive}, and shared reply queues are only
+     * supported with a fixed message selector using the <tt>replyToDestinationSelectorName</tt> option,
+     * as a dynamic message selector would have to be rebuilt whenever a request is sent or replied.
+     * By default this is <tt>false</tt>.
+     */
+    public void setHighThroughputReplyManager(boolean highThroughputReplyManager) {
+        this.highThroughputReplyManager = highThroughputReplyManager;
+    }
 }
@@ -39,6 +39,7 @@ import org.apache.camel.Producer;
 import org.apache.camel.Service;
 import org.apache.camel.ServiceStatus;
 import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
 import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.impl.DefaultEndpoint;
 import org.apache.camel.impl.DefaultExchange;
@@ -46,6 +47,7 @@ import org.apache.camel.impl.SynchronousDelegateProducer;
 import org.apache.camel.spi.HeaderFilterStrategy;
 import org.apache.camel.spi.HeaderFilterStrategyAware;
 import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.ServiceHelper;
 import org.apache.camel.util.UnsafeUriCharactersEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,6 +76,7 @@ public class JmsEndpoint extends DefaultEndpoint implements HeaderFilterStrategy
     private Destination destination;
     private String selector;
     private JmsConfiguration configuration;
+    private volatile JmsSessionPool sessionPool;
     private final AtomicBoolean running = new AtomicBoolean();
 
     public JmsEndpoint() {
@@ -410,6 +413,33 @@ public class JmsEndpoint extends DefaultEndpoint implements HeaderFilterStrategy
         return getComponent().getAsyncStartStopExecutorService();
     }
 
+    /**
+     * Gets the pool of sessions and producers the {@link JmsProducer} uses for sending messages.
+     *
+     * @return the pool, or <tt>null</tt> if the session pool is disabled or a custom {@link JmsOperations} is in use
+     */
+    public JmsSessionPool getSessionPool() throws Exception {
+        if (!getConfiguration().isSessionPoolEnabled() || getConfiguration().getJmsOperations() != null) {
+            return null;
+        }
+        JmsSessionPool answer = sessionPool;
+        if (answer == null) {
+            synchronized (this) {
+                answer = sessionPool;
+                if (answer == null) {
+                    JmsConfiguration config = getConfiguration();
+                    answer = new JmsSessionPool(this, config.getTemplateConnectionFactory(), config.getSessionPoolMaxSize(),
+                            config.getSessionPoolMaxWait(), config.getSessionPoolIdleTimeout());
+                    answer.setMaxProducers(config.getSessionPoolMaxProducers());
+                    ServiceHelper.startService(answer);
+                    log.debug("Created JmsSessionPool with max size {} on endpoint: {}", config.getSessionPoolMaxSize(), this);
+                    sessionPool = answer;
+                }
+            }
+        }
+        return answer;
+    }
+
     /**
      * State whether this endpoint is running (eg started)
      */
@@ -425,6 +455,10 @@ public class JmsEndpoint extends DefaultEndpoint implements HeaderFilterStrategy
     @Override
     protected void doStop() throws Exception {
         running.set(false);
+        synchronized (this) {
+            ServiceHelper.stopService(sessionPool);
+            sessionPool = null;
+        }
     }
 
     // Delegated properties from the configuration
@@ -1041,6 +1075,117 @@ public class JmsEndpoint extends DefaultEndpoint implements HeaderFilterStrategy
         configuration.setAllowNullBody(allowNullBody);
     }
 
+    @ManagedAttribute
+    public int getSendBatchSize() {
+        return configuration.getSendBatchSize();
+    }
+
+    @ManagedAttribute
+    public void setSendBatchSize(int sendBatchSize) {
+        configuration.setSendBatchSize(sendBatchSize);
+    }
+
+    @ManagedAttribute
+    public long getSendBatchTimeout() {
+        return configuration.getSendBatchTimeout();
+    }
+
+    @ManagedAttribute
+    public void setSendBatchTimeout(long sendBatchTimeout) {
+        configuration.setSendBatchTimeout(sendBatchTimeout);
+    }
+
+    @ManagedAttribute
+    public void setSessionPoolEnabled(boolean sessionPoolEnabled) {
+        configuration.setSessionPoolEnabled(sessionPoolEnabled);
+    }
+
+    @ManagedAttribute
+    public void setSessionPoolMaxSize(int sessionPoolMaxSize) {
+        configuration.setSessionPoolMaxSize(sessionPoolMaxSize);
+    }
+
+    @ManagedAttribute
+    public void setSessionPoolMaxWait(long sessionPoolMaxWait) {
+        configuration.setSessionPoolMaxWait(sessionPoolMaxWait);
+    }
+
+    @ManagedAttribute
+    public void setSessionPoolIdleTimeout(long sessionPoolIdleTimeout) {
+        configuration.setSessionPoolIdleTimeout(sessionPoolIdleTimeout);
+    }
+
+    @ManagedAttribute
+    public void setSessionPoolMaxProducers(int sessionPoolMaxProducers) {
+        configuration.setSessionPoolMaxProducers(sessionPoolMaxProducers);
+    }
+
+    @ManagedAttribute
+    public boolean isSessionPoolEnabled() {
+        return configuration.isSessionPoolEnabled();
+    }
+
+    @ManagedAttribute
+    public int getSessionPoolMaxSize() {
+        return configuration.getSessionPoolMaxSize();
+    }
+
+    @ManagedAttribute
+    public long getSessionPoolMaxWait() {
+        return configuration.getSessionPoolMaxWait();
+    }
+
+    @ManagedAttribute
+    public long getSessionPoolIdleTimeout() {
+        return configuration.getSessionPoolIdleTimeout();
+    }
+
+    @ManagedAttribute
+    public int getSessionPoolMaxProducers() {
+        return configuration.getSessionPoolMaxProducers();
+    }
+
+    @ManagedAttribute(description = "Number of sessions in use from the session pool")
+    public int getSessionPoolActiveCount() {
+        JmsSessionPool pool = sessionPool;
+        return pool != null ? pool.getActiveCount() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of idle sessions in the session pool")
+    public int getSessionPoolIdleCount() {
+        JmsSessionPool pool = sessionPool;
+        return pool != null ? pool.getIdleCount() : 0;
+    }
+
+    @ManagedAttribute(description = "Average time in millis waited to borrow a session from the session pool")
+    public long getSessionPoolAverageBorrowWaitTime() {
+        JmsSessionPool pool = sessionPool;
+        return pool != null ? pool.getAverageBorrowWaitTime() : 0;
+    }
+
+    @ManagedAttribute(description = "Maximum time in millis waited to borrow a session from the session pool")
+    public long getSessionPoolMaxBorrowWaitTime() {
+        JmsSessionPool pool = sessionPool;
+        return pool != null ? pool.getMaxBorrowWaitTime() : 0;
+    }
+
+    @ManagedOperation(description = "Checks the health of the connection used by the session pool")
+    public boolean sessionPoolHealthCheck() {
+        // if the pool is not in use then there is nothing which can be unhealthy
+        JmsSessionPool pool = sessionPool;
+        return pool == null || pool.healthCheck();
+    }
+
+    @ManagedAttribute
+    public boolean isHighThroughputReplyManager() {
+        return configuration.isHighThroughputReplyManager();
+    }
+
+    @ManagedAttribute
+    public void setHighThroughputReplyManager(boolean highThroughputReplyManager) {
+        configuration.setHighThroughputReplyManager(highThroughputReplyManager);
+    }
+
     @ManagedAttribute
     public String getReplyToType() {
         if (configuration.getReplyToType() != null) {
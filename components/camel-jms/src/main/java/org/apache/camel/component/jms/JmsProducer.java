@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.jms.core.JmsOperations;
 import org.springframework.jms.core.MessageCreator;
 import org.springframework.jms.support.JmsUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static org.apache.camel.component.jms.JmsMessageHelper.normalizeDestinationName;
 
@@ -59,6 +60,7 @@ public class JmsProducer extends DefaultAsyncProducer {
     private JmsOperations inOutTemplate;
     private UuidGenerator uuidGenerator;
     private ReplyManager replyManager;
+    private JmsBatchSender batchSender;
 
     public JmsProducer(JmsEndpoint endpoint) {
         super(endpoint);
@@ -353,6 +355,12 @@ public class JmsProducer extends DefaultAsyncProducer {
             }
         };
 
+        if (batchSender != null) {
+            // the batch sender will invoke the callback when the batch has been committed
+            batchSender.send(exchange, callback, destinationName, destination, messageCreator);
+            return false;
+        }
+
         doSend(false, destinationName, destination, messageCreator, null);
 
         // after sending then set the OUT message id to the JMSMessageID so its identical
@@ -381,6 +389,15 @@ public class JmsProducer extends DefaultAsyncProducer {
             LOG.trace("Using {} jms template", inOut ? "inOut" : "inOnly");
         }
 
+        JmsSessionPool pool = getSessionPool(template);
+        if (pool != null) {
+            if (destination == null && destinationName == null) {
+                throw new IllegalArgumentException("Neither destination nor destinationName is specified on this endpoint: " + endpoint);
+            }
+            template.send(pool, destination, destinationName, messageCreator, callback);
+            return;
+        }
+
         // destination should be preferred
         if (destination != null) {
             if (inOut) {
@@ -407,6 +424,31 @@ public class JmsProducer extends DefaultAsyncProducer {
         }
     }
 
+    /**
+     * Gets the session pool to use for sending with the given template.
+     *
+     * @return the pool, or <tt>null</tt> to send using the template itself
+     */
+    protected JmsSessionPool getSessionPool(CamelJmsTemplate template) {
+        if (template == null || TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(template.getConnectionFactory())) {
+            // must let the template participate in the Spring managed transaction, such as the transaction of
+            // a transacted consumer, which binds its session to the thread without activating synchronization
+            return null;
+        }
+        JmsSessionPool pool;
+        try {
+            pool = endpoint.getSessionPool();
+        } catch (Exception e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+        // only use the pool if the template has not been configured with another connection factory
+        if (pool != null && pool.getConnectionFactory() == template.getConnectionFactory()) {
+            return pool;
+        }
+        return null;
+    }
+
     protected void setMessageId(Exchange exchange) {
         if (exchange.hasOut()) {
             JmsMessage out = exchange.getOut(JmsMessage.class);
@@ -483,11 +525,24 @@ public class JmsProducer extends DefaultAsyncProducer {
         if (endpoint.isTestConnectionOnStartup()) {
             testConnectionOnStartup();
         }
+        if (batchSender == null && endpoint.getSendBatchSize() > 1) {
+            if (!(getInOnlyTemplate() instanceof CamelJmsTemplate)) {
+                throw new IllegalArgumentException("The sendBatchSize option is not supported when using a custom JmsOperations: " + getInOnlyTemplate());
+            }
+            batchSender = new JmsBatchSender(this, (CamelJmsTemplate) getInOnlyTemplate(), endpoint.getSendBatchSize(), endpoint.getSendBatchTimeout());
+            LOG.debug("Using JmsBatchSender with batch size: {} and timeout: {} millis", endpoint.getSendBatchSize(), endpoint.getSendBatchTimeout());
+        }
+        if (batchSender != null) {
+            ServiceHelper.startService(batchSender);
+        }
     }
 
     protected void doStop() throws Exception {
         super.doStop();
 
+        // must stop the batch sender so pending messages are sent
+        ServiceHelper.stopService(batchSender);
+
         // must stop/un-init reply manager if it was in use
         unInitReplyManager();
     }
@@ -0,0 +1,484 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.camel.support.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.support.JmsUtils;
+
+/**
+ * A pool of JMS {@link Session}s and their {@link MessageProducer}s which is used by the
+ * {@link JmsProducer} to avoid creating a new connection, session and producer for every message
+ * being sent, which otherwise happens with the Spring {@link org.springframework.jms.core.JmsTemplate}
+ * unless a pooled or caching {@link ConnectionFactory} has been configured.
+ * <p/>
+ * The sessions share a single {@link Connection}, and each session caches up to the max producers
+ * keyed by destination and delivery mode, closing the least recently used producer when the limit is reached.
+ * Idle sessions are validated before they are borrowed, and a background task evicts sessions which have been
+ * idle for longer than the idle timeout and validates the connection and the remaining idle sessions.
+ *
+ * @version
+ */
+public class JmsSessionPool extends ServiceSupport implements ExceptionListener {
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(JmsSessionPool.class);
+    private static final long DEFAULT_VALIDATION_INTERVAL = 30000L;
+    private final JmsEndpoint endpoint;
+    private final ConnectionFactory connectionFactory;
+    private final int maxSize;
+    private final long maxWait;
+    private final long idleTimeout;
+    private final LinkedBlockingDeque<PooledSession> idle = new LinkedBlockingDeque<PooledSession>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalBorrowWaitTime = new AtomicLong();
+    private final AtomicLong maxBorrowWaitTime = new AtomicLong();
+    private final Semaphore permits;
+    private int maxProducers = 100;
+    private volatile Connection connection;
+    private volatile boolean healthy = true;
+    private ScheduledExecutorService evictionExecutorService;
+
+    public JmsSessionPool(JmsEndpoint endpoint, ConnectionFactory connectionFactory, int maxSize, long maxWait, long idleTimeout) {
+        this.endpoint = endpoint;
+        this.connectionFactory = connectionFactory;
+        this.maxSize = maxSize;
+        this.maxWait = maxWait;
+        this.idleTimeout = idleTimeout;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    public ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public int getMaxProducers() {
+        return maxProducers;
+    }
+
+    /**
+     * Sets the maximum number of producers each session caches, must be set before the pool is used.
+     */
+    public void setMaxProducers(int maxProducers) {
+        this.maxProducers = maxProducers;
+    }
+
+    /**
+     * Borrows a session from the pool, creating a new session if no idle session is available.
+     * <p/>
+     * Will wait at most the configured max wait time for a session to be returned to the pool,
+     * if the pool is exhausted.
+     *
+     * @param transacted      whether the session should be transacted
+     * @param acknowledgeMode the acknowledge mode of the session
+     * @return the session, must be given back using {@link #returnSession(PooledSession)} or
+     *         {@link #invalidateSession(PooledSession)}
+     * @throws JMSException is thrown if no session could be borrowed
+     */
+    public PooledSession borrowSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        if (!isRunAllowed()) {
+            throw new IllegalStateException("JmsSessionPool is not started on endpoint: " + endpoint);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                throw new JMSException("Timeout waiting " + maxWait + " millis to borrow a session from the pool of " + maxSize
+                        + " sessions on endpoint: " + endpoint);
+            }
+        } catch (InterruptedException e) {
+            throw new JMSException("Interrupted waiting to borrow a session from the pool on endpoint: " + endpoint);
+        }
+        long wait = System.currentTimeMillis() - start;
+        borrowCount.incrementAndGet();
+        totalBorrowWaitTime.addAndGet(wait);
+        if (wait > maxBorrowWaitTime.get()) {
+            maxBorrowWaitTime.set(wait);
+        }
+
+        try {
+            PooledSession answer = pollIdleSession(transacted, acknowledgeMode);
+            if (answer == null) {
+                answer = createSession(transacted, acknowledgeMode);
+            }
+            activeCount.incrementAndGet();
+            return answer;
+        } catch (JMSException e) {
+            permits.release();
+            throw e;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the session to the pool so it can be reused.
+     */
+    public void returnSession(PooledSession session) {
+        activeCount.decrementAndGet();
+        if (isRunAllowed() && session.getConnection() == connection) {
+            session.lastUsed = System.currentTimeMillis();
+            // add to the head so the most recently used sessions are reused first
+            // and the least recently used sessions can be evicted from the tail
+            idle.addFirst(session);
+        } else {
+            session.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * Invalidates the session, which is closed and not returned to the pool.
+     * <p/>
+     * This is used when sending using the session failed, and the session should be regarded as broken.
+     */
+    public void invalidateSession(PooledSession session) {
+        activeCount.decrementAndGet();
+        session.close();
+        permits.release();
+        // the connection may be broken as well, so test it before creating new sessions
+        if (!checkConnection()) {
+            resetConnection();
+        }
+    }
+
+    /**
+     * Number of sessions currently borrowed from the pool
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * Number of idle sessions in the pool
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * Average time in millis waited to borrow a session from the pool
+     */
+    public long getAverageBorrowWaitTime() {
+        long count = borrowCount.get();
+        return count > 0 ? totalBorrowWaitTime.get() / count : 0;
+    }
+
+    /**
+     * Maximum time in millis waited to borrow a session from the pool
+     */
+    public long getMaxBorrowWaitTime() {
+        return maxBorrowWaitTime.get();
+    }
+
+    /**
+     * Whether the pool is healthy, which it is if the connection has not reported any failure.
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Performs a health check by testing the connection to the JMS broker.
+     *
+     * @return <tt>true</tt> if the connection is healthy, <tt>false</tt> otherwise
+     */
+    public boolean healthCheck() {
+        try {
+            getConnection().getMetaData();
+            healthy = true;
+        } catch (Exception e) {
+            LOG.debug("Health check of JMS connection failed on endpoint: " + endpoint, e);
+            resetConnection();
+            healthy = false;
+        }
+        return healthy;
+    }
+
+    /**
+     * Validates the connection and the idle sessions, closing the idle sessions which are no longer usable.
+     * <p/>
+     * Does not create a connection if the pool has none.
+     */
+    public void validateIdleSessions() {
+        if (!checkConnection()) {
+            LOG.debug("Validation of JMS connection failed on endpoint: {}. The connection will be re-created.", endpoint);
+            healthy = false;
+            resetConnection();
+            return;
+        }
+        for (PooledSession session : idle) {
+            if (!isValid(session) && idle.removeFirstOccurrence(session)) {
+                LOG.debug("Closing invalid idle session: {}", session);
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Evicts the sessions which has been idle for longer than the idle timeout
+     */
+    public void evictIdleSessions() {
+        long threshold = System.currentTimeMillis() - idleTimeout;
+        PooledSession session;
+        while ((session = idle.peekLast()) != null && session.lastUsed < threshold) {
+            // only close the session if no other thread has borrowed it in the meantime
+            if (idle.removeLastOccurrence(session)) {
+                LOG.trace("Evicting idle session: {}", session);
+                session.close();
+            }
+        }
+    }
+
+    public void onException(JMSException exception) {
+        LOG.warn("JMS connection failure reported on endpoint: " + endpoint + ". The connection will be re-created.", exception);
+        healthy = false;
+        resetConnection();
+    }
+
+    private PooledSession pollIdleSession(boolean transacted, int acknowledgeMode) {
+        for (Iterator<PooledSession> it = idle.iterator(); it.hasNext();) {
+            PooledSession session = it.next();
+            if (session.matches(transacted, acknowledgeMode) && idle.removeFirstOccurrence(session)) {
+                // validate the session before handing it out, as it may have been closed by the broker
+                if (isValid(session)) {
+                    return session;
+                }
+                LOG.debug("Closing invalid idle session: {}", session);
+                session.close();
+            }
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledSession session) {
+        if (session.getConnection() != connection) {
+            return false;
+        }
+        try {
+            // a closed session throws an exception
+            session.getSession().getAcknowledgeMode();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private PooledSession createSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        Connection con = getConnection();
+        Session session = con.createSession(transacted, acknowledgeMode);
+        LOG.trace("Created new session: {}", session);
+        return new PooledSession(con, session, transacted, acknowledgeMode, maxProducers);
+    }
+
+    private synchronized Connection getConnection() throws JMSException {
+        if (connection == null) {
+            Connection con = connectionFactory.createConnection();
+            try {
+                con.setExceptionListener(this);
+            } catch (JMSException e) {
+                // not all connection factories allow setting an exception listener
+                LOG.debug("Cannot set ExceptionListener on connection: " + con + ". This exception will be ignored.", e);
+            }
+            connection = con;
+            healthy = true;
+        }
+        return connection;
+    }
+
+    private boolean checkConnection() {
+        Connection con = connection;
+        if (con == null) {
+            return true;
+        }
+        try {
+            con.getMetaData();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private synchronized void resetConnection() {
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            session.close();
+        }
+        // borrowed sessions on the old connection are closed when they are returned
+        JmsUtils.closeConnection(connection);
+        connection = null;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (evictionExecutorService == null) {
+            String name = "JmsSessionPoolEvictor[" + endpoint.getEndpointConfiguredDestinationName() + "]";
+            evictionExecutorService = endpoint.getCamelContext().getExecutorServiceManager().newSingleThreadScheduledExecutor(this, name);
+            long delay = idleTimeout > 0 ? Math.max(1000, idleTimeout / 2) : DEFAULT_VALIDATION_INTERVAL;
+            evictionExecutorService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    if (idleTimeout > 0) {
+                        evictIdleSessions();
+                    }
+                    validateIdleSessions();
+                }
+            }, delay, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (evictionExecutorService != null) {
+            endpoint.getCamelContext().getExecutorServiceManager().shutdownNow(evictionExecutorService);
+            evictionExecutorService = null;
+        }
+        resetConnection();
+    }
+
+    /**
+     * A pooled {@link Session} with its cached {@link MessageProducer}s.
+     */
+    public static final class PooledSession {
+        private final Connection connection;
+        private final Session session;
+        private final boolean transacted;
+        private final int acknowledgeMode;
+        private final Map<ProducerKey, MessageProducer> producers;
+        private volatile long lastUsed;
+
+        private PooledSession(Connection connection, Session session, boolean transacted, int acknowledgeMode, final int maxProducers) {
+            this.connection = connection;
+            this.session = session;
+            this.transacted = transacted;
+            this.acknowledgeMode = acknowledgeMode;
+            // access ordered so the least recently used producer is closed when there are too many producers
+            this.producers = new LinkedHashMap<ProducerKey, MessageProducer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ProducerKey, MessageProducer> eldest) {
+                    if (size() > maxProducers) {
+                        LOG.trace("Closing least recently used producer: {}", eldest.getValue());
+                        JmsUtils.closeMessageProducer(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * Gets the cached producer for the given destination and delivery mode
+         *
+         * @return the producer, or <tt>null</tt> if no producer has been cached
+         */
+        public MessageProducer getProducer(Destination destination, int deliveryMode) {
+            return producers.get(new ProducerKey(destination, deliveryMode));
+        }
+
+        /**
+         * Number of producers cached by this session
+         */
+        public int getProducerCount() {
+            return producers.size();
+        }
+
+        /**
+         * Caches the producer for the given destination and delivery mode
+         */
+        public void putProducer(Destination destination, int deliveryMode, MessageProducer producer) {
+            producers.put(new ProducerKey(destination, deliveryMode), producer);
+        }
+
+        private boolean matches(boolean transacted, int acknowledgeMode) {
+            return this.transacted == transacted && (transacted || this.acknowledgeMode == acknowledgeMode);
+        }
+
+        private void close() {
+            for (MessageProducer producer : producers.values()) {
+                JmsUtils.closeMessageProducer(producer);
+            }
+            producers.clear();
+            JmsUtils.closeSession(session);
+        }
+
+        @Override
+        public String toString() {
+            return "PooledSession[" + session + "]";
+        }
+    }
+
+    private static final class ProducerKey {
+        private final Destination destination;
+        private final int deliveryMode;
+
+        private ProducerKey(Destination destination, int deliveryMode) {
+            this.destination = destination;
+            this.deliveryMode = deliveryMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProducerKey)) {
+                return false;
+            }
+            ProducerKey that = (ProducerKey) o;
+            return deliveryMode == that.deliveryMode && destination.equals(that.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * destination.hashCode() + deliveryMode;
+        }
+    }
+}
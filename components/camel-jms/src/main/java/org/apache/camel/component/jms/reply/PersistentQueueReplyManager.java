@@ -121,8 +121,13 @@ public class PersistentQueueReplyManager extends ReplyManagerSupport {
 
         ReplyToType type = endpoint.getConfiguration().getReplyToType();
         if (type == null) {
-            // use shared by default for persistent reply queues
-            type = ReplyToType.Shared;
+            if (endpoint.isHighThroughputReplyManager() && endpoint.getReplyToDestinationSelectorName() == null) {
+                // use exclusive for high throughput as shared would require a dynamic message selector
+                type = ReplyToType.Exclusive;
+            } else {
+                // use shared by default for persistent reply queues
+                type = ReplyToType.Shared;
+            }
         }
 
         if (ReplyToType.Shared == type) {
@@ -136,9 +141,13 @@ public class PersistentQueueReplyManager extends ReplyManagerSupport {
                 // must use cache level consumer for fixed message selector
                 answer.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
                 log.debug("Using shared queue: " + endpoint.getReplyTo() + " with fixed message selector [" + fixedMessageSelector + "] as reply listener: " + answer);
+            } else if (endpoint.isHighThroughputReplyManager()) {
+                // the dynamic message selector would have to be rebuilt whenever a correlation id is added or removed
+                throw new IllegalArgumentException("ReplyToType " + type + " requires the replyToDestinationSelectorName option"
+                        + " to be configured when using highThroughputReplyManager on endpoint: " + endpoint);
             } else {
                 // use a dynamic message selector which will select the message we want to receive as reply
-                dynamicMessageSelector = new MessageSelectorCreator(correlation);
+                dynamicMessageSelector = new MessageSelectorCreator((CorrelationTimeoutMap) correlation);
                 answer = new SharedPersistentQueueMessageListenerContainer(dynamicMessageSelector);
                 // must use cache level session for dynamic message selector,
                 // as otherwise the dynamic message selector will not be updated on-the-fly
@@ -27,6 +27,7 @@ import org.apache.camel.AsyncCallback;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.TimeoutMap;
 import org.apache.camel.component.jms.JmsEndpoint;
 import org.apache.camel.component.jms.JmsMessage;
 import org.apache.camel.component.jms.JmsMessageHelper;
@@ -53,7 +54,7 @@ public abstract class ReplyManagerSupport extends ServiceSupport implements Repl
     protected AbstractMessageListenerContainer listenerContainer;
     protected final CountDownLatch replyToLatch = new CountDownLatch(1);
     protected final long replyToTimeout = 10000;
-    protected CorrelationTimeoutMap correlation;
+    protected TimeoutMap<String, ReplyHandler> correlation;
 
     public ReplyManagerSupport(CamelContext camelContext) {
         this.camelContext = camelContext;
@@ -215,7 +216,12 @@ public abstract class ReplyManagerSupport extends ServiceSupport implements Repl
         // timeout map to use for purging messages which have timed out, while waiting for an expected reply
         // when doing request/reply over JMS
         log.trace("Using timeout checker interval with {} millis", endpoint.getRequestTimeoutCheckerInterval());
-        correlation = new CorrelationTimeoutMap(executorService, endpoint.getRequestTimeoutCheckerInterval());
+        if (endpoint.isHighThroughputReplyManager()) {
+            // lock free map which uses a timing wheel to timeout entries instead of scanning all entries
+            correlation = new TimingWheelCorrelationMap(executorService, endpoint.getRequestTimeoutCheckerInterval());
+        } else {
+            correlation = new CorrelationTimeoutMap(executorService, endpoint.getRequestTimeoutCheckerInterval());
+        }
         ServiceHelper.startService(correlation);
 
         // create JMS listener and start it
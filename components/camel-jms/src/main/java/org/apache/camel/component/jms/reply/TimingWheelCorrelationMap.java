@@ -0,0 +1,244 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms.reply;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.camel.TimeoutMap;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TimeoutMap} used by the high throughput reply managers to track reply messages
+ * which has been timed out.
+ * <p/>
+ * Unlike {@link CorrelationTimeoutMap} this implementation does not use a global lock, and does not scan
+ * all the entries to find the timed out entries. Instead each entry is scheduled in a bucket of a
+ * hashed timing wheel, and on every tick only the entries in the current bucket is checked.
+ * Entries which has been removed from the map (eg a reply was received) are lazily discarded from
+ * their bucket when the bucket is checked.
+ * <p/>
+ * No locks are used. New entries are added to a lock-free queue, and only the purge task moves them into
+ * the buckets of the wheel, so the wheel is only ever touched by one thread at a time which is guarded by
+ * a compare and set flag. The timed out entries are evicted after the wheel has been advanced, so a slow
+ * {@link ReplyHandler#onTimeout(String)} does not hold up the wheel.
+ *
+ * @version
+ */
+public class TimingWheelCorrelationMap extends ServiceSupport implements TimeoutMap<String, ReplyHandler> {
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(TimingWheelCorrelationMap.class);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final ConcurrentMap<String, WheelEntry> map = new ConcurrentHashMap<String, WheelEntry>();
+    private final ScheduledExecutorService executor;
+    private final long tickDuration;
+    private final Queue<WheelEntry> incoming = new ConcurrentLinkedQueue<WheelEntry>();
+    private final List<WheelEntry>[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final AtomicBoolean purging = new AtomicBoolean();
+    // only accessed by the thread which is purging
+    private long tick;
+
+    public TimingWheelCorrelationMap(ScheduledExecutorService executor, long tickDuration) {
+        this(executor, tickDuration, DEFAULT_WHEEL_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheelCorrelationMap(ScheduledExecutorService executor, long tickDuration, int wheelSize) {
+        ObjectHelper.notNull(executor, "ScheduledExecutorService");
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("TickDuration must be positive, was: " + tickDuration);
+        }
+        this.executor = executor;
+        this.tickDuration = tickDuration;
+        // use a power of two so we can use a bit mask to find the bucket
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new LinkedList<WheelEntry>();
+        }
+        this.mask = size - 1;
+        this.startTime = currentTime();
+    }
+
+    public ReplyHandler get(String key) {
+        WheelEntry entry = map.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public Object[] getKeys() {
+        return map.keySet().toArray();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public void put(String key, ReplyHandler value, long timeoutMillis) {
+        WheelEntry entry = new WheelEntry(key, value);
+        map.put(key, entry);
+        if (timeoutMillis > 0) {
+            // round up so we never timeout before the timeout has elapsed
+            long deadline = currentTime() - startTime + timeoutMillis;
+            entry.deadlineTick = (deadline + tickDuration - 1) / tickDuration;
+            // the purge task adds the entry to its bucket
+            incoming.add(entry);
+        }
+        LOG.trace("Added correlationID: {} to timeout after: {} millis", key, timeoutMillis);
+    }
+
+    public ReplyHandler remove(String key) {
+        WheelEntry entry = map.remove(key);
+        LOG.trace("Removed correlationID: {} -> {}", key, entry != null);
+        // the entry is discarded from its bucket when the bucket is checked next time
+        return entry != null ? entry.value : null;
+    }
+
+    public boolean onEviction(String key, ReplyHandler value) {
+        // trigger timeout
+        value.onTimeout(key);
+        LOG.trace("Evicted correlationID: {}", key);
+        return true;
+    }
+
+    /**
+     * The timer task which advances the wheel to the current time
+     */
+    public void run() {
+        // only run if allowed
+        if (!isRunAllowed()) {
+            LOG.trace("Purge task not allowed to run");
+            return;
+        }
+
+        try {
+            purge();
+        } catch (Throwable t) {
+            // must catch and log exception otherwise the executor will now schedule next run
+            LOG.warn("Exception occurred during purge task. This exception will be ignored.", t);
+        }
+    }
+
+    public void purge() {
+        if (!purging.compareAndSet(false, true)) {
+            // another thread is advancing the wheel
+            return;
+        }
+
+        List<WheelEntry> expired = new ArrayList<WheelEntry>();
+        try {
+            // the wheel may already have passed the deadline of the new entries so they timeout at this tick at the earliest
+            WheelEntry entry;
+            while ((entry = incoming.poll()) != null) {
+                entry.deadlineTick = Math.max(entry.deadlineTick, tick);
+                wheel[(int) (entry.deadlineTick & mask)].add(entry);
+            }
+
+            long target = (currentTime() - startTime) / tickDuration;
+            while (tick <= target) {
+                expireBucket(tick, expired);
+                tick++;
+            }
+        } finally {
+            purging.set(false);
+        }
+
+        for (WheelEntry entry : expired) {
+            // only evict if no reply was received in the meantime
+            if (map.remove(entry.key, entry)) {
+                try {
+                    onEviction(entry.key, entry.value);
+                } catch (Throwable e) {
+                    LOG.warn("Exception occurred during eviction of correlationID: " + entry.key + ". This exception will be ignored.", e);
+                }
+            }
+        }
+    }
+
+    private void expireBucket(long currentTick, List<WheelEntry> expired) {
+        List<WheelEntry> bucket = wheel[(int) (currentTick & mask)];
+        for (Iterator<WheelEntry> it = bucket.iterator(); it.hasNext();) {
+            WheelEntry entry = it.next();
+            if (map.get(entry.key) != entry) {
+                // the entry has been removed or replaced so discard it
+                it.remove();
+            } else if (entry.deadlineTick <= currentTick) {
+                it.remove();
+                expired.add(entry);
+            }
+            // otherwise the entry will timeout in a later round of the wheel
+        }
+    }
+
+    public long getTickDuration() {
+        return tickDuration;
+    }
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("The ScheduledExecutorService is shutdown");
+        }
+        executor.scheduleWithFixedDelay(this, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // clear map if we stop
+        map.clear();
+        incoming.clear();
+        // if the purge task is running then it discards the entries as they are no longer in the map
+        if (purging.compareAndSet(false, true)) {
+            try {
+                for (List<WheelEntry> bucket : wheel) {
+                    bucket.clear();
+                }
+            } finally {
+                purging.set(false);
+            }
+        }
+    }
+
+    private static final class WheelEntry {
+        private final String key;
+        private final ReplyHandler value;
+        private long deadlineTick;
+
+        private WheelEntry(String key, ReplyHandler value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+import static org.apache.camel.component.jms.JmsComponent.jmsComponentAutoAcknowledge;
+
+/**
+ *
+ */
+public class JmsInOnlySendBatchTest extends CamelTestSupport {
+
+    private final AtomicInteger sends = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+
+    @Test
+    public void testSendBatch() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(20);
+        getMockEndpoint("mock:sent").expectedMessageCount(20);
+        // the callbacks must only be invoked after the batch has been committed
+        getMockEndpoint("mock:sent").allMessages().header("commits").isGreaterThan(0);
+
+        for (int i = 0; i < 20; i++) {
+            template.sendBody("seda:start", "Message " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        // 20 messages in batches of 10 is 2 commits
+        assertEquals(20, sends.get());
+        assertEquals(2, commits.get());
+        assertEquals(0, rollbacks.get());
+    }
+
+    @Test
+    public void testSendBatchRollback() throws Exception {
+        getMockEndpoint("mock:sent").expectedMessageCount(0);
+        // the whole batch fails as one of the sends failed
+        getMockEndpoint("mock:failed").expectedMessageCount(10);
+        getMockEndpoint("mock:failed").allMessages().header("rollbacks").isEqualTo(1);
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBody("seda:start", i == 5 ? "Kaboom" : "Message " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals(0, commits.get());
+        assertEquals(1, rollbacks.get());
+
+        // nothing was sent to the queue
+        getMockEndpoint("mock:result").setAssertPeriod(500);
+        getMockEndpoint("mock:result").expectedMessageCount(0);
+        getMockEndpoint("mock:result").assertIsSatisfied();
+    }
+
+    @Test
+    public void testSendBatchTimeout() throws Exception {
+        getMockEndpoint("mock:result").expectedBodiesReceived("Hello World");
+
+        // a single message should be sent when the batch timeout triggers
+        template.sendBody("batch:queue:batch?sendBatchSize=10&sendBatchTimeout=50", "Hello World");
+
+        assertMockEndpointsSatisfied();
+        assertEquals(1, sends.get());
+        assertEquals(1, commits.get());
+    }
+
+    @Test
+    public void testSendBatchEndpointConfiguration() throws Exception {
+        JmsEndpoint endpoint = context.getEndpoint("activemq:queue:batch?sendBatchSize=25&sendBatchTimeout=100", JmsEndpoint.class);
+        assertEquals(25, endpoint.getSendBatchSize());
+        assertEquals(100, endpoint.getSendBatchTimeout());
+    }
+
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext camelContext = super.createCamelContext();
+        ConnectionFactory connectionFactory = CamelJmsTestHelper.createConnectionFactory();
+        camelContext.addComponent("activemq", jmsComponentAutoAcknowledge(connectionFactory));
+        // count the sends and commits of the batches
+        camelContext.addComponent("batch", jmsComponentAutoAcknowledge(countingProxy(ConnectionFactory.class, connectionFactory)));
+        return camelContext;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                onException(Exception.class)
+                    .handled(true)
+                    .setHeader("rollbacks", method(rollbacks, "get"))
+                    .to("mock:failed");
+
+                // the batch timeout is long so the batches are only sent when they are full
+                from("seda:start?concurrentConsumers=20")
+                    .to("batch:queue:batch?sendBatchSize=10&sendBatchTimeout=5000")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            exchange.getIn().setHeader("commits", commits.get());
+                        }
+                    })
+                    .to("mock:sent");
+
+                from("activemq:queue:batch").to("mock:result");
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T countingProxy(Class<T> type, final Object target) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (target instanceof Session && "commit".equals(name)) {
+                    commits.incrementAndGet();
+                } else if (target instanceof Session && "rollback".equals(name)) {
+                    rollbacks.incrementAndGet();
+                } else if (target instanceof MessageProducer && "send".equals(name)) {
+                    for (Object arg : args) {
+                        if (arg instanceof TextMessage && "Kaboom".equals(((TextMessage) arg).getText())) {
+                            throw new JMSException("Forced send failure");
+                        }
+                    }
+                    sends.incrementAndGet();
+                }
+
+                Object answer;
+                try {
+                    answer = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (answer instanceof Connection) {
+                    return countingProxy(Connection.class, answer);
+                } else if (answer instanceof Session) {
+                    return countingProxy(Session.class, answer);
+                } else if (answer instanceof MessageProducer) {
+                    return countingProxy(MessageProducer.class, answer);
+                }
+                return answer;
+            }
+        });
+    }
+}
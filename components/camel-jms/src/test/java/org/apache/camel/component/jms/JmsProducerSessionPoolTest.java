@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.Session;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+import static org.apache.camel.component.jms.JmsComponent.jmsComponentAutoAcknowledge;
+
+/**
+ *
+ */
+public class JmsProducerSessionPoolTest extends CamelTestSupport {
+
+    @Test
+    public void testSessionPool() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBody("activemq:queue:foo", "Message " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        JmsEndpoint endpoint = context.getEndpoint("activemq:queue:foo", JmsEndpoint.class);
+        assertTrue(endpoint.isSessionPoolEnabled());
+        assertNotNull(endpoint.getSessionPool());
+        assertEquals(10, endpoint.getSessionPool().getBorrowCount());
+        // the session should be reused as we send from a single thread
+        assertEquals(1, endpoint.getSessionPoolIdleCount());
+        assertEquals(0, endpoint.getSessionPoolActiveCount());
+        assertTrue(endpoint.sessionPoolHealthCheck());
+    }
+
+    @Test
+    public void testSessionPoolInOut() throws Exception {
+        String reply = template.requestBody("activemq:queue:bar", "World", String.class);
+        assertEquals("Bye World", reply);
+
+        JmsEndpoint endpoint = context.getEndpoint("activemq:queue:bar", JmsEndpoint.class);
+        assertEquals(1, endpoint.getSessionPool().getBorrowCount());
+    }
+
+    @Test
+    public void testSessionPoolDisabled() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+
+        template.sendBody("activemq:queue:foo?sessionPoolEnabled=false", "Hello World");
+
+        assertMockEndpointsSatisfied();
+
+        JmsEndpoint endpoint = context.getEndpoint("activemq:queue:foo?sessionPoolEnabled=false", JmsEndpoint.class);
+        assertFalse(endpoint.isSessionPoolEnabled());
+        assertNull(endpoint.getSessionPool());
+        assertEquals(0, endpoint.getSessionPoolIdleCount());
+    }
+
+    @Test
+    public void testSessionPoolEviction() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+
+        template.sendBody("activemq:queue:foo?sessionPoolIdleTimeout=1", "Hello World");
+
+        assertMockEndpointsSatisfied();
+
+        JmsEndpoint endpoint = context.getEndpoint("activemq:queue:foo?sessionPoolIdleTimeout=1", JmsEndpoint.class);
+        Thread.sleep(10);
+        endpoint.getSessionPool().evictIdleSessions();
+        assertEquals(0, endpoint.getSessionPoolIdleCount());
+    }
+
+    @Test
+    public void testSessionPoolMaxProducers() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+        getMockEndpoint("mock:other").expectedMessageCount(2);
+
+        String uri = "activemq:queue:foo?sessionPoolMaxProducers=1";
+        template.sendBody(uri, "Hello World");
+        template.sendBodyAndHeader(uri, "Bye World", JmsConstants.JMS_DESTINATION_NAME, "other");
+        template.sendBodyAndHeader(uri, "Hi World", JmsConstants.JMS_DESTINATION_NAME, "other");
+
+        assertMockEndpointsSatisfied();
+
+        JmsSessionPool pool = context.getEndpoint(uri, JmsEndpoint.class).getSessionPool();
+        assertEquals(1, pool.getMaxProducers());
+        JmsSessionPool.PooledSession session = pool.borrowSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            // the producer for the first destination has been closed
+            assertEquals(1, session.getProducerCount());
+        } finally {
+            pool.returnSession(session);
+        }
+    }
+
+    @Test
+    public void testSessionPoolValidatesIdleSessionOnBorrow() throws Exception {
+        getMockEndpoint("mock:validate").expectedMessageCount(2);
+
+        template.sendBody("plain:queue:validate", "Hello World");
+
+        JmsSessionPool pool = context.getEndpoint("plain:queue:validate", JmsEndpoint.class).getSessionPool();
+        JmsSessionPool.PooledSession session = pool.borrowSession(false, Session.AUTO_ACKNOWLEDGE);
+        // simulate the session being closed while idle in the pool
+        session.getSession().close();
+        pool.returnSession(session);
+
+        template.sendBody("plain:queue:validate", "Bye World");
+
+        assertMockEndpointsSatisfied();
+
+        JmsSessionPool.PooledSession other = pool.borrowSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            assertNotSame(session, other);
+        } finally {
+            pool.returnSession(other);
+        }
+    }
+
+    @Test
+    public void testSessionPoolValidateIdleSessions() throws Exception {
+        getMockEndpoint("mock:validate").expectedMessageCount(1);
+
+        template.sendBody("plain:queue:validate", "Hello World");
+
+        assertMockEndpointsSatisfied();
+
+        JmsEndpoint endpoint = context.getEndpoint("plain:queue:validate", JmsEndpoint.class);
+        JmsSessionPool pool = endpoint.getSessionPool();
+        JmsSessionPool.PooledSession session = pool.borrowSession(false, Session.AUTO_ACKNOWLEDGE);
+        session.getSession().close();
+        pool.returnSession(session);
+        assertEquals(1, endpoint.getSessionPoolIdleCount());
+
+        pool.validateIdleSessions();
+        assertEquals(0, endpoint.getSessionPoolIdleCount());
+        assertTrue(pool.isHealthy());
+    }
+
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext camelContext = super.createCamelContext();
+        ConnectionFactory connectionFactory = CamelJmsTestHelper.createConnectionFactory();
+        JmsComponent component = jmsComponentAutoAcknowledge(connectionFactory);
+        component.setSessionPoolEnabled(true);
+        camelContext.addComponent("activemq", component);
+
+        // the sessions of a pooled connection factory cannot be closed, so use a plain connection factory
+        // for testing the validation of the sessions
+        ActiveMQConnectionFactory plain = new ActiveMQConnectionFactory("vm://session-pool-test?broker.persistent=false&broker.useJmx=false");
+        camelContext.addComponent("plain", jmsComponentAutoAcknowledge(plain));
+        return camelContext;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("activemq:queue:foo").to("mock:result");
+
+                from("activemq:queue:other").to("mock:other");
+
+                from("plain:queue:validate").to("mock:validate");
+
+                from("activemq:queue:bar").transform(body().prepend("Bye "));
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms;
+
+import javax.jms.ConnectionFactory;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.FailedToCreateProducerException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+import static org.apache.camel.component.jms.JmsComponent.jmsComponentAutoAcknowledge;
+
+/**
+ * @version
+ */
+public class JmsRequestReplyHighThroughputTest extends CamelTestSupport {
+
+    @Test
+    public void testTemporaryReplyTo() throws Exception {
+        assertEquals("Hello A", template.requestBody("activemq:queue:foo?highThroughputReplyManager=true", "A"));
+        assertEquals("Hello B", template.requestBody("activemq:queue:foo?highThroughputReplyManager=true", "B"));
+    }
+
+    @Test
+    public void testPersistentReplyTo() throws Exception {
+        // uses an exclusive reply queue by default
+        assertEquals("Hello A", template.requestBody("activemq:queue:foo?replyTo=bar&highThroughputReplyManager=true", "A"));
+        assertEquals("Hello B", template.requestBody("activemq:queue:foo?replyTo=bar&highThroughputReplyManager=true", "B"));
+    }
+
+    @Test
+    public void testSharedReplyToFixedSelector() throws Exception {
+        String uri = "activemq:queue:foo?replyTo=bar&replyToType=Shared&replyToDestinationSelectorName=mySelector&highThroughputReplyManager=true";
+        assertEquals("Hello A", template.requestBody(uri, "A"));
+        assertEquals("Hello B", template.requestBody(uri, "B"));
+    }
+
+    @Test
+    public void testSharedReplyToDynamicSelectorNotSupported() throws Exception {
+        try {
+            template.requestBody("activemq:queue:foo?replyTo=bar&replyToType=Shared&highThroughputReplyManager=true", "A");
+            fail("Should have thrown exception");
+        } catch (CamelExecutionException e) {
+            assertIsInstanceOf(FailedToCreateProducerException.class, e.getCause());
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        try {
+            template.requestBody("activemq:queue:slow?highThroughputReplyManager=true&requestTimeout=500", "A");
+            fail("Should have thrown exception");
+        } catch (CamelExecutionException e) {
+            assertIsInstanceOf(ExchangeTimedOutException.class, e.getCause());
+        }
+    }
+
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext camelContext = super.createCamelContext();
+        ConnectionFactory connectionFactory = CamelJmsTestHelper.createConnectionFactory();
+        camelContext.addComponent("activemq", jmsComponentAutoAcknowledge(connectionFactory));
+        return camelContext;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("activemq:queue:foo")
+                    .transform(body().prepend("Hello "));
+
+                from("activemq:queue:slow")
+                    .delay(2000)
+                    .transform(body().prepend("Hello "));
+            }
+        };
+    }
+}
@@ -51,7 +51,10 @@ public class JmsRequestReplySharedReplyToTest extends CamelTestSupport {
     protected CamelContext createCamelContext() throws Exception {
         CamelContext camelContext = super.createCamelContext();
         ConnectionFactory connectionFactory = CamelJmsTestHelper.createConnectionFactory();
-        camelContext.addComponent("activemq", jmsComponentAutoAcknowledge(connectionFactory));
+        JmsComponent component = jmsComponentAutoAcknowledge(connectionFactory);
+        // measure the message selector latency without the producer session pool
+        component.setSessionPoolEnabled(false);
+        camelContext.addComponent("activemq", component);
         return camelContext;
     }
 
@@ -86,6 +86,8 @@ public class TwoConsumerOnSameTopicTest extends CamelTestSupport {
 
         // now start route A
         context.startRoute("a");
+        // give a bit of time for AMQ to properly setup the topic subscriber again
+        Thread.sleep(500);
 
         // send new message should go to both A and B
         resetMocks();
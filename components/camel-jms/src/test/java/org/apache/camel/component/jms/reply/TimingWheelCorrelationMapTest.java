@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms.reply;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+
+import junit.framework.TestCase;
+
+/**
+ * @version
+ */
+public class TimingWheelCorrelationMapTest extends TestCase {
+
+    private ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1);
+    private List<String> timeouts = new CopyOnWriteArrayList<String>();
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testGetRemove() throws Exception {
+        TimingWheelCorrelationMap map = new TimingWheelCorrelationMap(executor, 100);
+        map.start();
+
+        ReplyHandler handler = new MyReplyHandler();
+        map.put("A", handler, 5000);
+        assertEquals(1, map.size());
+        assertSame(handler, map.get("A"));
+        assertEquals(1, map.getKeys().length);
+
+        assertSame(handler, map.remove("A"));
+        assertNull(map.get("A"));
+        assertEquals(0, map.size());
+
+        map.stop();
+    }
+
+    public void testTimeout() throws Exception {
+        TimingWheelCorrelationMap map = new TimingWheelCorrelationMap(executor, 50);
+        map.start();
+
+        map.put("A", new MyReplyHandler(), 100);
+        map.put("B", new MyReplyHandler(), 10000);
+        assertEquals(2, map.size());
+
+        Thread.sleep(500);
+
+        assertEquals(1, map.size());
+        assertNull(map.get("A"));
+        assertNotNull(map.get("B"));
+        assertEquals(1, timeouts.size());
+        assertEquals("A", timeouts.get(0));
+
+        map.stop();
+    }
+
+    public void testNoTimeoutAfterRemove() throws Exception {
+        TimingWheelCorrelationMap map = new TimingWheelCorrelationMap(executor, 50);
+        map.start();
+
+        map.put("A", new MyReplyHandler(), 100);
+        map.remove("A");
+
+        // put again with a longer timeout, the old entry in the wheel must not timeout the new entry
+        map.put("A", new MyReplyHandler(), 10000);
+
+        Thread.sleep(500);
+
+        assertEquals(1, map.size());
+        assertEquals(0, timeouts.size());
+
+        map.stop();
+    }
+
+    public void testTimeoutAfterFullRoundOfWheel() throws Exception {
+        // a small wheel so the timeout is longer than a full round of the wheel
+        TimingWheelCorrelationMap map = new TimingWheelCorrelationMap(executor, 20, 4);
+        map.start();
+
+        map.put("A", new MyReplyHandler(), 300);
+
+        Thread.sleep(200);
+        assertEquals(1, map.size());
+        assertEquals(0, timeouts.size());
+
+        Thread.sleep(400);
+        assertEquals(0, map.size());
+        assertEquals(1, timeouts.size());
+
+        map.stop();
+    }
+
+    public void testTimeoutWhilePurging() throws Exception {
+        // a missed bucket would only be checked again after a full round of the wheel of 5 seconds
+        final TimingWheelCorrelationMap map = new TimingWheelCorrelationMap(executor, 10);
+        map.start();
+
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            final int id = i;
+            producers.submit(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        map.put(id + "-" + j, new MyReplyHandler(), 1 + j % 20);
+                    }
+                }
+            });
+        }
+        producers.shutdown();
+        assertTrue(producers.awaitTermination(10, TimeUnit.SECONDS));
+
+        Thread.sleep(1000);
+
+        assertEquals(0, map.size());
+        assertEquals(2000, timeouts.size());
+
+        map.stop();
+    }
+
+    public void testSlowTimeoutDoesNotBlockPut() throws Exception {
+        final CountDownLatch timingOut = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TimingWheelCorrelationMap map = new TimingWheelCorrelationMap(executor, 10);
+        map.start();
+
+        map.put("A", new MyReplyHandler() {
+            @Override
+            public void onTimeout(String correlationId) {
+                timingOut.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                super.onTimeout(correlationId);
+            }
+        }, 20);
+        assertTrue(timingOut.await(5, TimeUnit.SECONDS));
+
+        // the timeout of A is in progress, which must not hold up adding and purging other entries
+        long start = System.currentTimeMillis();
+        map.put("B", new MyReplyHandler(), 10000);
+        map.purge();
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertNotNull(map.get("B"));
+
+        release.countDown();
+        map.stop();
+    }
+
+    public void testInvalidTickDuration() throws Exception {
+        try {
+            new TimingWheelCorrelationMap(executor, 0);
+            fail("Should have thrown an exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("TickDuration must be positive, was: 0", e.getMessage());
+        }
+    }
+
+    private class MyReplyHandler implements ReplyHandler {
+
+        public void onReply(String correlationId, Message reply) {
+            // noop
+        }
+
+        public void onTimeout(String correlationId) {
+            timeouts.add(correlationId);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.jms.tuning;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.jms.ConnectionFactory;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Producer;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.jms.CamelJmsTestHelper;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.apache.camel.util.AsyncProcessorConverterHelper;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.apache.camel.component.jms.JmsComponent.jmsComponentAutoAcknowledge;
+
+/**
+ * Sends 10000 in-flight request/reply messages to compare the default and the high throughput reply manager.
+ *
+ * @version
+ */
+@Ignore
+public class PerformanceRequestReplyTest extends CamelTestSupport {
+
+    private int size = 10000;
+
+    @Test
+    public void testTemporaryQueue() throws Exception {
+        doSendRequests("activemq:queue:inbox");
+    }
+
+    @Test
+    public void testTemporaryQueueHighThroughput() throws Exception {
+        doSendRequests("activemq:queue:inbox?highThroughputReplyManager=true");
+    }
+
+    @Test
+    public void testExclusiveQueue() throws Exception {
+        doSendRequests("activemq:queue:inbox?replyTo=outbox&replyToType=Exclusive");
+    }
+
+    @Test
+    public void testExclusiveQueueHighThroughput() throws Exception {
+        doSendRequests("activemq:queue:inbox?replyTo=outbox&highThroughputReplyManager=true");
+    }
+
+    private void doSendRequests(String uri) throws Exception {
+        Endpoint endpoint = context.getEndpoint(uri + (uri.contains("?") ? "&" : "?") + "requestTimeout=120000");
+        Producer producer = endpoint.createProducer();
+        producer.start();
+        AsyncProcessor processor = AsyncProcessorConverterHelper.convert(producer);
+
+        final CountDownLatch latch = new CountDownLatch(size);
+        final AtomicInteger failed = new AtomicInteger();
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            final Exchange exchange = endpoint.createExchange(ExchangePattern.InOut);
+            exchange.getIn().setBody("Message " + i);
+            // the JMS producer does not wait for the reply, so all the requests are in-flight at the same time
+            processor.process(exchange, new AsyncCallback() {
+                public void done(boolean doneSync) {
+                    if (exchange.getException() != null) {
+                        failed.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue("Should receive all replies", latch.await(2, TimeUnit.MINUTES));
+        long delta = System.currentTimeMillis() - start;
+        producer.stop();
+
+        assertEquals(0, failed.get());
+        System.out.println("PerformanceRequestReplyTest: " + uri + " Sent: " + size + " Took: " + delta + " ms");
+    }
+
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext camelContext = super.createCamelContext();
+
+        ConnectionFactory connectionFactory = CamelJmsTestHelper.createConnectionFactory();
+        camelContext.addComponent("activemq", jmsComponentAutoAcknowledge(connectionFactory));
+
+        return camelContext;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("activemq:queue:inbox?concurrentConsumers=10")
+                    .transform(body().prepend("Bye "));
+            }
+        };
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.camel.component.jms.tx;
 
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.jms.JmsEndpoint;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.test.junit4.CamelSpringTestSupport;
 import org.junit.Test;
@@ -47,6 +48,10 @@ public class JmsToJmsTransactedTest extends CamelSpringTestSupport {
 
         String reply = consumer.receiveBody("activemq:queue:bar", 5000, String.class);
         assertEquals("Hello World", reply);
+
+        // the message must be sent as part of the transaction, and not using the session pool
+        JmsEndpoint bar = context.getEndpoint("activemq:queue:bar", JmsEndpoint.class);
+        assertEquals(0, bar.getSessionPool().getBorrowCount());
     }
 
     @Test
@@ -18,13 +18,19 @@ package org.apache.camel.component.leveldb;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
 import org.apache.camel.Exchange;
+import org.apache.camel.spi.ExchangeCodec;
 import org.apache.camel.spi.RecoverableAggregationRepository;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.ObjectHelper;
@@ -40,10 +46,11 @@ import static org.fusesource.leveldbjni.JniDBFactory.asString;
 /**
  * An instance of {@link org.apache.camel.spi.AggregationRepository} which is backed by a {@link LevelDBFile}.
  */
-public class LevelDBAggregationRepository extends ServiceSupport implements RecoverableAggregationRepository {
+public class LevelDBAggregationRepository extends ServiceSupport implements RecoverableAggregationRepository, CamelContextAware {
 
     private static final transient Logger LOG = LoggerFactory.getLogger(LevelDBAggregationRepository.class);
     private LevelDBFile levelDBFile;
+    private CamelContext camelContext;
     private String persistentFileName;
     private String repositoryName;
     private boolean returnOldExchange;
@@ -52,6 +59,8 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
     private boolean useRecovery = true;
     private int maximumRedeliveries;
     private String deadLetterUri;
+    private boolean deltaMode;
+    private final Map<String, Integer> deltaSequences = new ConcurrentHashMap<String, Integer>();
 
     /**
      * Creates an aggregation repository
@@ -98,6 +107,10 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
 
     public Exchange add(final CamelContext camelContext, final String key, final Exchange exchange) {
         LOG.debug("Adding key [{}] -> {}", key, exchange);
+        if (isDeltaMode()) {
+            return addDelta(camelContext, key, exchange);
+        }
+
         try {
             byte[] lDbKey = keyBuilder(repositoryName, key);
             final Buffer exchangeBuffer = codec.marshallExchange(camelContext, exchange);
@@ -108,7 +121,7 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
             }
 
             LOG.trace("Adding key index {} for repository {}", key, repositoryName);
-            levelDBFile.getDb().put(lDbKey, exchangeBuffer.toByteArray(), levelDBFile.getWriteOptions());
+            levelDBFile.put(lDbKey, exchangeBuffer.toByteArray());
             LOG.trace("Added key index {}", key);
 
             if (rc == null) {
@@ -136,6 +149,11 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
 
             if (rc != null) {
                 answer = codec.unmarshallExchange(camelContext, new Buffer(rc));
+                if (isDeltaMode()) {
+                    // the grouped exchanges are only materialized on completion, so start with an empty group
+                    // which the aggregation strategy adds the new exchanges to
+                    answer.setProperty(Exchange.GROUPED_EXCHANGE, new ArrayList<Exchange>());
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Error getting key " + key + " from repository " + repositoryName, e);
@@ -157,8 +175,11 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
             byte[] rc = levelDBFile.getDb().get(lDbKey);
 
             if (rc != null) {
-                WriteBatch batch = levelDBFile.getDb().createWriteBatch();
+                WriteBatch batch = levelDBFile.createWriteBatch();
                 try {
+                    if (isDeltaMode()) {
+                        appendDeltas(camelContext, batch, exchange);
+                    }
                     batch.delete(lDbKey);
                     LOG.trace("Removed key index {} -> {}", key, new Buffer(rc));
 
@@ -167,10 +188,15 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
                     batch.put(confirmedLDBKey, exchangeBuffer.toByteArray());
                     LOG.trace("Added confirm index {} for repository {}", exchangeId, getRepositoryNameCompleted());
 
-                    levelDBFile.getDb().write(batch, levelDBFile.getWriteOptions());
+                    levelDBFile.write(batch);
                 } finally {
                     batch.close();
                 }
+
+                if (isDeltaMode()) {
+                    // materialize the complete group on the exchange
+                    exchange.setProperty(Exchange.GROUPED_EXCHANGE, loadDeltas(camelContext, exchangeId));
+                }
             } else {
                 LOG.warn("Unable to remove key {} from repository {}: Not Found", key, repositoryName);
             }
@@ -188,7 +214,19 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
         byte[] rc = levelDBFile.getDb().get(confirmedLDBKey);
 
         if (rc != null) {
-            levelDBFile.getDb().delete(confirmedLDBKey);
+            if (isDeltaMode()) {
+                WriteBatch batch = levelDBFile.createWriteBatch();
+                try {
+                    batch.delete(confirmedLDBKey);
+                    deleteDeltas(batch, exchangeId);
+                    levelDBFile.write(batch);
+                } finally {
+                    batch.close();
+                }
+                deltaSequences.remove(exchangeId);
+            } else {
+                levelDBFile.delete(confirmedLDBKey);
+            }
             LOG.trace("Removed confirm index {} -> {}", exchangeId, new Buffer(rc));
         } else {
             LOG.warn("Unable to confirm exchangeId [{}]", exchangeId + " from repository " + repositoryName + ": Not Found");
@@ -286,6 +324,9 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
 
             if (rc != null) {
                 answer = codec.unmarshallExchange(camelContext, new Buffer(rc));
+                if (isDeltaMode()) {
+                    answer.setProperty(Exchange.GROUPED_EXCHANGE, loadDeltas(camelContext, exchangeId));
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Error recovering exchangeId " + exchangeId + " from repository " + repositoryName, e);
@@ -295,6 +336,120 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
         return answer;
     }
 
+    private Exchange addDelta(final CamelContext camelContext, final String key, final Exchange exchange) {
+        try {
+            byte[] lDbKey = keyBuilder(repositoryName, key);
+
+            byte[] rc = null;
+            if (isReturnOldExchange()) {
+                rc = levelDBFile.getDb().get(lDbKey);
+            }
+
+            WriteBatch batch = levelDBFile.createWriteBatch();
+            try {
+                // append the new exchanges of the group, and store the aggregated exchange without the group
+                appendDeltas(camelContext, batch, exchange);
+                batch.put(lDbKey, codec.marshallExchange(camelContext, exchange).toByteArray());
+                levelDBFile.write(batch);
+            } finally {
+                batch.close();
+            }
+            LOG.trace("Added key index {}", key);
+
+            // only return old exchange if enabled
+            if (rc != null) {
+                Exchange answer = codec.unmarshallExchange(camelContext, new Buffer(rc));
+                answer.setProperty(Exchange.GROUPED_EXCHANGE, new ArrayList<Exchange>());
+                return answer;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error adding to repository " + repositoryName + " with key " + key, e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Appends the exchanges in the group of the aggregated exchange, which have been added
+     * since the aggregated exchange was retrieved from this repository.
+     */
+    @SuppressWarnings("unchecked")
+    private void appendDeltas(CamelContext camelContext, WriteBatch batch, Exchange exchange) throws IOException {
+        List<Exchange> group = exchange.getProperty(Exchange.GROUPED_EXCHANGE, List.class);
+        if (group == null || group.isEmpty()) {
+            return;
+        }
+
+        String exchangeId = exchange.getExchangeId();
+        Integer sequence = deltaSequences.get(exchangeId);
+        if (sequence == null) {
+            // such as after a restart
+            sequence = countDeltas(exchangeId);
+        }
+        for (Exchange delta : group) {
+            batch.put(deltaKey(exchangeId, sequence++), codec.marshallExchange(camelContext, delta).toByteArray());
+        }
+        deltaSequences.put(exchangeId, sequence);
+        LOG.trace("Appended {} exchanges to the group of exchangeId {}", group.size(), exchangeId);
+    }
+
+    private List<Exchange> loadDeltas(CamelContext camelContext, String exchangeId) throws IOException {
+        List<Exchange> answer = new ArrayList<Exchange>();
+        String prefix = getRepositoryNameDelta() + '\0' + exchangeId + '\0';
+        DBIterator it = levelDBFile.getDb().iterator();
+        try {
+            for (it.seek(keyBuilder(getRepositoryNameDelta(), exchangeId + '\0')); it.hasNext(); it.next()) {
+                Map.Entry<byte[], byte[]> entry = it.peekNext();
+                if (!asString(entry.getKey()).startsWith(prefix)) {
+                    break;
+                }
+                answer.add(codec.unmarshallExchange(camelContext, new Buffer(entry.getValue())));
+            }
+        } finally {
+            // Make sure you close the iterator to avoid resource leaks.
+            it.close();
+        }
+        return answer;
+    }
+
+    private void deleteDeltas(WriteBatch batch, String exchangeId) {
+        String prefix = getRepositoryNameDelta() + '\0' + exchangeId + '\0';
+        DBIterator it = levelDBFile.getDb().iterator();
+        try {
+            for (it.seek(keyBuilder(getRepositoryNameDelta(), exchangeId + '\0')); it.hasNext(); it.next()) {
+                byte[] key = it.peekNext().getKey();
+                if (!asString(key).startsWith(prefix)) {
+                    break;
+                }
+                batch.delete(key);
+            }
+        } finally {
+            it.close();
+        }
+    }
+
+    private int countDeltas(String exchangeId) {
+        String prefix = getRepositoryNameDelta() + '\0' + exchangeId + '\0';
+        int count = 0;
+        DBIterator it = levelDBFile.getDb().iterator();
+        try {
+            for (it.seek(keyBuilder(getRepositoryNameDelta(), exchangeId + '\0')); it.hasNext(); it.next()) {
+                if (!asString(it.peekNext().getKey()).startsWith(prefix)) {
+                    break;
+                }
+                count++;
+            }
+        } finally {
+            it.close();
+        }
+        return count;
+    }
+
+    private byte[] deltaKey(String exchangeId, int sequence) {
+        // pad the sequence so the deltas are sorted in the order they were added
+        return keyBuilder(getRepositoryNameDelta(), exchangeId + '\0' + String.format("%010d", sequence));
+    }
+
     private int size(final String repositoryName) {
         DBIterator it = levelDBFile.getDb().iterator();
 
@@ -332,10 +487,26 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
         return repositoryName + "-completed";
     }
 
+    private String getRepositoryNameDelta() {
+        return repositoryName + "-delta";
+    }
+
     public void setRepositoryName(String repositoryName) {
         this.repositoryName = repositoryName;
     }
 
+    public ExchangeCodec getExchangeCodec() {
+        return codec.getExchangeCodec();
+    }
+
+    /**
+     * Sets the codec used for marshalling the exchanges, which by default is the compact
+     * {@link org.apache.camel.impl.BinaryExchangeCodec}. Set to <tt>null</tt> to use Java serialization.
+     */
+    public void setExchangeCodec(ExchangeCodec exchangeCodec) {
+        codec.setExchangeCodec(exchangeCodec);
+    }
+
     public boolean isReturnOldExchange() {
         return returnOldExchange;
     }
@@ -380,6 +551,32 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
         this.deadLetterUri = deadLetterUri;
     }
 
+    public boolean isDeltaMode() {
+        return deltaMode;
+    }
+
+    /**
+     * Whether to store the aggregated exchanges as deltas, which requires an aggregation strategy that
+     * aggregates lazily by grouping the exchanges in a {@link List} stored as the
+     * {@link Exchange#GROUPED_EXCHANGE} property, such as
+     * {@link org.apache.camel.processor.aggregate.GroupedExchangeAggregationStrategy}.
+     * <p/>
+     * Each time an exchange is added to a group, only the new exchange is appended to the repository
+     * instead of rewriting the entire group. The group retrieved by {@link #get(CamelContext, String)}
+     * is therefore empty, and the group is only materialized on completion and recovery.
+     */
+    public void setDeltaMode(boolean deltaMode) {
+        this.deltaMode = deltaMode;
+    }
+
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
     public String getPersistentFileName() {
         return persistentFileName;
     }
@@ -400,6 +597,10 @@ public class LevelDBAggregationRepository extends ServiceSupport implements Reco
         ObjectHelper.notNull(levelDBFile, "Either set a persistentFileName or a levelDBFile");
         ObjectHelper.notNull(repositoryName, "repositoryName");
 
+        if (camelContext != null && levelDBFile.getExecutorServiceManager() == null) {
+            // use a thread from camel for the group commits
+            levelDBFile.setExecutorServiceManager(camelContext.getExecutorServiceManager());
+        }
         ServiceHelper.startService(levelDBFile);
 
         // log number of existing exchanges
@@ -19,10 +19,12 @@ package org.apache.camel.component.leveldb;
 import java.io.IOException;
 
 import org.apache.camel.CamelContext;
-import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
+import org.apache.camel.impl.BinaryExchangeCodec;
 import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.impl.DefaultExchangeHolder;
+import org.apache.camel.impl.ExchangeCodecHelper;
+import org.apache.camel.spi.ExchangeCodec;
 import org.fusesource.hawtbuf.Buffer;
 import org.fusesource.hawtbuf.DataByteArrayInputStream;
 import org.fusesource.hawtbuf.DataByteArrayOutputStream;
@@ -31,12 +33,28 @@ import org.fusesource.hawtbuf.codec.ObjectCodec;
 import org.fusesource.hawtbuf.codec.StringCodec;
 
 /**
+ * Marshals the exchanges using a {@link ExchangeCodec}, which by default is the {@link BinaryExchangeCodec}.
+ * <p/>
+ * Exchanges stored using Java serialization by previous releases can still be unmarshalled.
+ *
  * @version 
  */
 public final class LevelDBCamelCodec {
 
     private Codec<String> keyCodec = new StringCodec();
-    private Codec<DefaultExchangeHolder> exchangeCodec = new ObjectCodec<DefaultExchangeHolder>();
+    private Codec<DefaultExchangeHolder> serializationCodec = new ObjectCodec<DefaultExchangeHolder>();
+    private ExchangeCodec exchangeCodec = new BinaryExchangeCodec();
+
+    public ExchangeCodec getExchangeCodec() {
+        return exchangeCodec;
+    }
+
+    /**
+     * Sets the codec used for marshalling the exchanges, or <tt>null</tt> to use Java serialization.
+     */
+    public void setExchangeCodec(ExchangeCodec exchangeCodec) {
+        this.exchangeCodec = exchangeCodec;
+    }
 
     public Buffer marshallKey(String key) throws IOException {
         DataByteArrayOutputStream baos = new DataByteArrayOutputStream();
@@ -51,6 +69,10 @@ public final class LevelDBCamelCodec {
     }
 
     public Buffer marshallExchange(CamelContext camelContext, Exchange exchange) throws IOException {
+        if (exchangeCodec != null) {
+            return new Buffer(exchangeCodec.marshal(exchange, ExchangeCodecHelper.retainedProperties(exchange)));
+        }
+
         DataByteArrayOutputStream baos = new DataByteArrayOutputStream();
         // use DefaultExchangeHolder to marshal to a serialized object
         DefaultExchangeHolder pe = DefaultExchangeHolder.marshal(exchange, false);
@@ -65,23 +87,22 @@ public final class LevelDBCamelCodec {
         if (exchange.getFromEndpoint() != null) {
             DefaultExchangeHolder.addProperty(pe, "CamelAggregatedFromEndpoint", exchange.getFromEndpoint().getEndpointUri());
         }
-        exchangeCodec.encode(pe, baos);
+        serializationCodec.encode(pe, baos);
         return baos.toBuffer();
     }
 
     public Exchange unmarshallExchange(CamelContext camelContext, Buffer buffer) throws IOException {
-        DataByteArrayInputStream bais = new DataByteArrayInputStream(buffer);
-        DefaultExchangeHolder pe = exchangeCodec.decode(bais);
-        Exchange answer = new DefaultExchange(camelContext);
-        DefaultExchangeHolder.unmarshal(answer, pe);
-        // restore the from endpoint
-        String fromEndpointUri = (String) answer.removeProperty("CamelAggregatedFromEndpoint");
-        if (fromEndpointUri != null) {
-            Endpoint fromEndpoint = camelContext.hasEndpoint(fromEndpointUri);
-            if (fromEndpoint != null) {
-                answer.setFromEndpoint(fromEndpoint);
-            }
+        Exchange answer;
+        if (exchangeCodec != null && !ExchangeCodecHelper.isJavaSerialized(buffer.getData(), buffer.getOffset() + 4, buffer.getLength() - 4)) {
+            answer = exchangeCodec.unmarshal(camelContext, buffer.toByteArray());
+        } else {
+            DataByteArrayInputStream bais = new DataByteArrayInputStream(buffer);
+            DefaultExchangeHolder pe = serializationCodec.decode(bais);
+            answer = new DefaultExchange(camelContext);
+            DefaultExchangeHolder.unmarshal(answer, pe);
         }
+        // restore the from endpoint
+        ExchangeCodecHelper.restoreFromEndpoint(camelContext, answer);
         return answer;
     }
 
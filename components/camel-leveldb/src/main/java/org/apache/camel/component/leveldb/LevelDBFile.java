@@ -18,11 +18,22 @@ package org.apache.camel.component.leveldb;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.Service;
+import org.apache.camel.spi.ExecutorServiceManager;
+import org.apache.camel.util.concurrent.CamelThreadFactory;
 import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.DB;
 import org.iq80.leveldb.Options;
+import org.iq80.leveldb.WriteBatch;
 import org.iq80.leveldb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +45,9 @@ import static org.fusesource.leveldbjni.JniDBFactory.factory;
  * <p/>
  * Will by default not sync writes which allows it to be faster.
  * You can force syncing by setting the sync option to <tt>true</tt>.
+ * <p/>
+ * When syncing, the group commit option allows to coalesce the writes from many concurrent threads
+ * into a single write and sync, instead of a sync per write.
  */
 public class LevelDBFile implements Service {
 
@@ -50,6 +64,14 @@ public class LevelDBFile implements Service {
     private boolean paranoidChecks;
     private long cacheSize = 32 << 20;
     private boolean sync;
+    private boolean groupCommit;
+    private long groupCommitMaxDelay = 2;
+    private long groupCommitTimeout = 30000;
+    private ExecutorServiceManager executorServiceManager;
+    private final BlockingQueue<GroupCommitWriteBatch> pendingWrites = new LinkedBlockingQueue<GroupCommitWriteBatch>();
+    private volatile boolean groupCommitRunning;
+    private ExecutorService groupCommitExecutor;
+    private CountDownLatch groupCommitDone;
 
     public DB getDb() {
         return db;
@@ -143,12 +165,113 @@ public class LevelDBFile implements Service {
         this.sync = sync;
     }
 
+    public boolean isGroupCommit() {
+        return groupCommit;
+    }
+
+    /**
+     * Whether to coalesce the writes from concurrent threads into a single write to LevelDB.
+     * Each thread is blocked until its write has been written, and synced if the sync option is enabled.
+     */
+    public void setGroupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    public long getGroupCommitMaxDelay() {
+        return groupCommitMaxDelay;
+    }
+
+    /**
+     * The maximum time in millis to wait for other writes to join a group commit. Default is 2 millis.
+     * Use 0 to only group the writes which are pending while the previous group is being written.
+     */
+    public void setGroupCommitMaxDelay(long groupCommitMaxDelay) {
+        this.groupCommitMaxDelay = groupCommitMaxDelay;
+    }
+
+    public long getGroupCommitTimeout() {
+        return groupCommitTimeout;
+    }
+
+    /**
+     * The maximum time in millis a thread waits for its write to be written as part of a group commit.
+     * Default is 30000 millis. If the timeout is hit the write fails, but may still be written later.
+     */
+    public void setGroupCommitTimeout(long groupCommitTimeout) {
+        this.groupCommitTimeout = groupCommitTimeout;
+    }
+
+    public ExecutorServiceManager getExecutorServiceManager() {
+        return executorServiceManager;
+    }
+
+    /**
+     * The manager to create the thread which writes the group commits. If not set a daemon thread is created.
+     */
+    public void setExecutorServiceManager(ExecutorServiceManager executorServiceManager) {
+        this.executorServiceManager = executorServiceManager;
+    }
+
     public WriteOptions getWriteOptions() {
         WriteOptions options = new WriteOptions();
         options.sync(sync);
         return options;
     }
 
+    /**
+     * Creates a write batch to be written using {@link #write(WriteBatch)}.
+     */
+    public WriteBatch createWriteBatch() {
+        return groupCommit ? new GroupCommitWriteBatch() : db.createWriteBatch();
+    }
+
+    /**
+     * Writes the batch using the write options, and waits for the batch to be written
+     * as part of a group commit if enabled.
+     */
+    public void write(WriteBatch batch) {
+        if (batch instanceof GroupCommitWriteBatch) {
+            GroupCommitWriteBatch pending = (GroupCommitWriteBatch) batch;
+            if (!groupCommitRunning) {
+                throw new IllegalStateException("LevelDB is not started using file " + getFile());
+            }
+            pendingWrites.add(pending);
+            if (!groupCommitRunning && pendingWrites.remove(pending)) {
+                // we were stopped in the meantime
+                throw new IllegalStateException("LevelDB is not started using file " + getFile());
+            }
+            if (!pending.await(groupCommitTimeout)) {
+                if (pendingWrites.remove(pending)) {
+                    throw new IllegalStateException("Timeout waiting " + groupCommitTimeout + " millis for group commit using file " + getFile());
+                }
+                throw new IllegalStateException("Timeout waiting " + groupCommitTimeout + " millis for group commit using file "
+                        + getFile() + ". The write may still be written.");
+            }
+        } else {
+            db.write(batch, getWriteOptions());
+        }
+    }
+
+    public void put(byte[] key, byte[] value) {
+        WriteBatch batch = createWriteBatch();
+        try {
+            batch.put(key, value);
+            write(batch);
+        } finally {
+            batch.close();
+        }
+    }
+
+    public void delete(byte[] key) {
+        WriteBatch batch = createWriteBatch();
+        try {
+            batch.delete(key);
+            write(batch);
+        } finally {
+            batch.close();
+        }
+    }
+
     public void start() {
         if (getFile() == null) {
             throw new IllegalArgumentException("A file must be configured");
@@ -175,15 +298,176 @@ public class LevelDBFile implements Service {
         } catch (IOException ioe) {
             throw new RuntimeException("Error opening LevelDB with file " + getFile(), ioe);
         }
+
+        if (groupCommit && groupCommitExecutor == null) {
+            String name = "LevelDBGroupCommit[" + getFile().getName() + "]";
+            if (executorServiceManager != null) {
+                groupCommitExecutor = executorServiceManager.newSingleThreadExecutor(this, name);
+            } else {
+                groupCommitExecutor = Executors.newSingleThreadExecutor(new CamelThreadFactory("#name#", name, true));
+            }
+            groupCommitDone = new CountDownLatch(1);
+            groupCommitRunning = true;
+            groupCommitExecutor.execute(new GroupCommitTask());
+        }
     }
 
     public void stop() {
         File file = getFile();
 
         LOG.debug("Stopping LevelDB using file: {}", file);
+        if (groupCommitExecutor != null) {
+            // interrupt the group commit thread which writes the pending writes before it terminates
+            groupCommitRunning = false;
+            if (executorServiceManager != null) {
+                executorServiceManager.shutdownNow(groupCommitExecutor);
+            } else {
+                groupCommitExecutor.shutdownNow();
+            }
+            groupCommitExecutor = null;
+            try {
+                if (!groupCommitDone.await(5000, TimeUnit.MILLISECONDS)) {
+                    LOG.warn("Timeout waiting for the pending group commit to be written using file: {}", file);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         if (db != null) {
             db.close();
             db = null;
         }
     }
+
+    /**
+     * Writes the pending batches as a single write batch.
+     */
+    private void writeGroup(List<GroupCommitWriteBatch> group) {
+        RuntimeException cause = null;
+        try {
+            WriteBatch batch = db.createWriteBatch();
+            try {
+                for (GroupCommitWriteBatch pending : group) {
+                    pending.applyTo(batch);
+                }
+                db.write(batch, getWriteOptions());
+                LOG.trace("Group commit of {} writes", group.size());
+            } finally {
+                batch.close();
+            }
+        } catch (Throwable e) {
+            LOG.warn("Error writing group commit of " + group.size() + " writes using file " + getFile(), e);
+            cause = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException("Error writing group commit", e);
+        }
+
+        // the writers must never be left waiting
+        for (GroupCommitWriteBatch pending : group) {
+            pending.done(cause);
+        }
+    }
+
+    private final class GroupCommitTask implements Runnable {
+
+        public void run() {
+            List<GroupCommitWriteBatch> group = new ArrayList<GroupCommitWriteBatch>();
+            try {
+                runGroupCommits(group);
+            } finally {
+                // reject new writes and write the pending writes before stopping
+                groupCommitRunning = false;
+                pendingWrites.drainTo(group);
+                if (!group.isEmpty()) {
+                    writeGroup(group);
+                }
+                groupCommitDone.countDown();
+            }
+        }
+
+        private void runGroupCommits(List<GroupCommitWriteBatch> group) {
+            while (groupCommitRunning) {
+                try {
+                    GroupCommitWriteBatch first = pendingWrites.take();
+                    group.add(first);
+
+                    // wait a little for other writes to join the group
+                    long deadline = System.currentTimeMillis() + groupCommitMaxDelay;
+                    long remaining = groupCommitMaxDelay;
+                    while (remaining > 0) {
+                        GroupCommitWriteBatch next = pendingWrites.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        group.add(next);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                    pendingWrites.drainTo(group);
+
+                    writeGroup(group);
+                    group.clear();
+                } catch (InterruptedException e) {
+                    // we are stopping
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * A write batch which records the operations to be written as part of a group commit.
+     */
+    private static final class GroupCommitWriteBatch implements WriteBatch {
+
+        private final List<byte[]> keys = new ArrayList<byte[]>();
+        // a null value is a delete
+        private final List<byte[]> values = new ArrayList<byte[]>();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile RuntimeException cause;
+
+        public WriteBatch put(byte[] key, byte[] value) {
+            keys.add(key);
+            values.add(value);
+            return this;
+        }
+
+        public WriteBatch delete(byte[] key) {
+            keys.add(key);
+            values.add(null);
+            return this;
+        }
+
+        public void close() {
+            // noop
+        }
+
+        void applyTo(WriteBatch batch) {
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] value = values.get(i);
+                if (value != null) {
+                    batch.put(keys.get(i), value);
+                } else {
+                    batch.delete(keys.get(i));
+                }
+            }
+        }
+
+        void done(RuntimeException cause) {
+            this.cause = cause;
+            latch.countDown();
+        }
+
+        boolean await(long timeout) {
+            try {
+                if (!latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for group commit", e);
+            }
+            if (cause != null) {
+                throw cause;
+            }
+            return true;
+        }
+    }
 }
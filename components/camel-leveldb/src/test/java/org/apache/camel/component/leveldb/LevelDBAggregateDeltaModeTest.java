@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.leveldb;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.processor.aggregate.GroupedExchangeAggregationStrategy;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class LevelDBAggregateDeltaModeTest extends CamelTestSupport {
+
+    private LevelDBAggregationRepository repo;
+
+    @Override
+    public void setUp() throws Exception {
+        deleteDirectory("target/data");
+        repo = new LevelDBAggregationRepository("repo1", "target/data/leveldb.dat");
+        repo.setDeltaMode(true);
+        super.setUp();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLevelDBAggregateDeltaMode() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:aggregated");
+        mock.expectedMessageCount(1);
+
+        template.sendBodyAndHeader("direct:start", "A", "id", 123);
+        template.sendBodyAndHeader("direct:start", "B", "id", 123);
+        template.sendBodyAndHeader("direct:start", "C", "id", 123);
+        template.sendBodyAndHeader("direct:start", "D", "id", 123);
+        template.sendBodyAndHeader("direct:start", "E", "id", 123);
+
+        assertMockEndpointsSatisfied(30, TimeUnit.SECONDS);
+
+        // the group should be materialized on completion
+        List<Exchange> group = mock.getReceivedExchanges().get(0).getProperty(Exchange.GROUPED_EXCHANGE, List.class);
+        assertEquals(5, group.size());
+        assertEquals("A", group.get(0).getIn().getBody());
+        assertEquals("E", group.get(4).getIn().getBody());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecoverDeltas() throws Exception {
+        GroupedExchangeAggregationStrategy strategy = new GroupedExchangeAggregationStrategy();
+        Exchange aggregated = null;
+        for (String body : new String[]{"A", "B", "C"}) {
+            Exchange exchange = new DefaultExchange(context);
+            exchange.getIn().setBody(body);
+            aggregated = strategy.aggregate(repo.get(context, "foo"), exchange);
+            repo.add(context, "foo", aggregated);
+        }
+
+        // the group is not materialized when getting the aggregated exchange
+        Exchange actual = repo.get(context, "foo");
+        assertEquals(0, actual.getProperty(Exchange.GROUPED_EXCHANGE, List.class).size());
+
+        repo.remove(context, "foo", actual);
+        assertEquals(3, actual.getProperty(Exchange.GROUPED_EXCHANGE, List.class).size());
+        assertNull(repo.get(context, "foo"));
+
+        Exchange recovered = repo.recover(context, actual.getExchangeId());
+        List<Exchange> group = recovered.getProperty(Exchange.GROUPED_EXCHANGE, List.class);
+        assertEquals(3, group.size());
+        assertEquals("A", group.get(0).getIn().getBody());
+        assertEquals("B", group.get(1).getIn().getBody());
+        assertEquals("C", group.get(2).getIn().getBody());
+
+        // the deltas are removed when confirmed
+        repo.confirm(context, actual.getExchangeId());
+        assertNull(repo.recover(context, actual.getExchangeId()));
+        assertEquals(0, repo.getKeys().size());
+        assertEquals(0, repo.scan(context).size());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .aggregate(header("id"), new GroupedExchangeAggregationStrategy())
+                        .completionSize(5).aggregationRepository(repo)
+                        .to("mock:aggregated");
+            }
+        };
+    }
+}
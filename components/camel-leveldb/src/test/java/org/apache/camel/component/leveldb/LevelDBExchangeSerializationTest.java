@@ -21,6 +21,7 @@ import java.util.Date;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.test.junit4.AggregationRepositoryTestHelper;
 import org.apache.camel.test.junit4.CamelTestSupport;
 import org.junit.Test;
 
@@ -88,4 +89,13 @@ public class LevelDBExchangeSerializationTest extends CamelTestSupport {
         assertSame(context, actual.getContext());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testExchangeStoredUsingJavaSerialization() throws Exception {
+        LevelDBAggregationRepository repo = new LevelDBAggregationRepository();
+        repo.setLevelDBFile(levelDBFile);
+        repo.setRepositoryName("repo1");
+
+        AggregationRepositoryTestHelper.assertJavaSerializedExchangeCanBeRead(context, repo);
+    }
+
+}
@@ -17,9 +17,11 @@
 
 package org.apache.camel.dataformat.protobuf;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.util.Iterator;
 import com.google.protobuf.Message;
 import com.google.protobuf.Message.Builder;
 
@@ -28,13 +30,15 @@ import org.apache.camel.CamelException;
 import org.apache.camel.Exchange;
 import org.apache.camel.InvalidPayloadException;
 import org.apache.camel.spi.DataFormat;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.ObjectHelper;
 
 
 public class ProtobufDataFormat implements DataFormat {
 
-    private Message defaultInstance;
+    private volatile Message defaultInstance;
     private String instanceClassName;
+    private boolean streaming;
     
     
     /**
@@ -59,15 +63,37 @@ public class ProtobufDataFormat implements DataFormat {
         }
     }
     
-    public synchronized Message getInstance(Exchange exchange) throws Exception {
-        if (defaultInstance == null) {
-            if (instanceClassName == null) {
-                throw new CamelException("There is not defaultInstance for protobuf unmarshaling");
-            } else {
-                defaultInstance = loadDefaultInstance(instanceClassName, exchange.getContext());
+    public Message getInstance(Exchange exchange) throws Exception {
+        Message answer = defaultInstance;
+        if (answer == null) {
+            // only lookup the default instance once
+            synchronized (this) {
+                answer = defaultInstance;
+                if (answer == null) {
+                    if (instanceClassName == null) {
+                        throw new CamelException("There is not defaultInstance for protobuf unmarshaling");
+                    }
+                    answer = loadDefaultInstance(instanceClassName, exchange.getContext());
+                    defaultInstance = answer;
+                }
             }
         }
-        return defaultInstance;
+        return answer;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether to marshal and unmarshal a stream of length delimited messages.
+     * <p/>
+     * When enabled, marshal writes the message, or each of the messages if the body is a collection of messages,
+     * prefixed with its length. Unmarshal returns an {@link Iterator} which parses one message at a time from
+     * such a stream, for example to be used with the streaming mode of the splitter.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
     }
     
     public void setInstanceClass(String className) throws Exception {
@@ -97,7 +123,14 @@ public class ProtobufDataFormat implements DataFormat {
      * java.lang.Object, java.io.OutputStream)
      */
     public void marshal(Exchange exchange, Object graph, OutputStream outputStream) throws Exception {
-        ((Message)graph).writeTo(outputStream);
+        if (streaming) {
+            Iterator<Object> it = ObjectHelper.createIterator(graph);
+            while (it.hasNext()) {
+                ((Message)it.next()).writeDelimitedTo(outputStream);
+            }
+        } else {
+            ((Message)graph).writeTo(outputStream);
+        }
     }
 
     /*
@@ -107,7 +140,23 @@ public class ProtobufDataFormat implements DataFormat {
      */
     public Object unmarshal(Exchange exchange, InputStream inputStream) throws Exception {
         Message instance = getInstance(exchange);
-        Builder builder = instance.newBuilderForType().mergeFrom(inputStream);
+
+        if (streaming) {
+            ProtobufIterator answer = new ProtobufIterator(instance, inputStream);
+            // make sure the stream is closed when the exchange is done, even if not all messages have been read
+            ExchangeHelper.closeOnCompletion(exchange, answer);
+            return answer;
+        }
+
+        Builder builder = instance.newBuilderForType();
+        if (inputStream instanceof ByteArrayInputStream) {
+            // the remaining bytes are known up front, so read them in one go and parse from the array
+            byte[] data = new byte[inputStream.available()];
+            int len = inputStream.read(data);
+            builder.mergeFrom(data, 0, Math.max(len, 0));
+        } else {
+            builder.mergeFrom(inputStream);
+        }
         if (!builder.isInitialized()) {
             // TODO which exception should be thrown here?
             throw new InvalidPayloadException(exchange, instance.getClass());
@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.protobuf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import com.google.protobuf.Message;
+import com.google.protobuf.Message.Builder;
+
+import org.apache.camel.support.LazyCloseableIterator;
+
+/**
+ * An {@link Iterator} which parses length delimited messages one at a time from a stream.
+ * <p/>
+ * The stream is closed when there are no more messages, or when the iterator is closed.
+ */
+public class ProtobufIterator extends LazyCloseableIterator<Object> {
+
+    private final Message defaultInstance;
+    private final InputStream inputStream;
+
+    public ProtobufIterator(Message defaultInstance, InputStream inputStream) {
+        this.defaultInstance = defaultInstance;
+        this.inputStream = inputStream;
+    }
+
+    @Override
+    protected Object readNext() throws IOException {
+        Builder builder = defaultInstance.newBuilderForType();
+        if (!builder.mergeDelimitedFrom(inputStream)) {
+            // no more messages
+            return null;
+        }
+        // fails if required fields are missing
+        return builder.build();
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        inputStream.close();
+    }
+
+}
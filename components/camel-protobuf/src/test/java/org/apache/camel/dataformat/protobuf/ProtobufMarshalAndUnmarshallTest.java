@@ -16,12 +16,17 @@
  */
 package org.apache.camel.dataformat.protobuf;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+
 import org.apache.camel.CamelException;
+import org.apache.camel.Exchange;
 import org.apache.camel.FailedToCreateRouteException;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.dataformat.protobuf.generated.AddressBookProtos;
 import org.apache.camel.dataformat.protobuf.generated.AddressBookProtos.Person;
+import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.test.junit4.CamelTestSupport;
 import org.junit.Test;
 
@@ -58,8 +63,24 @@ public class ProtobufMarshalAndUnmarshallTest extends CamelTestSupport {
             assertTrue("Get a wrong reason", ex.getCause() instanceof IllegalArgumentException);
         }
     }
-    
-    
+
+    @Test
+    public void testUnmarshalParsesGivenStream() throws Exception {
+        ProtobufDataFormat format = new ProtobufDataFormat(Person.getDefaultInstance());
+        byte[] martin = Person.newBuilder().setName("Martin").setId(1234).build().toByteArray();
+        byte[] claus = Person.newBuilder().setName("Claus").setId(5678).build().toByteArray();
+
+        // the body is not the stream to parse
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody(claus);
+
+        Person output = (Person) format.unmarshal(exchange, new ByteArrayInputStream(martin));
+        assertEquals("Martin", output.getName());
+
+        output = (Person) format.unmarshal(exchange, new BufferedInputStream(new ByteArrayInputStream(martin)));
+        assertEquals("Martin", output.getName());
+    }
+
     private void marshalAndUnmarshal(String inURI, String outURI) throws Exception {
         org.apache.camel.dataformat.protobuf.generated.AddressBookProtos.Person input = AddressBookProtos.Person
             .newBuilder().setName("Martin").setId(1234).build();
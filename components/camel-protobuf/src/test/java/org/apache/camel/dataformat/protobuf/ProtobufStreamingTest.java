@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.protobuf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.dataformat.protobuf.generated.AddressBookProtos.Person;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class ProtobufStreamingTest extends CamelTestSupport {
+
+    @Test
+    public void testMarshalAndUnmarshalStream() throws Exception {
+        List<Person> persons = new ArrayList<Person>();
+        for (int i = 0; i < 5; i++) {
+            persons.add(Person.newBuilder().setName("Person" + i).setId(i).build());
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:person");
+        mock.expectedMessageCount(5);
+        mock.allMessages().body().isInstanceOf(Person.class);
+
+        byte[] marshalled = template.requestBody("direct:marshal", persons, byte[].class);
+        template.sendBody("direct:unmarshal", marshalled);
+
+        assertMockEndpointsSatisfied();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(persons.get(i), mock.getReceivedExchanges().get(i).getIn().getBody());
+        }
+    }
+
+    @Test
+    public void testUnmarshalEmptyStream() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:person");
+        mock.expectedMessageCount(0);
+
+        template.sendBody("direct:unmarshal", new byte[0]);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testUnmarshalFromBytes() throws Exception {
+        Person input = Person.newBuilder().setName("Martin").setId(1234).build();
+
+        MockEndpoint mock = getMockEndpoint("mock:reverse");
+        mock.expectedBodiesReceived(input, input);
+
+        template.sendBody("direct:back", input.toByteArray());
+        template.sendBody("direct:back", ByteBuffer.wrap(input.toByteArray()));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                ProtobufDataFormat streaming = new ProtobufDataFormat(Person.getDefaultInstance());
+                streaming.setStreaming(true);
+
+                from("direct:marshal").marshal(streaming);
+                from("direct:unmarshal").unmarshal(streaming)
+                    .split(body()).streaming()
+                        .to("mock:person");
+
+                from("direct:back").unmarshal(new ProtobufDataFormat(Person.getDefaultInstance())).to("mock:reverse");
+            }
+        };
+    }
+
+}
@@ -96,4 +96,8 @@ public class SjmsConsumer extends DefaultConsumer {
     public int getTransactionBatchCount() {
         return getSjmsEndpoint().getTransactionBatchCount();
     }
+
+    public long getTransactionBatchTimeout() {
+        return getSjmsEndpoint().getTransactionBatchTimeout();
+    }
 }
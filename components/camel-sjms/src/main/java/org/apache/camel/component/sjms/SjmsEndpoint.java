@@ -55,6 +55,8 @@ public class SjmsEndpoint extends DefaultEndpoint implements MultipleConsumersSu
     private long responseTimeOut = 5000;
     private String messageSelector;
     private int transactionBatchCount = -1;
+    private long transactionBatchTimeout = 5000;
+    private int inFlightWindowSize = 1000;
     private TransactionCommitStrategy commitStrategy;
 
     public SjmsEndpoint() {
@@ -277,4 +279,29 @@ public class SjmsEndpoint extends DefaultEndpoint implements MultipleConsumersSu
     public void setTransactionBatchCount(int transactionBatchCount) {
         this.transactionBatchCount = transactionBatchCount;
     }
+
+    public long getTransactionBatchTimeout() {
+        return transactionBatchTimeout;
+    }
+
+    /**
+     * Sets the maximum time in millis a message can wait for its transaction batch
+     * to be committed, when using <tt>transactionBatchCount</tt> on a consumer.
+     * Use zero or a negative value to only commit when the batch count is reached.
+     */
+    public void setTransactionBatchTimeout(long transactionBatchTimeout) {
+        this.transactionBatchTimeout = transactionBatchTimeout;
+    }
+
+    public int getInFlightWindowSize() {
+        return inFlightWindowSize;
+    }
+
+    /**
+     * Sets the maximum number of InOut requests which can wait for a reply
+     * per reply consumer. Use zero or a negative value for no limit.
+     */
+    public void setInFlightWindowSize(int inFlightWindowSize) {
+        this.inFlightWindowSize = inFlightWindowSize;
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.sjms.consumer;
+
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+
+import org.apache.camel.component.sjms.tx.BatchTransactionCommitStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives the messages of a batch transacted consumer on its own thread.
+ * <p/>
+ * A {@link Session} must only be used by one thread, so instead of using a
+ * {@link MessageListener} and committing a timed out batch from another thread,
+ * the messages are received with a timeout and the timed out batch is committed
+ * by the same thread that received and processed its messages.
+ */
+public class BatchTransactedMessageReceiver implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchTransactedMessageReceiver.class);
+    private static final long MAX_BACKOFF = 5000;
+    private final Session session;
+    private final MessageConsumer messageConsumer;
+    private final MessageListener messageListener;
+    private final BatchTransactionCommitStrategy commitStrategy;
+    private final long receiveTimeout;
+    private volatile boolean running = true;
+
+    public BatchTransactedMessageReceiver(Session session, MessageConsumer messageConsumer, MessageListener messageListener,
+                                          BatchTransactionCommitStrategy commitStrategy, long receiveTimeout) {
+        this.session = session;
+        this.messageConsumer = messageConsumer;
+        this.messageListener = messageListener;
+        this.commitStrategy = commitStrategy;
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    @Override
+    public void run() {
+        long backoff = 0;
+        while (running) {
+            try {
+                Message message = messageConsumer.receive(receiveTimeout);
+                if (message != null && running) {
+                    messageListener.onMessage(message);
+                }
+                // commit a partial batch when no more messages are received within the batch timeout
+                if (running && commitStrategy.completeTimedOutBatch()) {
+                    LOG.debug("Committing timed out batch after {} millis", commitStrategy.getBatchTimeout());
+                    session.commit();
+                }
+                backoff = 0;
+            } catch (Throwable e) {
+                if (!running) {
+                    break;
+                }
+                // back off so a broken session or connection does not make us spin
+                backoff = backoff == 0 ? Math.max(receiveTimeout, 100) : Math.min(backoff * 2, MAX_BACKOFF);
+                LOG.warn("Failed to receive or commit the batch. Will try again in " + backoff + " millis.", e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops receiving messages, the current receive returns within the receive timeout.
+     */
+    public void stop() {
+        running = false;
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.camel.component.sjms.consumer;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 
 import javax.jms.Connection;
@@ -41,6 +43,8 @@ public class DefaultConsumer extends SjmsConsumer {
 
     protected MessageConsumerPool consumers;
     private final ExecutorService executor;
+    private ExecutorService batchReceiverExecutor;
+    private final List<BatchTransactedMessageReceiver> batchReceivers = new CopyOnWriteArrayList<BatchTransactedMessageReceiver>();
 
     protected class MessageConsumerPool extends ObjectPool<MessageConsumerResources> {
 
@@ -135,6 +139,10 @@ public class DefaultConsumer extends SjmsConsumer {
     @Override
     protected void doStart() throws Exception {
         super.doStart();
+        if (isTransacted() && getCommitStrategy() == null && getTransactionBatchCount() > 0 && getTransactionBatchTimeout() > 0) {
+            batchReceiverExecutor = getEndpoint().getCamelContext().getExecutorServiceManager()
+                .newFixedThreadPool(this, "SjmsBatchConsumer", getConsumerCount());
+        }
         consumers = new MessageConsumerPool();
         consumers.fillPool();
     }
@@ -142,6 +150,15 @@ public class DefaultConsumer extends SjmsConsumer {
     @Override
     protected void doStop() throws Exception {
         super.doStop();
+        if (batchReceiverExecutor != null) {
+            // stop the receivers before their sessions are closed
+            for (BatchTransactedMessageReceiver receiver : batchReceivers) {
+                receiver.stop();
+            }
+            batchReceivers.clear();
+            getEndpoint().getCamelContext().getExecutorServiceManager().shutdownGraceful(batchReceiverExecutor);
+            batchReceiverExecutor = null;
+        }
         if (consumers != null) {
             consumers.drainPool();
             consumers = null;
@@ -174,8 +191,18 @@ public class DefaultConsumer extends SjmsConsumer {
         } else {
             messageConsumer = JmsObjectFactory.createQueueConsumer(session, getDestinationName(), getMessageSelector());
         }
-        MessageListener handler = createMessageHandler(session);
-        messageConsumer.setMessageListener(handler);
+        TransactionCommitStrategy commitStrategy = createCommitStrategy();
+        MessageListener handler = createMessageHandler(session, commitStrategy);
+        if (batchReceiverExecutor != null && commitStrategy instanceof BatchTransactionCommitStrategy) {
+            // receive on a dedicated thread so a timed out batch is committed by the thread using the session
+            long receiveTimeout = Math.max(10, Math.min(getTransactionBatchTimeout() / 2, 1000));
+            BatchTransactedMessageReceiver receiver = new BatchTransactedMessageReceiver(session, messageConsumer, handler,
+                (BatchTransactionCommitStrategy) commitStrategy, receiveTimeout);
+            batchReceivers.add(receiver);
+            batchReceiverExecutor.execute(receiver);
+        } else {
+            messageConsumer.setMessageListener(handler);
+        }
         getConnectionResource().returnConnection(conn);
         return new MessageConsumerResources(session, messageConsumer);
     }
@@ -202,15 +229,17 @@ public class DefaultConsumer extends SjmsConsumer {
      * @return
      */
     protected MessageListener createMessageHandler(Session session) {
-        
-        TransactionCommitStrategy commitStrategy = null;
-        if (this.getCommitStrategy() != null) {
-            commitStrategy = this.getCommitStrategy();
-        } else if (this.getTransactionBatchCount() > 0) {
-            commitStrategy = new BatchTransactionCommitStrategy(this.getTransactionBatchCount());
-        } else {
-            commitStrategy = new DefaultTransactionCommitStrategy();
-        }
+        return createMessageHandler(session, createCommitStrategy());
+    }
+
+    /**
+     * Helper factory method used to create a MessageListener based on the MEP
+     * 
+     * @param session a session is only required if we are a transacted consumer
+     * @param commitStrategy the strategy deciding when the session is committed
+     * @return
+     */
+    protected MessageListener createMessageHandler(Session session, TransactionCommitStrategy commitStrategy) {
         
         DefaultMessageHandler messageHandler = null;
         if (getSjmsEndpoint().getExchangePattern().equals(ExchangePattern.InOnly)) {
@@ -233,4 +262,14 @@ public class DefaultConsumer extends SjmsConsumer {
         messageHandler.setTopic(isTopic());
         return messageHandler;
     }
+
+    private TransactionCommitStrategy createCommitStrategy() {
+        if (this.getCommitStrategy() != null) {
+            return this.getCommitStrategy();
+        } else if (this.getTransactionBatchCount() > 0) {
+            return new BatchTransactionCommitStrategy(this.getTransactionBatchCount(), this.getTransactionBatchTimeout());
+        } else {
+            return new DefaultTransactionCommitStrategy();
+        }
+    }
 }
@@ -16,18 +16,16 @@
  */
 package org.apache.camel.component.sjms.producer;
 
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Exchanger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.jms.Connection;
 import javax.jms.Destination;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
@@ -37,40 +35,41 @@ import javax.jms.Session;
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.CamelException;
 import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeTimedOutException;
 import org.apache.camel.component.sjms.SjmsEndpoint;
 import org.apache.camel.component.sjms.SjmsProducer;
 import org.apache.camel.component.sjms.jms.JmsMessageExchangeHelper;
 import org.apache.camel.component.sjms.jms.JmsObjectFactory;
 import org.apache.camel.component.sjms.jms.ObjectPool;
 import org.apache.camel.component.sjms.tx.SessionTransactionSynchronization;
+import org.apache.camel.support.DefaultTimeoutMap;
 import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.ServiceHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A Camel Producer that provides the InOut Exchange pattern.
+ * <p/>
+ * The producer does not block while waiting for the reply. Each request is
+ * registered in a {@link ReplyTimeoutMap} by its correlation id, and the
+ * {@link InternalTempDestinationListener} of the reply consumer completes the
+ * {@link AsyncCallback} when the correlated reply arrives. Requests which do not
+ * receive a reply within the <tt>responseTimeOut</tt> are timed out by the map.
  */
 public class InOutProducer extends SjmsProducer {
 
-    /**
-     * We use the {@link ReadWriteLock} to manage the {@link TreeMap} in place
-     * of a {@link ConcurrentMap} because due to significant performance gains.
-     * TODO Externalize the Exchanger Map to a store object
-     */
-    private static Map<String, Exchanger<Object>> exchangerMap = new TreeMap<String, Exchanger<Object>>();
-    private ReadWriteLock lock = new ReentrantReadWriteLock();
-
     /**
      * A pool of {@link MessageConsumerResource} objects that are the reply
-     * consumers. 
-     * TODO Add Class documentation for MessageProducerPool 
+     * consumers.
+     * TODO Add Class documentation for MessageProducerPool
      * TODO Externalize
      */
     protected class MessageConsumerPool extends ObjectPool<MessageConsumerResource> {
 
         /**
          * TODO Add Constructor Javadoc
-         * 
+         *
          * @param poolSize
          */
         public MessageConsumerPool(int poolSize) {
@@ -94,22 +93,8 @@ public class InOutProducer extends SjmsProducer {
                 replyToDestination = JmsObjectFactory.createDestination(session, getNamedReplyTo(), isTopic());
             }
             MessageConsumer messageConsumer = JmsObjectFactory.createMessageConsumer(session, replyToDestination, null, isTopic(), null, true);
-            messageConsumer.setMessageListener(new MessageListener() {
-
-                @Override
-                public void onMessage(Message message) {
-                    logger.info("Message Received in the Consumer Pool");
-                    logger.info("  Message : {}", message);
-                    try {
-                        Exchanger<Object> exchanger = exchangerMap.get(message.getJMSCorrelationID());
-                        exchanger.exchange(message, getResponseTimeOut(), TimeUnit.MILLISECONDS);
-                    } catch (Exception e) {
-                        ObjectHelper.wrapRuntimeCamelException(e);
-                    }
-
-                }
-            });
-            MessageConsumerResource mcm = new MessageConsumerResource(session, messageConsumer, replyToDestination);
+            messageConsumer.setMessageListener(new InternalTempDestinationListener());
+            MessageConsumerResource mcm = new MessageConsumerResource(session, messageConsumer, replyToDestination, getInFlightWindowSize());
             return mcm;
         }
 
@@ -133,24 +118,31 @@ public class InOutProducer extends SjmsProducer {
     }
 
     /**
-     * TODO Add Class documentation for MessageConsumerResource
+     * The reply consumer resources, and the window of requests which can be in-flight
+     * waiting for a reply on its reply to destination.
      */
     protected class MessageConsumerResource {
         private final Session session;
         private final MessageConsumer messageConsumer;
         private final Destination replyToDestination;
+        private final Semaphore inFlightWindow;
 
         /**
          * TODO Add Constructor Javadoc
-         * 
+         *
          * @param session
          * @param messageConsumer
          */
         public MessageConsumerResource(Session session, MessageConsumer messageConsumer, Destination replyToDestination) {
+            this(session, messageConsumer, replyToDestination, Integer.MAX_VALUE);
+        }
+
+        public MessageConsumerResource(Session session, MessageConsumer messageConsumer, Destination replyToDestination, int inFlightWindowSize) {
             super();
             this.session = session;
             this.messageConsumer = messageConsumer;
             this.replyToDestination = replyToDestination;
+            this.inFlightWindow = new Semaphore(inFlightWindowSize > 0 ? inFlightWindowSize : Integer.MAX_VALUE);
         }
 
         public Session getSession() {
@@ -164,21 +156,18 @@ public class InOutProducer extends SjmsProducer {
         public Destination getReplyToDestination() {
             return replyToDestination;
         }
+
+        public Semaphore getInFlightWindow() {
+            return inFlightWindow;
+        }
     }
 
+    /**
+     * Receives the replies from the reply to destination and hands them over to the
+     * {@link ReplyHandler} registered for the correlation id of the reply.
+     */
     protected class InternalTempDestinationListener implements MessageListener {
         private final Logger tempLogger = LoggerFactory.getLogger(InternalTempDestinationListener.class);
-        private Exchanger<Object> exchanger;
-
-        /**
-         * TODO Add Constructor Javadoc
-         * 
-         * @param exchanger
-         */
-        public InternalTempDestinationListener(Exchanger<Object> exchanger) {
-            super();
-            this.exchanger = exchanger;
-        }
 
         @Override
         public void onMessage(Message message) {
@@ -186,16 +175,119 @@ public class InOutProducer extends SjmsProducer {
                 tempLogger.debug("Message Received in the Consumer Pool");
                 tempLogger.debug("  Message : {}", message);
             }
+            String correlationId = null;
             try {
-                exchanger.exchange(message, getResponseTimeOut(), TimeUnit.MILLISECONDS);
-            } catch (Exception e) {
-                ObjectHelper.wrapRuntimeCamelException(e);
+                correlationId = message.getJMSCorrelationID();
+            } catch (JMSException e) {
+                tempLogger.warn("Unable to get the JMSCorrelationID of the reply message. The message will be ignored: " + message, e);
+                return;
+            }
+
+            ReplyHandler handler = correlationId != null ? getResponses().remove(correlationId) : null;
+            if (handler != null) {
+                handler.onReply(message);
+            } else {
+                tempLogger.warn("Reply received for unknown JMSCorrelationID [{}]. The message will be ignored: {}", correlationId, message);
+            }
+        }
+    }
+
+    /**
+     * Tracks the requests waiting for a reply, and times them out without blocking any thread.
+     */
+    protected class ReplyTimeoutMap extends DefaultTimeoutMap<String, ReplyHandler> {
+
+        public ReplyTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis) {
+            // a lock is not needed as a reply handler can only be completed once
+            super(executor, requestMapPollTimeMillis, false);
+        }
+
+        /**
+         * Adds the handler unless another request with the same correlation id is waiting for a reply.
+         *
+         * @return <tt>true</tt> if added, <tt>false</tt> if the correlation id is already in use
+         */
+        public synchronized boolean putIfAbsent(String key, ReplyHandler value, long timeoutMillis) {
+            // all handlers are added by this method so no other handler can be added for the key in the meantime
+            if (get(key) != null) {
+                return false;
             }
+            put(key, value, timeoutMillis);
+            return true;
+        }
 
+        @Override
+        public boolean onEviction(String key, ReplyHandler value) {
+            value.onTimeout();
+            return true;
+        }
+    }
+
+    /**
+     * Completes the {@link Exchange} of a request when the reply has been received,
+     * the request timed out or the producer is stopped.
+     */
+    protected class ReplyHandler {
+        private final Exchange exchange;
+        private final AsyncCallback callback;
+        private final MessageConsumerResource consumer;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final CountDownLatch latch;
+
+        public ReplyHandler(Exchange exchange, AsyncCallback callback, MessageConsumerResource consumer) {
+            this.exchange = exchange;
+            this.callback = callback;
+            this.consumer = consumer;
+            // only a synchronous producer waits for the reply
+            this.latch = isSynchronous() ? new CountDownLatch(1) : null;
+        }
+
+        public void onReply(Message response) {
+            if (done.compareAndSet(false, true)) {
+                try {
+                    JmsMessageExchangeHelper.populateExchange(response, exchange, true);
+                } catch (Exception e) {
+                    exchange.setException(e);
+                }
+                complete();
+            }
+        }
+
+        public void onTimeout() {
+            if (done.compareAndSet(false, true)) {
+                log.debug("Timeout occurred after {} millis waiting for reply message for Exchange.id:{}", getResponseTimeOut(), exchange.getExchangeId());
+                exchange.setException(new ExchangeTimedOutException(exchange, getResponseTimeOut()));
+                complete();
+            }
+        }
+
+        public void onFailure(Throwable cause) {
+            if (done.compareAndSet(false, true)) {
+                exchange.setException(cause);
+                complete();
+            }
+        }
+
+        public void await() throws InterruptedException {
+            if (latch != null) {
+                latch.await();
+            }
+        }
+
+        private void complete() {
+            consumer.getInFlightWindow().release();
+            if (latch != null) {
+                // the producer thread is waiting and will invoke the callback
+                latch.countDown();
+            } else {
+                callback.done(false);
+            }
         }
     }
 
     private MessageConsumerPool consumers;
+    private ReplyTimeoutMap responses;
+    private ScheduledExecutorService timeoutCheckerExecutor;
 
     public InOutProducer(SjmsEndpoint endpoint) {
         super(endpoint);
@@ -209,6 +301,14 @@ public class InOutProducer extends SjmsProducer {
         } else {
             log.debug("Using {} as the reply to destination.", getNamedReplyTo());
         }
+        if (getResponses() == null) {
+            timeoutCheckerExecutor = getEndpoint().getCamelContext().getExecutorServiceManager()
+                .newSingleThreadScheduledExecutor(this, "SjmsReplyTimeoutChecker[" + getDestinationName() + "]");
+            // check for timeouts often enough to not delay the timeout too much
+            long interval = getResponseTimeOut() > 0 ? Math.max(10, Math.min(1000, getResponseTimeOut() / 10)) : 1000;
+            setResponses(new ReplyTimeoutMap(timeoutCheckerExecutor, interval));
+            ServiceHelper.startService(getResponses());
+        }
         if (getConsumers() == null) {
             setConsumers(new MessageConsumerPool(getConsumerCount()));
             getConsumers().fillPool();
@@ -223,6 +323,21 @@ public class InOutProducer extends SjmsProducer {
             getConsumers().drainPool();
             setConsumers(null);
         }
+        if (getResponses() != null) {
+            // fail any request still waiting for a reply
+            for (Object key : getResponses().getKeys()) {
+                ReplyHandler handler = getResponses().remove((String) key);
+                if (handler != null) {
+                    handler.onFailure(new CamelException("Producer stopped before the reply was received"));
+                }
+            }
+            ServiceHelper.stopService(getResponses());
+            setResponses(null);
+        }
+        if (timeoutCheckerExecutor != null) {
+            getEndpoint().getCamelContext().getExecutorServiceManager().shutdownNow(timeoutCheckerExecutor);
+            timeoutCheckerExecutor = null;
+        }
     }
 
     @Override
@@ -245,9 +360,10 @@ public class InOutProducer extends SjmsProducer {
     }
 
     /**
-     * TODO time out is actually double as it waits for the producer and then
-     * waits for the response. Use an atomic long to manage the countdown
-     * 
+     * Sends the request and registers a {@link ReplyHandler} which completes the
+     * exchange when the reply arrives. Only a synchronous producer waits for the reply,
+     * otherwise the callback is invoked from the reply listener.
+     *
      * @see org.apache.camel.component.sjms.SjmsProducer#sendMessage(org.apache.camel.Exchange,
      *      org.apache.camel.AsyncCallback)
      * @param exchange
@@ -256,81 +372,82 @@ public class InOutProducer extends SjmsProducer {
      */
     @Override
     public void sendMessage(final Exchange exchange, final AsyncCallback callback) throws Exception {
-        if (getProducers() != null) {
-            MessageProducerResources producer = null;
-            try {
-                producer = getProducers().borrowObject(getResponseTimeOut());
-            } catch (Exception e1) {
+        if (getProducers() == null) {
+            return;
+        }
+
+        MessageConsumerResource consumer = getConsumers().borrowObject(getResponseTimeOut());
+        if (consumer == null) {
+            log.warn("The reply consumer pool is exhausted.  Consider setting consumerCount to a higher value.");
+            exchange.setException(new Exception("Consumer Resource Pool is exhausted"));
+            callback.done(isSynchronous());
+            return;
+        }
+        getConsumers().returnObject(consumer);
+
+        // bound the number of requests waiting for a reply on the reply consumer session
+        if (!consumer.getInFlightWindow().tryAcquire(getResponseTimeOut(), TimeUnit.MILLISECONDS)) {
+            log.warn("The in-flight window of the reply consumer is full.  Consider setting inFlightWindowSize or consumerCount to a higher value.");
+            exchange.setException(new ExchangeTimedOutException(exchange, getResponseTimeOut(), "In-flight window is full"));
+            callback.done(isSynchronous());
+            return;
+        }
+
+        String correlationId = exchange.getIn().getHeader("JMSCorrelationID", String.class);
+        if (correlationId == null) {
+            correlationId = UUID.randomUUID().toString().replace("-", "");
+        }
+        ReplyHandler handler = new ReplyHandler(exchange, callback, consumer);
+
+        MessageProducerResources producer = null;
+        boolean registered = false;
+        try {
+            producer = getProducers().borrowObject(getResponseTimeOut());
+            if (producer == null) {
                 log.warn("The producer pool is exhausted.  Consider setting producerCount to a higher value or disable the fixed size of the pool by setting fixedResourcePool=false.");
-                exchange.setException(new Exception("Producer Resource Pool is exhausted"));
+                throw new Exception("Producer Resource Pool is exhausted");
             }
-            if (producer != null) {
-
-                if (isEndpointTransacted()) {
-                    exchange.getUnitOfWork().addSynchronization(new SessionTransactionSynchronization(producer.getSession(), getCommitStrategy()));
-                }
 
-                Message request = JmsMessageExchangeHelper.createMessage(exchange, producer.getSession());
-                
-                // TODO just set the correlation id don't get it from the
-                // message
-                String correlationId = null;
-                if (exchange.getIn().getHeader("JMSCorrelationID", String.class) == null) {
-                    correlationId = UUID.randomUUID().toString().replace("-", "");
-                } else {
-                    correlationId = exchange.getIn().getHeader("JMSCorrelationID", String.class);
-                }
-                Object responseObject = null;
-                Exchanger<Object> messageExchanger = new Exchanger<Object>();
-                JmsMessageExchangeHelper.setCorrelationId(request, correlationId);
-                try {
-                    lock.writeLock().lock();
-                    exchangerMap.put(correlationId, messageExchanger);
-                } finally {
-                    lock.writeLock().unlock();
-                }
+            if (isEndpointTransacted()) {
+                exchange.getUnitOfWork().addSynchronization(new SessionTransactionSynchronization(producer.getSession(), getCommitStrategy()));
+            }
 
-                MessageConsumerResource consumer = consumers.borrowObject(getResponseTimeOut());
-                JmsMessageExchangeHelper.setJMSReplyTo(request, consumer.getReplyToDestination());
-                consumers.returnObject(consumer);
-                producer.getMessageProducer().send(request);
+            Message request = JmsMessageExchangeHelper.createMessage(exchange, producer.getSession());
+            JmsMessageExchangeHelper.setCorrelationId(request, correlationId);
+            JmsMessageExchangeHelper.setJMSReplyTo(request, consumer.getReplyToDestination());
 
+            // register before sending as the reply may arrive before send returns
+            long timeout = getResponseTimeOut() > 0 ? getResponseTimeOut() : Integer.MAX_VALUE;
+            registered = getResponses().putIfAbsent(correlationId, handler, timeout);
+            if (!registered) {
+                // the reply could otherwise complete the wrong exchange
+                throw new IllegalStateException("A request with JMSCorrelationID " + correlationId + " is already waiting for a reply");
+            }
+            producer.getMessageProducer().send(request);
+        } catch (Exception e) {
+            if (registered) {
+                getResponses().remove(correlationId);
+            }
+            handler.onFailure(e);
+        } finally {
+            if (producer != null) {
                 try {
                     getProducers().returnObject(producer);
                 } catch (Exception exception) {
                     // thrown if the pool is full. safe to ignore.
                 }
-
-                try {
-                    responseObject = messageExchanger.exchange(null, getResponseTimeOut(), TimeUnit.MILLISECONDS);
-
-                    try {
-                        lock.writeLock().lock();
-                        exchangerMap.remove(correlationId);
-                    } finally {
-                        lock.writeLock().unlock();
-                    }
-                } catch (InterruptedException e) {
-                    log.debug("Exchanger was interrupted while waiting on response", e);
-                    exchange.setException(e);
-                } catch (TimeoutException e) {
-                    log.debug("Exchanger timed out while waiting on response", e);
-                    exchange.setException(e);
-                }
-
-                if (exchange.getException() == null) {
-                    if (responseObject instanceof Throwable) {
-                        exchange.setException((Throwable)responseObject);
-                    } else if (responseObject instanceof Message) {
-                        Message response = (Message)responseObject;
-                        JmsMessageExchangeHelper.populateExchange(response, exchange, true);
-                    } else {
-                        exchange.setException(new CamelException("Unknown response type: " + responseObject));
-                    }
-                }
             }
+        }
 
-            callback.done(isSynchronous());
+        if (isSynchronous()) {
+            try {
+                handler.await();
+            } catch (InterruptedException e) {
+                log.debug("Interrupted while waiting on response", e);
+                getResponses().remove(correlationId);
+                handler.onFailure(e);
+            }
+            callback.done(true);
         }
     }
 
@@ -341,4 +458,21 @@ public class InOutProducer extends SjmsProducer {
     public MessageConsumerPool getConsumers() {
         return consumers;
     }
+
+    public void setResponses(ReplyTimeoutMap responses) {
+        this.responses = responses;
+    }
+
+    public ReplyTimeoutMap getResponses() {
+        return responses;
+    }
+
+    /**
+     * Gets the maximum number of requests which can wait for a reply per reply consumer session.
+     *
+     * @return int
+     */
+    public int getInFlightWindowSize() {
+        return getSjmsEndpoint().getInFlightWindowSize();
+    }
 }
@@ -16,45 +16,85 @@
  */
 package org.apache.camel.component.sjms.tx;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 import org.apache.camel.Exchange;
 import org.apache.camel.component.sjms.TransactionCommitStrategy;
 
 /**
  * Provides a thread safe counter to track the number of {@link Exchange}
  * objects that have been been processed.
+ * <p/>
+ * The batch is completed when the number of processed exchanges reaches the batch count,
+ * or when the optional batch timeout has elapsed since the first exchange of the batch.
+ * A batch which times out while no more exchanges are processed is completed by the
+ * consumer calling {@link #completeTimedOutBatch()} on the thread which uses the session.
  * 
  */
 public class BatchTransactionCommitStrategy implements TransactionCommitStrategy {
 
-    private final AtomicInteger current = new AtomicInteger(0);
     private final int count;
+    private final long batchTimeout;
+    private int current;
+    private long batchStart;
 
     /**
      * @param count
      */
     public BatchTransactionCommitStrategy(int count) {
+        this(count, -1);
+    }
+
+    /**
+     * @param count the number of exchanges to commit in one batch
+     * @param batchTimeout the maximum time in millis an exchange can wait for its batch to be committed,
+     *                     use zero or a negative value to only complete batches by count
+     */
+    public BatchTransactionCommitStrategy(int count, long batchTimeout) {
         super();
         this.count = count;
+        this.batchTimeout = batchTimeout;
     }
 
     @Override
-    public boolean commit(Exchange exchange) throws Exception {
-        boolean answer = false;
-        int currentVal = current.incrementAndGet();
-        if (currentVal >= count) {
-            answer = true;
-            current.set(0);
+    public synchronized boolean commit(Exchange exchange) throws Exception {
+        current++;
+        if (current == 1) {
+            batchStart = System.currentTimeMillis();
         }
-
-        return answer;
+        if (current >= count || isBatchTimedOut()) {
+            current = 0;
+            return true;
+        }
+        return false;
     }
 
     @Override
-    public boolean rollback(Exchange exchange) throws Exception {
-        current.set(0);
+    public synchronized boolean rollback(Exchange exchange) throws Exception {
+        current = 0;
         return true;
     }
 
+    /**
+     * Completes the current batch if it has timed out.
+     *
+     * @return true if the {@link javax.jms.Session} should be committed, otherwise false
+     */
+    public synchronized boolean completeTimedOutBatch() {
+        if (current > 0 && isBatchTimedOut()) {
+            current = 0;
+            return true;
+        }
+        return false;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getBatchTimeout() {
+        return batchTimeout;
+    }
+
+    private boolean isBatchTimedOut() {
+        return batchTimeout > 0 && System.currentTimeMillis() - batchStart >= batchTimeout;
+    }
 }
@@ -17,6 +17,7 @@
 package org.apache.camel.component.sjms.producer;
 
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -26,6 +27,7 @@ import javax.jms.MessageProducer;
 import javax.jms.TextMessage;
 
 import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeTimedOutException;
 import org.apache.camel.Processor;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.sjms.jms.JmsObjectFactory;
@@ -86,6 +88,28 @@ public class InOutQueueProducerTest extends JmsTestSupport {
 
     }
 
+    @Test
+    public void testInOutQueueProducerWithDuplicateCorrelationId() throws Exception {
+        final String correlationId = UUID.randomUUID().toString().replace("-", "");
+        Processor request = new Processor() {
+
+            @Override
+            public void process(Exchange exchange) throws Exception {
+                exchange.getIn().setBody("Hello World!");
+                exchange.getIn().setHeader("JMSCorrelationID", correlationId);
+            }
+        };
+
+        // nobody replies so the first request waits until it times out
+        Future<Exchange> first = template.asyncSend("direct:start", request);
+        Thread.sleep(1000);
+
+        Exchange second = template.request("direct:start", request);
+        assertIsInstanceOf(IllegalStateException.class, second.getException());
+
+        assertIsInstanceOf(ExchangeTimedOutException.class, first.get().getException());
+    }
+
     /*
      * @see org.apache.camel.test.junit4.CamelTestSupport#createRouteBuilder()
      * 
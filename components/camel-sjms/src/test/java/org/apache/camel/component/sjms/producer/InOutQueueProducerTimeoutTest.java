@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.sjms.producer;
+
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.sjms.support.JmsTestSupport;
+
+import org.junit.Test;
+
+public class InOutQueueProducerTimeoutTest extends JmsTestSupport {
+
+    private static final String TEST_DESTINATION_NAME = "in.out.queue.producer.timeout.test";
+
+    @Override
+    protected boolean useJmx() {
+        return false;
+    }
+
+    /**
+     * Test to verify that a request which does not receive a reply is timed out
+     * while the producer is not blocked waiting for the reply.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInOutQueueProducerTimeout() throws Exception {
+        try {
+            template.requestBody("direct:start", "Hello World!");
+            fail("Should have thrown exception");
+        } catch (CamelExecutionException e) {
+            assertIsInstanceOf(ExchangeTimedOutException.class, e.getCause());
+        }
+    }
+
+    @Test
+    public void testInOutQueueProducerTimeoutSynchronous() throws Exception {
+        try {
+            template.requestBody("direct:sync", "Hello World!");
+            fail("Should have thrown exception");
+        } catch (CamelExecutionException e) {
+            assertIsInstanceOf(ExchangeTimedOutException.class, e.getCause());
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() {
+                from("direct:start")
+                    .inOut("sjms:queue:" + TEST_DESTINATION_NAME + ".request" + "?namedReplyTo="
+                               + TEST_DESTINATION_NAME + ".response&responseTimeOut=500&synchronous=false");
+
+                from("direct:sync")
+                    .inOut("sjms:queue:" + TEST_DESTINATION_NAME + ".request" + "?namedReplyTo="
+                               + TEST_DESTINATION_NAME + ".response&responseTimeOut=500");
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.sjms.tx;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.sjms.SjmsComponent;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+/**
+ * Verify that a partial batch is committed when the batch timeout elapses.
+ *
+ */
+public class BatchTransactedQueueConsumerTimeoutTest extends CamelTestSupport {
+
+    /**
+     * Verify that after sending only 3 messages to a consumer with a batch count of 10,
+     * the messages are committed by the batch timeout, and therefore not redelivered
+     * when the consumer is restarted.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEndpointConfiguredBatchTimeout() throws Exception {
+        getMockEndpoint("mock:test").expectedMessageCount(3);
+
+        for (int i = 1; i <= 3; i++) {
+            template.sendBody("direct:start", "Hello World " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        // wait for the batch timeout to commit the partial batch
+        Thread.sleep(1500);
+
+        // uncommitted messages would be redelivered when the consumer is restarted
+        context.stopRoute("consumer");
+        context.startRoute("consumer");
+        Thread.sleep(1000);
+
+        getMockEndpoint("mock:test").assertIsSatisfied();
+    }
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext camelContext = super.createCamelContext();
+
+        ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory("vm://broker?broker.persistent=false&broker.useJmx=false");
+        SjmsComponent component = new SjmsComponent();
+        component.setConnectionFactory(connectionFactory);
+        camelContext.addComponent("sjms", component);
+
+        return camelContext;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() {
+
+                from("direct:start")
+                    .to("sjms:queue:transacted.consumer.timeout.test");
+
+                from("sjms:queue:transacted.consumer.timeout.test?transacted=true&transactionBatchCount=10&transactionBatchTimeout=500")
+                    .routeId("consumer")
+                    .to("mock:test");
+            }
+        };
+    }
+}
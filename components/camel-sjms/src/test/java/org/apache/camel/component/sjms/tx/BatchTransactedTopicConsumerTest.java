@@ -34,20 +34,26 @@ public class BatchTransactedTopicConsumerTest extends CamelTestSupport {
 
     /**
      * Verify that after only sending 10 messages that 10 are delivered to the
-     * processor and upon the 10th message throwing an Exception which causes
-     * the messages deliveries to be rolled back. The messages should then be
-     * redelivered with the JMSRedelivered flag set to true for a total of 20
-     * delivered messages, 10 to each topic.
+     * processor of each topic consumer, and that a failure rolls back all the
+     * messages received since the last commit. Consumer 1 fails on the 6th
+     * message, so messages 1 to 6 are redelivered with the JMSRedelivered flag
+     * set to true. It then fails on the 10th message, which rolls back the
+     * redelivered messages 1 to 6 together with messages 7 to 10, so all 10 are
+     * redelivered again for a total of 16 redelivered messages. Consumer 2 fails
+     * on the 3rd and 10th message for a total of 13 redelivered messages.
      * 
      * @throws Exception
      */
     @Test
     public void testEndpointConfiguredBatchTransaction() throws Exception {
-        // We should get two sets of 10 messages.  10 before the rollback and 10 after the rollback.
+        // We should get 10 messages before the rollbacks, and the redelivered messages of both rollbacks after.
         getMockEndpoint("mock:test.before.1").expectedMessageCount(10);
         getMockEndpoint("mock:test.before.2").expectedMessageCount(10);
-        getMockEndpoint("mock:test.after.1").expectedMessageCount(10);
-        getMockEndpoint("mock:test.after.2").expectedMessageCount(10);
+        getMockEndpoint("mock:test.after.1").expectedMessageCount(16);
+        getMockEndpoint("mock:test.after.2").expectedMessageCount(13);
+        // the last batch is committed, so no more messages should be redelivered
+        getMockEndpoint("mock:test.after.1").setAssertPeriod(1000);
+        getMockEndpoint("mock:test.after.2").setAssertPeriod(1000);
 
         // Send only 10 messages
         for (int i = 1; i <= 10; i++) {
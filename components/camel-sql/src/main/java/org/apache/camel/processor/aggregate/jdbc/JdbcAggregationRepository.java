@@ -29,6 +29,7 @@ import javax.sql.DataSource;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
+import org.apache.camel.spi.ExchangeCodec;
 import org.apache.camel.spi.RecoverableAggregationRepository;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.ObjectHelper;
@@ -301,6 +302,18 @@ public class JdbcAggregationRepository extends ServiceSupport implements Recover
         this.deadLetterUri = deadLetterUri;
     }
 
+    public ExchangeCodec getExchangeCodec() {
+        return codec.getExchangeCodec();
+    }
+
+    /**
+     * Sets the codec used for marshalling the exchanges, which by default is the compact
+     * {@link org.apache.camel.impl.BinaryExchangeCodec}. Set to <tt>null</tt> to use Java serialization.
+     */
+    public void setExchangeCodec(ExchangeCodec exchangeCodec) {
+        codec.setExchangeCodec(exchangeCodec);
+    }
+
     public boolean isReturnOldExchange() {
         return returnOldExchange;
     }
@@ -23,17 +23,39 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
 import org.apache.camel.CamelContext;
-import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
+import org.apache.camel.impl.BinaryExchangeCodec;
 import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.impl.DefaultExchangeHolder;
+import org.apache.camel.impl.ExchangeCodecHelper;
+import org.apache.camel.spi.ExchangeCodec;
 
 /**
  * Adapted from HawtDBCamelCodec
+ * <p/>
+ * Marshals the exchanges using a {@link ExchangeCodec}, which by default is the {@link BinaryExchangeCodec}.
+ * Exchanges stored using Java serialization by previous releases can still be unmarshalled.
  */
 public final class JdbcCamelCodec {
 
+    private ExchangeCodec exchangeCodec = new BinaryExchangeCodec();
+
+    public ExchangeCodec getExchangeCodec() {
+        return exchangeCodec;
+    }
+
+    /**
+     * Sets the codec used for marshalling the exchanges, or <tt>null</tt> to use Java serialization.
+     */
+    public void setExchangeCodec(ExchangeCodec exchangeCodec) {
+        this.exchangeCodec = exchangeCodec;
+    }
+
     public byte[] marshallExchange(CamelContext camelContext, Exchange exchange) throws IOException {
+        if (exchangeCodec != null) {
+            return exchangeCodec.marshal(exchange, ExchangeCodecHelper.retainedProperties(exchange));
+        }
+
         // use DefaultExchangeHolder to marshal to a serialized object
         DefaultExchangeHolder pe = DefaultExchangeHolder.marshal(exchange, false);
         // add the aggregated size and timeout property as the only properties we want to retain
@@ -51,17 +73,16 @@ public final class JdbcCamelCodec {
     }
 
     public Exchange unmarshallExchange(CamelContext camelContext, byte[] buffer) throws IOException, ClassNotFoundException {
-        DefaultExchangeHolder pe = decode(camelContext, buffer);
-        Exchange answer = new DefaultExchange(camelContext);
-        DefaultExchangeHolder.unmarshal(answer, pe);
-        // restore the from endpoint
-        String fromEndpointUri = (String) answer.removeProperty("CamelAggregatedFromEndpoint");
-        if (fromEndpointUri != null) {
-            Endpoint fromEndpoint = camelContext.hasEndpoint(fromEndpointUri);
-            if (fromEndpoint != null) {
-                answer.setFromEndpoint(fromEndpoint);
-            }
+        Exchange answer;
+        if (exchangeCodec != null && !ExchangeCodecHelper.isJavaSerialized(buffer, 0, buffer.length)) {
+            answer = exchangeCodec.unmarshal(camelContext, buffer);
+        } else {
+            DefaultExchangeHolder pe = decode(camelContext, buffer);
+            answer = new DefaultExchange(camelContext);
+            DefaultExchangeHolder.unmarshal(answer, pe);
         }
+        // restore the from endpoint
+        ExchangeCodecHelper.restoreFromEndpoint(camelContext, answer);
         return answer;
     }
 
@@ -16,12 +16,24 @@
  */
 package org.apache.camel.processor.idempotent.jdbc;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
 
 import org.apache.camel.spi.IdempotentRepository;
 import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.LRUCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jmx.export.annotation.ManagedOperation;
@@ -42,6 +54,14 @@ import org.springframework.transaction.support.TransactionTemplate;
  * </ul>
  * <p/>
  * These methods should perform the named database operation.
+ * <p/>
+ * When the batch size is set, concurrent adds are collected into batches which are executed using a single
+ * query for the existing keys and a single batch insert of the new keys, in one transaction. Subclasses can
+ * override {@link #queryForExisting(java.util.List)} and {@link #insertBatch(java.util.List)} to execute
+ * these as bulk database operations.
+ * <p/>
+ * When the cache size is set, the keys known to be in the database are cached, which allows to skip querying
+ * for these keys. Notice the cache is local so keys removed from the database by others are not noticed.
  */
 @ManagedResource("JDBC IdempotentRepository")
 public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport implements IdempotentRepository<T> {
@@ -51,6 +71,12 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
     protected TransactionTemplate transactionTemplate;
     protected DataSource dataSource;
     protected transient Logger log = LoggerFactory.getLogger(getClass());
+    private int batchSize;
+    private long batchWindow = 2;
+    private int cacheSize;
+    private Map<T, Object> cache;
+    private final BlockingQueue<PendingAdd<T>> pendingAdds = new LinkedBlockingQueue<PendingAdd<T>>();
+    private volatile Thread batchThread;
 
     public AbstractJdbcMessageIdRepository() {
     }
@@ -95,6 +121,37 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
      */
     protected abstract int delete(final T key);
 
+    /**
+     * Operation that returns the keys which exists of the specified keys.
+     * <p/>
+     * The default implementation queries for each key.
+     *
+     * @param keys  the keys
+     * @return the existing keys
+     */
+    protected Set<T> queryForExisting(final List<T> keys) {
+        Set<T> answer = new HashSet<T>();
+        for (T key : keys) {
+            if (queryForInt(key) > 0) {
+                answer.add(key);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Operation that inserts the specified keys.
+     * <p/>
+     * The default implementation inserts each key.
+     *
+     * @param keys  the keys
+     */
+    protected void insertBatch(final List<T> keys) {
+        for (T key : keys) {
+            insert(key);
+        }
+    }
+
     /**
      * Creates the transaction template
      */
@@ -107,15 +164,54 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
 
     @Override
     protected void doStart() throws Exception {
+        cache = cacheSize > 0 ? new LRUCache<T, Object>(cacheSize) : null;
+
+        if (batchSize > 0 && batchThread == null) {
+            batchThread = new Thread(new BatchTask(), getClass().getSimpleName() + "[" + processorName + "]");
+            batchThread.setDaemon(true);
+            batchThread.start();
+        }
     }
 
     @Override
     protected void doStop() throws Exception {
+        Thread thread = batchThread;
+        if (thread != null) {
+            batchThread = null;
+            thread.interrupt();
+            thread.join(5000);
+        }
+        if (cache != null) {
+            cache.clear();
+        }
     }
 
     @ManagedOperation(description = "Adds the key to the store")
     @Override
     public boolean add(final T key) {
+        if (isCached(key)) {
+            return false;
+        }
+
+        boolean answer;
+        if (batchThread != null) {
+            PendingAdd<T> pending = new PendingAdd<T>(key);
+            pendingAdds.add(pending);
+            if (batchThread == null && pendingAdds.remove(pending)) {
+                // we were stopped in the meantime
+                answer = doAdd(key);
+            } else {
+                answer = pending.await();
+            }
+        } else {
+            answer = doAdd(key);
+        }
+
+        addToCache(key);
+        return answer;
+    }
+
+    private boolean doAdd(final T key) {
         // Run this in single transaction.
         Boolean rc = transactionTemplate.execute(new TransactionCallback<Boolean>() {
             public Boolean doInTransaction(TransactionStatus status) {
@@ -134,6 +230,10 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
     @ManagedOperation(description = "Does the store contain the given key")
     @Override
     public boolean contains(final T key) {
+        if (isCached(key)) {
+            return true;
+        }
+
         // Run this in single transaction.
         Boolean rc = transactionTemplate.execute(new TransactionCallback<Boolean>() {
             public Boolean doInTransaction(TransactionStatus status) {
@@ -152,6 +252,12 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
     @ManagedOperation(description = "Remove the key from the store")
     @Override
     public boolean remove(final T key) {
+        if (cache != null) {
+            synchronized (cache) {
+                cache.remove(key);
+            }
+        }
+
         Boolean rc = transactionTemplate.execute(new TransactionCallback<Boolean>() {
             public Boolean doInTransaction(TransactionStatus status) {
                 int updateCount = delete(key);
@@ -170,6 +276,115 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
         return true;
     }
 
+    private boolean isCached(T key) {
+        if (cache != null) {
+            synchronized (cache) {
+                return cache.containsKey(key);
+            }
+        }
+        return false;
+    }
+
+    private void addToCache(T key) {
+        if (cache != null) {
+            synchronized (cache) {
+                cache.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Adds the keys of the batch using a single query for the existing keys and a single batch insert.
+     */
+    private void addBatch(List<PendingAdd<T>> batch) {
+        final Map<T, List<PendingAdd<T>>> keys = new LinkedHashMap<T, List<PendingAdd<T>>>();
+        for (PendingAdd<T> pending : batch) {
+            List<PendingAdd<T>> list = keys.get(pending.key);
+            if (list == null) {
+                list = new ArrayList<PendingAdd<T>>(1);
+                keys.put(pending.key, list);
+            }
+            list.add(pending);
+        }
+
+        Set<T> existing;
+        try {
+            existing = transactionTemplate.execute(new TransactionCallback<Set<T>>() {
+                public Set<T> doInTransaction(TransactionStatus status) {
+                    List<T> list = new ArrayList<T>(keys.keySet());
+                    Set<T> answer = queryForExisting(list);
+                    list.removeAll(answer);
+                    if (!list.isEmpty()) {
+                        insertBatch(list);
+                    }
+                    return answer;
+                }
+            });
+        } catch (DataAccessException e) {
+            // some keys may have been inserted by someone else in the meantime, so fallback to add each key
+            log.debug("Error adding batch of " + keys.size() + " keys. Will add each key.", e);
+            for (Map.Entry<T, List<PendingAdd<T>>> entry : keys.entrySet()) {
+                boolean added;
+                try {
+                    added = doAdd(entry.getKey());
+                } catch (RuntimeException cause) {
+                    for (PendingAdd<T> pending : entry.getValue()) {
+                        pending.done(false, cause);
+                    }
+                    continue;
+                }
+                doneBatch(entry.getValue(), added);
+            }
+            return;
+        }
+
+        for (Map.Entry<T, List<PendingAdd<T>>> entry : keys.entrySet()) {
+            doneBatch(entry.getValue(), !existing.contains(entry.getKey()));
+        }
+    }
+
+    private void doneBatch(List<PendingAdd<T>> adds, boolean added) {
+        // only the first add of a key in the batch has added the key
+        for (PendingAdd<T> pending : adds) {
+            pending.done(added, null);
+            added = false;
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of concurrent adds to execute as a batch. The default is 0 which adds each key
+     * in its own transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Sets the maximum time in millis to wait for other adds to join a batch. The default is 2 millis.
+     */
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the number of keys known to be in the database to cache. The default is 0 which does not cache.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
     public JdbcTemplate getJdbcTemplate() {
         return jdbcTemplate;
     }
@@ -202,4 +417,85 @@ public abstract class AbstractJdbcMessageIdRepository<T> extends ServiceSupport
         this.dataSource = dataSource;
     }
 
+    private final class BatchTask implements Runnable {
+
+        public void run() {
+            List<PendingAdd<T>> batch = new ArrayList<PendingAdd<T>>();
+            while (batchThread == Thread.currentThread()) {
+                try {
+                    batch.add(pendingAdds.take());
+
+                    // wait a little for other adds to join the batch
+                    long deadline = System.currentTimeMillis() + batchWindow;
+                    long remaining = batchWindow;
+                    while (batch.size() < batchSize && remaining > 0) {
+                        PendingAdd<T> next = pendingAdds.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                    pendingAdds.drainTo(batch, batchSize - batch.size());
+                } catch (InterruptedException e) {
+                    // we are stopping
+                    break;
+                }
+
+                executeBatch(batch);
+            }
+
+            // add the pending keys before stopping
+            pendingAdds.drainTo(batch);
+            if (!batch.isEmpty()) {
+                executeBatch(batch);
+            }
+        }
+
+        private void executeBatch(List<PendingAdd<T>> batch) {
+            try {
+                addBatch(batch);
+            } catch (RuntimeException e) {
+                for (PendingAdd<T> pending : batch) {
+                    pending.done(false, e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * A key waiting to be added as part of a batch.
+     */
+    private static final class PendingAdd<T> {
+
+        private final T key;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean added;
+        private volatile RuntimeException cause;
+
+        PendingAdd(T key) {
+            this.key = key;
+        }
+
+        void done(boolean added, RuntimeException cause) {
+            this.added = added;
+            this.cause = cause;
+            latch.countDown();
+        }
+
+        boolean await() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to add key: " + key, e);
+            }
+            if (cause != null) {
+                throw cause;
+            }
+            return added;
+        }
+    }
+
 }
@@ -16,11 +16,21 @@
  */
 package org.apache.camel.processor.idempotent.jdbc;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import javax.sql.DataSource;
 
+import org.apache.camel.spi.ScannableIdempotentRepository;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -28,7 +38,7 @@ import org.springframework.transaction.support.TransactionTemplate;
 /**
  * Default implementation of {@link AbstractJdbcMessageIdRepository}
  */
-public class JdbcMessageIdRepository extends AbstractJdbcMessageIdRepository<String> {
+public class JdbcMessageIdRepository extends AbstractJdbcMessageIdRepository<String> implements ScannableIdempotentRepository<String> {
 
     private boolean createTableIfNotExists = true;
     private String tableExistsString = "SELECT 1 FROM CAMEL_MESSAGEPROCESSED WHERE 1 = 0";
@@ -36,6 +46,11 @@ public class JdbcMessageIdRepository extends AbstractJdbcMessageIdRepository<Str
     private String queryString = "SELECT COUNT(*) FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ? AND messageId = ?";
     private String insertString = "INSERT INTO CAMEL_MESSAGEPROCESSED (processorName, messageId, createdAt) VALUES (?, ?, ?)";
     private String deleteString = "DELETE FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ? AND messageId = ?";
+    private String scanString = "SELECT messageId FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ? ORDER BY messageId";
+    private String scanNextString = "SELECT messageId FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ? AND messageId > ? ORDER BY messageId";
+    private int scanPageSize = 1000;
+    private String queryBatchString = "SELECT messageId FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ? AND messageId IN ";
+    private int queryBatchMaxKeys = 1000;
 
     public JdbcMessageIdRepository() {
     }
@@ -99,6 +114,71 @@ public class JdbcMessageIdRepository extends AbstractJdbcMessageIdRepository<Str
         return jdbcTemplate.update(deleteString, processorName, key);
     }
 
+    @Override
+    protected Set<String> queryForExisting(List<String> keys) {
+        // query the keys using IN clauses, split into chunks as databases limit the size of an IN list
+        Set<String> answer = new HashSet<String>();
+        for (int start = 0; start < keys.size(); start += queryBatchMaxKeys) {
+            List<String> chunk = keys.subList(start, Math.min(start + queryBatchMaxKeys, keys.size()));
+            StringBuilder sql = new StringBuilder(queryBatchString).append("(");
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = processorName;
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args[i + 1] = chunk.get(i);
+            }
+            sql.append(")");
+            answer.addAll(jdbcTemplate.queryForList(sql.toString(), String.class, args));
+        }
+        return answer;
+    }
+
+    @Override
+    protected void insertBatch(final List<String> keys) {
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(insertString, new BatchPreparedStatementSetter() {
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, processorName);
+                ps.setString(2, keys.get(i));
+                ps.setTimestamp(3, now);
+            }
+
+            public int getBatchSize() {
+                return keys.size();
+            }
+        });
+    }
+
+    public void scan(ScanCallback<String> callback) {
+        // query the keys page by page so they are not all loaded at once
+        String last = null;
+        while (true) {
+            List<String> page = scanPage(last);
+            for (String key : page) {
+                callback.onKey(key);
+            }
+            if (page.size() < scanPageSize) {
+                break;
+            }
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private List<String> scanPage(final String after) {
+        return jdbcTemplate.query(new PreparedStatementCreator() {
+            public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+                PreparedStatement ps = con.prepareStatement(after == null ? scanString : scanNextString);
+                ps.setMaxRows(scanPageSize);
+                ps.setFetchSize(scanPageSize);
+                ps.setString(1, processorName);
+                if (after != null) {
+                    ps.setString(2, after);
+                }
+                return ps;
+            }
+        }, new SingleColumnRowMapper<String>(String.class));
+    }
+
     public boolean isCreateTableIfNotExists() {
         return createTableIfNotExists;
     }
@@ -146,4 +226,65 @@ public class JdbcMessageIdRepository extends AbstractJdbcMessageIdRepository<Str
     public void setDeleteString(String deleteString) {
         this.deleteString = deleteString;
     }
+
+    public String getQueryBatchString() {
+        return queryBatchString;
+    }
+
+    /**
+     * Sets the query for the existing keys of a batch, which is appended with an IN clause of the keys.
+     */
+    public void setQueryBatchString(String queryBatchString) {
+        this.queryBatchString = queryBatchString;
+    }
+
+    public int getQueryBatchMaxKeys() {
+        return queryBatchMaxKeys;
+    }
+
+    /**
+     * Sets the maximum number of keys in the IN clause of a query for the existing keys of a batch.
+     * Larger batches are queried using several queries.
+     * <p/>
+     * The default is 1000, which is the limit of an IN list in Oracle.
+     */
+    public void setQueryBatchMaxKeys(int queryBatchMaxKeys) {
+        this.queryBatchMaxKeys = queryBatchMaxKeys;
+    }
+
+    public String getScanString() {
+        return scanString;
+    }
+
+    /**
+     * Sets the query for the first page of the keys when scanning, which must order the keys.
+     */
+    public void setScanString(String scanString) {
+        this.scanString = scanString;
+    }
+
+    public String getScanNextString() {
+        return scanNextString;
+    }
+
+    /**
+     * Sets the query for the next page of the keys when scanning, which must select the keys after the
+     * last key of the previous page in the same order as {@link #setScanString(String)}.
+     */
+    public void setScanNextString(String scanNextString) {
+        this.scanNextString = scanNextString;
+    }
+
+    public int getScanPageSize() {
+        return scanPageSize;
+    }
+
+    /**
+     * Sets the number of keys to query at once when scanning.
+     * <p/>
+     * The default is 1000.
+     */
+    public void setScanPageSize(int scanPageSize) {
+        this.scanPageSize = scanPageSize;
+    }
 }
\ No newline at end of file
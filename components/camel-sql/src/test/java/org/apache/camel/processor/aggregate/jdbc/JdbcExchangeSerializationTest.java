@@ -20,6 +20,7 @@ import java.util.Date;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.test.junit4.AggregationRepositoryTestHelper;
 import org.junit.Test;
 
 public class JdbcExchangeSerializationTest extends AbstractJdbcAggregationTestSupport {
@@ -63,4 +64,10 @@ public class JdbcExchangeSerializationTest extends AbstractJdbcAggregationTestSu
         assertNull(date);
         assertSame(context, actual.getContext());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExchangeStoredUsingJavaSerialization() throws Exception {
+        AggregationRepositoryTestHelper.assertJavaSerializedExchangeCanBeRead(context, repo);
+    }
+
+}
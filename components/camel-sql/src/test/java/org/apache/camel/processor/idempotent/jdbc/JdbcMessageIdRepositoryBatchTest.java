@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @version
+ */
+public class JdbcMessageIdRepositoryBatchTest {
+
+    private static final String SELECT_COUNT_STRING = "SELECT COUNT(*) FROM CAMEL_MESSAGEPROCESSED WHERE processorName = ?";
+    private static final String PROCESSOR_NAME = "myProcessorName";
+
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcMessageIdRepository repo;
+
+    @Before
+    public void setUp() throws Exception {
+        db = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.DERBY).build();
+        jdbcTemplate = new JdbcTemplate(db);
+        jdbcTemplate.afterPropertiesSet();
+
+        repo = new JdbcMessageIdRepository(db, PROCESSOR_NAME);
+        repo.setBatchSize(20);
+        repo.setBatchWindow(10);
+        repo.setCacheSize(100);
+        repo.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        repo.stop();
+        db.shutdown();
+    }
+
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        final AtomicInteger added = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    // all the threads add the same keys so only one of them must succeed for each key
+                    for (int j = 0; j < 50; j++) {
+                        if (repo.add("key" + j)) {
+                            added.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Object> future : futures) {
+            future.get();
+        }
+        executor.shutdownNow();
+
+        assertEquals(50, added.get());
+        assertEquals(50, jdbcTemplate.queryForInt(SELECT_COUNT_STRING, PROCESSOR_NAME));
+        assertTrue(repo.contains("key0"));
+        assertTrue(repo.contains("key49"));
+        assertFalse(repo.contains("key50"));
+    }
+
+    @Test
+    public void testCachedKeys() throws Exception {
+        assertTrue(repo.add("A"));
+
+        // the key is cached so the database is not queried
+        jdbcTemplate.update("DELETE FROM CAMEL_MESSAGEPROCESSED");
+        assertTrue(repo.contains("A"));
+        assertFalse(repo.add("A"));
+
+        // removing the key evicts it from the cache
+        assertFalse(repo.remove("A"));
+        assertFalse(repo.contains("A"));
+        assertTrue(repo.add("A"));
+    }
+
+    @Test
+    public void testBatchWithExistingKey() throws Exception {
+        // a key added by someone else
+        jdbcTemplate.update("INSERT INTO CAMEL_MESSAGEPROCESSED (processorName, messageId, createdAt) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                PROCESSOR_NAME, "B");
+
+        assertTrue(repo.add("A"));
+        assertFalse(repo.add("B"));
+        assertEquals(2, jdbcTemplate.queryForInt(SELECT_COUNT_STRING, PROCESSOR_NAME));
+    }
+
+    @Test
+    public void testQueryForExistingInChunks() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO CAMEL_MESSAGEPROCESSED (processorName, messageId, createdAt) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                    PROCESSOR_NAME, "key" + i);
+        }
+        repo.setQueryBatchMaxKeys(2);
+
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 10; i += 2) {
+            keys.add("key" + i);
+        }
+        // the existing keys are found in all the chunks
+        assertEquals(new HashSet<String>(Arrays.asList("key0", "key2", "key4")), repo.queryForExisting(keys));
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.camel.processor.idempotent.jdbc;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.sql.DataSource;
@@ -26,6 +28,7 @@ import org.apache.camel.Processor;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.spi.ScannableIdempotentRepository;
 import org.apache.camel.test.junit4.CamelSpringTestSupport;
 import org.junit.Before;
 import org.junit.Test;
@@ -78,6 +81,17 @@ public class JdbcMessageIdRepositoryTest extends CamelSpringTestSupport {
         assertTrue(receivedMessageIds.contains("1"));
         assertTrue(receivedMessageIds.contains("2"));
         assertTrue(receivedMessageIds.contains("3"));
+
+        // scan the keys in pages of 2 keys
+        JdbcMessageIdRepository repo = context.getRegistry().lookup("messageIdRepository", JdbcMessageIdRepository.class);
+        repo.setScanPageSize(2);
+        final List<String> scanned = new ArrayList<String>();
+        repo.scan(new ScannableIdempotentRepository.ScanCallback<String>() {
+            public void onKey(String key) {
+                scanned.add(key);
+            }
+        });
+        assertEquals(Arrays.asList("1", "2", "3"), scanned);
     }
 
     @Test
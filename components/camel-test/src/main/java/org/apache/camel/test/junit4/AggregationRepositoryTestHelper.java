@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.junit4;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.BinaryExchangeCodec;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.spi.AggregationRepository;
+import org.apache.camel.util.IntrospectionSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Assertions shared by the tests of the persistent {@link AggregationRepository} implementations.
+ *
+ * @version
+ */
+public final class AggregationRepositoryTestHelper {
+
+    private AggregationRepositoryTestHelper() {
+    }
+
+    /**
+     * Asserts that an exchange stored using Java serialization, as previous releases did, can still be read
+     * when the repository uses the {@link BinaryExchangeCodec}.
+     * <p/>
+     * The repository must have an <tt>exchangeCodec</tt> property, and is left using the binary codec.
+     *
+     * @param context    the camel context
+     * @param repository the started repository
+     */
+    public static void assertJavaSerializedExchangeCanBeRead(CamelContext context, AggregationRepository repository) throws Exception {
+        // store the exchange using java serialization
+        assertTrue("Repository has no exchangeCodec property: " + repository,
+                IntrospectionSupport.setProperty(repository, "exchangeCodec", null));
+
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello World");
+        exchange.getIn().setHeader("number", 123);
+        exchange.setProperty(Exchange.AGGREGATED_SIZE, 2);
+        repository.add(context, "foo", exchange);
+
+        // which can still be read using the binary codec
+        IntrospectionSupport.setProperty(repository, "exchangeCodec", new BinaryExchangeCodec());
+        Exchange actual = repository.get(context, "foo");
+        assertNotNull("Should find the exchange", actual);
+        assertEquals("Hello World", actual.getIn().getBody());
+        assertEquals(123, actual.getIn().getHeader("number"));
+        assertEquals(2, actual.getProperty(Exchange.AGGREGATED_SIZE));
+    }
+}
@@ -25,10 +25,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
 import net.sf.json.JSON;
 import net.sf.json.JSONSerializer;
 import net.sf.json.xml.XMLSerializer;
 import org.apache.camel.Exchange;
+import org.apache.camel.converter.jaxp.StaxConverter;
+import org.apache.camel.converter.stream.CachedOutputStream;
 import org.apache.camel.spi.DataFormat;
 import org.apache.camel.support.ServiceSupport;
 
@@ -40,6 +45,8 @@ import org.apache.camel.support.ServiceSupport;
 public class XmlJsonDataFormat extends ServiceSupport implements DataFormat {
 
     private XMLSerializer serializer;
+    private XmlJsonStreamingConverter streamingConverter;
+    private StaxConverter staxConverter;
 
     private String encoding;
     private String elementName;
@@ -54,6 +61,7 @@ public class XmlJsonDataFormat extends ServiceSupport implements DataFormat {
     private Boolean removeNamespacePrefixes;
     private List<String> expandableProperties;
     private TypeHintsEnum typeHints;
+    private Boolean streaming;
 
     public XmlJsonDataFormat() {
     }
@@ -121,6 +129,11 @@ public class XmlJsonDataFormat extends ServiceSupport implements DataFormat {
         } else {
             serializer.setTypeHintsEnabled(false);
         }
+
+        if (streaming != null && streaming) {
+            streamingConverter = new XmlJsonStreamingConverter(serializer, namespaceMappings);
+            staxConverter = new StaxConverter();
+        }
     }
 
     @Override
@@ -142,6 +155,17 @@ public class XmlJsonDataFormat extends ServiceSupport implements DataFormat {
             streamTreatment = false;
         }
 
+        if (streamingConverter != null) {
+            XMLStreamReader reader;
+            if (streamTreatment) {
+                reader = staxConverter.createXMLStreamReader((InputStream) xml, exchange);
+            } else {
+                reader = staxConverter.createXMLStreamReader((String) xml);
+            }
+            streamingConverter.toJson(reader, stream);
+            return;
+        }
+
         JSON json;
         // perform the marshaling to JSON
         if (streamTreatment) {
@@ -167,6 +191,12 @@ public class XmlJsonDataFormat extends ServiceSupport implements DataFormat {
         // otherwise parse it as a String
         if (inBody instanceof JSON) {
             toConvert = (JSON) inBody;
+        } else if (streamingConverter != null) {
+            // write the XML to a cached stream which spools to disk when it gets large
+            CachedOutputStream cos = new CachedOutputStream(exchange);
+            XMLStreamWriter writer = staxConverter.getOutputFactory().createXMLStreamWriter(cos, encoding != null ? encoding : "UTF-8");
+            streamingConverter.toXml(stream, writer, encoding != null ? encoding : "UTF-8");
+            return cos.getStreamCache();
         } else {
             String jsonString = exchange.getContext().getTypeConverter().convertTo(String.class, inBody);
             toConvert = JSONSerializer.toJSON(jsonString);
@@ -337,6 +367,23 @@ public class XmlJsonDataFormat extends ServiceSupport implements DataFormat {
         return removeNamespacePrefixes;
     }
 
+    public Boolean getStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether to convert by streaming the StAX events of the XML document to JSON generator events and back,
+     * instead of building the whole JSON and XML trees in memory, which keeps the memory usage flat for large
+     * documents. When converting from JSON to XML, the result is a stream cache instead of a String.
+     * <p/>
+     * When converting from XML to JSON, an element is always converted to a JSON object, and adjacent child elements
+     * with the same name are converted to a JSON array under their name. Child elements which repeat a name that is
+     * not adjacent fail the conversion, see {@link XmlJsonStreamingConverter}.
+     */
+    public void setStreaming(Boolean streaming) {
+        this.streaming = streaming;
+    }
+
     /**
      * Encapsulates the information needed to bind namespace declarations to XML elements when performing JSON to XML conversions
      * Given the following JSON: { "root:": { "element": "value", "element2": "value2" }}, it will produce the following XML when "element" is
@@ -0,0 +1,533 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.xmljson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import net.sf.json.xml.XMLSerializer;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerationException;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.util.TokenBuffer;
+
+/**
+ * Converts between XML and JSON by mapping StAX events to Jackson generator events and back, without building
+ * a tree of the document in memory.
+ * <p/>
+ * The options are taken from the configured {@link XMLSerializer}, and the output follows the conventions of
+ * json-lib, with one exception: json-lib turns an element into a JSON array when all its child elements have
+ * the same name, which requires the whole element to be known up front. When streaming, the element is written
+ * as an object instead, and a run of child elements with the same name is grouped into a JSON array under their
+ * name. To detect such a run the first child element of a run is buffered until its next sibling is known, unless
+ * its name is one of the expandable properties, which always start an array. Only small elements are buffered: when
+ * a buffered element grows beyond {@link #MAX_BUFFERED_CHARS} characters of names, attributes and text, it is written
+ * as a single value and the rest of it is streamed. A sibling with the same name following such a large element, or
+ * a child element which repeats a name that is not adjacent, cannot be represented without buffering the whole
+ * element, so they fail the conversion. Configure the name as an expandable property in these cases.
+ */
+class XmlJsonStreamingConverter {
+
+    /**
+     * How large a child element can grow, while it is buffered to detect whether its siblings have the same name.
+     */
+    static final int MAX_BUFFERED_CHARS = 64 * 1024;
+
+    private enum Mode {
+        PENDING, OBJECT, ARRAY, NULL, SKIP
+    }
+
+    /**
+     * The state of an XML element which is being converted to JSON.
+     */
+    private static final class Element {
+        private final String name;
+        private final Element parent;
+        private final boolean root;
+        private Mode mode = Mode.PENDING;
+        private String type;
+        private StringBuilder text;
+        // the generator the value of this element is written to, a buffer if the key is not written yet
+        private JsonGenerator json;
+        private TokenBuffer buffer;
+        // the name of the child elements which array is currently open in this object
+        private String run;
+        // the last child element which value is buffered, until it is known whether it starts a run
+        private Element last;
+        // the last child element which was too large to be buffered, so it cannot start a run
+        private String streamed;
+        // the nearest element which buffer this element is written to, and how much has been written to the buffer
+        private Element owner;
+        private int buffered;
+        private Set<String> keys;
+
+        Element(String name, Element parent) {
+            this.name = name;
+            this.parent = parent;
+            this.root = parent == null;
+        }
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Set<String> expandableProperties;
+    private final Map<String, Map<String, String>> namespaces = new HashMap<String, Map<String, String>>();
+    private final String rootName;
+    private final String objectName;
+    private final String arrayName;
+    private final String elementName;
+    private final boolean forceTopLevelObject;
+    private final boolean typeHints;
+    private final boolean skipNamespaces;
+    private final boolean removeNamespacePrefixes;
+    private final boolean skipWhitespace;
+    private final boolean trimSpaces;
+    private final String typeAttribute;
+    private final String classAttribute;
+    private final String nullAttribute;
+
+    XmlJsonStreamingConverter(XMLSerializer serializer, List<XmlJsonDataFormat.NamespacesPerElementMapping> namespaceMappings) {
+        String[] expandable = serializer.getExpandableProperties();
+        expandableProperties = new HashSet<String>(Arrays.asList(expandable != null ? expandable : new String[0]));
+        if (namespaceMappings != null) {
+            for (XmlJsonDataFormat.NamespacesPerElementMapping mapping : namespaceMappings) {
+                // an empty or null element name means the root element
+                String element = mapping.element != null ? mapping.element : "";
+                Map<String, String> map = namespaces.get(element);
+                if (map == null) {
+                    map = new HashMap<String, String>();
+                    namespaces.put(element, map);
+                }
+                map.putAll(mapping.namespaces);
+            }
+        }
+        rootName = serializer.getRootName();
+        objectName = serializer.getObjectName();
+        arrayName = serializer.getArrayName();
+        elementName = serializer.getElementName();
+        forceTopLevelObject = serializer.isForceTopLevelObject();
+        typeHints = serializer.isTypeHintsEnabled();
+        skipNamespaces = serializer.isSkipNamespaces();
+        removeNamespacePrefixes = serializer.isRemoveNamespacePrefixFromElements();
+        skipWhitespace = serializer.isSkipWhitespace();
+        trimSpaces = serializer.isTrimSpaces();
+        // same as json-lib which prefixes the type hints when not in compatibility mode
+        String prefix = serializer.isTypeHintsCompatibility() ? "" : "json_";
+        typeAttribute = prefix + "type";
+        classAttribute = prefix + "class";
+        nullAttribute = prefix + "null";
+    }
+
+    // XML to JSON
+    // -------------------------------------------------------------------------
+
+    /**
+     * Converts the XML document read from the given reader to JSON written to the given stream.
+     * The reader is closed, but not the stream.
+     */
+    public void toJson(XMLStreamReader reader, OutputStream stream) throws XMLStreamException, IOException {
+        JsonGenerator json = jsonFactory.createJsonGenerator(stream, JsonEncoding.UTF8);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        LinkedList<Element> elements = new LinkedList<Element>();
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    startElement(reader, json, elements);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    Element element = elements.removeLast();
+                    endElement(element);
+                    if (element.buffer != null) {
+                        elements.getLast().last = element;
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    if (!elements.isEmpty()) {
+                        Element element = elements.getLast();
+                        if (element.mode == Mode.PENDING || element.mode == Mode.OBJECT) {
+                            if (element.text == null) {
+                                element.text = new StringBuilder();
+                            }
+                            element.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            account(elements, element, reader.getTextLength());
+                        }
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+            json.close();
+        }
+    }
+
+    private void startElement(XMLStreamReader reader, JsonGenerator json, LinkedList<Element> elements) throws IOException {
+        Element parent = elements.isEmpty() ? null : elements.getLast();
+        String name = getName(reader.getPrefix(), reader.getLocalName(), removeNamespacePrefixes);
+        Element element = new Element(name, parent);
+        elements.add(element);
+
+        if (parent == null) {
+            element.json = json;
+            if (forceTopLevelObject) {
+                json.writeStartObject();
+                json.writeFieldName(name);
+            }
+        } else if (parent.mode == Mode.NULL || parent.mode == Mode.SKIP) {
+            // the content of a null element is ignored
+            element.mode = Mode.SKIP;
+            return;
+        } else {
+            element.json = parent.json;
+            if (parent.mode == Mode.PENDING) {
+                startObject(parent);
+            }
+            if (parent.mode == Mode.OBJECT) {
+                writeText(parent);
+                if (name.equals(parent.streamed)) {
+                    throw new JsonGenerationException("Cannot convert element " + parent.name + " as its child element " + name
+                        + " is too large to be buffered to find out whether it is repeated, configure " + name
+                        + " as an expandable property instead");
+                }
+                parent.streamed = null;
+                if (parent.last != null && name.equals(parent.last.name)) {
+                    // the buffered sibling starts a run
+                    parent.json.writeFieldName(name);
+                    parent.json.writeStartArray();
+                    parent.last.buffer.serialize(parent.json);
+                    parent.last = null;
+                    parent.run = name;
+                } else if (!name.equals(parent.run)) {
+                    closeRun(parent);
+                    if (parent.keys == null) {
+                        parent.keys = new HashSet<String>();
+                    }
+                    if (!parent.keys.add(name)) {
+                        throw new JsonGenerationException("Cannot convert element " + parent.name + " as its child elements "
+                            + name + " are not adjacent, which would result in duplicate keys");
+                    }
+                    if (expandableProperties.contains(name)) {
+                        parent.json.writeFieldName(name);
+                        parent.json.writeStartArray();
+                        parent.run = name;
+                    } else {
+                        element.buffer = new TokenBuffer(null);
+                        element.json = element.buffer;
+                    }
+                }
+            }
+            element.owner = element.buffer != null ? element : parent.owner;
+        }
+
+        List<String> attributes = new ArrayList<String>();
+        if (!skipNamespaces) {
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                attributes.add(prefix == null || prefix.length() == 0 ? "xmlns" : "xmlns:" + prefix);
+                attributes.add(reader.getNamespaceURI(i));
+            }
+        }
+        String clazz = null;
+        int size = name.length();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attribute = getName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i), false);
+            String value = reader.getAttributeValue(i);
+            size += attribute.length() + value.length();
+            if (typeHints && typeAttribute.equals(attribute)) {
+                element.type = value;
+            } else if (typeHints && classAttribute.equals(attribute)) {
+                clazz = value;
+            } else if (nullAttribute.equals(attribute) && "true".equals(value)) {
+                element.mode = Mode.NULL;
+            } else {
+                attributes.add(attribute);
+                attributes.add(value);
+            }
+        }
+
+        account(elements, element, size);
+
+        if (element.mode == Mode.NULL) {
+            return;
+        }
+        if ("array".equals(clazz)) {
+            element.json.writeStartArray();
+            element.mode = Mode.ARRAY;
+        } else if ("object".equals(clazz) || !attributes.isEmpty()) {
+            startObject(element);
+            for (int i = 0; i < attributes.size(); i += 2) {
+                element.json.writeStringField("@" + attributes.get(i), attributes.get(i + 1));
+            }
+        }
+    }
+
+    private void endElement(Element element) throws IOException {
+        JsonGenerator json = element.json;
+        switch (element.mode) {
+        case NULL:
+            json.writeNull();
+            break;
+        case PENDING:
+            String text = getText(element);
+            if (text == null) {
+                // same as json-lib which converts empty elements to empty arrays
+                json.writeStartArray();
+                json.writeEndArray();
+            } else if (element.root) {
+                // same as json-lib which converts a root element with only text to an array
+                json.writeStartArray();
+                writeValue(json, element.type, text);
+                json.writeEndArray();
+            } else {
+                writeValue(json, element.type, text);
+            }
+            break;
+        case OBJECT:
+            writeText(element);
+            closeRun(element);
+            json.writeEndObject();
+            break;
+        case ARRAY:
+            json.writeEndArray();
+            break;
+        default:
+            break;
+        }
+
+        if (element.root && forceTopLevelObject) {
+            json.writeEndObject();
+        }
+    }
+
+    private void account(LinkedList<Element> elements, Element element, int size) throws IOException {
+        // the buffers may be nested, and the outer buffers holds the content of the inner buffers as well
+        for (Element owner = element.owner; owner != null; owner = owner.parent.owner) {
+            if (owner.buffer != null) {
+                owner.buffered += size;
+                if (owner.buffered > MAX_BUFFERED_CHARS) {
+                    flush(elements, owner);
+                }
+            }
+        }
+    }
+
+    private void flush(LinkedList<Element> elements, Element owner) throws IOException {
+        // too large to buffer so write the element as a single value and stream the rest of it
+        Element parent = owner.parent;
+        JsonGenerator json = parent.json;
+        json.writeFieldName(owner.name);
+        owner.buffer.serialize(json);
+        for (Element open : elements) {
+            if (open.json == owner.buffer) {
+                open.json = json;
+            }
+        }
+        owner.buffer = null;
+        parent.streamed = owner.name;
+    }
+
+    private void startObject(Element element) throws IOException {
+        element.json.writeStartObject();
+        element.mode = Mode.OBJECT;
+    }
+
+    private void closeRun(Element element) throws IOException {
+        if (element.last != null) {
+            // the buffered child element is not followed by a sibling with the same name
+            element.json.writeFieldName(element.last.name);
+            element.last.buffer.serialize(element.json);
+            element.last = null;
+        }
+        if (element.run != null) {
+            element.json.writeEndArray();
+            element.run = null;
+        }
+    }
+
+    private void writeText(Element element) throws IOException {
+        // whitespace between the child elements is ignored
+        if (element.text != null && !isWhitespace(element.text)) {
+            closeRun(element);
+            element.json.writeStringField("#text", trimSpaces ? element.text.toString().trim() : element.text.toString());
+        }
+        element.text = null;
+    }
+
+    private void writeValue(JsonGenerator json, String type, String text) throws IOException {
+        if ("number".equals(type)) {
+            try {
+                json.writeNumber(new BigDecimal(text.trim()));
+                return;
+            } catch (NumberFormatException e) {
+                // not a number so write it as a string
+            }
+        } else if ("boolean".equals(type)) {
+            json.writeBoolean(Boolean.valueOf(text.trim()));
+            return;
+        }
+        json.writeString(text);
+    }
+
+    private String getText(Element element) {
+        if (element.text == null || element.text.length() == 0 || (skipWhitespace && isWhitespace(element.text))) {
+            return null;
+        }
+        return trimSpaces ? element.text.toString().trim() : element.text.toString();
+    }
+
+    private static String getName(String prefix, String localName, boolean removePrefix) {
+        if (removePrefix || prefix == null || prefix.length() == 0) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private static boolean isWhitespace(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // JSON to XML
+    // -------------------------------------------------------------------------
+
+    /**
+     * Converts the JSON document read from the given stream to XML written to the given writer.
+     * The stream is not closed. Attributes (the <tt>@</tt> keys) must come before the other keys of their object.
+     */
+    public void toXml(InputStream stream, XMLStreamWriter writer, String encoding) throws XMLStreamException, IOException {
+        JsonParser parser = jsonFactory.createJsonParser(stream);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new JsonParseException("No JSON content to convert", parser.getCurrentLocation());
+            }
+            String name = rootName;
+            if (name == null) {
+                name = token == JsonToken.START_ARRAY ? arrayName : objectName;
+            }
+
+            writer.writeStartDocument(encoding, "1.0");
+            writeElement(parser, token, name, writer, namespaces.get(""));
+            writer.writeEndDocument();
+            writer.flush();
+        } finally {
+            parser.close();
+            writer.close();
+        }
+    }
+
+    private void writeElement(JsonParser parser, JsonToken token, String name, XMLStreamWriter writer,
+                              Map<String, String> elementNamespaces) throws XMLStreamException, IOException {
+        writer.writeStartElement(name);
+        if (elementNamespaces != null) {
+            for (Map.Entry<String, String> entry : elementNamespaces.entrySet()) {
+                if (entry.getKey() == null || entry.getKey().length() == 0) {
+                    writer.writeDefaultNamespace(entry.getValue());
+                } else {
+                    writer.writeNamespace(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        switch (token) {
+        case START_OBJECT:
+            writeTypeHint(writer, classAttribute, "object");
+            while (parser.nextToken() != JsonToken.END_OBJECT) {
+                String key = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (key.startsWith("@")) {
+                    writer.writeAttribute(key.substring(1), getText(parser, value));
+                } else if ("#text".equals(key)) {
+                    writer.writeCharacters(getText(parser, value));
+                } else if (value == JsonToken.START_ARRAY && expandableProperties.contains(key)) {
+                    // the elements of the array are written as repeated elements named after the key
+                    while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        writeElement(parser, value, key, writer, namespaces.get(key));
+                    }
+                } else {
+                    writeElement(parser, value, key, writer, namespaces.get(key));
+                }
+            }
+            break;
+        case START_ARRAY:
+            writeTypeHint(writer, classAttribute, "array");
+            JsonToken value;
+            while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+                writeElement(parser, value, elementName, writer, namespaces.get(elementName));
+            }
+            break;
+        case VALUE_NULL:
+            writeTypeHint(writer, classAttribute, "object");
+            writer.writeAttribute(nullAttribute, "true");
+            break;
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+            writeTypeHint(writer, typeAttribute, "boolean");
+            writer.writeCharacters(parser.getText());
+            break;
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            writeTypeHint(writer, typeAttribute, "number");
+            writer.writeCharacters(parser.getText());
+            break;
+        default:
+            writeTypeHint(writer, typeAttribute, "string");
+            writer.writeCharacters(parser.getText());
+            break;
+        }
+
+        writer.writeEndElement();
+    }
+
+    private void writeTypeHint(XMLStreamWriter writer, String attribute, String value) throws XMLStreamException {
+        if (typeHints) {
+            writer.writeAttribute(attribute, value);
+        }
+    }
+
+    private static String getText(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            // structures can not be mapped to attributes or text, so they are skipped
+            parser.skipChildren();
+            return "";
+        }
+        return token == JsonToken.VALUE_NULL ? "" : parser.getText();
+    }
+
+}
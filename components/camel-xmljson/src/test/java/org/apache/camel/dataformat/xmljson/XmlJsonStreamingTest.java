@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.xmljson;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import net.sf.json.JSON;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import net.sf.json.JSONSerializer;
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.StreamCache;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.codehaus.jackson.JsonGenerationException;
+import org.junit.Test;
+
+/**
+ * Testing the streaming conversion of the XML JSON data format
+ */
+public class XmlJsonStreamingTest extends CamelTestSupport {
+
+    @Test
+    public void testMarshalSameAsTree() throws Exception {
+        String in = readResource("testMessage1.xml");
+
+        JSON expected = toJSON(template.requestBody("direct:marshalTree", in));
+        JSON actual = toJSON(template.requestBody("direct:marshal", in));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testMarshalTopLevelObjectAndNamespaces() throws Exception {
+        String in = readResource("testMessage2-namespaces.xml");
+
+        JSONObject obj = (JSONObject) toJSON(template.requestBody("direct:marshalOptions", in));
+        assertEquals("JSON must contain 1 top-level element", 1, obj.entrySet().size());
+        JSONObject root = obj.getJSONObject("root");
+        for (Object key : root.keySet()) {
+            assertFalse("A key contains a colon", ((String) key).contains(":"));
+        }
+        assertEquals("Raul", root.getString("name"));
+        assertEquals("c.a.1", root.getJSONObject("c").getString("a"));
+        assertEquals(Arrays.asList("b", "c"), root.getJSONArray("d"));
+    }
+
+    @Test
+    public void testMarshalTypeHints() throws Exception {
+        String in = "<o><a type=\"number\">1</a><b type=\"boolean\">true</b><c class=\"array\"><e type=\"string\">x</e></c>"
+            + "<n null=\"true\"/><m id=\"1\">text</m></o>";
+
+        JSONObject obj = (JSONObject) toJSON(template.requestBody("direct:marshalTypeHints", in));
+        assertEquals(1, obj.getInt("a"));
+        assertEquals(true, obj.getBoolean("b"));
+        assertEquals(JSONArray.fromObject(new String[] {"x"}), obj.getJSONArray("c"));
+        assertTrue(obj.getJSONObject("n").isNullObject());
+        assertEquals("1", obj.getJSONObject("m").getString("@id"));
+        assertEquals("text", obj.getJSONObject("m").getString("#text"));
+    }
+
+    @Test
+    public void testMarshalRepeatedElements() throws Exception {
+        String in = "<o><a>1</a><b><c>x</c></b><b><c>y</c></b><b><c>z</c></b><d>2</d><e>3</e><e>4</e></o>";
+
+        JSONObject obj = (JSONObject) toJSON(template.requestBody("direct:marshalTypeHints", in));
+        assertEquals(4, obj.size());
+        assertEquals("1", obj.getString("a"));
+        JSONArray b = obj.getJSONArray("b");
+        assertEquals(3, b.size());
+        assertEquals("z", b.getJSONObject(2).getString("c"));
+        assertEquals("2", obj.getString("d"));
+        assertEquals(Arrays.asList("3", "4"), obj.getJSONArray("e"));
+    }
+
+    @Test
+    public void testMarshalRepeatedElementsNotAdjacent() throws Exception {
+        try {
+            template.requestBody("direct:marshalTypeHints", "<o><a>1</a><b>2</b><a>3</a></o>");
+            fail("Should have thrown an exception");
+        } catch (CamelExecutionException e) {
+            assertIsInstanceOf(JsonGenerationException.class, e.getCause());
+        }
+    }
+
+    @Test
+    public void testMarshalLargeElement() throws Exception {
+        String large = largeText();
+        String in = "<o><a><b>" + large + "</b><c>1</c></a><d>2</d></o>";
+
+        JSONObject obj = (JSONObject) toJSON(template.requestBody("direct:marshalTypeHints", in));
+        assertEquals(large, obj.getJSONObject("a").getString("b"));
+        assertEquals("1", obj.getJSONObject("a").getString("c"));
+        assertEquals("2", obj.getString("d"));
+    }
+
+    @Test
+    public void testMarshalLargeRepeatedElements() throws Exception {
+        String large = largeText();
+        String in = "<o><a><b>" + large + "</b></a><a><b>x</b></a></o>";
+        try {
+            template.requestBody("direct:marshalTypeHints", in);
+            fail("Should have thrown an exception");
+        } catch (CamelExecutionException e) {
+            JsonGenerationException cause = assertIsInstanceOf(JsonGenerationException.class, e.getCause());
+            assertTrue(cause.getMessage().contains("configure a as an expandable property"));
+        }
+
+        // an expandable property always starts an array so nothing is buffered
+        in = "<orders><order><b>" + large + "</b></order><order><b>x</b></order></orders>";
+        JSONObject obj = (JSONObject) toJSON(template.requestBody("direct:marshalOrders", in));
+        assertEquals(large, obj.getJSONArray("order").getJSONObject(0).getString("b"));
+        assertEquals("x", obj.getJSONArray("order").getJSONObject(1).getString("b"));
+    }
+
+    @Test
+    public void testUnmarshal() throws Exception {
+        String in = readResource("testMessage1.json");
+
+        Object xml = template.requestBody("direct:unmarshal", in);
+        assertIsInstanceOf(StreamCache.class, xml);
+
+        Document document = context.getTypeConverter().convertTo(Document.class, xml);
+        Element root = document.getDocumentElement();
+        assertEquals("newRoot", root.getLocalName());
+        assertEquals(3, root.getElementsByTagName("d").getLength());
+        assertEquals(3, root.getElementsByTagName("e").getLength());
+        assertEquals("c.b.2", ((Element) root.getElementsByTagName("c").item(0)).getElementsByTagName("b").item(0).getTextContent());
+        assertEquals("true", ((Element) root.getElementsByTagName("g").item(0)).getAttribute("null"));
+    }
+
+    @Test
+    public void testLargeDocumentRoundTrip() throws Exception {
+        StringBuilder sb = new StringBuilder("<orders>");
+        for (int i = 0; i < 10000; i++) {
+            sb.append("<order id=\"").append(i).append("\"><item>item").append(i).append("</item><amount>")
+                .append(i * 2).append("</amount></order>");
+        }
+        sb.append("</orders>");
+
+        Object json = template.requestBody("direct:marshalOrders", sb.toString());
+        JSONArray orders = ((JSONObject) toJSON(json)).getJSONArray("order");
+        assertEquals(10000, orders.size());
+        assertEquals("item9999", orders.getJSONObject(9999).getString("item"));
+
+        Document document = template.requestBody("direct:unmarshalOrders", json, Document.class);
+        assertEquals(10000, document.getDocumentElement().getElementsByTagName("order").getLength());
+        assertEquals("9999", ((Element) document.getDocumentElement().getElementsByTagName("order").item(9999)).getAttribute("id"));
+    }
+
+    private String readResource(String name) {
+        InputStream inStream = getClass().getClassLoader().getResourceAsStream("org/apache/camel/dataformat/xmljson/" + name);
+        return context.getTypeConverter().convertTo(String.class, inStream);
+    }
+
+    private JSON toJSON(Object json) {
+        return JSONSerializer.toJSON(context.getTypeConverter().convertTo(String.class, json));
+    }
+
+    private static String largeText() {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() <= XmlJsonStreamingConverter.MAX_BUFFERED_CHARS) {
+            sb.append("0123456789");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                XmlJsonDataFormat tree = new XmlJsonDataFormat();
+                from("direct:marshalTree").marshal(tree);
+
+                XmlJsonDataFormat format = new XmlJsonDataFormat();
+                format.setStreaming(true);
+                format.setExpandableProperties(Arrays.asList("d", "e"));
+                format.setRootName("newRoot");
+                from("direct:marshal").marshal(format);
+                from("direct:unmarshal").unmarshal(format);
+
+                XmlJsonDataFormat options = new XmlJsonDataFormat();
+                options.setStreaming(true);
+                options.setForceTopLevelObject(true);
+                options.setTrimSpaces(true);
+                options.setSkipNamespaces(true);
+                options.setRemoveNamespacePrefixes(true);
+                options.setExpandableProperties(Arrays.asList("d", "e"));
+                from("direct:marshalOptions").marshal(options);
+
+                XmlJsonDataFormat typeHints = new XmlJsonDataFormat();
+                typeHints.setStreaming(true);
+                typeHints.setTypeHints(TypeHintsEnum.YES.name());
+                from("direct:marshalTypeHints").marshal(typeHints);
+
+                XmlJsonDataFormat orders = new XmlJsonDataFormat();
+                orders.setStreaming(true);
+                List<String> expandable = new ArrayList<String>();
+                expandable.add("order");
+                orders.setExpandableProperties(expandable);
+                orders.setRootName("orders");
+                from("direct:marshalOrders").marshal(orders);
+                // the result spools to a temporary file which is deleted when the exchange is done
+                from("direct:unmarshalOrders").unmarshal(orders).convertBodyTo(Document.class);
+            }
+        };
+    }
+
+}
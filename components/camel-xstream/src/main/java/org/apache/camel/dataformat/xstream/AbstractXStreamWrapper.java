@@ -17,12 +17,15 @@
 package org.apache.camel.dataformat.xstream;
 
 import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -32,10 +35,14 @@ import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
 import org.apache.camel.Exchange;
 import org.apache.camel.converter.jaxp.StaxConverter;
 import org.apache.camel.spi.ClassResolver;
 import org.apache.camel.spi.DataFormat;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.ObjectHelper;
 
 /**
@@ -44,15 +51,17 @@ import org.apache.camel.util.ObjectHelper;
  *
  * @version 
  */
-public abstract class AbstractXStreamWrapper implements DataFormat {
+public abstract class AbstractXStreamWrapper extends ServiceSupport implements DataFormat, CamelContextAware {
     
-    private XStream xstream;
+    private CamelContext camelContext;
+    private volatile XStream xstream;
     private HierarchicalStreamDriver xstreamDriver;
     private StaxConverter staxConverter;
     private List<String> converters;
     private Map<String, String> aliases;
     private Map<String, String[]> omitFields;
     private Map<String, String[]> implicitCollections;
+    private boolean streaming;
 
     public AbstractXStreamWrapper() {
     }
@@ -62,10 +71,18 @@ public abstract class AbstractXStreamWrapper implements DataFormat {
     }
     
     public XStream getXStream(ClassResolver resolver) {
-        if (xstream == null) {
-            xstream = createXStream(resolver);
+        XStream answer = xstream;
+        if (answer == null) {
+            // the xstream instance must be fully configured before it is used by other threads
+            synchronized (this) {
+                answer = xstream;
+                if (answer == null) {
+                    answer = createXStream(resolver);
+                    xstream = answer;
+                }
+            }
         }
-        return xstream;
+        return answer;
     }
 
     public void setXStream(XStream xstream) {
@@ -73,31 +90,39 @@ public abstract class AbstractXStreamWrapper implements DataFormat {
     }
 
     protected XStream createXStream(ClassResolver resolver) {
+        XStream xstream;
         if (xstreamDriver != null) {
             xstream = new XStream(xstreamDriver);
         } else {
             xstream = new XStream();
         }
 
+        Set<Class<?>> types = new LinkedHashSet<Class<?>>();
         try {
             if (this.implicitCollections != null) {
                 for (Entry<String, String[]> entry : this.implicitCollections.entrySet()) {
                     for (String name : entry.getValue()) {
-                        xstream.addImplicitCollection(resolver.resolveMandatoryClass(entry.getKey()), name);
+                        Class<?> type = resolver.resolveMandatoryClass(entry.getKey());
+                        xstream.addImplicitCollection(type, name);
+                        types.add(type);
                     }
                 }
             }
 
             if (this.aliases != null) {
                 for (Entry<String, String> entry : this.aliases.entrySet()) {
-                    xstream.alias(entry.getKey(), resolver.resolveMandatoryClass(entry.getValue()));
+                    Class<?> type = resolver.resolveMandatoryClass(entry.getValue());
+                    xstream.alias(entry.getKey(), type);
+                    types.add(type);
                 }
             }
 
             if (this.omitFields != null) {
                 for (Entry<String, String[]> entry : this.omitFields.entrySet()) {
                     for (String name : entry.getValue()) {
-                        xstream.omitField(resolver.resolveMandatoryClass(entry.getKey()), name);
+                        Class<?> type = resolver.resolveMandatoryClass(entry.getKey());
+                        xstream.omitField(type, name);
+                        types.add(type);
                     }
                 }
             }
@@ -130,6 +155,12 @@ public abstract class AbstractXStreamWrapper implements DataFormat {
                     xstream.registerConverter(converter);
                 }
             }
+
+            // lookup the converters of the configured types up front, so xstream has them cached
+            // before the first message is marshalled
+            for (Class<?> type : types) {
+                xstream.getConverterLookup().lookupConverterForType(type);
+            }
         } catch (Exception e) {
             throw new RuntimeException("Unable to build XStream instance", e);
         }
@@ -196,6 +227,29 @@ public abstract class AbstractXStreamWrapper implements DataFormat {
         this.xstream = xstream;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether to unmarshal the child elements of the root element one at a time.
+     * <p/>
+     * When enabled, unmarshal returns an {@link java.util.Iterator} which unmarshals the next child element of the
+     * root element (for example each element of a marshalled list) only when it is requested, which allows to split
+     * large collections without creating all the objects up front.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
     public void marshal(Exchange exchange, Object body, OutputStream stream) throws Exception {
         HierarchicalStreamWriter writer = createHierarchicalStreamWriter(exchange, body, stream);
         try {
@@ -207,6 +261,20 @@ public abstract class AbstractXStreamWrapper implements DataFormat {
 
     public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
         HierarchicalStreamReader reader = createHierarchicalStreamReader(exchange, stream);
+        if (streaming) {
+            ObjectInputStream in;
+            try {
+                in = getXStream(exchange.getContext().getClassResolver()).createObjectInputStream(reader);
+            } catch (Exception e) {
+                reader.close();
+                throw e;
+            }
+            XStreamIterator answer = new XStreamIterator(in, stream);
+            // make sure the stream is closed when the exchange is done, even if not all objects have been read
+            ExchangeHelper.closeOnCompletion(exchange, answer);
+            return answer;
+        }
+
         try {
             return getXStream(exchange.getContext().getClassResolver()).unmarshal(reader);
         } finally {
@@ -214,6 +282,19 @@ public abstract class AbstractXStreamWrapper implements DataFormat {
         }
     }
 
+    @Override
+    protected void doStart() throws Exception {
+        // create and configure xstream when starting, instead of when the first message is processed
+        if (camelContext != null) {
+            getXStream(camelContext.getClassResolver());
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // noop
+    }
+
     protected abstract HierarchicalStreamWriter createHierarchicalStreamWriter(
             Exchange exchange, Object body, OutputStream stream) throws XMLStreamException;
 
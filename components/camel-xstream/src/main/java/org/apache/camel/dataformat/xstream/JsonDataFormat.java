@@ -45,6 +45,8 @@ import org.codehaus.jettison.mapped.MappedXMLOutputFactory;
 public class JsonDataFormat extends AbstractXStreamWrapper {
     private final MappedXMLOutputFactory mof;
     private final MappedXMLInputFactory mif;
+    // the name map is only read when reading and writing, so it can be shared
+    private final QNameMap qnameMap = new QNameMap();
     
     public JsonDataFormat() {
         final Map<?, ?> nstjsons = new HashMap<Object, Object>();
@@ -60,10 +62,10 @@ public class JsonDataFormat extends AbstractXStreamWrapper {
     }
 
     protected HierarchicalStreamWriter createHierarchicalStreamWriter(Exchange exchange, Object body, OutputStream stream) throws XMLStreamException {        
-        return new StaxWriter(new QNameMap(), mof.createXMLStreamWriter(stream));
+        return new StaxWriter(qnameMap, mof.createXMLStreamWriter(stream));
     }
 
     protected HierarchicalStreamReader createHierarchicalStreamReader(Exchange exchange, InputStream stream) throws XMLStreamException {        
-        return new StaxReader(new QNameMap(), mif.createXMLStreamReader(stream));
+        return new StaxReader(qnameMap, mif.createXMLStreamReader(stream));
     }
 }
@@ -43,6 +43,8 @@ import org.apache.camel.util.IOHelper;
  */
 public class XStreamDataFormat extends AbstractXStreamWrapper  {
     String encoding;
+    // the name map is only read when reading and writing, so it can be shared
+    private final QNameMap qnameMap = new QNameMap();
     
     public XStreamDataFormat() {
     }
@@ -96,7 +98,7 @@ public class XStreamDataFormat extends AbstractXStreamWrapper  {
             return getXstreamDriver().createWriter(stream);
         }
         XMLStreamWriter xmlWriter = getStaxConverter().createXMLStreamWriter(stream, exchange);
-        return new StaxWriter(new QNameMap(), xmlWriter);
+        return new StaxWriter(qnameMap, xmlWriter);
     }
 
     protected HierarchicalStreamReader createHierarchicalStreamReader(Exchange exchange, InputStream stream) throws XMLStreamException {
@@ -105,6 +107,6 @@ public class XStreamDataFormat extends AbstractXStreamWrapper  {
             return getXstreamDriver().createReader(stream);
         }
         XMLStreamReader xmlReader = getStaxConverter().createXMLStreamReader(stream, exchange);
-        return new StaxReader(new QNameMap(), xmlReader);
+        return new StaxReader(qnameMap, xmlReader);
     }
 }
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.xstream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.Iterator;
+
+import org.apache.camel.support.LazyCloseableIterator;
+
+/**
+ * An {@link Iterator} which unmarshals the child elements of the root element one at a time,
+ * using the {@link ObjectInputStream} created by XStream.
+ * <p/>
+ * Child elements which unmarshal to <tt>null</tt> are skipped. The stream is closed when there
+ * are no more child elements, or when the iterator is closed.
+ *
+ * @version 
+ */
+public class XStreamIterator extends LazyCloseableIterator<Object> {
+
+    private final ObjectInputStream in;
+    private final InputStream stream;
+
+    public XStreamIterator(ObjectInputStream in, InputStream stream) {
+        this.in = in;
+        this.stream = stream;
+    }
+
+    @Override
+    protected Object readNext() throws Exception {
+        try {
+            Object answer = in.readObject();
+            while (answer == null) {
+                answer = in.readObject();
+            }
+            return answer;
+        } catch (EOFException e) {
+            // no more child elements
+            return null;
+        }
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        try {
+            // closes the xstream reader
+            in.close();
+        } finally {
+            stream.close();
+        }
+    }
+
+}
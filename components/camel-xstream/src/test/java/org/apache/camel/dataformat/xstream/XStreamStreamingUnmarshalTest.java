@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.dataformat.xstream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class XStreamStreamingUnmarshalTest extends CamelTestSupport {
+
+    @Test
+    public void testStreamingUnmarshalXml() throws Exception {
+        doTestStreamingUnmarshal("direct:xml");
+    }
+
+    @Test
+    public void testStreamingUnmarshalJson() throws Exception {
+        doTestStreamingUnmarshal("direct:json");
+    }
+
+    @Test
+    public void testStreamingUnmarshalEmptyList() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:order");
+        mock.expectedMessageCount(0);
+
+        template.sendBody("direct:xml", new ArrayList<PurchaseOrder>());
+
+        assertMockEndpointsSatisfied();
+    }
+
+    private void doTestStreamingUnmarshal(String uri) throws Exception {
+        List<PurchaseOrder> orders = new ArrayList<PurchaseOrder>();
+        for (int i = 0; i < 10; i++) {
+            PurchaseOrder order = new PurchaseOrder();
+            order.setName("Beer" + i);
+            order.setAmount(i);
+            order.setPrice(i * 2);
+            orders.add(order);
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:order");
+        mock.expectedBodiesReceived(orders.toArray());
+
+        template.sendBody(uri, orders);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                XStreamDataFormat xml = new XStreamDataFormat();
+                xml.setStreaming(true);
+
+                JsonDataFormat json = new JsonDataFormat();
+                json.setStreaming(true);
+
+                from("direct:xml").marshal(xml).unmarshal(xml)
+                    .split(body()).streaming()
+                        .to("mock:order");
+
+                from("direct:json").marshal(json).unmarshal(json)
+                    .split(body()).streaming()
+                        .to("mock:order");
+            }
+        };
+    }
+
+}